@@ -0,0 +1,63 @@
+package com.valueinvestor.benchmark;
+
+import com.valueinvestor.model.entity.StockFundamentals;
+import com.valueinvestor.service.AnalysisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule-based scoring of a 500-stock universe (the fallback used when Ollama is unavailable).
+ * Pure computation, so no application context is started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisScoringBenchmark {
+
+    private static final int UNIVERSE_SIZE = 500;
+
+    private StockFundamentals[] universe;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        universe = new StockFundamentals[UNIVERSE_SIZE];
+        for (int i = 0; i < UNIVERSE_SIZE; i++) {
+            StockFundamentals fundamentals = new StockFundamentals((1100 + i) + ".TW", "Bench " + i);
+            // Leave some fields unset, as the screener does for thinly covered stocks
+            if (i % 7 != 0) {
+                fundamentals.setDividendYield(BigDecimal.valueOf(random.nextInt(1000), 2));
+            }
+            if (i % 5 != 0) {
+                fundamentals.setPeRatio(BigDecimal.valueOf(random.nextInt(4000), 2));
+            }
+            if (i % 3 != 0) {
+                fundamentals.setRoe(BigDecimal.valueOf(random.nextInt(3000), 2));
+            }
+            universe[i] = fundamentals;
+        }
+    }
+
+    @Benchmark
+    public void ruleBasedScore(Blackhole blackhole) {
+        for (StockFundamentals fundamentals : universe) {
+            blackhole.consume(AnalysisService.ruleBasedScore(fundamentals));
+        }
+    }
+}
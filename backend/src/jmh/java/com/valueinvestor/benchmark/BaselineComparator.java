@@ -0,0 +1,96 @@
+package com.valueinvestor.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file with the checked-in baseline and exits non-zero on a regression.
+ * A benchmark regresses when its score is worse than the baseline by more than the threshold percentage:
+ * slower for time-per-operation modes, fewer operations for throughput. Benchmarks missing from the
+ * baseline are reported as new and never fail the run. A missing or empty baseline fails the run, since
+ * nothing would be compared against it.
+ *
+ * Usage: BaselineComparator &lt;result.json&gt; &lt;baseline.json&gt; [thresholdPct]
+ */
+public final class BaselineComparator {
+
+    private static final double DEFAULT_THRESHOLD_PCT = 20.0;
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <result.json> <baseline.json> [thresholdPct]");
+            System.exit(2);
+        }
+        double threshold = (args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PCT) / 100.0;
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> current = index(mapper.readTree(new File(args[0])));
+        File baselineFile = new File(args[1]);
+        Map<String, JsonNode> baseline = baselineFile.isFile()
+                ? index(mapper.readTree(baselineFile)) : Map.of();
+        if (baseline.isEmpty()) {
+            System.err.printf("Baseline %s has no results: run the benchmarks on this machine and copy "
+                    + "target/jmh-result.json over it before comparing%n", baselineFile);
+            System.exit(2);
+        }
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            String name = entry.getKey();
+            double score = score(entry.getValue());
+            String unit = entry.getValue().path("primaryMetric").path("scoreUnit").asText();
+            JsonNode base = baseline.get(name);
+            if (base == null) {
+                System.out.printf("NEW        %-80s %12.3f %s%n", name, score, unit);
+                continue;
+            }
+
+            double baseScore = score(base);
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore;
+            boolean throughput = "thrpt".equals(entry.getValue().path("mode").asText());
+            boolean regressed = throughput ? score < baseScore * (1 - threshold) : score > baseScore * (1 + threshold);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %-80s %12.3f %s (baseline %.3f, %+.1f%%)%n",
+                    regressed ? "REGRESSED" : "OK", name, score, unit, baseScore, change * 100);
+        }
+
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("NOT RUN    %s%n", name);
+            }
+        }
+
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Results keyed by benchmark name plus mode and any @Param values
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(" [").append(result.path("mode").asText()).append(']');
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            byName.put(key.toString(), result);
+        }
+        return byName;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+}
@@ -0,0 +1,47 @@
+package com.valueinvestor.benchmark;
+
+import com.valueinvestor.model.entity.PositionHistory;
+import com.valueinvestor.service.PortfolioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard reads: cash balance and current holdings over the seeded transaction history
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioBenchmark {
+
+    private PortfolioService portfolioService;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        portfolioService = db.bean(PortfolioService.class);
+    }
+
+    @Benchmark
+    public BigDecimal getCashBalance() {
+        return portfolioService.getCashBalance();
+    }
+
+    @Benchmark
+    public List<PositionHistory> getCurrentPortfolio() {
+        return portfolioService.getCurrentPortfolio();
+    }
+}
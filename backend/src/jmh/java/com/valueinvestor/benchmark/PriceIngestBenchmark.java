@@ -0,0 +1,64 @@
+package com.valueinvestor.benchmark;
+
+import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.service.PriceHistoryIngestWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The write half of HistoricalDataService downloads: one year of bars through PriceHistoryIngestWriter.
+ * freshSymbol inserts every bar under a new symbol each invocation; existingSymbol replays bars that are
+ * already stored, so every row is skipped by INSERT OR IGNORE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceIngestBenchmark {
+
+    private PriceHistoryIngestWriter writer;
+    private List<StockPriceHistory> existingBars;
+    private String existingSymbol;
+    private List<StockPriceHistory> freshBars;
+    private int freshCounter;
+    private String freshSymbol;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase db) {
+        writer = db.bean(PriceHistoryIngestWriter.class);
+        existingSymbol = db.symbols.get(0);
+        LocalDate endDate = SeededDatabase.END_DATE;
+        existingBars = SeededDatabase.generateBars(existingSymbol, endDate.minusYears(1), endDate, 1L);
+        freshBars = SeededDatabase.generateBars("FRESH", endDate.minusYears(1), endDate, 2L);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextSymbol() {
+        freshSymbol = "B" + (freshCounter++) + ".TW";
+    }
+
+    @Benchmark
+    public PriceHistoryIngestWriter.IngestResult freshSymbol() {
+        return writer.ingest(freshSymbol, freshBars);
+    }
+
+    @Benchmark
+    public PriceHistoryIngestWriter.IngestResult existingSymbol() {
+        return writer.ingest(existingSymbol, existingBars);
+    }
+}
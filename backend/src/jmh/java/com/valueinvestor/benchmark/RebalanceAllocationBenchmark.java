@@ -0,0 +1,86 @@
+package com.valueinvestor.benchmark;
+
+import com.valueinvestor.model.entity.TransactionLog;
+import com.valueinvestor.service.CatchUpPlanner;
+import com.valueinvestor.service.MarketDataService;
+import com.valueinvestor.service.PortfolioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The RebalanceService allocation path: target weights, the as-of close lookup, and a
+ * twelve-month catch-up plan priced from the seeded history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RebalanceAllocationBenchmark {
+
+    private static final int CATCH_UP_MONTHS = 12;
+
+    private MarketDataService marketDataService;
+    private List<String> selected;
+    private List<LocalDate> months;
+    private Map<LocalDate, Map<String, BigDecimal>> closesByMonth;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        marketDataService = db.bean(MarketDataService.class);
+        selected = db.symbols.subList(0, SeededDatabase.HELD_SYMBOLS);
+
+        months = new ArrayList<>(CATCH_UP_MONTHS);
+        LocalDate first = SeededDatabase.END_DATE.withDayOfMonth(1).minusMonths(CATCH_UP_MONTHS - 1);
+        for (int i = 0; i < CATCH_UP_MONTHS; i++) {
+            months.add(first.plusMonths(i));
+        }
+
+        // Resolved up front so planCatchUp measures the planner rather than the lookups
+        closesByMonth = new HashMap<>();
+        for (LocalDate month : months) {
+            closesByMonth.put(month, lookupCloses(selected, month));
+        }
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> equalWeightAllocation() {
+        return PortfolioService.equalWeightAllocation(SeededDatabase.MONTHLY_DEPOSIT, selected);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> closesAsOf() {
+        return lookupCloses(selected, months.get(0));
+    }
+
+    @Benchmark
+    public CatchUpPlanner.Plan planCatchUp() {
+        Map<String, BigDecimal> allocation =
+                PortfolioService.equalWeightAllocation(SeededDatabase.MONTHLY_DEPOSIT, selected);
+        return CatchUpPlanner.plan(months, SeededDatabase.MONTHLY_DEPOSIT, TransactionLog.TradingMode.SIMULATION,
+                allocation, BigDecimal.ZERO, List.of(), (symbols, date) -> closesByMonth.get(date));
+    }
+
+    private Map<String, BigDecimal> lookupCloses(List<String> symbols, LocalDate date) {
+        Map<String, BigDecimal> closes = new HashMap<>();
+        marketDataService.closesAsOf(symbols, date).forEach((symbol, close) -> closes.put(symbol, close.getClose()));
+        return closes;
+    }
+}
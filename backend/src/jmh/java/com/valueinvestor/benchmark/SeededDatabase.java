@@ -0,0 +1,168 @@
+package com.valueinvestor.benchmark;
+
+import com.valueinvestor.ValueInvestorBotApplication;
+import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.model.entity.TransactionLog;
+import com.valueinvestor.service.PriceHistoryIngestWriter;
+import com.valueinvestor.service.PriceHistoryStore;
+import com.valueinvestor.service.TradingService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Application context over a fresh file-backed SQLite database filled with generated data.
+ * The database lives under target/jmh and is rebuilt for every trial, so runs are comparable:
+ * SYMBOLS symbols with YEARS years of weekday bars, and HELD_MONTHS monthly deposits each buying
+ * HELD_SYMBOLS of them in SIMULATION mode. The held symbols also get a bar for today, so quoting
+ * the portfolio reads the local price store.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    static final int SYMBOLS = 50;
+    static final int YEARS = 10;
+    static final int HELD_SYMBOLS = 10;
+    static final int HELD_MONTHS = 60;
+    static final LocalDate END_DATE = LocalDate.of(2024, 12, 31);
+    static final BigDecimal MONTHLY_DEPOSIT = new BigDecimal("16000");
+
+    private static final long SEED = 42L;
+
+    ConfigurableApplicationContext context;
+    List<String> symbols;
+    private Path databaseFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path dir = Paths.get("target", "jmh");
+        Files.createDirectories(dir);
+        databaseFile = Files.createTempFile(dir, "bench-", ".db");
+        String url = "jdbc:sqlite:" + databaseFile.toAbsolutePath();
+
+        symbols = new ArrayList<>(SYMBOLS);
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbols.add((1100 + i) + ".TW");
+        }
+        createSchema(url);
+
+        context = new SpringApplicationBuilder(ValueInvestorBotApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + url,
+                        "app.catch-up.enabled=false",
+                        "shioaji.worker.enabled=false",
+                        "spring.devtools.restart.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.valueinvestor=WARN")
+                .run();
+
+        seedPriceHistory();
+        seedTrades();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (databaseFile != null) {
+            Files.deleteIfExists(databaseFile);
+        }
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Generated weekday bars for a symbol between two dates: a seeded random walk around 100
+     */
+    static List<StockPriceHistory> generateBars(String symbol, LocalDate startDate, LocalDate endDate, long seed) {
+        Random random = new Random(seed);
+        List<StockPriceHistory> bars = new ArrayList<>();
+        double close = 50 + random.nextInt(100);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            close = Math.max(1.0, close * (1 + (random.nextGaussian() * 0.015)));
+            BigDecimal price = BigDecimal.valueOf(close).setScale(2, RoundingMode.HALF_UP);
+            bars.add(new StockPriceHistory(symbol, date, price, price, price, price,
+                    1_000_000L + random.nextInt(1_000_000), price));
+        }
+        return bars;
+    }
+
+    /**
+     * Schema plus an active stock universe, so StockUniverseService does not call the screener on startup
+     */
+    private void createSchema(String url) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO stock_universe (symbol, name, sector, market, active, added_date) VALUES (?, ?, ?, 'TW', 1, ?)")) {
+                for (String symbol : symbols) {
+                    ps.setString(1, symbol);
+                    ps.setString(2, "Bench " + symbol);
+                    ps.setString(3, "Benchmark");
+                    ps.setDate(4, java.sql.Date.valueOf(END_DATE.minusYears(YEARS)));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+
+    private void seedPriceHistory() {
+        PriceHistoryIngestWriter writer = bean(PriceHistoryIngestWriter.class);
+        LocalDate startDate = END_DATE.minusYears(YEARS);
+        for (int i = 0; i < symbols.size(); i++) {
+            String symbol = symbols.get(i);
+            List<StockPriceHistory> bars = generateBars(symbol, startDate, END_DATE, SEED + i);
+            writer.ingest(symbol, bars);
+            if (i < HELD_SYMBOLS) {
+                // A bar for today keeps dashboard quotes local instead of going out to Yahoo Finance
+                BigDecimal close = bars.get(bars.size() - 1).getClose();
+                writer.ingest(symbol, List.of(new StockPriceHistory(symbol, LocalDate.now(),
+                        close, close, close, close, 1_000_000L, close)));
+            }
+        }
+        bean(PriceHistoryStore.class).reload();
+    }
+
+    private void seedTrades() {
+        TradingService tradingService = bean(TradingService.class);
+        BigDecimal perSymbol = MONTHLY_DEPOSIT.divide(BigDecimal.valueOf(HELD_SYMBOLS), 2, RoundingMode.DOWN);
+        Random random = new Random(SEED);
+        for (int month = 0; month < HELD_MONTHS; month++) {
+            tradingService.createDeposit(MONTHLY_DEPOSIT, TransactionLog.TradingMode.SIMULATION, "Benchmark deposit");
+            for (int i = 0; i < HELD_SYMBOLS; i++) {
+                BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(100));
+                BigDecimal shares = perSymbol.divide(price, 8, RoundingMode.DOWN);
+                tradingService.executeBuy(symbols.get(i), shares, TransactionLog.TradingMode.SIMULATION, price);
+            }
+        }
+    }
+}
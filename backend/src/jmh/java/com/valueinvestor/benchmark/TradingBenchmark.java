@@ -0,0 +1,48 @@
+package com.valueinvestor.benchmark;
+
+import com.valueinvestor.model.entity.TransactionLog;
+import com.valueinvestor.service.TradingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simulated buy of a held symbol: transaction log insert, cash ledger update and the
+ * position update (TradingService.updatePosition is private, so it is measured through executeBuy).
+ * Every invocation commits a row, so the database grows slightly over the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradingBenchmark {
+
+    private static final BigDecimal QUANTITY = new BigDecimal("1");
+    private static final BigDecimal PRICE = new BigDecimal("100.00");
+
+    private TradingService tradingService;
+    private String symbol;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        tradingService = db.bean(TradingService.class);
+        symbol = db.symbols.get(0);
+    }
+
+    @Benchmark
+    public TransactionLog executeBuy() {
+        return tradingService.executeBuy(symbol, QUANTITY, TransactionLog.TradingMode.SIMULATION, PRICE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.valueinvestor.backtest;
+
+import com.valueinvestor.service.PortfolioService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a month's deposit is split across the selected stocks
+ */
+public enum AllocationScheme {
+
+    /**
+     * Same amount per stock, as the live rebalance does
+     */
+    EQUAL_WEIGHT {
+        @Override
+        public Map<String, BigDecimal> allocate(BigDecimal amount, List<String> rankedSymbols) {
+            return PortfolioService.equalWeightAllocation(amount, rankedSymbols);
+        }
+    },
+
+    /**
+     * Linearly decreasing weights by rank: with n stocks the first gets n shares of the split, the last 1
+     */
+    RANK_WEIGHTED {
+        @Override
+        public Map<String, BigDecimal> allocate(BigDecimal amount, List<String> rankedSymbols) {
+            Map<String, BigDecimal> allocation = new HashMap<>();
+            int n = rankedSymbols.size();
+            if (n == 0) {
+                return allocation;
+            }
+
+            BigDecimal totalWeight = BigDecimal.valueOf((long) n * (n + 1) / 2);
+            for (int i = 0; i < n; i++) {
+                allocation.put(rankedSymbols.get(i), amount.multiply(BigDecimal.valueOf(n - i))
+                        .divide(totalWeight, 2, RoundingMode.HALF_UP));
+            }
+            return allocation;
+        }
+    };
+
+    /**
+     * Amount per symbol; rankedSymbols is ordered best first
+     */
+    public abstract Map<String, BigDecimal> allocate(BigDecimal amount, List<String> rankedSymbols);
+}
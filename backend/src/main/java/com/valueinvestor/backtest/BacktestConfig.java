@@ -0,0 +1,72 @@
+package com.valueinvestor.backtest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Backtest request. Null fields are filled with the live strategy defaults by {@link BacktestService}.
+ */
+public class BacktestConfig {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal monthlyInvestment;
+    private Integer targetPositions;
+    private AllocationScheme allocationScheme;
+
+    public BacktestConfig() {
+    }
+
+    public BacktestConfig(LocalDate startDate, LocalDate endDate, BigDecimal monthlyInvestment, Integer targetPositions) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.monthlyInvestment = monthlyInvestment;
+        this.targetPositions = targetPositions;
+    }
+
+    public BacktestConfig(LocalDate startDate, LocalDate endDate, BigDecimal monthlyInvestment, Integer targetPositions,
+                          AllocationScheme allocationScheme) {
+        this(startDate, endDate, monthlyInvestment, targetPositions);
+        this.allocationScheme = allocationScheme;
+    }
+
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public BigDecimal getMonthlyInvestment() {
+        return monthlyInvestment;
+    }
+
+    public void setMonthlyInvestment(BigDecimal monthlyInvestment) {
+        this.monthlyInvestment = monthlyInvestment;
+    }
+
+    public Integer getTargetPositions() {
+        return targetPositions;
+    }
+
+    public void setTargetPositions(Integer targetPositions) {
+        this.targetPositions = targetPositions;
+    }
+
+    public AllocationScheme getAllocationScheme() {
+        return allocationScheme;
+    }
+
+    public void setAllocationScheme(AllocationScheme allocationScheme) {
+        this.allocationScheme = allocationScheme;
+    }
+}
@@ -0,0 +1,165 @@
+package com.valueinvestor.backtest;
+
+import com.valueinvestor.service.RebalanceService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the monthly rebalance strategy over historical closes entirely in memory.
+ * Each month mirrors RebalanceService: deposit, pick the top candidates, split the deposit
+ * by the allocation scheme (equal weight, as live, by default) and buy at the close on the
+ * rebalance date (or the nearest earlier close within PRICE_LOOKBACK_DAYS). Unlike the live
+ * catch-up path there is no fallback to later prices, so a backtest never buys at a price
+ * from the future.
+ */
+public final class BacktestEngine {
+
+    static final int PRICE_LOOKBACK_DAYS = 7;
+
+    private BacktestEngine() {
+    }
+
+    /**
+     * Run the strategy for every month from config.startDate to config.endDate (rebalancing on the 1st).
+     * All config fields must be set.
+     */
+    public static BacktestResult run(BacktestConfig config, List<String> candidates, PriceMatrix prices) {
+        long startNanos = System.nanoTime();
+        BigDecimal monthlyInvestment = config.getMonthlyInvestment();
+
+        // Fundamentals are not kept point-in-time, so the same ranked candidates apply to every month
+        List<String> selected = RebalanceService.selectTopStocks(candidates, config.getTargetPositions());
+        AllocationScheme scheme = config.getAllocationScheme() != null
+                ? config.getAllocationScheme() : AllocationScheme.EQUAL_WEIGHT;
+        Map<String, BigDecimal> allocation = scheme.allocate(monthlyInvestment, selected);
+
+        BigDecimal cash = BigDecimal.ZERO;
+        BigDecimal deposited = BigDecimal.ZERO;
+        Map<String, BigDecimal> holdings = new LinkedHashMap<>();
+        List<BacktestResult.Trade> trades = new ArrayList<>();
+        List<BacktestResult.EquityPoint> curve = new ArrayList<>();
+        int skippedBuys = 0;
+
+        for (LocalDate date = config.getStartDate().withDayOfMonth(1); !date.isAfter(config.getEndDate());
+             date = date.plusMonths(1)) {
+            if (date.isBefore(config.getStartDate())) {
+                continue;
+            }
+            int day = (int) date.toEpochDay();
+
+            if (monthlyInvestment.compareTo(BigDecimal.ZERO) > 0) {
+                cash = cash.add(monthlyInvestment);
+                deposited = deposited.add(monthlyInvestment);
+            }
+
+            for (String symbol : selected) {
+                double close = prices.closeOnOrBefore(symbol, day, day - PRICE_LOOKBACK_DAYS);
+                if (Double.isNaN(close) || close <= 0) {
+                    skippedBuys++;
+                    continue;
+                }
+
+                BigDecimal price = BigDecimal.valueOf(close);
+                BigDecimal shares = allocation.get(symbol).divide(price, 8, RoundingMode.DOWN);
+                if (shares.compareTo(BigDecimal.ZERO) <= 0) {
+                    skippedBuys++;
+                    continue;
+                }
+
+                BigDecimal totalAmount = shares.multiply(price).setScale(2, RoundingMode.HALF_UP);
+                cash = cash.subtract(totalAmount);
+                holdings.merge(symbol, shares, BigDecimal::add);
+                trades.add(new BacktestResult.Trade(date,
+                        LocalDate.ofEpochDay(prices.dayOnOrBefore(symbol, day, day - PRICE_LOOKBACK_DAYS)),
+                        symbol, shares, price, totalAmount));
+            }
+
+            BigDecimal positionsValue = markToMarket(holdings, prices, day);
+            curve.add(new BacktestResult.EquityPoint(date, cash, positionsValue,
+                    cash.add(positionsValue), deposited));
+        }
+
+        BacktestResult result = new BacktestResult();
+        result.setStartDate(config.getStartDate());
+        result.setEndDate(config.getEndDate());
+        result.setSelectedStocks(selected);
+        result.setEquityCurve(curve);
+        result.setTrades(trades);
+        result.setStats(summarize(curve, monthlyInvestment, trades.size(), skippedBuys,
+                (System.nanoTime() - startNanos) / 1_000));
+        return result;
+    }
+
+    /**
+     * Value holdings at each symbol's latest close on or before day; a symbol with no close yet counts as zero
+     */
+    private static BigDecimal markToMarket(Map<String, BigDecimal> holdings, PriceMatrix prices, int day) {
+        double value = 0.0;
+        for (Map.Entry<String, BigDecimal> holding : holdings.entrySet()) {
+            double close = prices.closeOnOrBefore(holding.getKey(), day, Integer.MIN_VALUE);
+            if (!Double.isNaN(close)) {
+                value += holding.getValue().doubleValue() * close;
+            }
+        }
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BacktestResult.Stats summarize(List<BacktestResult.EquityPoint> curve, BigDecimal monthlyInvestment,
+                                                  int tradeCount, int skippedBuys, long elapsedMicros) {
+        if (curve.isEmpty()) {
+            return new BacktestResult.Stats(0, tradeCount, skippedBuys, BigDecimal.ZERO, BigDecimal.ZERO,
+                    BigDecimal.ZERO, 0.0, 0.0, 0.0, 0.0, elapsedMicros);
+        }
+
+        // Time-weighted index: each month's return excludes the deposit made that month
+        double deposit = Math.max(0.0, monthlyInvestment.doubleValue());
+        double index = 1.0;
+        double peak = 1.0;
+        double maxDrawdown = 0.0;
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        int returns = 0;
+        double previousValue = 0.0;
+
+        for (BacktestResult.EquityPoint point : curve) {
+            double value = point.getTotalValue().doubleValue();
+            if (previousValue > 0) {
+                double monthlyReturn = (value - deposit) / previousValue - 1.0;
+                index *= 1.0 + monthlyReturn;
+                peak = Math.max(peak, index);
+                maxDrawdown = Math.max(maxDrawdown, 1.0 - index / peak);
+                sum += monthlyReturn;
+                sumSquares += monthlyReturn * monthlyReturn;
+                returns++;
+            }
+            previousValue = value;
+        }
+
+        BacktestResult.EquityPoint first = curve.get(0);
+        BacktestResult.EquityPoint last = curve.get(curve.size() - 1);
+        double years = ChronoUnit.DAYS.between(first.getDate(), last.getDate()) / 365.25;
+        double annualizedReturn = years > 0 && index > 0 ? Math.pow(index, 1.0 / years) - 1.0 : 0.0;
+        double volatility = 0.0;
+        if (returns > 1) {
+            double mean = sum / returns;
+            double variance = (sumSquares - returns * mean * mean) / (returns - 1);
+            volatility = Math.sqrt(Math.max(0.0, variance)) * Math.sqrt(12);
+        }
+
+        BigDecimal deposited = last.getTotalDeposited();
+        double totalReturn = deposited.signum() > 0
+                ? last.getTotalValue().subtract(deposited).doubleValue() / deposited.doubleValue()
+                : 0.0;
+
+        return new BacktestResult.Stats(curve.size(), tradeCount, skippedBuys, deposited, last.getTotalValue(),
+                last.getCash(), totalReturn * 100, annualizedReturn * 100, volatility * 100,
+                maxDrawdown * 100, elapsedMicros);
+    }
+}
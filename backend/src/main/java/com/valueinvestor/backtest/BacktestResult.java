@@ -0,0 +1,169 @@
+package com.valueinvestor.backtest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one backtest run: month-end equity curve, every simulated buy and summary statistics
+ */
+public class BacktestResult {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<String> selectedStocks = new ArrayList<>();
+    private List<EquityPoint> equityCurve = new ArrayList<>();
+    private List<Trade> trades = new ArrayList<>();
+    private Stats stats;
+
+    // Getters and setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public List<String> getSelectedStocks() {
+        return selectedStocks;
+    }
+
+    public void setSelectedStocks(List<String> selectedStocks) {
+        this.selectedStocks = selectedStocks;
+    }
+
+    public List<EquityPoint> getEquityCurve() {
+        return equityCurve;
+    }
+
+    public void setEquityCurve(List<EquityPoint> equityCurve) {
+        this.equityCurve = equityCurve;
+    }
+
+    public List<Trade> getTrades() {
+        return trades;
+    }
+
+    public void setTrades(List<Trade> trades) {
+        this.trades = trades;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public void setStats(Stats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Portfolio value on a rebalance date, after that month's deposit and buys
+     */
+    public static class EquityPoint {
+        private final LocalDate date;
+        private final BigDecimal cash;
+        private final BigDecimal positionsValue;
+        private final BigDecimal totalValue;
+        private final BigDecimal totalDeposited;
+
+        public EquityPoint(LocalDate date, BigDecimal cash, BigDecimal positionsValue,
+                           BigDecimal totalValue, BigDecimal totalDeposited) {
+            this.date = date;
+            this.cash = cash;
+            this.positionsValue = positionsValue;
+            this.totalValue = totalValue;
+            this.totalDeposited = totalDeposited;
+        }
+
+        public LocalDate getDate() { return date; }
+        public BigDecimal getCash() { return cash; }
+        public BigDecimal getPositionsValue() { return positionsValue; }
+        public BigDecimal getTotalValue() { return totalValue; }
+        public BigDecimal getTotalDeposited() { return totalDeposited; }
+    }
+
+    /**
+     * One simulated buy; priceDate is the bar actually used, which may precede the rebalance date
+     */
+    public static class Trade {
+        private final LocalDate date;
+        private final LocalDate priceDate;
+        private final String symbol;
+        private final BigDecimal shares;
+        private final BigDecimal price;
+        private final BigDecimal totalAmount;
+
+        public Trade(LocalDate date, LocalDate priceDate, String symbol, BigDecimal shares,
+                     BigDecimal price, BigDecimal totalAmount) {
+            this.date = date;
+            this.priceDate = priceDate;
+            this.symbol = symbol;
+            this.shares = shares;
+            this.price = price;
+            this.totalAmount = totalAmount;
+        }
+
+        public LocalDate getDate() { return date; }
+        public LocalDate getPriceDate() { return priceDate; }
+        public String getSymbol() { return symbol; }
+        public BigDecimal getShares() { return shares; }
+        public BigDecimal getPrice() { return price; }
+        public BigDecimal getTotalAmount() { return totalAmount; }
+    }
+
+    /**
+     * Summary statistics. Annualized return, volatility and drawdown are time-weighted
+     * (monthly deposits are stripped out), total return is simple profit over deposits.
+     */
+    public static class Stats {
+        private final int months;
+        private final int tradeCount;
+        private final int skippedBuys;
+        private final BigDecimal totalDeposited;
+        private final BigDecimal finalValue;
+        private final BigDecimal finalCash;
+        private final double totalReturnPct;
+        private final double annualizedReturnPct;
+        private final double annualizedVolatilityPct;
+        private final double maxDrawdownPct;
+        private final long elapsedMicros;
+
+        public Stats(int months, int tradeCount, int skippedBuys, BigDecimal totalDeposited,
+                     BigDecimal finalValue, BigDecimal finalCash, double totalReturnPct,
+                     double annualizedReturnPct, double annualizedVolatilityPct,
+                     double maxDrawdownPct, long elapsedMicros) {
+            this.months = months;
+            this.tradeCount = tradeCount;
+            this.skippedBuys = skippedBuys;
+            this.totalDeposited = totalDeposited;
+            this.finalValue = finalValue;
+            this.finalCash = finalCash;
+            this.totalReturnPct = totalReturnPct;
+            this.annualizedReturnPct = annualizedReturnPct;
+            this.annualizedVolatilityPct = annualizedVolatilityPct;
+            this.maxDrawdownPct = maxDrawdownPct;
+            this.elapsedMicros = elapsedMicros;
+        }
+
+        public int getMonths() { return months; }
+        public int getTradeCount() { return tradeCount; }
+        public int getSkippedBuys() { return skippedBuys; }
+        public BigDecimal getTotalDeposited() { return totalDeposited; }
+        public BigDecimal getFinalValue() { return finalValue; }
+        public BigDecimal getFinalCash() { return finalCash; }
+        public double getTotalReturnPct() { return totalReturnPct; }
+        public double getAnnualizedReturnPct() { return annualizedReturnPct; }
+        public double getAnnualizedVolatilityPct() { return annualizedVolatilityPct; }
+        public double getMaxDrawdownPct() { return maxDrawdownPct; }
+        public long getElapsedMicros() { return elapsedMicros; }
+    }
+}
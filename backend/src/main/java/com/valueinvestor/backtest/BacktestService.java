@@ -0,0 +1,104 @@
+package com.valueinvestor.backtest;
+
+import com.valueinvestor.config.AppConfig;
+import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.repository.StockPriceHistoryRepository;
+import com.valueinvestor.service.PriceHistoryStore;
+import com.valueinvestor.service.RebalanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Runs read-only backtests of the monthly rebalance strategy.
+ * Candidates come from RebalanceService, prices from the in-memory PriceHistoryStore
+ * (or the repository while the store is still loading); nothing is written to the database.
+ */
+@Service
+public class BacktestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestService.class);
+    static final int DEFAULT_YEARS = 10;
+
+    @Autowired
+    private RebalanceService rebalanceService;
+
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private StockPriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private AppConfig appConfig;
+
+    /**
+     * Backtest with the given overrides; missing values fall back to the live strategy settings
+     */
+    public BacktestResult run(BacktestConfig request) {
+        BacktestConfig config = withDefaults(request != null ? request : new BacktestConfig());
+        List<String> candidates = rebalanceService.getCandidateStocks();
+        PriceMatrix prices = loadPrices(RebalanceService.selectTopStocks(candidates, config.getTargetPositions()),
+                config.getStartDate().minusDays(BacktestEngine.PRICE_LOOKBACK_DAYS), config.getEndDate());
+
+        BacktestResult result = BacktestEngine.run(config, candidates, prices);
+        logger.info("Backtest {} to {} over {} bars: {} months, {} trades, final NT${} in {} us",
+                config.getStartDate(), config.getEndDate(), prices.getBarCount(), result.getStats().getMonths(),
+                result.getStats().getTradeCount(), result.getStats().getFinalValue(),
+                result.getStats().getElapsedMicros());
+        return result;
+    }
+
+    BacktestConfig withDefaults(BacktestConfig request) {
+        LocalDate endDate = request.getEndDate() != null ? request.getEndDate() : LocalDate.now();
+        LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : endDate.minusYears(DEFAULT_YEARS);
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate " + startDate + " is after endDate " + endDate);
+        }
+
+        BigDecimal monthlyInvestment = request.getMonthlyInvestment() != null
+                ? request.getMonthlyInvestment() : appConfig.getMonthlyInvestment();
+        if (monthlyInvestment.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("monthlyInvestment must not be negative");
+        }
+
+        int targetPositions = request.getTargetPositions() != null
+                ? request.getTargetPositions() : RebalanceService.TARGET_POSITIONS;
+        if (targetPositions < 1) {
+            throw new IllegalArgumentException("targetPositions must be at least 1");
+        }
+
+        AllocationScheme scheme = request.getAllocationScheme() != null
+                ? request.getAllocationScheme() : AllocationScheme.EQUAL_WEIGHT;
+        return new BacktestConfig(startDate, endDate, monthlyInvestment, targetPositions, scheme);
+    }
+
+    /**
+     * Closes for the symbols between two dates, from the store when loaded and the repository otherwise
+     */
+    PriceMatrix loadPrices(List<String> symbols, LocalDate startDate, LocalDate endDate) {
+        PriceMatrix prices = new PriceMatrix();
+        for (String symbol : symbols) {
+            if (priceHistoryStore.isLoaded()) {
+                prices.put(symbol, priceHistoryStore.getDailyCloses(symbol, startDate, endDate));
+                continue;
+            }
+
+            List<StockPriceHistory> bars = priceHistoryRepository.findBySymbolAndDateBetweenOrderByDateAsc(
+                    symbol, startDate, endDate);
+            int[] days = new int[bars.size()];
+            double[] closes = new double[bars.size()];
+            for (int i = 0; i < bars.size(); i++) {
+                days[i] = (int) bars.get(i).getDate().toEpochDay();
+                closes[i] = bars.get(i).getClose() != null ? bars.get(i).getClose().doubleValue() : 0.0;
+            }
+            prices.put(symbol, new PriceHistoryStore.DailyCloses(days, closes));
+        }
+        return prices;
+    }
+}
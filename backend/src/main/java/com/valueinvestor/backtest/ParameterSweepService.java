@@ -0,0 +1,208 @@
+package com.valueinvestor.backtest;
+
+import com.valueinvestor.service.RebalanceService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Backtests every combination of a parameter grid in parallel.
+ * Candidate lists and prices are loaded once up front; the runs themselves are pure
+ * in-memory backtests fanned out over a fork/join pool sized to the available cores.
+ */
+@Service
+public class ParameterSweepService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParameterSweepService.class);
+    static final int MAX_RUNS = 5000;
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Autowired
+    private RebalanceService rebalanceService;
+
+    private final ForkJoinPool sweepPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Run the sweep and return the rows ranked best first
+     */
+    public SweepResult run(SweepRequest request) {
+        SweepRequest grid = request != null ? request : new SweepRequest();
+        List<Integer> positions = orDefault("positions", grid.getPositions(), SweepRequest.DEFAULT_POSITIONS);
+        List<BigDecimal> minYields = orDefault("minDividendYields", grid.getMinDividendYields(),
+                SweepRequest.DEFAULT_MIN_DIVIDEND_YIELDS);
+        List<Integer> poolSizes = orDefault("poolSizes", grid.getPoolSizes(), SweepRequest.DEFAULT_POOL_SIZES);
+        List<AllocationScheme> schemes = orDefault("allocationSchemes", grid.getAllocationSchemes(),
+                List.of(AllocationScheme.values()));
+        SweepRequest.RankBy rankBy = grid.getRankBy() != null ? grid.getRankBy() : SweepRequest.RankBy.ANNUALIZED_RETURN;
+
+        long runs = (long) positions.size() * minYields.size() * poolSizes.size() * schemes.size();
+        if (runs > MAX_RUNS) {
+            throw new IllegalArgumentException("Sweep of " + runs + " runs exceeds the limit of " + MAX_RUNS);
+        }
+        if (positions.stream().anyMatch(p -> p < 1) || poolSizes.stream().anyMatch(p -> p < 1)) {
+            throw new IllegalArgumentException("positions and poolSizes must be at least 1");
+        }
+
+        long startNanos = System.nanoTime();
+        BacktestConfig base = backtestService.withDefaults(
+                new BacktestConfig(grid.getStartDate(), grid.getEndDate(), grid.getMonthlyInvestment(), null));
+
+        // Candidate lists depend only on (yield floor, pool size): fetch each once
+        int maxPositions = positions.stream().mapToInt(Integer::intValue).max().orElse(0);
+        Map<String, List<String>> candidatesByKey = new HashMap<>();
+        Set<String> symbols = new LinkedHashSet<>();
+        for (BigDecimal minYield : minYields) {
+            for (int poolSize : poolSizes) {
+                List<String> candidates = rebalanceService.getCandidateStocks(minYield, poolSize);
+                candidatesByKey.put(key(minYield, poolSize), candidates);
+                symbols.addAll(RebalanceService.selectTopStocks(candidates, maxPositions));
+            }
+        }
+        PriceMatrix prices = backtestService.loadPrices(new ArrayList<>(symbols),
+                base.getStartDate().minusDays(BacktestEngine.PRICE_LOOKBACK_DAYS), base.getEndDate());
+
+        List<SweepJob> jobs = new ArrayList<>();
+        for (int positionCount : positions) {
+            for (BigDecimal minYield : minYields) {
+                for (int poolSize : poolSizes) {
+                    for (AllocationScheme scheme : schemes) {
+                        BacktestConfig config = new BacktestConfig(base.getStartDate(), base.getEndDate(),
+                                base.getMonthlyInvestment(), positionCount, scheme);
+                        jobs.add(new SweepJob(config, minYield, poolSize, candidatesByKey.get(key(minYield, poolSize))));
+                    }
+                }
+            }
+        }
+
+        List<SweepResult.Row> rows = new ArrayList<>(sweepPool.invoke(new SweepTask(jobs, 0, jobs.size(), prices)));
+        rows.sort(comparator(rankBy));
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setRank(i + 1);
+        }
+
+        SweepResult result = new SweepResult();
+        result.setStartDate(base.getStartDate());
+        result.setEndDate(base.getEndDate());
+        result.setRankBy(rankBy);
+        result.setRuns(rows.size());
+        result.setParallelism(sweepPool.getParallelism());
+        result.setRows(rows);
+        result.setElapsedMs((System.nanoTime() - startNanos) / 1_000_000);
+
+        logger.info("Parameter sweep of {} runs over {} symbols finished in {} ms on {} threads",
+                rows.size(), symbols.size(), result.getElapsedMs(), result.getParallelism());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweepPool.shutdownNow();
+    }
+
+    static Comparator<SweepResult.Row> comparator(SweepRequest.RankBy rankBy) {
+        Comparator<SweepResult.Row> primary = switch (rankBy) {
+            case TOTAL_RETURN -> Comparator.comparingDouble(SweepResult.Row::getTotalReturnPct).reversed();
+            case MAX_DRAWDOWN -> Comparator.comparingDouble(SweepResult.Row::getMaxDrawdownPct);
+            case RETURN_TO_VOLATILITY -> Comparator.comparingDouble(SweepResult.Row::getReturnToVolatility).reversed();
+            case ANNUALIZED_RETURN -> Comparator.comparingDouble(SweepResult.Row::getAnnualizedReturnPct).reversed();
+        };
+        // Deterministic order for ties: shallower drawdown, then the grid parameters
+        return primary
+                .thenComparingDouble(SweepResult.Row::getMaxDrawdownPct)
+                .thenComparingInt(SweepResult.Row::getPositions)
+                .thenComparing(SweepResult.Row::getMinDividendYield)
+                .thenComparingInt(SweepResult.Row::getPoolSize)
+                .thenComparing(SweepResult.Row::getAllocationScheme);
+    }
+
+    /**
+     * Distinct grid values, or the defaults when none are given; null entries (e.g. "positions":[null]) are rejected
+     */
+    private static <T> List<T> orDefault(String name, List<T> values, List<T> defaults) {
+        if (values == null || values.isEmpty()) {
+            return defaults;
+        }
+        if (values.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException(name + " must not contain null");
+        }
+        return List.copyOf(new LinkedHashSet<>(values));
+    }
+
+    private static String key(BigDecimal minYield, int poolSize) {
+        return minYield.stripTrailingZeros().toPlainString() + "/" + poolSize;
+    }
+
+    /**
+     * One grid point with its pre-resolved candidate list
+     */
+    static class SweepJob {
+        final BacktestConfig config;
+        final BigDecimal minDividendYield;
+        final int poolSize;
+        final List<String> candidates;
+
+        SweepJob(BacktestConfig config, BigDecimal minDividendYield, int poolSize, List<String> candidates) {
+            this.config = config;
+            this.minDividendYield = minDividendYield;
+            this.poolSize = poolSize;
+            this.candidates = candidates;
+        }
+    }
+
+    /**
+     * Splits the job list in halves until a slice is small enough to run on the current worker
+     */
+    static class SweepTask extends RecursiveTask<List<SweepResult.Row>> {
+        static final int THRESHOLD = 4;
+
+        private final List<SweepJob> jobs;
+        private final int from;
+        private final int to;
+        private final PriceMatrix prices;
+
+        SweepTask(List<SweepJob> jobs, int from, int to, PriceMatrix prices) {
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+            this.prices = prices;
+        }
+
+        @Override
+        protected List<SweepResult.Row> compute() {
+            if (to - from <= THRESHOLD) {
+                List<SweepResult.Row> rows = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    SweepJob job = jobs.get(i);
+                    BacktestResult result = BacktestEngine.run(job.config, job.candidates, prices);
+                    rows.add(new SweepResult.Row(job.config.getTargetPositions(), job.minDividendYield,
+                            job.poolSize, job.config.getAllocationScheme(), job.candidates.size(), result.getStats()));
+                }
+                return rows;
+            }
+
+            int middle = (from + to) >>> 1;
+            SweepTask left = new SweepTask(jobs, from, middle, prices);
+            SweepTask right = new SweepTask(jobs, middle, to, prices);
+            left.fork();
+            List<SweepResult.Row> rows = new ArrayList<>(right.compute());
+            rows.addAll(0, left.join());
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.valueinvestor.backtest;
+
+import com.valueinvestor.service.PriceHistoryStore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only daily closes for the symbols of one backtest, held as primitive columns.
+ * Lookups are a binary search over epoch days; a missing price is reported as NaN.
+ */
+public class PriceMatrix {
+
+    private final Map<String, PriceHistoryStore.DailyCloses> closesBySymbol = new HashMap<>();
+
+    /**
+     * Add (or replace) the closes for a symbol; epoch days must be ascending
+     */
+    public PriceMatrix put(String symbol, PriceHistoryStore.DailyCloses closes) {
+        closesBySymbol.put(symbol, closes);
+        return this;
+    }
+
+    /**
+     * Close of the last bar on or before day but not earlier than minDay, or NaN
+     */
+    public double closeOnOrBefore(String symbol, int day, int minDay) {
+        PriceHistoryStore.DailyCloses closes = closesBySymbol.get(symbol);
+        int index = indexOnOrBefore(closes, day, minDay);
+        return index >= 0 ? closes.getCloses()[index] : Double.NaN;
+    }
+
+    /**
+     * Epoch day of the bar {@link #closeOnOrBefore} would use, or -1 when there is none
+     */
+    public int dayOnOrBefore(String symbol, int day, int minDay) {
+        PriceHistoryStore.DailyCloses closes = closesBySymbol.get(symbol);
+        int index = indexOnOrBefore(closes, day, minDay);
+        return index >= 0 ? closes.getEpochDays()[index] : -1;
+    }
+
+    private static int indexOnOrBefore(PriceHistoryStore.DailyCloses closes, int day, int minDay) {
+        if (closes == null || closes.size() == 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(closes.getEpochDays(), day);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        if (index < 0 || closes.getEpochDays()[index] < minDay) {
+            return -1;
+        }
+        return index;
+    }
+
+    public Set<String> getSymbols() {
+        return closesBySymbol.keySet();
+    }
+
+    public int getBarCount() {
+        return closesBySymbol.values().stream().mapToInt(PriceHistoryStore.DailyCloses::size).sum();
+    }
+}
@@ -0,0 +1,101 @@
+package com.valueinvestor.backtest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Parameter grid for a backtest sweep. Every combination of positions, minimum dividend yield,
+ * candidate pool size and allocation scheme is backtested; empty lists use the defaults below.
+ */
+public class SweepRequest {
+
+    public static final List<Integer> DEFAULT_POSITIONS = List.of(3, 5, 8, 10);
+    public static final List<BigDecimal> DEFAULT_MIN_DIVIDEND_YIELDS =
+            List.of(new BigDecimal("2.0"), new BigDecimal("3.0"), new BigDecimal("4.0"), new BigDecimal("5.0"));
+    public static final List<Integer> DEFAULT_POOL_SIZES = List.of(10, 20, 30);
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal monthlyInvestment;
+    private List<Integer> positions;
+    private List<BigDecimal> minDividendYields;
+    private List<Integer> poolSizes;
+    private List<AllocationScheme> allocationSchemes;
+    private RankBy rankBy;
+
+    /**
+     * Metric the result table is ordered by (best first)
+     */
+    public enum RankBy {
+        ANNUALIZED_RETURN,
+        TOTAL_RETURN,
+        MAX_DRAWDOWN,
+        RETURN_TO_VOLATILITY
+    }
+
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public BigDecimal getMonthlyInvestment() {
+        return monthlyInvestment;
+    }
+
+    public void setMonthlyInvestment(BigDecimal monthlyInvestment) {
+        this.monthlyInvestment = monthlyInvestment;
+    }
+
+    public List<Integer> getPositions() {
+        return positions;
+    }
+
+    public void setPositions(List<Integer> positions) {
+        this.positions = positions;
+    }
+
+    public List<BigDecimal> getMinDividendYields() {
+        return minDividendYields;
+    }
+
+    public void setMinDividendYields(List<BigDecimal> minDividendYields) {
+        this.minDividendYields = minDividendYields;
+    }
+
+    public List<Integer> getPoolSizes() {
+        return poolSizes;
+    }
+
+    public void setPoolSizes(List<Integer> poolSizes) {
+        this.poolSizes = poolSizes;
+    }
+
+    public List<AllocationScheme> getAllocationSchemes() {
+        return allocationSchemes;
+    }
+
+    public void setAllocationSchemes(List<AllocationScheme> allocationSchemes) {
+        this.allocationSchemes = allocationSchemes;
+    }
+
+    public RankBy getRankBy() {
+        return rankBy;
+    }
+
+    public void setRankBy(RankBy rankBy) {
+        this.rankBy = rankBy;
+    }
+}
@@ -0,0 +1,169 @@
+package com.valueinvestor.backtest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ranked outcome of a parameter sweep, one row per parameter combination
+ */
+public class SweepResult {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private SweepRequest.RankBy rankBy;
+    private int runs;
+    private int parallelism;
+    private long elapsedMs;
+    private List<Row> rows = new ArrayList<>();
+
+    static final String CSV_HEADER = "rank,positions,minDividendYield,poolSize,allocationScheme,candidates,"
+            + "months,trades,totalDeposited,finalValue,totalReturnPct,annualizedReturnPct,"
+            + "annualizedVolatilityPct,maxDrawdownPct";
+
+    /**
+     * The ranked table as CSV, header first
+     */
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER).append('\n');
+        for (Row row : rows) {
+            csv.append(row.getRank()).append(',')
+                    .append(row.getPositions()).append(',')
+                    .append(row.getMinDividendYield().toPlainString()).append(',')
+                    .append(row.getPoolSize()).append(',')
+                    .append(row.getAllocationScheme()).append(',')
+                    .append(row.getCandidates()).append(',')
+                    .append(row.getMonths()).append(',')
+                    .append(row.getTrades()).append(',')
+                    .append(row.getTotalDeposited().toPlainString()).append(',')
+                    .append(row.getFinalValue().toPlainString()).append(',')
+                    .append(format(row.getTotalReturnPct())).append(',')
+                    .append(format(row.getAnnualizedReturnPct())).append(',')
+                    .append(format(row.getAnnualizedVolatilityPct())).append(',')
+                    .append(format(row.getMaxDrawdownPct())).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    // Getters and setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public SweepRequest.RankBy getRankBy() {
+        return rankBy;
+    }
+
+    public void setRankBy(SweepRequest.RankBy rankBy) {
+        this.rankBy = rankBy;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public void setRuns(int runs) {
+        this.runs = runs;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * One parameter combination and its backtest statistics
+     */
+    public static class Row {
+        private int rank;
+        private final int positions;
+        private final BigDecimal minDividendYield;
+        private final int poolSize;
+        private final AllocationScheme allocationScheme;
+        private final int candidates;
+        private final int months;
+        private final int trades;
+        private final BigDecimal totalDeposited;
+        private final BigDecimal finalValue;
+        private final double totalReturnPct;
+        private final double annualizedReturnPct;
+        private final double annualizedVolatilityPct;
+        private final double maxDrawdownPct;
+
+        public Row(int positions, BigDecimal minDividendYield, int poolSize, AllocationScheme allocationScheme,
+                   int candidates, BacktestResult.Stats stats) {
+            this.positions = positions;
+            this.minDividendYield = minDividendYield;
+            this.poolSize = poolSize;
+            this.allocationScheme = allocationScheme;
+            this.candidates = candidates;
+            this.months = stats.getMonths();
+            this.trades = stats.getTradeCount();
+            this.totalDeposited = stats.getTotalDeposited();
+            this.finalValue = stats.getFinalValue();
+            this.totalReturnPct = stats.getTotalReturnPct();
+            this.annualizedReturnPct = stats.getAnnualizedReturnPct();
+            this.annualizedVolatilityPct = stats.getAnnualizedVolatilityPct();
+            this.maxDrawdownPct = stats.getMaxDrawdownPct();
+        }
+
+        /**
+         * Annualized return per unit of annualized volatility; 0 when volatility is 0
+         */
+        public double getReturnToVolatility() {
+            return annualizedVolatilityPct > 0 ? annualizedReturnPct / annualizedVolatilityPct : 0.0;
+        }
+
+        public int getRank() { return rank; }
+        void setRank(int rank) { this.rank = rank; }
+        public int getPositions() { return positions; }
+        public BigDecimal getMinDividendYield() { return minDividendYield; }
+        public int getPoolSize() { return poolSize; }
+        public AllocationScheme getAllocationScheme() { return allocationScheme; }
+        public int getCandidates() { return candidates; }
+        public int getMonths() { return months; }
+        public int getTrades() { return trades; }
+        public BigDecimal getTotalDeposited() { return totalDeposited; }
+        public BigDecimal getFinalValue() { return finalValue; }
+        public double getTotalReturnPct() { return totalReturnPct; }
+        public double getAnnualizedReturnPct() { return annualizedReturnPct; }
+        public double getAnnualizedVolatilityPct() { return annualizedVolatilityPct; }
+        public double getMaxDrawdownPct() { return maxDrawdownPct; }
+    }
+}
@@ -9,9 +9,73 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "app")
 public class AppProperties {
     private StockUniverse stockUniverse = new StockUniverse();
+    private Download download = new Download();
+    private QuoteCache quoteCache = new QuoteCache();
+    private Yahoo yahoo = new Yahoo();
+    private CatchUp catchUp = new CatchUp();
+    private WriteQueue writeQueue = new WriteQueue();
+    private BatchAnalysis batchAnalysis = new BatchAnalysis();
 
     @Data
     public static class StockUniverse {
         private int initialSize = 50;
     }
+
+    /**
+     * Throttling for bulk price downloads from the Shioaji bridge
+     */
+    @Data
+    public static class Download {
+        private double permitsPerSecond = 2.0;
+        private int burst = 2;
+        private int maxInFlight = 4;
+    }
+
+    /**
+     * In-memory latest-quote cache; entries written after the TWSE close live until the next open
+     */
+    @Data
+    public static class QuoteCache {
+        private int maxSize = 500;
+        private int openTtlSeconds = 60;
+    }
+
+    /**
+     * Shared rate limit for YahooFinance library lookups; callers wait at most maxWaitMs for a slot
+     */
+    @Data
+    public static class Yahoo {
+        private double permitsPerSecond = 0.5;
+        private int burst = 1;
+        private long maxWaitMs = 5000;
+    }
+
+    /**
+     * Startup catch-up of missing price history and stale fundamentals (off for benchmarks)
+     */
+    @Data
+    public static class CatchUp {
+        private boolean enabled = true;
+    }
+
+    /**
+     * Single-writer queue for background inserts (see WriteBehindQueue)
+     */
+    @Data
+    public static class WriteQueue {
+        private int capacity = 10000;
+        private int flushSize = 200;
+        private long flushLatencyMs = 20;
+        private long offerTimeoutMs = 30000;
+    }
+
+    /**
+     * Batch analysis jobs: one worker per Ollama parallel slot, bounded queue shared by all jobs
+     */
+    @Data
+    public static class BatchAnalysis {
+        private int parallelSlots = 2;
+        private int queueCapacity = 500;
+        private int maxRetainedJobs = 20;
+    }
 }
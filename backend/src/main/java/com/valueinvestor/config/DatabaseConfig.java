@@ -1,13 +1,119 @@
 package com.valueinvestor.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
 
 /**
- * Database configuration for SQLite
+ * Database configuration for SQLite.
+ * The database runs in WAL mode with one serialized writer connection and a separate read-only pool.
+ * Statements inside @Transactional(readOnly = true) (including Spring Data's find methods) go to the readers,
+ * everything else to the writer, so reads see the last committed state instead of waiting behind a long
+ * write transaction such as a rebalance. Other databases (the H2 test profile) keep Boot's default pool.
  */
 @Configuration
 @EnableJpaRepositories(basePackages = "com.valueinvestor.repository")
 public class DatabaseConfig {
-    // SQLite-specific configuration will be added here as needed
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
+
+    @Configuration
+    @ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:sqlite:')")
+    static class SqliteDataSources {
+
+        /**
+         * The only connection that writes. BEGIN IMMEDIATE takes the write lock up front, so a transaction
+         * never fails half-way with SQLITE_BUSY when upgrading from a read lock.
+         */
+        @Bean(destroyMethod = "close")
+        public HikariDataSource sqliteWriterDataSource(DataSourceProperties dataSourceProperties,
+                                                       SqliteProperties sqlite) {
+            SQLiteConfig config = connectionConfig(sqlite);
+            config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+            config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+
+            HikariDataSource writer = pool("sqlite-writer", dataSourceProperties.getUrl(), config, false, 1,
+                    sqlite.getWriterWaitMs());
+            logger.info("SQLite writer: {} (WAL, synchronous=NORMAL, cache {} KB, mmap {} MB)",
+                    dataSourceProperties.getUrl(), sqlite.getCacheSizeKb(), sqlite.getMmapSizeMb());
+            return writer;
+        }
+
+        /**
+         * Read-only connections; created after the writer so the database file and WAL mode already exist.
+         * SQLite opens them with the read-only flag, and the pool is marked read-only to match: Hikari sets
+         * the flag on every new connection, and the driver refuses to change it once the connection is open.
+         */
+        @Bean(destroyMethod = "close")
+        public HikariDataSource sqliteReaderDataSource(DataSourceProperties dataSourceProperties,
+                                                       SqliteProperties sqlite,
+                                                       @Qualifier("sqliteWriterDataSource") HikariDataSource writer) {
+            SQLiteConfig config = connectionConfig(sqlite);
+            config.setReadOnly(true);
+
+            HikariDataSource reader = pool("sqlite-reader", dataSourceProperties.getUrl(), config, true,
+                    sqlite.getReaderPoolSize(), 30000);
+            logger.info("SQLite readers: {} read-only connections", sqlite.getReaderPoolSize());
+            return reader;
+        }
+
+        /**
+         * Connections are fetched lazily on the first statement, once the transaction's read-only flag is known
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("sqliteWriterDataSource") DataSource writer,
+                                     @Qualifier("sqliteReaderDataSource") DataSource reader) {
+            return routingDataSource(writer, reader);
+        }
+    }
+
+    static LazyConnectionDataSourceProxy routingDataSource(DataSource writer, DataSource reader) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(writer);
+        proxy.setReadOnlyDataSource(reader);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        return proxy;
+    }
+
+    /**
+     * Pragmas shared by the writer and the readers, applied by the driver on every new connection
+     */
+    static SQLiteConfig connectionConfig(SqliteProperties sqlite) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(sqlite.getBusyTimeoutMs());
+        // Negative cache_size is in KiB rather than pages
+        config.setCacheSize(-sqlite.getCacheSizeKb());
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(sqlite.getMmapSizeMb() * 1024 * 1024));
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        return config;
+    }
+
+    static HikariDataSource pool(String name, String url, SQLiteConfig config, boolean readOnly, int size,
+                                 long connectionTimeoutMs) {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(name);
+        hikari.setDriverClassName("org.sqlite.JDBC");
+        hikari.setJdbcUrl(url);
+        hikari.setDataSourceProperties(config.toProperties());
+        hikari.setReadOnly(readOnly);
+        hikari.setMaximumPoolSize(size);
+        hikari.setMinimumIdle(size);
+        hikari.setConnectionTimeout(connectionTimeoutMs);
+        return new HikariDataSource(hikari);
+    }
 }
@@ -0,0 +1,46 @@
+package com.valueinvestor.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool, keep-alive and timeout settings for the shared outbound HTTP client
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.http")
+public class HttpClientProperties {
+    private int maxConnections = 50;
+    private int maxConnectionsPerHost = 10;
+    private long keepAliveSeconds = 60;
+    private long connectionRequestTimeoutMs = 5000;
+    private Timeouts defaults = new Timeouts(5000, 30000);
+
+    /**
+     * Per-host overrides, keyed by host name
+     */
+    private Map<String, Timeouts> hosts = new HashMap<>();
+
+    public Timeouts timeoutsFor(String host) {
+        return host != null && hosts.containsKey(host) ? hosts.get(host) : defaults;
+    }
+
+    @Data
+    public static class Timeouts {
+        private long connectTimeoutMs;
+        private long readTimeoutMs;
+
+        public Timeouts() {
+            this(5000, 30000);
+        }
+
+        public Timeouts(long connectTimeoutMs, long readTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.readTimeoutMs = readTimeoutMs;
+        }
+    }
+}
@@ -12,4 +12,17 @@ public class ShioajiProperties {
     private String apiKey;
     private String secretKey;
     private String apiUrl = "http://127.0.0.1:8888";
+    private Worker worker = new Worker();
+
+    /**
+     * Persistent Python worker processes used by PythonExecutor
+     */
+    @Data
+    public static class Worker {
+        private boolean enabled = true;
+        private String bridgeDir = "../shioaji_bridge";
+        private int poolSize = 2;
+        private int requestTimeoutSeconds = 30;
+        private int healthCheckIntervalSeconds = 30;
+    }
 }
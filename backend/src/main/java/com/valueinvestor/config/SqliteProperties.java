@@ -0,0 +1,38 @@
+package com.valueinvestor.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connection tuning for the SQLite writer connection and the read-only reader pool (see DatabaseConfig)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sqlite")
+public class SqliteProperties {
+    /**
+     * Read-only connections for @Transactional(readOnly = true) work; WAL lets them read while a write is open
+     */
+    private int readerPoolSize = 4;
+
+    /**
+     * How long a writer waits for the single writer connection before failing
+     */
+    private long writerWaitMs = 60000;
+
+    /**
+     * How long a connection waits on a SQLite lock held by another process (e.g. the Python bridge)
+     */
+    private int busyTimeoutMs = 5000;
+
+    /**
+     * Page cache per connection
+     */
+    private int cacheSizeKb = 16384;
+
+    /**
+     * Memory-mapped I/O window; 0 disables it
+     */
+    private long mmapSizeMb = 256;
+}
@@ -1,15 +1,22 @@
 package com.valueinvestor.controller;
 
 import com.valueinvestor.model.dto.AnalysisDTO;
+import com.valueinvestor.model.dto.BatchAnalysisRequest;
 import com.valueinvestor.model.entity.AnalysisResults;
 import com.valueinvestor.service.AnalysisService;
+import com.valueinvestor.service.BatchAnalysisService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,6 +29,9 @@ public class AnalysisController {
     @Autowired
     private AnalysisService analysisService;
 
+    @Autowired
+    private BatchAnalysisService batchAnalysisService;
+
     /**
      * GET /api/analysis/stock/{symbol} - Get latest analysis for a stock
      */
@@ -83,6 +93,62 @@ public class AnalysisController {
         }
     }
 
+    /**
+     * POST /api/analysis/analyze-batch - Queue analyses for a list of symbols (default: active universe).
+     * Returns 202 with the job snapshot, or 429 when the analysis queue has no room for the batch.
+     */
+    @PostMapping("/analyze-batch")
+    public ResponseEntity<BatchAnalysisService.BatchJob> analyzeBatch(
+            @RequestBody(required = false) BatchAnalysisRequest request) {
+        logger.info("POST /api/analysis/analyze-batch");
+
+        try {
+            BatchAnalysisService.BatchJob job = batchAnalysisService.submit(request != null ? request.getSymbols() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+
+        } catch (RejectedExecutionException e) {
+            logger.warn("Analysis batch rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Failed to start analysis batch", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * GET /api/analysis/analyze-batch/{jobId} - Per-symbol status of a batch
+     */
+    @GetMapping("/analyze-batch/{jobId}")
+    public ResponseEntity<BatchAnalysisService.BatchJob> getBatch(@PathVariable String jobId) {
+        return batchAnalysisService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/analysis/analyze-batch/{jobId}/stream - SSE feed of a batch's per-symbol results
+     */
+    @GetMapping(value = "/analyze-batch/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBatch(@PathVariable String jobId) {
+        logger.info("GET /api/analysis/analyze-batch/{}/stream", jobId);
+        return batchAnalysisService.subscribe(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * DELETE /api/analysis/analyze-batch/{jobId} - Skip the batch's analyses that have not started
+     */
+    @DeleteMapping("/analyze-batch/{jobId}")
+    public ResponseEntity<BatchAnalysisService.BatchJob> cancelBatch(@PathVariable String jobId) {
+        logger.info("DELETE /api/analysis/analyze-batch/{}", jobId);
+        return batchAnalysisService.cancel(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * GET /api/analysis/history/{symbol} - Get analysis history for a stock
      */
@@ -142,6 +208,9 @@ public class AnalysisController {
             status.setOllamaAvailable(ollamaAvailable);
             status.setModelAvailable(modelAvailable);
             status.setReady(ollamaAvailable && modelAvailable);
+            status.setCacheHits(analysisService.getCacheHits());
+            status.setCacheMisses(analysisService.getCacheMisses());
+            status.setCacheHitRatio(analysisService.getCacheHitRatio());
 
             return ResponseEntity.ok(status);
 
@@ -151,6 +220,23 @@ public class AnalysisController {
         }
     }
 
+    /**
+     * DELETE /api/analysis/cache - Stop reusing cached LLM analyses (e.g. after changing the model or prompt)
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Map<String, Object>> invalidateCache() {
+        logger.info("DELETE /api/analysis/cache");
+
+        try {
+            int cleared = analysisService.invalidateAnalysisCache();
+            return ResponseEntity.ok(Map.of("cleared", cleared));
+
+        } catch (Exception e) {
+            logger.error("Failed to invalidate analysis cache", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // Helper methods
     private AnalysisDTO convertToDTO(AnalysisResults analysis) {
         AnalysisDTO dto = new AnalysisDTO();
@@ -169,6 +255,9 @@ public class AnalysisController {
         private boolean ollamaAvailable;
         private boolean modelAvailable;
         private boolean ready;
+        private long cacheHits;
+        private long cacheMisses;
+        private double cacheHitRatio;
 
         public boolean isOllamaAvailable() {
             return ollamaAvailable;
@@ -193,5 +282,29 @@ public class AnalysisController {
         public void setReady(boolean ready) {
             this.ready = ready;
         }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        public void setCacheHits(long cacheHits) {
+            this.cacheHits = cacheHits;
+        }
+
+        public long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        public void setCacheMisses(long cacheMisses) {
+            this.cacheMisses = cacheMisses;
+        }
+
+        public double getCacheHitRatio() {
+            return cacheHitRatio;
+        }
+
+        public void setCacheHitRatio(double cacheHitRatio) {
+            this.cacheHitRatio = cacheHitRatio;
+        }
     }
 }
@@ -0,0 +1,89 @@
+package com.valueinvestor.controller;
+
+import com.valueinvestor.backtest.BacktestConfig;
+import com.valueinvestor.backtest.BacktestResult;
+import com.valueinvestor.backtest.BacktestService;
+import com.valueinvestor.backtest.ParameterSweepService;
+import com.valueinvestor.backtest.SweepRequest;
+import com.valueinvestor.backtest.SweepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/backtest")
+@CrossOrigin(origins = "*")
+public class BacktestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestController.class);
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Autowired
+    private ParameterSweepService parameterSweepService;
+
+    /**
+     * POST /api/backtest - Replay the monthly rebalance strategy over stored price history.
+     * Body is optional; omitted fields use the live strategy settings (last 10 years by default).
+     */
+    @PostMapping
+    public ResponseEntity<BacktestResult> runBacktest(@RequestBody(required = false) BacktestConfig config) {
+        logger.info("POST /api/backtest");
+
+        try {
+            BacktestResult result = backtestService.run(config);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid backtest request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Backtest failed", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * POST /api/backtest/sweep - Backtest every combination of a parameter grid, ranked best first
+     */
+    @PostMapping("/sweep")
+    public ResponseEntity<SweepResult> runSweep(@RequestBody(required = false) SweepRequest request) {
+        logger.info("POST /api/backtest/sweep");
+
+        try {
+            return ResponseEntity.ok(parameterSweepService.run(request));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid sweep request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Parameter sweep failed", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * POST /api/backtest/sweep/csv - Same as /sweep, returned as a CSV download
+     */
+    @PostMapping(value = "/sweep/csv", produces = "text/csv")
+    public ResponseEntity<String> runSweepCsv(@RequestBody(required = false) SweepRequest request) {
+        logger.info("POST /api/backtest/sweep/csv");
+
+        try {
+            SweepResult result = parameterSweepService.run(request);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"backtest-sweep.csv\"")
+                    .contentType(MediaType.parseMediaType("text/csv"))
+                    .body(result.toCsv());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid sweep request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Parameter sweep failed", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
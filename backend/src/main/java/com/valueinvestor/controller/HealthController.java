@@ -2,6 +2,7 @@ package com.valueinvestor.controller;
 
 import com.valueinvestor.config.AppConfig;
 import com.valueinvestor.service.ShioajiDataService;
+import com.valueinvestor.util.HttpDependencyMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -24,6 +25,9 @@ public class HealthController {
     @Autowired
     private AppConfig appConfig;
 
+    @Autowired
+    private HttpDependencyMetrics httpDependencyMetrics;
+
     @GetMapping("/health")
     public Map<String, Object> health() {
         Map<String, Object> response = new HashMap<>();
@@ -49,6 +53,14 @@ public class HealthController {
         return response;
     }
     
+    /**
+     * Outbound HTTP call counters per dependency
+     */
+    @GetMapping("/health/http")
+    public Map<String, HttpDependencyMetrics.DependencyStats> getHttpDependencyStats() {
+        return httpDependencyMetrics.snapshot();
+    }
+
     @GetMapping("/config")
     public Map<String, Object> getConfig() {
         Map<String, Object> response = new HashMap<>();
@@ -3,6 +3,7 @@ package com.valueinvestor.controller;
 import com.valueinvestor.model.dto.QuoteDTO;
 import com.valueinvestor.model.entity.StockFundamentals;
 import com.valueinvestor.service.MarketDataService;
+import com.valueinvestor.service.QuoteCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -155,6 +156,14 @@ public class MarketDataController {
         }
     }
 
+    /**
+     * GET /api/market/quote-cache - Quote cache hit/miss/eviction counters
+     */
+    @GetMapping("/quote-cache")
+    public ResponseEntity<QuoteCache.CacheStats> getQuoteCacheStats() {
+        return ResponseEntity.ok(marketDataService.getQuoteCacheStats());
+    }
+
     // Helper methods
     private QuoteDTO convertToQuoteDTO(StockFundamentals fundamentals) {
         QuoteDTO dto = new QuoteDTO();
@@ -4,6 +4,8 @@ import com.valueinvestor.model.dto.*;
 import com.valueinvestor.model.entity.PortfolioSnapshot;
 import com.valueinvestor.model.entity.PositionHistory;
 import com.valueinvestor.model.entity.TransactionLog;
+import com.valueinvestor.model.entity.CashLedger;
+import com.valueinvestor.service.CashLedgerService;
 import com.valueinvestor.service.PortfolioService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +31,9 @@ public class PortfolioController {
     @Autowired
     private PortfolioService portfolioService;
 
+    @Autowired
+    private CashLedgerService cashLedgerService;
+
     /**
      * GET /api/portfolio/current - Get current portfolio
      */
@@ -37,19 +42,18 @@ public class PortfolioController {
         logger.info("GET /api/portfolio/current");
 
         try {
-            Map<String, Object> metrics = portfolioService.getPerformanceMetrics();
-            List<PositionHistory> positions = portfolioService.getCurrentPortfolio();
+            PortfolioValuation valuation = portfolioService.getValuation();
 
             PortfolioSummaryDTO summary = new PortfolioSummaryDTO();
-            summary.setTotalValue((BigDecimal) metrics.get("totalValue"));
-            summary.setCashBalance((BigDecimal) metrics.get("cashBalance"));
-            summary.setInvestedAmount((BigDecimal) metrics.get("investedAmount"));
-            summary.setTotalPL((BigDecimal) metrics.get("totalPL"));
-            summary.setPlPercentage((BigDecimal) metrics.get("plPercentage"));
-            summary.setPositionCount((Integer) metrics.get("positionCount"));
+            summary.setTotalValue(valuation.getTotalValue());
+            summary.setCashBalance(valuation.getCashBalance());
+            summary.setInvestedAmount(valuation.getInvestedAmount());
+            summary.setTotalPL(valuation.getTotalPL());
+            summary.setPlPercentage(valuation.getPlPercentage());
+            summary.setPositionCount(valuation.getPositionCount());
 
             // Convert positions to DTOs
-            List<PositionDTO> positionDTOs = positions.stream()
+            List<PositionDTO> positionDTOs = valuation.getPositions().stream()
                     .map(this::convertToPositionDTO)
                     .collect(Collectors.toList());
 
@@ -153,6 +157,38 @@ public class PortfolioController {
         }
     }
 
+    /**
+     * GET /api/portfolio/cash-ledger/verify - Compare the cash ledger with transaction_log
+     */
+    @GetMapping("/cash-ledger/verify")
+    public ResponseEntity<CashLedgerService.LedgerCheck> verifyCashLedger() {
+        logger.info("GET /api/portfolio/cash-ledger/verify");
+
+        try {
+            return ResponseEntity.ok(cashLedgerService.verify());
+
+        } catch (Exception e) {
+            logger.error("Failed to verify cash ledger", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * POST /api/portfolio/cash-ledger/rebuild - Rebuild the cash ledger from transaction_log
+     */
+    @PostMapping("/cash-ledger/rebuild")
+    public ResponseEntity<CashLedger> rebuildCashLedger() {
+        logger.info("POST /api/portfolio/cash-ledger/rebuild");
+
+        try {
+            return ResponseEntity.ok(cashLedgerService.rebuild());
+
+        } catch (Exception e) {
+            logger.error("Failed to rebuild cash ledger", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // Helper methods
     private PositionDTO convertToPositionDTO(PositionHistory position) {
         PositionDTO dto = new PositionDTO();
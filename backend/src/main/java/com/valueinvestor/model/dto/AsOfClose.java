@@ -0,0 +1,51 @@
+package com.valueinvestor.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Close price of a symbol as of a date, with the fallback tier that produced it.
+ * Tiers mirror MarketDataService.getHistoricalClosePrice: exact date, nearest earlier close
+ * within the lookback window, most recent cached close, Yahoo Finance, or nothing at all.
+ */
+public class AsOfClose {
+
+    public enum Source {
+        EXACT,
+        NEAREST_BEFORE,
+        LATEST_CACHED,
+        YAHOO,
+        NONE
+    }
+
+    private final String symbol;
+    private final LocalDate requestedDate;
+    private final LocalDate priceDate;
+    private final BigDecimal close;
+    private final Source source;
+
+    public AsOfClose(String symbol, LocalDate requestedDate, LocalDate priceDate, BigDecimal close, Source source) {
+        this.symbol = symbol;
+        this.requestedDate = requestedDate;
+        this.priceDate = priceDate;
+        this.close = close;
+        this.source = source;
+    }
+
+    public static AsOfClose none(String symbol, LocalDate requestedDate) {
+        return new AsOfClose(symbol, requestedDate, null, BigDecimal.ZERO, Source.NONE);
+    }
+
+    public String getSymbol() { return symbol; }
+    public LocalDate getRequestedDate() { return requestedDate; }
+    public LocalDate getPriceDate() { return priceDate; }
+    public BigDecimal getClose() { return close; }
+    public Source getSource() { return source; }
+
+    /**
+     * True when the close came from the local price history at or just before the requested date
+     */
+    public boolean isAsOf() {
+        return source == Source.EXACT || source == Source.NEAREST_BEFORE;
+    }
+}
@@ -0,0 +1,24 @@
+package com.valueinvestor.model.dto;
+
+import java.util.List;
+
+public class BatchAnalysisRequest {
+    private List<String> symbols;
+
+    // Constructors
+    public BatchAnalysisRequest() {
+    }
+
+    public BatchAnalysisRequest(List<String> symbols) {
+        this.symbols = symbols;
+    }
+
+    // Getters and Setters
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    public void setSymbols(List<String> symbols) {
+        this.symbols = symbols;
+    }
+}
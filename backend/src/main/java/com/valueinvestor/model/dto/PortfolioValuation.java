@@ -0,0 +1,91 @@
+package com.valueinvestor.model.dto;
+
+import com.valueinvestor.model.entity.PositionHistory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time valuation of the portfolio.
+ * Built once from priced positions and the cash balance; every total is derived in the same pass,
+ * so callers that need positions, value, cash and P/L together never re-fetch quotes.
+ */
+public class PortfolioValuation {
+
+    private final List<PositionHistory> positions;
+    private final BigDecimal cashBalance;
+    private final BigDecimal positionsValue;
+    private final BigDecimal investedAmount;
+    private final BigDecimal totalPL;
+    private final LocalDateTime valuedAt;
+
+    private PortfolioValuation(List<PositionHistory> positions, BigDecimal cashBalance,
+                               BigDecimal positionsValue, BigDecimal investedAmount, BigDecimal totalPL) {
+        this.positions = positions;
+        this.cashBalance = cashBalance;
+        this.positionsValue = positionsValue;
+        this.investedAmount = investedAmount;
+        this.totalPL = totalPL;
+        this.valuedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Value positions that already carry a current price and metrics
+     */
+    public static PortfolioValuation of(List<PositionHistory> pricedPositions, BigDecimal cashBalance) {
+        BigDecimal positionsValue = BigDecimal.ZERO;
+        BigDecimal investedAmount = BigDecimal.ZERO;
+        BigDecimal totalPL = BigDecimal.ZERO;
+
+        for (PositionHistory position : pricedPositions) {
+            if (position.getMarketValue() != null) {
+                positionsValue = positionsValue.add(position.getMarketValue());
+            }
+            investedAmount = investedAmount.add(position.getQuantity().multiply(position.getAveragePrice()));
+            if (position.getUnrealizedPL() != null) {
+                totalPL = totalPL.add(position.getUnrealizedPL());
+            }
+        }
+
+        return new PortfolioValuation(List.copyOf(pricedPositions), cashBalance,
+                positionsValue, investedAmount, totalPL);
+    }
+
+    public List<PositionHistory> getPositions() { return positions; }
+    public BigDecimal getCashBalance() { return cashBalance; }
+    public BigDecimal getPositionsValue() { return positionsValue; }
+    public BigDecimal getInvestedAmount() { return investedAmount; }
+    public BigDecimal getTotalPL() { return totalPL; }
+    public LocalDateTime getValuedAt() { return valuedAt; }
+    public int getPositionCount() { return positions.size(); }
+
+    public BigDecimal getTotalValue() {
+        return positionsValue.add(cashBalance);
+    }
+
+    public BigDecimal getPlPercentage() {
+        if (investedAmount.compareTo(BigDecimal.ZERO) > 0) {
+            return totalPL.divide(investedAmount, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Metrics map in the shape returned by /api/portfolio/metrics
+     */
+    public Map<String, Object> toMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("totalValue", getTotalValue());
+        metrics.put("cashBalance", cashBalance);
+        metrics.put("investedAmount", investedAmount);
+        metrics.put("totalPL", totalPL);
+        metrics.put("plPercentage", getPlPercentage());
+        metrics.put("positionCount", getPositionCount());
+        return metrics;
+    }
+}
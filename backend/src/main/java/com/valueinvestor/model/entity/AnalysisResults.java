@@ -6,7 +6,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "analysis_results", indexes = {
     @Index(name = "idx_analysis_symbol", columnList = "symbol"),
-    @Index(name = "idx_analysis_timestamp", columnList = "timestamp")
+    @Index(name = "idx_analysis_timestamp", columnList = "timestamp"),
+    @Index(name = "idx_analysis_prompt_hash", columnList = "symbol, promptHash")
 })
 public class AnalysisResults {
 
@@ -35,6 +36,10 @@ public class AnalysisResults {
     @Column(columnDefinition = "TEXT")
     private String fundamentalsSnapshot;
 
+    // SHA-256 of model, prompt version and prompt for LLM results (null for rule-based or invalidated rows)
+    @Column(length = 64)
+    private String promptHash;
+
     // Constructors
     public AnalysisResults() {
         this.timestamp = LocalDateTime.now();
@@ -116,4 +121,12 @@ public class AnalysisResults {
     public void setFundamentalsSnapshot(String fundamentalsSnapshot) {
         this.fundamentalsSnapshot = fundamentalsSnapshot;
     }
+
+    public String getPromptHash() {
+        return promptHash;
+    }
+
+    public void setPromptHash(String promptHash) {
+        this.promptHash = promptHash;
+    }
 }
@@ -0,0 +1,139 @@
+package com.valueinvestor.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running cash balance derived from transaction_log.
+ * A single row (id 1) is updated in the same transaction as every DEPOSIT/BUY/SELL insert,
+ * so reading the balance never has to scan the log.
+ */
+@Entity
+@Table(name = "cash_ledger")
+public class CashLedger {
+
+    public static final long LEDGER_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+
+    @Column(name = "total_deposits", nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalDeposits;
+
+    @Column(name = "total_buys", nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalBuys;
+
+    @Column(name = "total_sells", nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalSells;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "last_transaction_id")
+    private Long lastTransactionId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public CashLedger() {
+        this.id = LEDGER_ID;
+        this.balance = BigDecimal.ZERO;
+        this.totalDeposits = BigDecimal.ZERO;
+        this.totalBuys = BigDecimal.ZERO;
+        this.totalSells = BigDecimal.ZERO;
+        this.transactionCount = 0L;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public CashLedger(BigDecimal totalDeposits, BigDecimal totalBuys, BigDecimal totalSells,
+                      long transactionCount, Long lastTransactionId) {
+        this();
+        this.totalDeposits = totalDeposits;
+        this.totalBuys = totalBuys;
+        this.totalSells = totalSells;
+        this.balance = totalDeposits.subtract(totalBuys).add(totalSells);
+        this.transactionCount = transactionCount;
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public BigDecimal getTotalDeposits() {
+        return totalDeposits;
+    }
+
+    public void setTotalDeposits(BigDecimal totalDeposits) {
+        this.totalDeposits = totalDeposits;
+    }
+
+    public BigDecimal getTotalBuys() {
+        return totalBuys;
+    }
+
+    public void setTotalBuys(BigDecimal totalBuys) {
+        this.totalBuys = totalBuys;
+    }
+
+    public BigDecimal getTotalSells() {
+        return totalSells;
+    }
+
+    public void setTotalSells(BigDecimal totalSells) {
+        this.totalSells = totalSells;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public void setLastTransactionId(Long lastTransactionId) {
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CashLedger{" +
+                "balance=" + balance +
+                ", totalDeposits=" + totalDeposits +
+                ", totalBuys=" + totalBuys +
+                ", totalSells=" + totalSells +
+                ", transactionCount=" + transactionCount +
+                ", lastTransactionId=" + lastTransactionId +
+                '}';
+    }
+}
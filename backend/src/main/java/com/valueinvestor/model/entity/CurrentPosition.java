@@ -0,0 +1,122 @@
+package com.valueinvestor.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Latest position per symbol.
+ * Upserted by TradingService on every fill alongside the append-only position_history row,
+ * so reading the current portfolio is a primary-key scan rather than a MAX(timestamp) subquery.
+ */
+@Entity
+@Table(name = "current_position")
+public class CurrentPosition {
+
+    @Id
+    @Column(length = 20)
+    private String symbol;
+
+    @Column(nullable = false)
+    private BigDecimal quantity;
+
+    @Column(nullable = false)
+    private BigDecimal averagePrice;
+
+    @Column
+    private BigDecimal lastPrice;
+
+    @Column(name = "history_id")
+    private Long historyId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public CurrentPosition() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Current state taken from a position_history row
+     */
+    public static CurrentPosition from(PositionHistory history) {
+        CurrentPosition position = new CurrentPosition();
+        position.apply(history);
+        return position;
+    }
+
+    /**
+     * Overwrite this row with a newer position_history entry
+     */
+    public void apply(PositionHistory history) {
+        this.symbol = history.getSymbol();
+        this.quantity = history.getQuantity();
+        this.averagePrice = history.getAveragePrice();
+        this.lastPrice = history.getCurrentPrice();
+        this.historyId = history.getId();
+        this.updatedAt = history.getTimestamp() != null ? history.getTimestamp() : LocalDateTime.now();
+    }
+
+    /**
+     * Detached PositionHistory view, for callers that work with position_history rows
+     */
+    public PositionHistory toPositionHistory() {
+        PositionHistory history = new PositionHistory(symbol, quantity, averagePrice);
+        history.setId(historyId);
+        history.setTimestamp(updatedAt);
+        history.setCurrentPrice(lastPrice);
+        if (lastPrice != null) {
+            history.calculateMetrics();
+        }
+        return history;
+    }
+
+    // Getters and Setters
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    public void setAveragePrice(BigDecimal averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+
+    public BigDecimal getLastPrice() {
+        return lastPrice;
+    }
+
+    public void setLastPrice(BigDecimal lastPrice) {
+        this.lastPrice = lastPrice;
+    }
+
+    public Long getHistoryId() {
+        return historyId;
+    }
+
+    public void setHistoryId(Long historyId) {
+        this.historyId = historyId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
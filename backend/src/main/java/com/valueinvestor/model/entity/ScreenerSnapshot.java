@@ -0,0 +1,83 @@
+package com.valueinvestor.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One screened dividend stock from the last successful Yahoo screen.
+ * The whole table is replaced on every screen and read back at startup, so the screener
+ * can answer immediately after a restart instead of re-screening every candidate.
+ */
+@Entity
+@Table(name = "screener_snapshot")
+public class ScreenerSnapshot {
+
+    @Id
+    @Column(length = 20)
+    private String symbol;
+
+    @Column(length = 200)
+    private String name;
+
+    @Column(length = 100)
+    private String sector;
+
+    @Column(name = "dividend_yield", nullable = false, precision = 19, scale = 4)
+    private BigDecimal dividendYield;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    public ScreenerSnapshot() {
+    }
+
+    public ScreenerSnapshot(String symbol, String name, String sector, BigDecimal dividendYield, LocalDateTime fetchedAt) {
+        this.symbol = symbol;
+        this.name = name;
+        this.sector = sector;
+        this.dividendYield = dividendYield;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Getters and Setters
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSector() {
+        return sector;
+    }
+
+    public void setSector(String sector) {
+        this.sector = sector;
+    }
+
+    public BigDecimal getDividendYield() {
+        return dividendYield;
+    }
+
+    public void setDividendYield(BigDecimal dividendYield) {
+        this.dividendYield = dividendYield;
+    }
+
+    public LocalDateTime getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(LocalDateTime fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
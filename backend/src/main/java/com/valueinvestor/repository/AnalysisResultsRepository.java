@@ -2,6 +2,7 @@ package com.valueinvestor.repository;
 
 import com.valueinvestor.model.entity.AnalysisResults;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -36,4 +37,10 @@ public interface AnalysisResultsRepository extends JpaRepository<AnalysisResults
 
     @Query("SELECT DISTINCT a.symbol FROM AnalysisResults a WHERE a.timestamp >= ?1")
     List<String> findAnalyzedSymbolsSince(LocalDateTime since);
+
+    Optional<AnalysisResults> findFirstBySymbolAndPromptHashOrderByTimestampDesc(String symbol, String promptHash);
+
+    @Modifying
+    @Query("UPDATE AnalysisResults a SET a.promptHash = NULL WHERE a.promptHash IS NOT NULL")
+    int clearPromptHashes();
 }
@@ -0,0 +1,66 @@
+package com.valueinvestor.repository;
+
+import com.valueinvestor.model.entity.CashLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * The ledger is updated with bulk UPDATEs that bypass the persistence context without clearing it,
+ * so entities the calling trade transaction holds stay attached. A CashLedger entity already loaded
+ * in that transaction is therefore stale after an update: read the balance with {@link #findBalance}.
+ */
+@Repository
+public interface CashLedgerRepository extends JpaRepository<CashLedger, Long> {
+
+    /**
+     * Current balance straight from the row (a scalar query, never a cached entity)
+     */
+    @Query("SELECT c.balance FROM CashLedger c WHERE c.id = 1")
+    Optional<BigDecimal> findBalance();
+
+    /**
+     * Apply one transaction to the ledger row in place; returns 0 if the row does not exist yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CashLedger c SET " +
+           "c.totalDeposits = c.totalDeposits + :deposit, " +
+           "c.totalBuys = c.totalBuys + :buy, " +
+           "c.totalSells = c.totalSells + :sell, " +
+           "c.balance = c.balance + :deposit - :buy + :sell, " +
+           "c.transactionCount = c.transactionCount + 1, " +
+           "c.lastTransactionId = :transactionId, " +
+           "c.updatedAt = :updatedAt " +
+           "WHERE c.id = 1")
+    int applyTransaction(@Param("deposit") BigDecimal deposit,
+                         @Param("buy") BigDecimal buy,
+                         @Param("sell") BigDecimal sell,
+                         @Param("transactionId") Long transactionId,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Apply a batch of transactions at once: summed amounts, count added to the total
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CashLedger c SET " +
+           "c.totalDeposits = c.totalDeposits + :deposit, " +
+           "c.totalBuys = c.totalBuys + :buy, " +
+           "c.totalSells = c.totalSells + :sell, " +
+           "c.balance = c.balance + :deposit - :buy + :sell, " +
+           "c.transactionCount = c.transactionCount + :count, " +
+           "c.lastTransactionId = :transactionId, " +
+           "c.updatedAt = :updatedAt " +
+           "WHERE c.id = 1")
+    int applyTransactions(@Param("deposit") BigDecimal deposit,
+                          @Param("buy") BigDecimal buy,
+                          @Param("sell") BigDecimal sell,
+                          @Param("count") long count,
+                          @Param("transactionId") Long transactionId,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+}
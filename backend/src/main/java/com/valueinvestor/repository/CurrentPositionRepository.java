@@ -0,0 +1,13 @@
+package com.valueinvestor.repository;
+
+import com.valueinvestor.model.entity.CurrentPosition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CurrentPositionRepository extends JpaRepository<CurrentPosition, String> {
+
+    List<CurrentPosition> findAllByOrderBySymbolAsc();
+}
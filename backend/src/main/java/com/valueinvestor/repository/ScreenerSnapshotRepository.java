@@ -0,0 +1,13 @@
+package com.valueinvestor.repository;
+
+import com.valueinvestor.model.entity.ScreenerSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScreenerSnapshotRepository extends JpaRepository<ScreenerSnapshot, String> {
+
+    List<ScreenerSnapshot> findAllByOrderByDividendYieldDesc();
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +16,8 @@ public interface StockFundamentalsRepository extends JpaRepository<StockFundamen
 
     Optional<StockFundamentals> findBySymbol(String symbol);
 
+    List<StockFundamentals> findBySymbolIn(Collection<String> symbols);
+
     List<StockFundamentals> findByMarket(String market);
 
     List<StockFundamentals> findBySector(String sector);
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,6 +60,14 @@ public interface StockPriceHistoryRepository extends JpaRepository<StockPriceHis
     @Query("SELECT DISTINCT s.symbol FROM StockPriceHistory s ORDER BY s.symbol")
     List<String> findDistinctSymbols();
 
+    /**
+     * Load raw OHLCV columns for a symbol ordered by date (used to build the in-memory price store)
+     * Row layout: date, open, high, low, close, volume, adjustedClose
+     */
+    @Query("SELECT s.date, s.open, s.high, s.low, s.close, s.volume, s.adjustedClose " +
+           "FROM StockPriceHistory s WHERE s.symbol = :symbol ORDER BY s.date ASC")
+    List<Object[]> findBarsBySymbol(@Param("symbol") String symbol);
+
     /**
      * Find prices for a specific date across all symbols
      */
@@ -89,4 +98,22 @@ public interface StockPriceHistoryRepository extends JpaRepository<StockPriceHis
             @Param("symbol") String symbol, 
             @Param("targetDate") LocalDate targetDate,
             @Param("minDate") LocalDate minDate);
+
+    /**
+     * Bars of several symbols inside a date window, latest first per symbol (bulk as-of lookups)
+     */
+    @Query("SELECT s FROM StockPriceHistory s WHERE s.symbol IN :symbols " +
+           "AND s.date <= :targetDate AND s.date >= :minDate " +
+           "ORDER BY s.symbol ASC, s.date DESC")
+    List<StockPriceHistory> findInWindowForSymbols(
+            @Param("symbols") Collection<String> symbols,
+            @Param("targetDate") LocalDate targetDate,
+            @Param("minDate") LocalDate minDate);
+
+    /**
+     * Latest bar of each of several symbols
+     */
+    @Query("SELECT s FROM StockPriceHistory s WHERE s.symbol IN :symbols " +
+           "AND s.date = (SELECT MAX(s2.date) FROM StockPriceHistory s2 WHERE s2.symbol = s.symbol)")
+    List<StockPriceHistory> findLatestPricesForSymbols(@Param("symbols") Collection<String> symbols);
 }
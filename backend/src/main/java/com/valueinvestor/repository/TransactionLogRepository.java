@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -34,6 +35,15 @@ public interface TransactionLogRepository extends JpaRepository<TransactionLog,
     @Query("SELECT DISTINCT t.symbol FROM TransactionLog t WHERE t.type IN ('BUY', 'SELL') ORDER BY t.symbol")
     List<String> findAllTradedSymbols();
 
+    @Query("SELECT COALESCE(SUM(t.totalAmount), 0) FROM TransactionLog t WHERE t.type = ?1")
+    BigDecimal sumTotalAmountByType(TransactionType type);
+
+    @Query("SELECT COUNT(t) FROM TransactionLog t WHERE t.type IN ('DEPOSIT', 'BUY', 'SELL')")
+    long countCashTransactions();
+
+    @Query("SELECT MAX(t.id) FROM TransactionLog t")
+    Long findMaxId();
+
     default List<TransactionLog> findRecentTransactions(LocalDateTime startDate, LocalDateTime endDate) {
         return findByTimestampBetweenOrderByTimestampDesc(startDate, endDate);
     }
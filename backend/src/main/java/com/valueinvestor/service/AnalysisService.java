@@ -4,15 +4,22 @@ import com.valueinvestor.model.entity.AnalysisResults;
 import com.valueinvestor.model.entity.StockFundamentals;
 import com.valueinvestor.repository.AnalysisResultsRepository;
 import com.valueinvestor.util.OllamaClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,6 +28,7 @@ public class AnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalysisService.class);
     private static final String MODEL = "llama3.1:8b-instruct-q5_K_M";
+    static final String CACHE_METRIC = "analysis.cache";
 
     @Autowired
     private AnalysisResultsRepository analysisRepository;
@@ -31,10 +39,22 @@ public class AnalysisService {
     @Autowired
     private OllamaClient ollamaClient;
 
+    @Autowired
+    private WriteBehindQueue writeQueue;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    @Autowired(required = false)
+    void bindCacheMetrics(MeterRegistry registry) {
+        FunctionCounter.builder(CACHE_METRIC, cacheHits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder(CACHE_METRIC, cacheMisses, LongAdder::sum).tag("result", "miss").register(registry);
+    }
+
     /**
-     * Analyze a stock using LLM (with rule-based fallback)
+     * Analyze a stock using LLM (with rule-based fallback).
+     * Not transactional: the result is saved through the write queue, so no connection is held during the LLM call.
      */
-    @Transactional
     public AnalysisResults analyzeStock(String symbol) {
         logger.info("Starting analysis for stock: {}", symbol);
 
@@ -48,18 +68,29 @@ public class AnalysisService {
                 return createRuleBasedAnalysis(symbol, null);
             }
 
-            // Check if Ollama is available
-            if (!ollamaClient.isAvailable()) {
-                logger.warn("Ollama not available, using rule-based analysis for {}", symbol);
-                return createRuleBasedAnalysis(symbol, fundamentals);
-            }
-
             // Build fundamentals summary
             String fundamentalsData = buildFundamentalsSummary(fundamentals);
 
             // Create prompt
             String prompt = OllamaClient.createStockAnalysisPrompt(symbol, fundamentalsData);
 
+            // Same model, prompt version and fundamentals as a previous LLM analysis: reuse it
+            String promptHash = promptHash(MODEL, OllamaClient.STOCK_ANALYSIS_PROMPT_VERSION, prompt);
+            Optional<AnalysisResults> cached =
+                    analysisRepository.findFirstBySymbolAndPromptHashOrderByTimestampDesc(symbol, promptHash);
+            if (cached.isPresent()) {
+                cacheHits.increment();
+                logger.info("Analysis cache hit for {} (analysis {})", symbol, cached.get().getId());
+                return cached.get();
+            }
+            cacheMisses.increment();
+
+            // Check if Ollama is available
+            if (!ollamaClient.isAvailable()) {
+                logger.warn("Ollama not available, using rule-based analysis for {}", symbol);
+                return createRuleBasedAnalysis(symbol, fundamentals);
+            }
+
             // Call Ollama
             logger.info("Calling Ollama for analysis of {}", symbol);
             String analysisText = ollamaClient.sendPrompt(MODEL, prompt);
@@ -69,15 +100,12 @@ public class AnalysisService {
             Double score = extractScore(analysisText);
 
             // Save analysis
-            AnalysisResults analysis = new AnalysisResults(
-                    symbol,
-                    analysisText,
-                    score,
-                    recommendation,
-                    fundamentalsData
-            );
-
-            analysis = analysisRepository.save(analysis);
+            AnalysisResults analysis = save(() -> {
+                AnalysisResults row = new AnalysisResults(symbol, analysisText, score, recommendation, fundamentalsData);
+                row.setModel(MODEL);
+                row.setPromptHash(promptHash);
+                return row;
+            });
             logger.info("Analysis completed for {}: {} (Score: {})", symbol, recommendation, score);
 
             return analysis;
@@ -100,31 +128,7 @@ public class AnalysisService {
         if (fundamentals != null) {
             fundamentalsSnapshot = buildFundamentalsSummary(fundamentals);
             
-            // Simple rule-based scoring
-            score = 50.0;
-            
-            // Dividend yield bonus
-            if (fundamentals.getDividendYield() != null) {
-                double yield = fundamentals.getDividendYield().doubleValue();
-                if (yield >= 5.0) score += 20;
-                else if (yield >= 3.0) score += 15;
-                else if (yield >= 2.0) score += 10;
-            }
-            
-            // P/E ratio consideration
-            if (fundamentals.getPeRatio() != null) {
-                double pe = fundamentals.getPeRatio().doubleValue();
-                if (pe > 0 && pe < 15) score += 15;
-                else if (pe >= 15 && pe < 25) score += 10;
-                else if (pe >= 25) score -= 5;
-            }
-            
-            // ROE consideration
-            if (fundamentals.getRoe() != null) {
-                double roe = fundamentals.getRoe().doubleValue();
-                if (roe >= 15) score += 10;
-                else if (roe >= 10) score += 5;
-            }
+            score = ruleBasedScore(fundamentals);
             
             analysisText = String.format(
                 "Rule-based analysis for %s:\n" +
@@ -155,15 +159,91 @@ public class AnalysisService {
         
         recommendation = score >= 60 ? "BUY" : (score >= 40 ? "HOLD" : "SELL");
         
-        AnalysisResults analysis = new AnalysisResults(
+        String text = analysisText;
+        double finalScore = score;
+        String finalRecommendation = recommendation;
+        String snapshot = fundamentalsSnapshot;
+        return save(() -> new AnalysisResults(
                 symbol,
-                analysisText,
-                score,
-                recommendation,
-                fundamentalsSnapshot
-        );
-        
-        return analysisRepository.save(analysis);
+                text,
+                finalScore,
+                finalRecommendation,
+                snapshot
+        ));
+    }
+
+    /**
+     * Save a new analysis row through the write queue and wait for the commit.
+     * The entity is built inside the write so a retried group commit inserts a fresh row.
+     */
+    private AnalysisResults save(Supplier<AnalysisResults> row) {
+        return writeQueue.write(() -> analysisRepository.save(row.get()));
+    }
+
+    /**
+     * Cache key of an LLM analysis: SHA-256 over model, prompt template version and the full prompt
+     * (which contains the symbol and the fundamentals summary)
+     */
+    static String promptHash(String model, int promptVersion, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((model + "\n" + promptVersion + "\n" + prompt).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Stop reusing every cached LLM analysis (rows are kept; they just no longer match any prompt)
+     */
+    public int invalidateAnalysisCache() {
+        int cleared = writeQueue.write(() -> analysisRepository.clearPromptHashes());
+        logger.info("Analysis cache invalidated: {} cached analyses cleared", cleared);
+        return cleared;
+    }
+
+    public long getCacheHits() { return cacheHits.sum(); }
+    public long getCacheMisses() { return cacheMisses.sum(); }
+
+    /**
+     * Share of LLM-eligible analyses served from the cache since startup (0 when there were none)
+     */
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Simple rule-based score from dividend yield, P/E and ROE (50 base, roughly 35-95)
+     */
+    public static double ruleBasedScore(StockFundamentals fundamentals) {
+        double score = 50.0;
+
+        // Dividend yield bonus
+        if (fundamentals.getDividendYield() != null) {
+            double yield = fundamentals.getDividendYield().doubleValue();
+            if (yield >= 5.0) score += 20;
+            else if (yield >= 3.0) score += 15;
+            else if (yield >= 2.0) score += 10;
+        }
+
+        // P/E ratio consideration
+        if (fundamentals.getPeRatio() != null) {
+            double pe = fundamentals.getPeRatio().doubleValue();
+            if (pe > 0 && pe < 15) score += 15;
+            else if (pe >= 15 && pe < 25) score += 10;
+            else if (pe >= 25) score -= 5;
+        }
+
+        // ROE consideration
+        if (fundamentals.getRoe() != null) {
+            double roe = fundamentals.getRoe().doubleValue();
+            if (roe >= 15) score += 10;
+            else if (roe >= 10) score += 5;
+        }
+        return score;
     }
 
     /**
@@ -314,13 +394,15 @@ public class AnalysisService {
      * Create error analysis
      */
     private AnalysisResults createErrorAnalysis(String symbol, String errorMessage) {
-        AnalysisResults analysis = new AnalysisResults();
-        analysis.setSymbol(symbol);
-        analysis.setAnalysisText("Error: " + errorMessage);
-        analysis.setRecommendation("HOLD");
-        analysis.setScore(0.0);
-        analysis.setFundamentalsSnapshot("N/A");
-        return analysisRepository.save(analysis);
+        return save(() -> {
+            AnalysisResults analysis = new AnalysisResults();
+            analysis.setSymbol(symbol);
+            analysis.setAnalysisText("Error: " + errorMessage);
+            analysis.setRecommendation("HOLD");
+            analysis.setScore(0.0);
+            analysis.setFundamentalsSnapshot("N/A");
+            return analysis;
+        });
     }
 
     /**
@@ -0,0 +1,283 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.model.entity.AnalysisResults;
+import com.valueinvestor.util.PhaseMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs stock analyses for many symbols as a background job.
+ * A fixed pool with one worker per Ollama parallel slot drains a shared work queue, so the model server
+ * is kept busy without queueing requests inside it (where they would eat into the 120 s read timeout).
+ * The queue is bounded across all jobs: a batch that does not fit is rejected as a whole.
+ * Progress is kept per symbol and pushed to SSE subscribers of the job as each analysis finishes.
+ */
+@Service
+public class BatchAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchAnalysisService.class);
+    static final String METRICS_OPERATION = "analysis-batch";
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final AnalysisService analysisService;
+    private final StockUniverseService stockUniverseService;
+    private final PhaseMetrics phaseMetrics;
+    private final ExecutorService executor;
+    private final Semaphore queueSlots;
+    private final int parallelSlots;
+    private final int queueCapacity;
+    private final int maxRetainedJobs;
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    public BatchAnalysisService(AppProperties appProperties, AnalysisService analysisService,
+                                StockUniverseService stockUniverseService, PhaseMetrics phaseMetrics) {
+        AppProperties.BatchAnalysis config = appProperties.getBatchAnalysis();
+        this.analysisService = analysisService;
+        this.stockUniverseService = stockUniverseService;
+        this.phaseMetrics = phaseMetrics;
+        this.parallelSlots = Math.max(1, config.getParallelSlots());
+        this.queueCapacity = Math.max(1, config.getQueueCapacity());
+        this.maxRetainedJobs = Math.max(1, config.getMaxRetainedJobs());
+        this.queueSlots = new Semaphore(queueCapacity);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelSlots, runnable -> Thread.ofPlatform()
+                .name("ollama-analysis-" + threadCount.incrementAndGet()).daemon(true).unstarted(runnable));
+        logger.info("Batch analysis: {} parallel slots, up to {} queued analyses", parallelSlots, queueCapacity);
+    }
+
+    /**
+     * Queue an analysis of every symbol (the active universe when none are given) and return immediately.
+     * Throws RejectedExecutionException when the work queue has no room for the whole batch.
+     */
+    public BatchJob submit(List<String> symbols) {
+        List<String> batch = new ArrayList<>(new LinkedHashSet<>(
+                symbols == null || symbols.isEmpty() ? stockUniverseService.getAllActiveSymbols() : symbols));
+        if (batch.isEmpty()) {
+            throw new IllegalArgumentException("No symbols to analyze");
+        }
+        if (!queueSlots.tryAcquire(batch.size())) {
+            throw new RejectedExecutionException("Analysis queue full: " + batch.size() + " symbols requested, "
+                    + queueSlots.availablePermits() + " of " + queueCapacity + " slots free");
+        }
+
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), batch);
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+        logger.info("Analysis batch {}: queued {} symbols", job.id, batch.size());
+
+        for (String symbol : batch) {
+            executor.execute(() -> {
+                try {
+                    runOne(job, symbol);
+                } finally {
+                    queueSlots.release();
+                }
+            });
+        }
+        return job;
+    }
+
+    private void runOne(BatchJob job, String symbol) {
+        ItemResult item = job.items.get(symbol);
+        if (job.cancelled) {
+            item.status = ItemStatus.CANCELLED;
+            job.itemFinished(item);
+            return;
+        }
+
+        item.status = ItemStatus.RUNNING;
+        long startNanos = System.nanoTime();
+        try {
+            AnalysisResults analysis = analysisService.analyzeStock(symbol);
+            item.analysisId = analysis.getId();
+            item.recommendation = analysis.getRecommendation();
+            item.score = analysis.getScore();
+            item.model = analysis.getModel();
+            item.status = ItemStatus.DONE;
+        } catch (Exception e) {
+            logger.error("Analysis batch {}: {} failed", job.id, symbol, e);
+            item.error = e.getMessage();
+            item.status = ItemStatus.FAILED;
+        } finally {
+            item.elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            phaseMetrics.record(METRICS_OPERATION, "item", startNanos);
+        }
+        job.itemFinished(item);
+    }
+
+    public Optional<BatchJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Skip the job's analyses that have not started yet; running ones finish normally
+     */
+    public Optional<BatchJob> cancel(String jobId) {
+        BatchJob job = jobs.get(jobId);
+        if (job != null) {
+            job.cancelled = true;
+        }
+        return Optional.ofNullable(job);
+    }
+
+    /**
+     * SSE stream of a job: the current snapshot first, one "item" event per finished analysis,
+     * and a final "complete" event after which the stream is closed
+     */
+    public Optional<SseEmitter> subscribe(String jobId) {
+        BatchJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+        job.attach(emitter);
+        return Optional.of(emitter);
+    }
+
+    public int getParallelSlots() { return parallelSlots; }
+    public int getQueuedCount() { return queueCapacity - queueSlots.availablePermits(); }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= maxRetainedJobs) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(BatchJob::isFinished)
+                .sorted((a, b) -> a.submittedAt.compareTo(b.submittedAt))
+                .limit(jobs.size() - maxRetainedJobs)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    public enum ItemStatus {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    /**
+     * Outcome of one symbol's analysis within a batch
+     */
+    public static class ItemResult {
+        private final String symbol;
+        private volatile ItemStatus status = ItemStatus.QUEUED;
+        private volatile Long analysisId;
+        private volatile String recommendation;
+        private volatile Double score;
+        private volatile String model;
+        private volatile String error;
+        private volatile long elapsedMs;
+
+        ItemResult(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() { return symbol; }
+        public ItemStatus getStatus() { return status; }
+        public Long getAnalysisId() { return analysisId; }
+        public String getRecommendation() { return recommendation; }
+        public Double getScore() { return score; }
+        public String getModel() { return model; }
+        public String getError() { return error; }
+        public long getElapsedMs() { return elapsedMs; }
+    }
+
+    /**
+     * A submitted batch: per-symbol results in submission order plus running counts
+     */
+    public static class BatchJob {
+        private final String id;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+        private final Map<String, ItemResult> items = new LinkedHashMap<>();
+        private final AtomicInteger finished = new AtomicInteger();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile boolean cancelled;
+
+        BatchJob(String id, List<String> symbols) {
+            this.id = id;
+            symbols.forEach(symbol -> items.put(symbol, new ItemResult(symbol)));
+        }
+
+        /**
+         * Send the snapshot, then either register for item events or, when the job is already finished,
+         * complete the stream. Holds the same lock as itemFinished, so the last item cannot slip in between
+         * and every emitter gets exactly one "complete" event.
+         */
+        private synchronized void attach(SseEmitter emitter) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(this));
+                if (isFinished()) {
+                    emitter.send(SseEmitter.event().name("complete").data(this));
+                    emitter.complete();
+                } else {
+                    emitters.add(emitter);
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+
+        private synchronized void itemFinished(ItemResult item) {
+            boolean last = finished.incrementAndGet() == items.size();
+            if (last) {
+                finishedAt = LocalDateTime.now();
+                logger.info("Analysis batch {} finished: {} done, {} failed, {} cancelled", id,
+                        count(ItemStatus.DONE), count(ItemStatus.FAILED), count(ItemStatus.CANCELLED));
+            }
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name("item").data(item));
+                    if (last) {
+                        emitter.send(SseEmitter.event().name("complete").data(this));
+                        emitter.complete();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    emitters.remove(emitter);
+                }
+            }
+        }
+
+        private long count(ItemStatus status) {
+            return items.values().stream().filter(item -> item.status == status).count();
+        }
+
+        public String getId() { return id; }
+        public LocalDateTime getSubmittedAt() { return submittedAt; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+        public boolean isCancelled() { return cancelled; }
+        public boolean isFinished() { return finished.get() == items.size(); }
+        public int getTotal() { return items.size(); }
+        public int getCompleted() { return finished.get(); }
+        public long getFailed() { return count(ItemStatus.FAILED); }
+        public List<ItemResult> getItems() { return new ArrayList<>(items.values()); }
+    }
+}
@@ -0,0 +1,198 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.util.TokenBucketRateLimiter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor for per-symbol downloads.
+ * Each symbol runs on its own virtual thread; a global token bucket limits the request rate
+ * and a semaphore caps how many requests are in flight, across all jobs running at once.
+ * This replaces fixed sleeps between sequential calls, so slow responses overlap instead of adding up.
+ */
+@Service
+public class BulkDownloadExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDownloadExecutor.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    public BulkDownloadExecutor(AppProperties appProperties) {
+        AppProperties.Download config = appProperties.getDownload();
+        this.rateLimiter = new TokenBucketRateLimiter(config.getPermitsPerSecond(), config.getBurst());
+        this.maxInFlight = Math.max(1, config.getMaxInFlight());
+        this.inFlight = new Semaphore(maxInFlight, true);
+        logger.info("Bulk download executor: {} requests/s, burst {}, max {} in flight",
+                config.getPermitsPerSecond(), config.getBurst(), maxInFlight);
+    }
+
+    /**
+     * Work done for one symbol
+     */
+    @FunctionalInterface
+    public interface SymbolTask<T> {
+        T run(String symbol) throws Exception;
+    }
+
+    /**
+     * Run a task for every symbol and wait for all of them.
+     * Failures are captured per symbol; if the caller is interrupted, outstanding downloads are cancelled.
+     */
+    public <T> DownloadReport<T> runAll(String jobName, List<String> symbols, SymbolTask<T> task) {
+        long startNanos = System.nanoTime();
+        int total = symbols.size();
+        AtomicInteger completed = new AtomicInteger();
+        logger.info("{}: starting {} symbols", jobName, total);
+
+        List<Future<SymbolOutcome<T>>> futures = new ArrayList<>(total);
+        for (String symbol : symbols) {
+            futures.add(executor.submit(() -> runOne(jobName, symbol, task, completed, total)));
+        }
+
+        DownloadReport<T> report = new DownloadReport<>();
+        try {
+            for (int i = 0; i < total; i++) {
+                report.add(symbols.get(i), await(futures.get(i), symbols.get(i)));
+            }
+        } catch (InterruptedException e) {
+            logger.error("{} interrupted, cancelling {} outstanding downloads", jobName, total - report.size());
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+        }
+
+        report.elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        logger.info("{} completed: {} succeeded, {} failed in {} ms",
+                jobName, report.getSuccessCount(), report.getFailureCount(), report.getElapsedMs());
+        return report;
+    }
+
+    private <T> SymbolOutcome<T> runOne(String jobName, String symbol, SymbolTask<T> task,
+                                        AtomicInteger completed, int total) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            rateLimiter.acquire();
+            long startNanos = System.nanoTime();
+            SymbolOutcome<T> outcome;
+            try {
+                outcome = SymbolOutcome.success(task.run(symbol), elapsedMs(startNanos));
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                outcome = SymbolOutcome.failure(e.getMessage(), elapsedMs(startNanos));
+            }
+
+            int done = completed.incrementAndGet();
+            if (outcome.isSuccess()) {
+                logger.info("[{}/{}] {} {}: done in {} ms", done, total, jobName, symbol, outcome.getElapsedMs());
+            } else {
+                logger.error("[{}/{}] {} {}: failed in {} ms: {}", done, total, jobName, symbol,
+                        outcome.getElapsedMs(), outcome.getError());
+            }
+            return outcome;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static <T> SymbolOutcome<T> await(Future<SymbolOutcome<T>> future, String symbol)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return SymbolOutcome.failure(symbol + ": " + cause.getMessage(), 0);
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Result and timing of one symbol's download
+     */
+    public static class SymbolOutcome<T> {
+        private final T result;
+        private final String error;
+        private final long elapsedMs;
+
+        private SymbolOutcome(T result, String error, long elapsedMs) {
+            this.result = result;
+            this.error = error;
+            this.elapsedMs = elapsedMs;
+        }
+
+        static <T> SymbolOutcome<T> success(T result, long elapsedMs) {
+            return new SymbolOutcome<>(result, null, elapsedMs);
+        }
+
+        static <T> SymbolOutcome<T> failure(String error, long elapsedMs) {
+            return new SymbolOutcome<>(null, error, elapsedMs);
+        }
+
+        public boolean isSuccess() { return error == null; }
+        public T getResult() { return result; }
+        public String getError() { return error; }
+        public long getElapsedMs() { return elapsedMs; }
+    }
+
+    /**
+     * Per-symbol outcomes of a job, in the order the symbols were given
+     */
+    public static class DownloadReport<T> {
+        private final Map<String, SymbolOutcome<T>> outcomes = new LinkedHashMap<>();
+        private long elapsedMs;
+
+        void add(String symbol, SymbolOutcome<T> outcome) {
+            outcomes.put(symbol, outcome);
+        }
+
+        public Map<String, SymbolOutcome<T>> getOutcomes() { return outcomes; }
+        public int size() { return outcomes.size(); }
+        public long getElapsedMs() { return elapsedMs; }
+
+        public long getSuccessCount() {
+            return outcomes.values().stream().filter(SymbolOutcome::isSuccess).count();
+        }
+
+        public long getFailureCount() {
+            return outcomes.size() - getSuccessCount();
+        }
+
+        /**
+         * Successful results by symbol, with a default for failed symbols
+         */
+        public Map<String, T> resultsOrDefault(T defaultValue) {
+            Map<String, T> results = new LinkedHashMap<>();
+            outcomes.forEach((symbol, outcome) ->
+                    results.put(symbol, outcome.isSuccess() && outcome.getResult() != null ? outcome.getResult() : defaultValue));
+            return results;
+        }
+    }
+}
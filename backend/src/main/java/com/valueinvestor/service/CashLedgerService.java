@@ -0,0 +1,195 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.CashLedger;
+import com.valueinvestor.model.entity.TransactionLog;
+import com.valueinvestor.repository.CashLedgerRepository;
+import com.valueinvestor.repository.TransactionLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maintains the cash_ledger running balance.
+ * Every DEPOSIT/BUY/SELL written to transaction_log must be passed to {@link #recordTransaction}
+ * inside the same transaction, so the balance can be read with a primary-key lookup.
+ * The ledger can always be rebuilt from transaction_log; it is verified once at startup.
+ */
+@Service
+public class CashLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CashLedgerService.class);
+
+    // SQLite stores decimals as REAL, so allow for rounding noise when comparing sums
+    private static final BigDecimal TOLERANCE = new BigDecimal("0.005");
+
+    @Autowired
+    private CashLedgerRepository cashLedgerRepository;
+
+    @Autowired
+    private TransactionLogRepository transactionLogRepository;
+
+    /**
+     * Verify the ledger against transaction_log once the application is ready, rebuilding it if needed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        try {
+            LedgerCheck check = verify();
+            if (!check.isConsistent()) {
+                logger.warn("Cash ledger out of sync (ledger ${}, transaction log ${}), rebuilding",
+                        check.getLedgerBalance(), check.getComputedBalance());
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to verify cash ledger: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Current cash balance. Read-only, so it goes to the reader pool instead of waiting for the writer;
+     * without a ledger row yet the balance is summed from transaction_log, and the row itself is written
+     * by {@link #rebuild} (startup verification or the next recorded transaction).
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance() {
+        return cashLedgerRepository.findBalance()
+                .orElseGet(() -> computeFromTransactionLog().getBalance());
+    }
+
+    /**
+     * Apply a newly saved transaction to the ledger.
+     * Must run in the transaction that inserted the row; REBALANCE entries do not move cash.
+     */
+    @Transactional
+    public void recordTransaction(TransactionLog transaction) {
+        BigDecimal amount = transaction.getTotalAmount() != null ? transaction.getTotalAmount() : BigDecimal.ZERO;
+        BigDecimal deposit = BigDecimal.ZERO;
+        BigDecimal buy = BigDecimal.ZERO;
+        BigDecimal sell = BigDecimal.ZERO;
+
+        switch (transaction.getType()) {
+            case DEPOSIT -> deposit = amount;
+            case BUY -> buy = amount;
+            case SELL -> sell = amount;
+            default -> {
+                return;
+            }
+        }
+
+        int updated = cashLedgerRepository.applyTransaction(deposit, buy, sell,
+                transaction.getId(), LocalDateTime.now());
+        if (updated == 0) {
+            // No ledger row yet: the rebuild sums the log, which already includes this insert
+            rebuild();
+        }
+    }
+
+    /**
+     * Apply a batch of newly saved transactions with a single ledger update.
+     * Same contract as {@link #recordTransaction}: must run in the transaction that inserted the rows.
+     */
+    @Transactional
+    public void recordTransactions(List<TransactionLog> transactions) {
+        BigDecimal deposit = BigDecimal.ZERO;
+        BigDecimal buy = BigDecimal.ZERO;
+        BigDecimal sell = BigDecimal.ZERO;
+        long count = 0;
+        Long lastId = null;
+
+        for (TransactionLog transaction : transactions) {
+            BigDecimal amount = transaction.getTotalAmount() != null ? transaction.getTotalAmount() : BigDecimal.ZERO;
+            switch (transaction.getType()) {
+                case DEPOSIT -> deposit = deposit.add(amount);
+                case BUY -> buy = buy.add(amount);
+                case SELL -> sell = sell.add(amount);
+                default -> {
+                    continue;
+                }
+            }
+            count++;
+            if (transaction.getId() != null && (lastId == null || transaction.getId() > lastId)) {
+                lastId = transaction.getId();
+            }
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        int updated = cashLedgerRepository.applyTransactions(deposit, buy, sell, count, lastId, LocalDateTime.now());
+        if (updated == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recompute the ledger from transaction_log and replace the stored row
+     */
+    @Transactional
+    public CashLedger rebuild() {
+        CashLedger ledger = computeFromTransactionLog();
+        ledger = cashLedgerRepository.save(ledger);
+        logger.info("Rebuilt cash ledger from {} transactions: balance ${}",
+                ledger.getTransactionCount(), ledger.getBalance());
+        return ledger;
+    }
+
+    /**
+     * Compare the stored ledger with a full aggregation of transaction_log
+     */
+    @Transactional(readOnly = true)
+    public LedgerCheck verify() {
+        CashLedger computed = computeFromTransactionLog();
+        CashLedger stored = cashLedgerRepository.findById(CashLedger.LEDGER_ID).orElse(null);
+
+        boolean consistent = stored != null
+                && stored.getBalance().subtract(computed.getBalance()).abs().compareTo(TOLERANCE) <= 0
+                && stored.getTransactionCount().equals(computed.getTransactionCount());
+
+        return new LedgerCheck(stored != null ? stored.getBalance() : null, computed.getBalance(),
+                stored != null ? stored.getTransactionCount() : 0, computed.getTransactionCount(), consistent);
+    }
+
+    private CashLedger computeFromTransactionLog() {
+        return new CashLedger(
+                transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.DEPOSIT),
+                transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.BUY),
+                transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.SELL),
+                transactionLogRepository.countCashTransactions(),
+                transactionLogRepository.findMaxId());
+    }
+
+    /**
+     * Result of comparing the ledger with transaction_log
+     */
+    public static class LedgerCheck {
+        private final BigDecimal ledgerBalance;
+        private final BigDecimal computedBalance;
+        private final long ledgerTransactionCount;
+        private final long computedTransactionCount;
+        private final boolean consistent;
+
+        public LedgerCheck(BigDecimal ledgerBalance, BigDecimal computedBalance,
+                           long ledgerTransactionCount, long computedTransactionCount, boolean consistent) {
+            this.ledgerBalance = ledgerBalance;
+            this.computedBalance = computedBalance;
+            this.ledgerTransactionCount = ledgerTransactionCount;
+            this.computedTransactionCount = computedTransactionCount;
+            this.consistent = consistent;
+        }
+
+        public BigDecimal getLedgerBalance() { return ledgerBalance; }
+        public BigDecimal getComputedBalance() { return computedBalance; }
+        public long getLedgerTransactionCount() { return ledgerTransactionCount; }
+        public long getComputedTransactionCount() { return computedTransactionCount; }
+        public boolean isConsistent() { return consistent; }
+    }
+}
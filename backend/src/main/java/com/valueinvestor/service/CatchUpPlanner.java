@@ -0,0 +1,221 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.dto.PortfolioValuation;
+import com.valueinvestor.model.entity.PositionHistory;
+import com.valueinvestor.model.entity.TransactionLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Plans a multi-month catch-up rebalance entirely in memory.
+ * Each month is replayed the way RebalanceService executes it (deposit, then buy the allocation at the
+ * historical close) against a running cash balance and position book, and valued at that month's closes.
+ * Nothing is written here: the caller persists the whole plan in one transaction.
+ */
+public final class CatchUpPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatchUpPlanner.class);
+
+    private CatchUpPlanner() {
+    }
+
+    /**
+     * Plan every month in order, starting from the current cash balance and positions.
+     * closesLookup returns the historical closes of a set of symbols on a date, looked up once per month;
+     * a missing symbol or a close of zero or less means no usable price.
+     */
+    public static Plan plan(List<LocalDate> months, BigDecimal monthlyInvestment, TransactionLog.TradingMode mode,
+                            Map<String, BigDecimal> allocation, BigDecimal startingCash,
+                            List<PositionHistory> startingPositions,
+                            BiFunction<Collection<String>, LocalDate, Map<String, BigDecimal>> closesLookup) {
+        BigDecimal cash = startingCash != null ? startingCash : BigDecimal.ZERO;
+        Map<String, Holding> book = new LinkedHashMap<>();
+        for (PositionHistory position : startingPositions) {
+            if (position.getQuantity().compareTo(BigDecimal.ZERO) > 0) {
+                book.put(position.getSymbol(), new Holding(position.getQuantity(), position.getAveragePrice(),
+                        position.getCurrentPrice()));
+            }
+        }
+
+        Plan plan = new Plan();
+        for (LocalDate rebalanceDate : months) {
+            PlannedMonth month = new PlannedMonth(rebalanceDate);
+            Set<String> symbols = new LinkedHashSet<>(allocation.keySet());
+            symbols.addAll(book.keySet());
+            Map<String, BigDecimal> closes = lookup(closesLookup, symbols, rebalanceDate);
+
+            if (monthlyInvestment.compareTo(BigDecimal.ZERO) > 0) {
+                month.deposit = new TransactionLog(TransactionLog.TransactionType.DEPOSIT, null, null, null,
+                        monthlyInvestment, mode, "Monthly investment deposit for " + rebalanceDate);
+                cash = cash.add(monthlyInvestment);
+            }
+
+            for (Map.Entry<String, BigDecimal> entry : allocation.entrySet()) {
+                String symbol = entry.getKey();
+                BigDecimal price = closes.getOrDefault(symbol, BigDecimal.ZERO);
+                if (price.compareTo(BigDecimal.ZERO) <= 0) {
+                    month.errors.put(symbol, "Invalid historical price");
+                    continue;
+                }
+
+                BigDecimal shares = entry.getValue().divide(price, 8, RoundingMode.DOWN);
+                if (shares.compareTo(BigDecimal.ZERO) <= 0) {
+                    continue;
+                }
+
+                BigDecimal totalAmount = shares.multiply(price).setScale(2, RoundingMode.HALF_UP);
+                month.buys.add(new TransactionLog(TransactionLog.TransactionType.BUY, symbol, shares, price,
+                        totalAmount, mode, "Simulated order"));
+                cash = cash.subtract(totalAmount);
+
+                Holding holding = book.get(symbol);
+                if (holding == null) {
+                    holding = new Holding(shares, price, price);
+                    book.put(symbol, holding);
+                } else {
+                    BigDecimal totalCost = holding.quantity.multiply(holding.averagePrice).add(shares.multiply(price));
+                    holding.quantity = holding.quantity.add(shares);
+                    holding.averagePrice = totalCost.divide(holding.quantity, 4, RoundingMode.HALF_UP);
+                    holding.lastPrice = price;
+                }
+
+                PositionHistory row = new PositionHistory(symbol, holding.quantity, holding.averagePrice);
+                row.setCurrentPrice(price);
+                row.calculateMetrics();
+                month.positionRows.add(row);
+            }
+
+            month.valuation = PortfolioValuation.of(valueBook(book, closes), cash);
+            plan.months.add(month);
+        }
+        return plan;
+    }
+
+    /**
+     * Price every holding at the month's close, falling back to the last known price when there is none
+     */
+    private static List<PositionHistory> valueBook(Map<String, Holding> book, Map<String, BigDecimal> closes) {
+        List<PositionHistory> positions = new ArrayList<>(book.size());
+        for (Map.Entry<String, Holding> entry : book.entrySet()) {
+            Holding holding = entry.getValue();
+            BigDecimal close = closes.getOrDefault(entry.getKey(), BigDecimal.ZERO);
+            if (close.compareTo(BigDecimal.ZERO) > 0) {
+                holding.lastPrice = close;
+            }
+
+            PositionHistory position = new PositionHistory(entry.getKey(), holding.quantity, holding.averagePrice);
+            position.setCurrentPrice(holding.lastPrice != null ? holding.lastPrice : BigDecimal.ZERO);
+            position.calculateMetrics();
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    private static Map<String, BigDecimal> lookup(
+            BiFunction<Collection<String>, LocalDate, Map<String, BigDecimal>> closesLookup,
+            Set<String> symbols, LocalDate date) {
+        Map<String, BigDecimal> closes = new HashMap<>();
+        if (symbols.isEmpty()) {
+            return closes;
+        }
+        try {
+            closesLookup.apply(symbols, date).forEach((symbol, close) -> {
+                if (close != null) {
+                    closes.put(symbol, close);
+                }
+            });
+        } catch (Exception e) {
+            // Treated like missing prices: the month's buys are skipped and holdings keep their last price
+            logger.warn("Failed to look up closes for {} on {}: {}", symbols, date, e.getMessage());
+        }
+        return closes;
+    }
+
+    private static class Holding {
+        BigDecimal quantity;
+        BigDecimal averagePrice;
+        BigDecimal lastPrice;
+
+        Holding(BigDecimal quantity, BigDecimal averagePrice, BigDecimal lastPrice) {
+            this.quantity = quantity;
+            this.averagePrice = averagePrice;
+            this.lastPrice = lastPrice;
+        }
+    }
+
+    /**
+     * Every planned month in order
+     */
+    public static class Plan {
+        private final List<PlannedMonth> months = new ArrayList<>();
+
+        public List<PlannedMonth> getMonths() {
+            return months;
+        }
+
+        /**
+         * All deposits and buys in execution order
+         */
+        public List<TransactionLog> getTransactions() {
+            List<TransactionLog> transactions = new ArrayList<>();
+            for (PlannedMonth month : months) {
+                if (month.deposit != null) {
+                    transactions.add(month.deposit);
+                }
+                transactions.addAll(month.buys);
+            }
+            return transactions;
+        }
+
+        /**
+         * All position_history rows in execution order
+         */
+        public List<PositionHistory> getPositionRows() {
+            List<PositionHistory> rows = new ArrayList<>();
+            for (PlannedMonth month : months) {
+                rows.addAll(month.positionRows);
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * One month of the plan: its deposit, fills, resulting position rows and as-of valuation
+     */
+    public static class PlannedMonth {
+        private final LocalDate rebalanceDate;
+        private TransactionLog deposit;
+        private final List<TransactionLog> buys = new ArrayList<>();
+        private final List<PositionHistory> positionRows = new ArrayList<>();
+        private final Map<String, String> errors = new HashMap<>();
+        private PortfolioValuation valuation;
+
+        PlannedMonth(LocalDate rebalanceDate) {
+            this.rebalanceDate = rebalanceDate;
+        }
+
+        public LocalDate getRebalanceDate() { return rebalanceDate; }
+        public TransactionLog getDeposit() { return deposit; }
+        public List<TransactionLog> getBuys() { return buys; }
+        public List<PositionHistory> getPositionRows() { return positionRows; }
+        public Map<String, String> getErrors() { return errors; }
+        public PortfolioValuation getValuation() { return valuation; }
+
+        public BigDecimal getTotalInvested() {
+            return buys.stream().map(TransactionLog::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+}
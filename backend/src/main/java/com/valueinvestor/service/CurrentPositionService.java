@@ -0,0 +1,115 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.CurrentPosition;
+import com.valueinvestor.model.entity.PositionHistory;
+import com.valueinvestor.repository.CurrentPositionRepository;
+import com.valueinvestor.repository.PositionHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains current_position, the one-row-per-symbol view of position_history.
+ * position_history stays the append-only audit trail; every row appended to it must also be
+ * passed to {@link #record} in the same transaction.
+ */
+@Service
+public class CurrentPositionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrentPositionService.class);
+
+    @Autowired
+    private CurrentPositionRepository currentPositionRepository;
+
+    @Autowired
+    private PositionHistoryRepository positionHistoryRepository;
+
+    /**
+     * Populate current_position from existing history the first time the table is used
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            if (currentPositionRepository.count() == 0 && positionHistoryRepository.count() > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to backfill current positions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Latest position of every symbol ever held, ordered by symbol
+     */
+    public List<PositionHistory> findAll() {
+        return currentPositionRepository.findAllByOrderBySymbolAsc().stream()
+                .map(CurrentPosition::toPositionHistory)
+                .toList();
+    }
+
+    /**
+     * Latest position for one symbol
+     */
+    public Optional<PositionHistory> find(String symbol) {
+        return currentPositionRepository.findById(symbol).map(CurrentPosition::toPositionHistory);
+    }
+
+    /**
+     * Make a newly saved position_history row the current position for its symbol
+     */
+    @Transactional
+    public void record(PositionHistory history) {
+        CurrentPosition current = currentPositionRepository.findById(history.getSymbol())
+                .orElseGet(CurrentPosition::new);
+        current.apply(history);
+        currentPositionRepository.save(current);
+    }
+
+    /**
+     * Record a batch of newly saved position_history rows in order; only the last row per symbol is written
+     */
+    @Transactional
+    public void recordAll(List<PositionHistory> histories) {
+        Map<String, PositionHistory> latest = new LinkedHashMap<>();
+        for (PositionHistory history : histories) {
+            latest.put(history.getSymbol(), history);
+        }
+
+        Map<String, CurrentPosition> existing = new LinkedHashMap<>();
+        currentPositionRepository.findAllById(latest.keySet()).forEach(c -> existing.put(c.getSymbol(), c));
+
+        List<CurrentPosition> updated = latest.values().stream().map(history -> {
+            CurrentPosition current = existing.getOrDefault(history.getSymbol(), new CurrentPosition());
+            current.apply(history);
+            return current;
+        }).toList();
+        currentPositionRepository.saveAll(updated);
+    }
+
+    /**
+     * Recompute current_position from the latest position_history row of each symbol
+     */
+    @Transactional
+    public int rebuild() {
+        // Rows sharing the latest timestamp for a symbol resolve to the one inserted last
+        Map<String, PositionHistory> latest = new LinkedHashMap<>();
+        for (PositionHistory history : positionHistoryRepository.findLatestPositions()) {
+            latest.merge(history.getSymbol(), history, (a, b) -> a.getId() > b.getId() ? a : b);
+        }
+
+        currentPositionRepository.deleteAllInBatch();
+        currentPositionRepository.saveAll(latest.values().stream().map(CurrentPosition::from).toList());
+
+        logger.info("Rebuilt current positions for {} symbols from position history", latest.size());
+        return latest.size();
+    }
+}
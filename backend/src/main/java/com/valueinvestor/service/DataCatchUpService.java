@@ -1,5 +1,6 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.config.AppProperties;
 import com.valueinvestor.model.entity.StockFundamentals;
 import com.valueinvestor.model.entity.StockPriceHistory;
 import com.valueinvestor.model.entity.StockUniverse;
@@ -14,6 +15,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -35,11 +37,22 @@ public class DataCatchUpService {
     @Autowired
     private StockFundamentalsRepository fundamentalsRepository;
 
+    @Autowired
+    private BulkDownloadExecutor downloadExecutor;
+
+    @Autowired
+    private AppProperties appProperties;
+
     /**
      * Run data catch-up check on application startup
      */
     @PostConstruct
     public void checkAndCatchUp() {
+        if (!appProperties.getCatchUp().isEnabled()) {
+            logger.info("Data catch-up disabled (app.catch-up.enabled=false)");
+            return;
+        }
+
         // Run in a separate thread to avoid blocking application startup
         Thread catchUpThread = new Thread(() -> {
             try {
@@ -152,51 +165,31 @@ public class DataCatchUpService {
      */
     private void downloadHistoricalDataBatch(List<String> symbols, boolean fullHistory) {
         LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusYears(HISTORICAL_YEARS);
+
+        BulkDownloadExecutor.DownloadReport<Integer> report = downloadExecutor.runAll(
+                fullHistory ? "5-year history download" : "Recent data update",
+                symbols,
+                symbol -> fullHistory
+                        ? historicalDataService.downloadHistoricalPrices(symbol, startDate, endDate)
+                        : historicalDataService.downloadMissingData(symbol));
+
         int totalDownloaded = 0;
         int successCount = 0;
         int failCount = 0;
 
-        for (int i = 0; i < symbols.size(); i++) {
-            String symbol = symbols.get(i);
-
-            try {
-                int recordsDownloaded;
-
-                if (fullHistory) {
-                    // Download full 5-year history
-                    LocalDate startDate = endDate.minusYears(HISTORICAL_YEARS);
-                    logger.info("[{}/{}] Downloading 5-year history for {}...",
-                            i + 1, symbols.size(), symbol);
-                    recordsDownloaded = historicalDataService.downloadHistoricalPrices(symbol, startDate, endDate);
-                } else {
-                    // Download only missing recent data
-                    logger.info("[{}/{}] Updating recent data for {}...",
-                            i + 1, symbols.size(), symbol);
-                    recordsDownloaded = historicalDataService.downloadMissingData(symbol);
-                }
-
-                if (recordsDownloaded > 0) {
-                    logger.info("{}: Successfully downloaded {} records", symbol, recordsDownloaded);
-                    totalDownloaded += recordsDownloaded;
-                    successCount++;
-                } else {
-                    logger.warn("{}: No records downloaded", symbol);
-                    failCount++;
-                }
-
-                // Rate limiting delay (2 seconds between stocks)
-                if (i < symbols.size() - 1) {
-                    Thread.sleep(2000);
-                }
-
-            } catch (InterruptedException e) {
-                logger.error("Download interrupted for {}: {}", symbol, e.getMessage());
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("Failed to download data for {}: {}", symbol, e.getMessage());
+        for (Map.Entry<String, BulkDownloadExecutor.SymbolOutcome<Integer>> entry : report.getOutcomes().entrySet()) {
+            if (!entry.getValue().isSuccess()) {
                 failCount++;
+                continue;
+            }
+            Integer recordsDownloaded = entry.getValue().getResult();
+            if (recordsDownloaded == null || recordsDownloaded == 0) {
+                logger.warn("{}: No records downloaded", entry.getKey());
+            } else {
+                totalDownloaded += recordsDownloaded;
             }
+            successCount++;
         }
 
         logger.info("Historical data download complete: {} records, {} successful, {} failed",
@@ -14,6 +14,7 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,6 +36,9 @@ public class DataRefreshScheduler {
     @Autowired
     private DataCatchUpService dataCatchUpService;
 
+    @Autowired
+    private BulkDownloadExecutor downloadExecutor;
+
     private LocalDateTime lastFundamentalsRefresh;
     private LocalDateTime lastHistoricalRefresh;
     private LocalDateTime lastQuoteRefresh;
@@ -78,42 +82,12 @@ public class DataRefreshScheduler {
 
         logger.info("Refreshing historical prices for {} stocks", symbols.size());
 
-        int totalUpdated = 0;
-        int successCount = 0;
-        int failCount = 0;
-
-        for (int i = 0; i < symbols.size(); i++) {
-            String symbol = symbols.get(i);
-
-            try {
-                logger.info("[{}/{}] Refreshing historical prices for {}",
-                        i + 1, symbols.size(), symbol);
-
-                int recordsUpdated = historicalDataService.downloadMissingData(symbol);
-
-                if (recordsUpdated > 0) {
-                    logger.info("{}: Updated {} records", symbol, recordsUpdated);
-                    totalUpdated += recordsUpdated;
-                    successCount++;
-                } else {
-                    logger.debug("{}: No updates needed", symbol);
-                    successCount++;
-                }
-
-                // Rate limiting
-                if (i < symbols.size() - 1) {
-                    Thread.sleep(1000);
-                }
+        BulkDownloadExecutor.DownloadReport<Integer> report = downloadExecutor.runAll(
+                "Weekly historical refresh", symbols, historicalDataService::downloadMissingData);
 
-            } catch (InterruptedException e) {
-                logger.error("Weekly refresh interrupted: {}", e.getMessage());
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("Failed to refresh data for {}: {}", symbol, e.getMessage());
-                failCount++;
-            }
-        }
+        int totalUpdated = report.resultsOrDefault(0).values().stream().mapToInt(Integer::intValue).sum();
+        long successCount = report.getSuccessCount();
+        long failCount = report.getFailureCount();
 
         lastHistoricalRefresh = LocalDateTime.now();
         logger.info("Weekly historical refresh completed: {} records updated, {} successful, {} failed",
@@ -142,28 +116,19 @@ public class DataRefreshScheduler {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(3);
 
-        int totalUpdated = 0;
-        int successCount = 0;
-
-        for (StockUniverse stock : activeStocks) {
-            try {
-                int recordsUpdated = historicalDataService.downloadHistoricalPrices(
-                        stock.getSymbol(), startDate, endDate);
-
-                if (recordsUpdated > 0) {
-                    totalUpdated += recordsUpdated;
-                    successCount++;
-                }
+        List<String> symbols = activeStocks.stream()
+                .map(StockUniverse::getSymbol)
+                .collect(Collectors.toList());
 
-                // Brief delay to avoid rate limiting
-                Thread.sleep(500);
+        // One bridge request per chunk of symbols instead of one per stock
+        Map<String, Integer> results = historicalDataService.downloadRecentPricesBatch(symbols, startDate, endDate);
 
-            } catch (InterruptedException e) {
-                logger.error("Quote refresh interrupted: {}", e.getMessage());
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("Failed to refresh quote for {}: {}", stock.getSymbol(), e.getMessage());
+        int totalUpdated = 0;
+        int successCount = 0;
+        for (Integer recordsUpdated : results.values()) {
+            if (recordsUpdated > 0) {
+                totalUpdated += recordsUpdated;
+                successCount++;
             }
         }
 
@@ -5,19 +5,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.valueinvestor.config.ShioajiProperties;
 import com.valueinvestor.model.entity.StockFundamentals;
 import com.valueinvestor.repository.StockFundamentalsRepository;
+import com.valueinvestor.util.OutboundHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service to refresh stock fundamentals data from Shioaji bridge.
@@ -38,7 +40,15 @@ public class FundamentalsRefreshService {
     @Autowired
     private TaiwanStockScreenerService screeningService;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OutboundHttpClient httpClient;
+
+    @Autowired
+    private BulkDownloadExecutor bulkDownloadExecutor;
+
+    @Autowired
+    private WriteBehindQueue writeQueue;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -65,7 +75,6 @@ public class FundamentalsRefreshService {
      * 15:00 = after Taiwan market closes at 13:30
      */
     @Scheduled(cron = "0 0 15 * * ?", zone = "Asia/Taipei")
-    @Transactional
     public void refreshFundamentalsScheduled() {
         logger.info("=== Starting scheduled fundamentals refresh ===");
         refreshAllFundamentals();
@@ -74,141 +83,152 @@ public class FundamentalsRefreshService {
 
     /**
      * Refresh fundamentals for all candidate stocks.
+     * Bridge calls run in parallel on the shared download executor; symbols the bridge cannot serve
+     * are filled from the screener's Yahoo data, then everything is written in one short transaction.
      */
-    @Transactional
     public int refreshAllFundamentals() {
         logger.info("Refreshing fundamentals for {} candidate stocks", CANDIDATE_SYMBOLS.size());
-        
-        int successCount = 0;
-        int failCount = 0;
-
-        for (String symbol : CANDIDATE_SYMBOLS) {
-            try {
-                boolean success = refreshFundamentalsForSymbol(symbol);
-                if (success) {
-                    successCount++;
-                } else {
-                    failCount++;
-                }
-                
-                // Rate limit: 200ms between calls
-                Thread.sleep(200);
-                
-            } catch (Exception e) {
-                logger.error("Failed to refresh fundamentals for {}: {}", symbol, e.getMessage());
-                failCount++;
+        long startNanos = System.nanoTime();
+
+        BulkDownloadExecutor.DownloadReport<FundamentalsUpdate> report =
+                bulkDownloadExecutor.runAll("Fundamentals refresh", CANDIDATE_SYMBOLS, this::fetchFromBridge);
+
+        List<FundamentalsUpdate> updates = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        report.getOutcomes().forEach((symbol, outcome) -> {
+            if (outcome.isSuccess() && outcome.getResult() != null) {
+                updates.add(outcome.getResult());
+            } else {
+                missing.add(symbol);
             }
-        }
+        });
+        updates.addAll(fallbackFromYahoo(missing));
 
-        logger.info("Fundamentals refresh completed: {} success, {} failed", successCount, failCount);
-        return successCount;
+        int saved = saveAll(updates);
+        logger.info("Fundamentals refresh completed: {} success, {} failed in {} ms", saved,
+                CANDIDATE_SYMBOLS.size() - saved, (System.nanoTime() - startNanos) / 1_000_000);
+        return saved;
     }
 
     /**
      * Refresh fundamentals for a single symbol from Shioaji bridge.
      */
-    @Transactional
     public boolean refreshFundamentalsForSymbol(String symbol) {
+        FundamentalsUpdate update;
         try {
-            String apiUrl = shioajiProperties.getApiUrl();
-            String url = String.format("%s/fundamentals/%s", apiUrl, symbol.replace(".TW", ""));
-            
-            logger.debug("Fetching fundamentals from: {}", url);
-            
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            
-            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                logger.warn("Failed to fetch fundamentals for {} - HTTP {}", symbol, response.getStatusCode());
-                return refreshFromYahooFinanceFallback(symbol);
-            }
+            update = fetchFromBridge(symbol);
+        } catch (Exception e) {
+            logger.error("Error refreshing fundamentals for {}: {}", symbol, e.getMessage());
+            update = null;
+        }
 
-            JsonNode root = objectMapper.readTree(response.getBody());
-            
-            if (!root.path("success").asBoolean(false)) {
-                logger.warn("Shioaji returned error for {}: {}", symbol, root.path("error").asText());
-                return refreshFromYahooFinanceFallback(symbol);
-            }
+        List<FundamentalsUpdate> updates = update != null ? List.of(update) : fallbackFromYahoo(List.of(symbol));
+        return saveAll(updates) > 0;
+    }
 
-            // Parse and save fundamentals
-            StockFundamentals fundamentals = fundamentalsRepository.findBySymbol(symbol)
-                    .orElse(new StockFundamentals(symbol, root.path("name").asText(symbol)));
+    /**
+     * Fetch fundamentals for one symbol from the bridge; null when the bridge has no data for it
+     */
+    private FundamentalsUpdate fetchFromBridge(String symbol) throws Exception {
+        String apiUrl = shioajiProperties.getApiUrl();
+        String url = String.format("%s/fundamentals/%s", apiUrl, symbol.replace(".TW", ""));
 
-            fundamentals.setName(root.path("name").asText(fundamentals.getName()));
-            fundamentals.setSector(root.path("sector").asText(null));
-            fundamentals.setMarket("TW");
-            fundamentals.setLastUpdated(LocalDateTime.now());
+        logger.debug("Fetching fundamentals from: {}", url);
 
-            if (root.has("dividendYield") && !root.path("dividendYield").isNull()) {
-                fundamentals.setDividendYield(new BigDecimal(root.path("dividendYield").asText("0")));
-            }
-            if (root.has("peRatio") && !root.path("peRatio").isNull()) {
-                fundamentals.setPeRatio(new BigDecimal(root.path("peRatio").asText("0")));
-            }
-            if (root.has("pbRatio") && !root.path("pbRatio").isNull()) {
-                fundamentals.setPbRatio(new BigDecimal(root.path("pbRatio").asText("0")));
-            }
-            if (root.has("roe") && !root.path("roe").isNull()) {
-                fundamentals.setRoe(new BigDecimal(root.path("roe").asText("0")));
-            }
-            if (root.has("marketCap") && !root.path("marketCap").isNull()) {
-                fundamentals.setMarketCap(new BigDecimal(root.path("marketCap").asText("0")));
-            }
-            if (root.has("currentPrice") && !root.path("currentPrice").isNull()) {
-                fundamentals.setCurrentPrice(new BigDecimal(root.path("currentPrice").asText("0")));
-            }
+        ResponseEntity<String> response = httpClient.restTemplate(ShioajiDataService.DEPENDENCY)
+                .getForEntity(url, String.class);
 
-            fundamentalsRepository.save(fundamentals);
-            logger.info("Updated fundamentals for {}: yield={}%, P/E={}, P/B={}, ROE={}%", 
-                symbol, fundamentals.getDividendYield(), fundamentals.getPeRatio(), 
-                fundamentals.getPbRatio(), fundamentals.getRoe());
-            
-            return true;
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            logger.warn("Failed to fetch fundamentals for {} - HTTP {}", symbol, response.getStatusCode());
+            return null;
+        }
 
-        } catch (Exception e) {
-            logger.error("Error refreshing fundamentals for {}: {}", symbol, e.getMessage());
-            return refreshFromYahooFinanceFallback(symbol);
+        JsonNode root = objectMapper.readTree(response.getBody());
+
+        if (!root.path("success").asBoolean(false)) {
+            logger.warn("Shioaji returned error for {}: {}", symbol, root.path("error").asText());
+            return null;
         }
+
+        FundamentalsUpdate update = new FundamentalsUpdate(symbol, root.path("name").asText(null),
+                root.path("sector").asText(null));
+        update.dividendYield = decimal(root, "dividendYield");
+        update.peRatio = decimal(root, "peRatio");
+        update.pbRatio = decimal(root, "pbRatio");
+        update.roe = decimal(root, "roe");
+        update.marketCap = decimal(root, "marketCap");
+        update.currentPrice = decimal(root, "currentPrice");
+        return update;
     }
 
     /**
      * Fallback: Use TaiwanStockScreenerService (Yahoo Finance) for fundamentals.
+     * The screener's dividend list is indexed by symbol once for all missing symbols.
      */
-    private boolean refreshFromYahooFinanceFallback(String symbol) {
+    private List<FundamentalsUpdate> fallbackFromYahoo(List<String> symbols) {
+        if (symbols.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, TaiwanStockScreenerService.StockInfo> bySymbol;
         try {
-            logger.info("Falling back to Yahoo Finance for {} fundamentals", symbol);
-            
-            TaiwanStockScreenerService.StockInfo stockInfo = null;
-            for (TaiwanStockScreenerService.StockInfo info : screeningService.getAllDividendStocks()) {
-                if (info.getSymbol().equals(symbol)) {
-                    stockInfo = info;
-                    break;
-                }
-            }
-            
+            logger.info("Falling back to Yahoo Finance for {} fundamentals", symbols);
+            bySymbol = screeningService.getDividendStocksBySymbol();
+        } catch (Exception e) {
+            logger.error("Yahoo fallback also failed for {}: {}", symbols, e.getMessage());
+            return List.of();
+        }
+
+        List<FundamentalsUpdate> updates = new ArrayList<>();
+        for (String symbol : symbols) {
+            TaiwanStockScreenerService.StockInfo stockInfo = bySymbol.get(symbol);
             if (stockInfo == null) {
                 logger.warn("No fallback data available for {}", symbol);
-                return false;
+                continue;
             }
+            FundamentalsUpdate update = new FundamentalsUpdate(symbol, stockInfo.getName(), stockInfo.getSector());
+            update.dividendYield = stockInfo.getDividendYield();
+            updates.add(update);
+        }
+        return updates;
+    }
 
-            StockFundamentals fundamentals = fundamentalsRepository.findBySymbol(symbol)
-                    .orElse(new StockFundamentals(symbol, stockInfo.getName()));
+    /**
+     * Upsert all updates as one write on the write queue: one lookup of the existing rows, one batched save
+     */
+    private int saveAll(List<FundamentalsUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
 
-            fundamentals.setName(stockInfo.getName());
-            fundamentals.setSector(stockInfo.getSector());
-            fundamentals.setDividendYield(stockInfo.getDividendYield());
-            fundamentals.setMarket("TW");
-            fundamentals.setLastUpdated(LocalDateTime.now());
+        Integer saved = writeQueue.write(() -> {
+            Map<String, StockFundamentals> existing = new HashMap<>();
+            for (StockFundamentals fundamentals : fundamentalsRepository.findBySymbolIn(
+                    updates.stream().map(FundamentalsUpdate::getSymbol).toList())) {
+                existing.put(fundamentals.getSymbol(), fundamentals);
+            }
 
-            fundamentalsRepository.save(fundamentals);
-            logger.info("Updated fundamentals from Yahoo fallback for {}: yield={}%", 
-                symbol, fundamentals.getDividendYield());
-            
-            return true;
+            List<StockFundamentals> rows = new ArrayList<>(updates.size());
+            for (FundamentalsUpdate update : updates) {
+                StockFundamentals fundamentals = existing.computeIfAbsent(update.getSymbol(),
+                        symbol -> new StockFundamentals(symbol, update.name != null ? update.name : symbol));
+                update.applyTo(fundamentals);
+                rows.add(fundamentals);
+                logger.info("Updated fundamentals for {}: yield={}%, P/E={}, P/B={}, ROE={}%",
+                        fundamentals.getSymbol(), fundamentals.getDividendYield(), fundamentals.getPeRatio(),
+                        fundamentals.getPbRatio(), fundamentals.getRoe());
+            }
+            fundamentalsRepository.saveAll(rows);
+            return rows.size();
+        });
+        return saved != null ? saved : 0;
+    }
 
-        } catch (Exception e) {
-            logger.error("Yahoo fallback also failed for {}: {}", symbol, e.getMessage());
-            return false;
+    private static BigDecimal decimal(JsonNode root, String field) {
+        if (root.has(field) && !root.path(field).isNull()) {
+            return new BigDecimal(root.path(field).asText("0"));
         }
+        return null;
     }
 
     /**
@@ -237,4 +257,44 @@ public class FundamentalsRefreshService {
         if (b == null) return -1;
         return a.compareTo(b);
     }
+
+    /**
+     * Fundamentals fetched for one symbol; null fields leave the stored value unchanged
+     */
+    static class FundamentalsUpdate {
+        private final String symbol;
+        private final String name;
+        private final String sector;
+        private BigDecimal dividendYield;
+        private BigDecimal peRatio;
+        private BigDecimal pbRatio;
+        private BigDecimal roe;
+        private BigDecimal marketCap;
+        private BigDecimal currentPrice;
+
+        FundamentalsUpdate(String symbol, String name, String sector) {
+            this.symbol = symbol;
+            this.name = name;
+            this.sector = sector;
+        }
+
+        String getSymbol() { return symbol; }
+
+        void applyTo(StockFundamentals fundamentals) {
+            if (name != null) {
+                fundamentals.setName(name);
+            }
+            if (sector != null) {
+                fundamentals.setSector(sector);
+            }
+            fundamentals.setMarket("TW");
+            fundamentals.setLastUpdated(LocalDateTime.now());
+            if (dividendYield != null) fundamentals.setDividendYield(dividendYield);
+            if (peRatio != null) fundamentals.setPeRatio(peRatio);
+            if (pbRatio != null) fundamentals.setPbRatio(pbRatio);
+            if (roe != null) fundamentals.setRoe(roe);
+            if (marketCap != null) fundamentals.setMarketCap(marketCap);
+            if (currentPrice != null) fundamentals.setCurrentPrice(currentPrice);
+        }
+    }
 }
@@ -15,7 +15,6 @@ import java.util.*;
 public class HistoricalDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(HistoricalDataService.class);
-    private static final int BATCH_DELAY_MS = 1000; // 1 second delay between API calls for Shioaji
 
     @Autowired
     private StockPriceHistoryRepository priceHistoryRepository;
@@ -23,97 +22,100 @@ public class HistoricalDataService {
     @Autowired
     private ShioajiDataService shioajiDataService;
 
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private PriceHistoryIngestWriter ingestWriter;
+
+    @Autowired
+    private BulkDownloadExecutor downloadExecutor;
+
     /**
      * Download historical prices for a single symbol using Shioaji
+     * The response is decoded as a stream and written in batches as it arrives, so a long
+     * backfill never holds the whole range in memory or inside one transaction.
+     * Throws when the bridge is unavailable or the bars cannot be saved, so bulk jobs count the symbol
+     * as failed; an empty response is not a failure and returns 0.
      */
-    @Transactional
     public int downloadHistoricalPrices(String symbol, LocalDate startDate, LocalDate endDate) {
         logger.info("Downloading historical data for {} from {} to {}", symbol, startDate, endDate);
 
         if (!shioajiDataService.isAvailable()) {
-            logger.error("Shioaji API not available, cannot fetch data for {}", symbol);
-            return 0;
+            throw new IllegalStateException("Shioaji API not available, cannot fetch data for " + symbol);
         }
 
-        try {
-            // Fetch historical data via Shioaji HTTP API
-            List<StockPriceHistory> shioajiPrices = shioajiDataService.getHistoricalPrices(symbol, startDate, endDate);
-
-            if (shioajiPrices == null || shioajiPrices.isEmpty()) {
-                logger.warn("No historical data from Shioaji for {}", symbol);
-                return 0;
-            }
-
-            int savedCount = 0;
-
-            for (StockPriceHistory price : shioajiPrices) {
-                try {
-                    // Check if data already exists for this date
-                    if (priceHistoryRepository.existsBySymbolAndDate(symbol, price.getDate())) {
-                        logger.debug("Data already exists for {} on {}, skipping", symbol, price.getDate());
-                        continue;
-                    }
-
-                    priceHistoryRepository.save(price);
-                    savedCount++;
+        // INSERT OR IGNORE skips bars that already exist for this date
+        PriceHistoryIngestWriter.IngestResult result = new PriceHistoryIngestWriter.IngestResult(symbol);
+        int received = shioajiDataService.streamHistoricalPrices(symbol, startDate, endDate,
+                PriceHistoryIngestWriter.BATCH_SIZE, chunk -> result.add(ingestWriter.writeBatch(symbol, chunk)));
 
-                } catch (Exception e) {
-                    logger.error("Failed to save Shioaji price data for {} on {}: {}",
-                            symbol, price.getDate(), e.getMessage());
-                }
+        if (received == 0) {
+            if (!shioajiDataService.isAvailable()) {
+                throw new IllegalStateException("Shioaji API became unreachable while fetching " + symbol);
             }
-
-            logger.info("Successfully saved {} historical prices for {} (Shioaji)", savedCount, symbol);
-            return savedCount;
-
-        } catch (Exception e) {
-            logger.error("Shioaji failed for {}: {}", symbol, e.getMessage());
+            logger.warn("No historical data from Shioaji for {}", symbol);
             return 0;
         }
+
+        logger.info("Successfully saved {} historical prices for {} (Shioaji, {} already present)",
+                result.getInserted(), symbol, result.getSkipped());
+        return result.getInserted();
     }
 
 
     /**
      * Bulk download historical prices for multiple symbols
+     * Downloads run concurrently, throttled by the shared download executor
      */
     public Map<String, Integer> bulkDownload(List<String> symbols, LocalDate startDate, LocalDate endDate) {
-        logger.info("Starting bulk download for {} symbols", symbols.size());
+        BulkDownloadExecutor.DownloadReport<Integer> report = downloadExecutor.runAll(
+                "Bulk download", symbols, symbol -> downloadHistoricalPrices(symbol, startDate, endDate));
+
+        Map<String, Integer> results = report.resultsOrDefault(0);
+        int totalRecords = results.values().stream().mapToInt(Integer::intValue).sum();
+        logger.info("Bulk download completed. Total records saved: {}", totalRecords);
 
-        Map<String, Integer> results = new HashMap<>();
+        return results;
+    }
 
-        for (int i = 0; i < symbols.size(); i++) {
-            String symbol = symbols.get(i);
-            try {
-                logger.info("Downloading historical data for {} ({}/{})", symbol, i + 1, symbols.size());
+    /**
+     * Download a short date range for many symbols with batched bridge requests
+     * Suited to frequent refreshes of recent bars; long backfills should use {@link #bulkDownload}
+     */
+    public Map<String, Integer> downloadRecentPricesBatch(List<String> symbols, LocalDate startDate, LocalDate endDate) {
+        Map<String, Integer> results = new LinkedHashMap<>();
+        symbols.forEach(symbol -> results.put(symbol, 0));
 
-                int count = downloadHistoricalPrices(symbol, startDate, endDate);
-                results.put(symbol, count);
+        if (!shioajiDataService.isAvailable()) {
+            logger.error("Shioaji API not available, cannot fetch data for {} symbols", symbols.size());
+            return results;
+        }
 
-                // Add delay to avoid rate limiting (2 seconds between each stock)
-                if (i < symbols.size() - 1) {
-                    Thread.sleep(BATCH_DELAY_MS);
-                }
+        Map<String, List<StockPriceHistory>> pricesBySymbol =
+                shioajiDataService.getHistoricalPricesBatch(symbols, startDate, endDate);
 
-            } catch (InterruptedException e) {
-                logger.error("Bulk download interrupted: {}", e.getMessage());
-                Thread.currentThread().interrupt();
-                break;
+        for (Map.Entry<String, List<StockPriceHistory>> entry : pricesBySymbol.entrySet()) {
+            try {
+                PriceHistoryIngestWriter.IngestResult result = ingestWriter.ingest(entry.getKey(), entry.getValue());
+                results.put(entry.getKey(), result.getInserted());
             } catch (Exception e) {
-                logger.error("Failed to download data for {}: {}", symbol, e.getMessage());
-                results.put(symbol, 0);
+                logger.error("Failed to save prices for {}: {}", entry.getKey(), e.getMessage());
             }
         }
 
-        int totalRecords = results.values().stream().mapToInt(Integer::intValue).sum();
-        logger.info("Bulk download completed. Total records saved: {}", totalRecords);
-
+        logger.info("Batch download completed for {} symbols ({} with data)", symbols.size(), pricesBySymbol.size());
         return results;
     }
 
     /**
      * Get historical prices for a symbol within a date range
+     * Served from the in-memory price store once it is loaded
      */
     public List<StockPriceHistory> getHistoricalPrices(String symbol, LocalDate startDate, LocalDate endDate) {
+        if (priceHistoryStore.isLoaded()) {
+            return priceHistoryStore.getRange(symbol, startDate, endDate);
+        }
         return priceHistoryRepository.findBySymbolAndDateBetweenOrderByDateAsc(symbol, startDate, endDate);
     }
 
@@ -135,6 +137,9 @@ public class HistoricalDataService {
      * Check if historical data exists for a symbol
      */
     public boolean hasHistoricalData(String symbol) {
+        if (priceHistoryStore.isLoaded()) {
+            return priceHistoryStore.hasSymbol(symbol);
+        }
         return priceHistoryRepository.existsBySymbol(symbol);
     }
 
@@ -142,6 +147,9 @@ public class HistoricalDataService {
      * Get count of historical records for a symbol
      */
     public long getRecordCount(String symbol) {
+        if (priceHistoryStore.isLoaded()) {
+            return priceHistoryStore.getBarCount(symbol);
+        }
         return priceHistoryRepository.countBySymbol(symbol);
     }
 
@@ -157,7 +165,6 @@ public class HistoricalDataService {
      * If no data exists, download last 5 years
      * If partial data exists, fill gaps
      */
-    @Transactional
     public int downloadMissingData(String symbol) {
         Optional<StockPriceHistory> latest = getLatestPrice(symbol);
         Optional<StockPriceHistory> earliest = getEarliestPrice(symbol);
@@ -205,12 +212,12 @@ public class HistoricalDataService {
     public void deleteHistoricalData(String symbol) {
         logger.warn("Deleting all historical data for {}", symbol);
         priceHistoryRepository.deleteBySymbol(symbol);
+        priceHistoryStore.recordDeleted(symbol);
     }
 
     /**
      * Refresh recent data (last 30 days) for a symbol
      */
-    @Transactional
     public int refreshRecentData(String symbol) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(30);
@@ -1,5 +1,6 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.model.dto.PortfolioValuation;
 import com.valueinvestor.model.entity.InsightsHistory;
 import com.valueinvestor.model.entity.PortfolioSnapshot;
 import com.valueinvestor.model.entity.PositionHistory;
@@ -51,9 +52,10 @@ public class InsightsService {
 
         try {
             // Gather portfolio data
-            List<PositionHistory> positions = portfolioService.getCurrentPortfolio();
-            BigDecimal portfolioValue = portfolioService.getTotalValue();
-            BigDecimal cashBalance = portfolioService.getCashBalance();
+            PortfolioValuation valuation = portfolioService.getValuation();
+            List<PositionHistory> positions = valuation.getPositions();
+            BigDecimal portfolioValue = valuation.getTotalValue();
+            BigDecimal cashBalance = valuation.getCashBalance();
 
             // Get recent transactions for context
             List<TransactionLog> recentTransactions = transactionLogRepository
@@ -89,7 +91,7 @@ public class InsightsService {
                     monthlyReturn
             );
             insights.setCashBalance(cashBalance);
-            insights.setTotalInvested(calculateTotalInvested(positions));
+            insights.setTotalInvested(valuation.getInvestedAmount());
             insights.setPositionsCount(positions.size());
 
             insights = insightsHistoryRepository.save(insights);
@@ -214,15 +216,6 @@ public class InsightsService {
                 .multiply(BigDecimal.valueOf(100));
     }
 
-    /**
-     * Calculate total invested amount
-     */
-    private BigDecimal calculateTotalInvested(List<PositionHistory> positions) {
-        return positions.stream()
-                .map(p -> p.getQuantity().multiply(p.getAveragePrice()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     /**
      * Format insights as markdown
      */
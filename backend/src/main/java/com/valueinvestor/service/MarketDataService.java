@@ -1,13 +1,14 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.model.dto.AsOfClose;
 import com.valueinvestor.model.entity.StockFundamentals;
 import com.valueinvestor.repository.StockFundamentalsRepository;
+import com.valueinvestor.util.YahooFinanceClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import yahoofinance.Stock;
-import yahoofinance.YahooFinance;
 import yahoofinance.quotes.stock.StockDividend;
 import yahoofinance.quotes.stock.StockStats;
 
@@ -15,7 +16,12 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -29,7 +35,9 @@ public class MarketDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(MarketDataService.class);
     private static final int CACHE_HOURS = 24;
-    private static final int YAHOO_RATE_LIMIT_MS = 2000; // 2 seconds between Yahoo calls
+    static final int HISTORICAL_LOOKBACK_DAYS = 7;
+    // Stay well below SQLite's bound-parameter limit in IN (...) lists
+    private static final int SYMBOL_QUERY_CHUNK = 500;
 
     @Autowired
     private StockFundamentalsRepository fundamentalsRepository;
@@ -40,65 +48,143 @@ public class MarketDataService {
     @Autowired
     private com.valueinvestor.repository.StockUniverseRepository stockUniverseRepository;
 
-    // Rate limiting for Yahoo Finance
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+
+    @Autowired
+    private QuoteCache quoteCache;
+
+    @Autowired
+    private YahooFinanceClient yahooFinanceClient;
+
+    @Autowired
+    private ShioajiDataService shioajiDataService;
+
     private final AtomicInteger yahooFailureCount = new AtomicInteger(0);
-    private volatile long lastYahooCall = 0;
 
     /**
      * Get current quote for a stock
-     * Prefers cached data, falls back to Yahoo Finance with rate limiting
+     * Served from the quote cache when warm; otherwise prefers cached data,
+     * falls back to Yahoo Finance with rate limiting (waiting at most app.yahoo.max-wait-ms for a slot)
      */
     public BigDecimal getQuote(String symbol) {
+        BigDecimal local = getLocalQuote(symbol);
+        if (local != null) {
+            return local;
+        }
+
+        // 2. Fallback to Yahoo Finance with rate limiting; stale or missing prices are not cached
+        BigDecimal yahooPrice = fetchYahooQuote(symbol);
+        if (yahooPrice != null) {
+            quoteCache.put(symbol, yahooPrice);
+            return yahooPrice;
+        }
+        return staleCachedPriceOrZero(symbol);
+    }
+
+    /**
+     * Get current quotes for many symbols.
+     * Warm and locally cached prices are used as in {@link #getQuote(String)}; the remaining symbols are
+     * quoted with one Shioaji snapshot request when the bridge is up, then from Yahoo Finance in batched
+     * requests, and any Yahoo misses fall back to the stale cached price or zero.
+     */
+    public Map<String, BigDecimal> getQuotes(Collection<String> symbols) {
+        Map<String, BigDecimal> quotes = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            BigDecimal local = getLocalQuote(symbol);
+            if (local != null) {
+                quotes.put(symbol, local);
+            } else {
+                misses.add(symbol);
+            }
+        }
+        if (!misses.isEmpty() && shioajiDataService.isAvailable()) {
+            Map<String, ShioajiDataService.QuoteDTO> snapshot = shioajiDataService.getQuoteSnapshot(misses);
+            snapshot.forEach((symbol, quote) -> {
+                quoteCache.put(symbol, quote.getPrice());
+                quotes.put(symbol, quote.getPrice());
+            });
+            misses.removeAll(snapshot.keySet());
+        }
+        if (misses.isEmpty()) {
+            return quotes;
+        }
+
+        Map<String, Stock> fetched = yahooFinanceClient.getAll(misses, null);
+        for (String symbol : misses) {
+            Stock stock = fetched.get(symbol);
+            if (stock != null && stock.getQuote() != null && stock.getQuote().getPrice() != null) {
+                quoteCache.put(symbol, stock.getQuote().getPrice());
+                quotes.put(symbol, stock.getQuote().getPrice());
+            } else {
+                quotes.put(symbol, staleCachedPriceOrZero(symbol));
+            }
+        }
+        logger.info("Yahoo Finance batch quotes: {}/{} symbols returned", fetched.size(), misses.size());
+        return quotes;
+    }
+
+    /**
+     * Quote from the quote cache or a recent locally cached bar; null when neither has one
+     */
+    private BigDecimal getLocalQuote(String symbol) {
+        Optional<BigDecimal> warm = quoteCache.get(symbol);
+        if (warm.isPresent()) {
+            return warm.get();
+        }
+
         // 1. Try cached price first (most recent)
-        Optional<com.valueinvestor.model.entity.StockPriceHistory> cached = 
-            priceHistoryRepository.findLatestPriceForSymbol(symbol);
-        
+        Optional<com.valueinvestor.model.entity.StockPriceHistory> cached = findLatestCachedPrice(symbol);
+
         if (cached.isPresent()) {
             LocalDate priceDate = cached.get().getDate();
             // If price is from today or yesterday, use it
             if (!priceDate.isBefore(LocalDate.now().minusDays(2))) {
                 logger.debug("Using cached quote for {}: NT${}", symbol, cached.get().getClose());
+                quoteCache.put(symbol, cached.get().getClose());
                 return cached.get().getClose();
             }
         }
+        return null;
+    }
 
-        // 2. Fallback to Yahoo Finance with rate limiting
-        return getYahooQuoteWithRateLimit(symbol);
+    /**
+     * Hit/miss/eviction counters of the quote cache
+     */
+    public QuoteCache.CacheStats getQuoteCacheStats() {
+        return quoteCache.getStats();
     }
 
     /**
-     * Get Yahoo Finance quote with rate limiting
+     * Rate-limited Yahoo Finance quote, or null when Yahoo has no price
      */
-    private BigDecimal getYahooQuoteWithRateLimit(String symbol) {
+    private BigDecimal fetchYahooQuote(String symbol) {
         try {
-            // Enforce rate limit
-            long now = System.currentTimeMillis();
-            long timeSinceLastCall = now - lastYahooCall;
-            if (timeSinceLastCall < YAHOO_RATE_LIMIT_MS) {
-                Thread.sleep(YAHOO_RATE_LIMIT_MS - timeSinceLastCall);
-            }
-            lastYahooCall = System.currentTimeMillis();
-
-            Stock stock = YahooFinance.get(symbol);
+            Stock stock = yahooFinanceClient.get(symbol);
             if (stock != null && stock.getQuote() != null && stock.getQuote().getPrice() != null) {
                 BigDecimal price = stock.getQuote().getPrice();
                 logger.info("Yahoo Finance quote for {}: NT${}", symbol, price);
                 yahooFailureCount.set(0);
                 return price;
             }
+        } catch (YahooFinanceClient.RateLimitedException e) {
+            logger.warn(e.getMessage());
         } catch (IOException e) {
             logger.warn("Yahoo Finance failed for {}: {}", symbol, e.getMessage());
             yahooFailureCount.incrementAndGet();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("Yahoo Finance error for {}: {}", symbol, e.getMessage());
             yahooFailureCount.incrementAndGet();
         }
+        return null;
+    }
 
-        // Last resort: return most recent cached price
-        Optional<com.valueinvestor.model.entity.StockPriceHistory> fallback = 
-            priceHistoryRepository.findLatestPriceForSymbol(symbol);
+    /**
+     * Last resort: most recent cached price regardless of age
+     */
+    private BigDecimal staleCachedPriceOrZero(String symbol) {
+        Optional<com.valueinvestor.model.entity.StockPriceHistory> fallback = findLatestCachedPrice(symbol);
         if (fallback.isPresent()) {
             logger.warn("Using stale cached price for {} from {}", symbol, fallback.get().getDate());
             return fallback.get().getClose();
@@ -119,8 +205,7 @@ public class MarketDataService {
 
         // Fallback to Yahoo Finance
         try {
-            Thread.sleep(YAHOO_RATE_LIMIT_MS);
-            Stock stock = YahooFinance.get(symbol);
+            Stock stock = yahooFinanceClient.get(symbol);
             if (stock != null && stock.getDividend() != null) {
                 BigDecimal yield = stock.getDividend().getAnnualYield();
                 logger.info("Dividend yield for {}: {}%", symbol, yield);
@@ -153,8 +238,7 @@ public class MarketDataService {
      */
     private StockFundamentals fetchAndSaveFundamentals(String symbol) {
         try {
-            Thread.sleep(YAHOO_RATE_LIMIT_MS);
-            Stock stock = YahooFinance.get(symbol, true);
+            Stock stock = yahooFinanceClient.get(symbol);
 
             if (stock != null) {
                 StockFundamentals fundamentals = fundamentalsRepository.findBySymbol(symbol)
@@ -186,8 +270,6 @@ public class MarketDataService {
             }
         } catch (IOException e) {
             logger.warn("Yahoo Finance failed for fundamentals {}: {}", symbol, e.getMessage());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("Error fetching fundamentals for {}: {}", symbol, e.getMessage());
         }
@@ -247,14 +329,16 @@ public class MarketDataService {
      */
     public boolean isValidSymbol(String symbol) {
         // Check local cache first
-        if (priceHistoryRepository.existsBySymbol(symbol)) {
+        boolean cached = priceHistoryStore.isLoaded()
+                ? priceHistoryStore.hasSymbol(symbol)
+                : priceHistoryRepository.existsBySymbol(symbol);
+        if (cached) {
             return true;
         }
         
         // Then try Yahoo
         try {
-            Thread.sleep(YAHOO_RATE_LIMIT_MS);
-            Stock stock = YahooFinance.get(symbol);
+            Stock stock = yahooFinanceClient.get(symbol);
             return stock != null && stock.getQuote() != null && stock.getQuote().getPrice() != null;
         } catch (Exception e) {
             logger.error("Failed to validate symbol: {}", symbol, e);
@@ -268,50 +352,126 @@ public class MarketDataService {
      */
     public BigDecimal getHistoricalClosePrice(String symbol, LocalDate date) {
         try {
-            // 1. Try exact date match from cache
-            Optional<com.valueinvestor.model.entity.StockPriceHistory> exactPrice = 
-                priceHistoryRepository.findBySymbolAndDate(symbol, date);
-            
-            if (exactPrice.isPresent()) {
-                logger.info("Using exact cached price for {} on {}: NT${}", 
-                    symbol, date, exactPrice.get().getClose());
-                return exactPrice.get().getClose();
+            return closesAsOf(List.of(symbol), date).get(symbol).getClose();
+        } catch (Exception e) {
+            logger.error("Failed to get historical price for {} on {}: {}", symbol, date, e.getMessage());
+            return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Closing prices of many symbols as of a date, with the same fallback tiers as
+     * {@link #getHistoricalClosePrice}: exact date or nearest earlier close within
+     * HISTORICAL_LOOKBACK_DAYS, then most recent cached close, then Yahoo Finance.
+     * Served from the price store when loaded; otherwise the first two tiers are one windowed
+     * query for all symbols and the third one query for whatever is left.
+     * Every requested symbol is in the result; Source.NONE carries a zero close.
+     */
+    public Map<String, AsOfClose> closesAsOf(Collection<String> symbols, LocalDate date) {
+        Map<String, AsOfClose> closes = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        LocalDate searchStart = date.minusDays(HISTORICAL_LOOKBACK_DAYS);
+        boolean fromStore = priceHistoryStore.isLoaded();
+
+        // 1 + 2. Exact date, or nearest earlier close within the lookback window
+        Map<String, com.valueinvestor.model.entity.StockPriceHistory> inWindow = new LinkedHashMap<>();
+        List<String> unique = new ArrayList<>(new LinkedHashSet<>(symbols));
+        if (fromStore) {
+            for (String symbol : unique) {
+                priceHistoryStore.getLatestOnOrBefore(symbol, date, searchStart)
+                        .ifPresent(bar -> inWindow.put(symbol, bar));
             }
-            
-            // 2. Try to find nearest price before requested date (within 7 days)
-            LocalDate searchStart = date.minusDays(7);
-            Optional<com.valueinvestor.model.entity.StockPriceHistory> nearestPrice = 
-                priceHistoryRepository.findNearestPriceBeforeDate(symbol, date, searchStart);
-            
-            if (nearestPrice.isPresent()) {
-                logger.info("Using nearest cached price for {} (wanted {}, got {}): NT${}", 
-                    symbol, date, nearestPrice.get().getDate(), nearestPrice.get().getClose());
-                return nearestPrice.get().getClose();
+        } else {
+            for (List<String> chunk : chunks(unique)) {
+                // Ordered latest first per symbol, so the first row seen is the as-of close
+                for (com.valueinvestor.model.entity.StockPriceHistory bar
+                        : priceHistoryRepository.findInWindowForSymbols(chunk, date, searchStart)) {
+                    inWindow.putIfAbsent(bar.getSymbol(), bar);
+                }
             }
-            
-            // 3. Fallback to most recent cached price (any date)
-            Optional<com.valueinvestor.model.entity.StockPriceHistory> latestPrice = 
-                priceHistoryRepository.findLatestPriceForSymbol(symbol);
-            
-            if (latestPrice.isPresent()) {
-                logger.warn("Using most recent cached price for {} (no data near {}): NT${} from {}", 
-                    symbol, date, latestPrice.get().getClose(), latestPrice.get().getDate());
-                return latestPrice.get().getClose();
+        }
+        for (String symbol : unique) {
+            com.valueinvestor.model.entity.StockPriceHistory bar = inWindow.get(symbol);
+            if (bar != null && bar.getClose() != null) {
+                AsOfClose.Source source = bar.getDate().equals(date)
+                        ? AsOfClose.Source.EXACT : AsOfClose.Source.NEAREST_BEFORE;
+                closes.put(symbol, new AsOfClose(symbol, date, bar.getDate(), bar.getClose(), source));
+            } else {
+                missing.add(symbol);
             }
-            
-            // 4. Last resort: try Yahoo Finance
-            logger.warn("No cached price for {}, attempting Yahoo Finance fetch", symbol);
-            BigDecimal yahooPrice = getYahooQuoteWithRateLimit(symbol);
-            if (yahooPrice.compareTo(BigDecimal.ZERO) > 0) {
-                return yahooPrice;
+        }
+
+        // 3. Most recent cached close, any date
+        if (!missing.isEmpty()) {
+            Map<String, com.valueinvestor.model.entity.StockPriceHistory> latest = new LinkedHashMap<>();
+            if (fromStore) {
+                for (String symbol : missing) {
+                    priceHistoryStore.getLatest(symbol).ifPresent(bar -> latest.put(symbol, bar));
+                }
+            } else {
+                for (List<String> chunk : chunks(missing)) {
+                    priceHistoryRepository.findLatestPricesForSymbols(chunk)
+                            .forEach(bar -> latest.putIfAbsent(bar.getSymbol(), bar));
+                }
             }
-            
-            logger.error("CRITICAL: No price available for {} on any source", symbol);
-            return BigDecimal.ZERO;
-            
-        } catch (Exception e) {
-            logger.error("Failed to get historical price for {} on {}: {}", symbol, date, e.getMessage());
-            return BigDecimal.ZERO;
+
+            List<String> stillMissing = new ArrayList<>();
+            for (String symbol : missing) {
+                com.valueinvestor.model.entity.StockPriceHistory bar = latest.get(symbol);
+                if (bar != null && bar.getClose() != null) {
+                    logger.warn("Using most recent cached price for {} (no data near {}): NT${} from {}",
+                        symbol, date, bar.getClose(), bar.getDate());
+                    closes.put(symbol, new AsOfClose(symbol, date, bar.getDate(), bar.getClose(),
+                            AsOfClose.Source.LATEST_CACHED));
+                } else {
+                    stillMissing.add(symbol);
+                }
+            }
+            missing = stillMissing;
+        }
+
+        // 4. Last resort: Yahoo Finance, one batched request for everything left
+        if (!missing.isEmpty()) {
+            logger.warn("No cached price for {}, attempting Yahoo Finance fetch", missing);
+            Map<String, Stock> fetched = yahooFinanceClient.getAll(missing, null);
+            for (String symbol : missing) {
+                Stock stock = fetched.get(symbol);
+                if (stock != null && stock.getQuote() != null && stock.getQuote().getPrice() != null
+                        && stock.getQuote().getPrice().compareTo(BigDecimal.ZERO) > 0) {
+                    closes.put(symbol, new AsOfClose(symbol, date, LocalDate.now(), stock.getQuote().getPrice(),
+                            AsOfClose.Source.YAHOO));
+                } else {
+                    logger.error("CRITICAL: No price available for {} on any source", symbol);
+                    closes.put(symbol, AsOfClose.none(symbol, date));
+                }
+            }
+        }
+
+        // Keep the caller's order
+        Map<String, AsOfClose> ordered = new LinkedHashMap<>();
+        for (String symbol : unique) {
+            ordered.put(symbol, closes.get(symbol));
+        }
+        logger.debug("As-of closes for {} symbols on {} ({})", ordered.size(), date,
+                fromStore ? "price store" : "database");
+        return ordered;
+    }
+
+    private static List<List<String>> chunks(List<String> symbols) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < symbols.size(); i += SYMBOL_QUERY_CHUNK) {
+            chunks.add(symbols.subList(i, Math.min(symbols.size(), i + SYMBOL_QUERY_CHUNK)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Latest locally cached bar for a symbol (in-memory store when loaded, else database)
+     */
+    private Optional<com.valueinvestor.model.entity.StockPriceHistory> findLatestCachedPrice(String symbol) {
+        if (priceHistoryStore.isLoaded()) {
+            return priceHistoryStore.getLatest(symbol);
         }
+        return priceHistoryRepository.findLatestPriceForSymbol(symbol);
     }
 }
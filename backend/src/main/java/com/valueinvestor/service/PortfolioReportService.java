@@ -1,5 +1,6 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.model.dto.PortfolioValuation;
 import com.valueinvestor.model.entity.PositionHistory;
 import com.valueinvestor.model.entity.StockFundamentals;
 import org.slf4j.Logger;
@@ -36,10 +37,11 @@ public class PortfolioReportService {
         logger.info("Generating daily portfolio report");
 
         try {
-            List<PositionHistory> positions = portfolioService.getCurrentPortfolio();
-            BigDecimal portfolioValue = portfolioService.getTotalValue();
-            BigDecimal cashBalance = portfolioService.getCashBalance();
-            BigDecimal totalInvested = calculateTotalInvested(positions);
+            PortfolioValuation valuation = portfolioService.getValuation();
+            List<PositionHistory> positions = valuation.getPositions();
+            BigDecimal portfolioValue = valuation.getTotalValue();
+            BigDecimal cashBalance = valuation.getCashBalance();
+            BigDecimal totalInvested = valuation.getInvestedAmount();
             BigDecimal totalGain = portfolioValue.subtract(cashBalance).subtract(totalInvested);
 
             String markdown = buildPortfolioMarkdown(
@@ -240,15 +242,6 @@ public class PortfolioReportService {
         return markdown.toString();
     }
 
-    /**
-     * Calculate total invested amount
-     */
-    private BigDecimal calculateTotalInvested(List<PositionHistory> positions) {
-        return positions.stream()
-                .map(p -> p.getQuantity().multiply(p.getAveragePrice()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     /**
      * Calculate annual dividend income
      */
@@ -1,11 +1,11 @@
 package com.valueinvestor.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valueinvestor.model.dto.PortfolioValuation;
 import com.valueinvestor.model.entity.PortfolioSnapshot;
 import com.valueinvestor.model.entity.PositionHistory;
 import com.valueinvestor.model.entity.TransactionLog;
 import com.valueinvestor.repository.PortfolioSnapshotRepository;
-import com.valueinvestor.repository.PositionHistoryRepository;
 import com.valueinvestor.repository.TransactionLogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,9 +24,6 @@ public class PortfolioService {
     private static final Logger logger = LoggerFactory.getLogger(PortfolioService.class);
     private static final int TARGET_POSITIONS = 5;
 
-    @Autowired
-    private PositionHistoryRepository positionHistoryRepository;
-
     @Autowired
     private PortfolioSnapshotRepository snapshotRepository;
 
@@ -36,19 +33,29 @@ public class PortfolioService {
     @Autowired
     private MarketDataService marketDataService;
 
+    @Autowired
+    private CashLedgerService cashLedgerService;
+
+    @Autowired
+    private CurrentPositionService currentPositionService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * Get current portfolio positions
      */
     public List<PositionHistory> getCurrentPortfolio() {
-        List<PositionHistory> positions = positionHistoryRepository.findLatestPositions();
+        List<PositionHistory> positions = currentPositionService.findAll();
 
-        // Update current prices and metrics
+        // Update current prices and metrics, quoting all held symbols in one call
+        List<String> held = positions.stream()
+                .filter(p -> p.getQuantity().compareTo(BigDecimal.ZERO) > 0)
+                .map(PositionHistory::getSymbol)
+                .toList();
+        Map<String, BigDecimal> quotes = held.isEmpty() ? Map.of() : marketDataService.getQuotes(held);
         for (PositionHistory position : positions) {
             if (position.getQuantity().compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal currentPrice = marketDataService.getQuote(position.getSymbol());
-                position.setCurrentPrice(currentPrice);
+                position.setCurrentPrice(quotes.getOrDefault(position.getSymbol(), BigDecimal.ZERO));
                 position.calculateMetrics();
             }
         }
@@ -58,56 +65,28 @@ public class PortfolioService {
                 .toList();
     }
 
+    /**
+     * Value the portfolio in one pass: each position is priced once and the cash balance read once
+     */
+    public PortfolioValuation getValuation() {
+        PortfolioValuation valuation = PortfolioValuation.of(getCurrentPortfolio(), getCashBalance());
+        logger.info("Total portfolio value: ${}", valuation.getTotalValue());
+        return valuation;
+    }
+
     /**
      * Get total portfolio value
      */
     public BigDecimal getTotalValue() {
-        List<PositionHistory> positions = getCurrentPortfolio();
-        BigDecimal totalValue = BigDecimal.ZERO;
-
-        for (PositionHistory position : positions) {
-            if (position.getMarketValue() != null) {
-                totalValue = totalValue.add(position.getMarketValue());
-            }
-        }
-
-        BigDecimal cash = getCashBalance();
-        totalValue = totalValue.add(cash);
-
-        logger.info("Total portfolio value: ${}", totalValue);
-        return totalValue;
+        return getValuation().getTotalValue();
     }
 
     /**
      * Get cash balance
+     * Read from the maintained cash ledger instead of summing transaction_log
      */
     public BigDecimal getCashBalance() {
-        // Calculate cash from deposits minus investments
-        List<TransactionLog> deposits = transactionLogRepository.findByTypeOrderByTimestampDesc(
-                TransactionLog.TransactionType.DEPOSIT);
-
-        List<TransactionLog> buys = transactionLogRepository.findByTypeOrderByTimestampDesc(
-                TransactionLog.TransactionType.BUY);
-
-        List<TransactionLog> sells = transactionLogRepository.findByTypeOrderByTimestampDesc(
-                TransactionLog.TransactionType.SELL);
-
-        BigDecimal totalDeposits = deposits.stream()
-                .map(TransactionLog::getTotalAmount)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalBuys = buys.stream()
-                .map(TransactionLog::getTotalAmount)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalSells = sells.stream()
-                .map(TransactionLog::getTotalAmount)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal cash = totalDeposits.subtract(totalBuys).add(totalSells);
+        BigDecimal cash = cashLedgerService.getBalance();
         logger.info("Cash balance: ${}", cash);
         return cash;
     }
@@ -116,26 +95,36 @@ public class PortfolioService {
      * Calculate target allocation for monthly investment
      */
     public Map<String, BigDecimal> calculateTargetAllocation(BigDecimal monthlyInvestment, List<String> selectedSymbols) {
-        Map<String, BigDecimal> allocation = new HashMap<>();
-
         if (selectedSymbols == null || selectedSymbols.isEmpty()) {
             logger.warn("No symbols provided for allocation");
+            return new HashMap<>();
+        }
+
+        Map<String, BigDecimal> allocation = equalWeightAllocation(monthlyInvestment, selectedSymbols);
+        logger.info("Calculated target allocation for {} stocks: ${} each",
+                   selectedSymbols.size(), allocation.get(selectedSymbols.get(0)));
+        return allocation;
+    }
+
+    /**
+     * Equal-weight split of an amount across symbols (rounded to cents, HALF_UP).
+     * Side-effect free so the backtest can replay it without touching the service.
+     */
+    public static Map<String, BigDecimal> equalWeightAllocation(BigDecimal amount, List<String> symbols) {
+        Map<String, BigDecimal> allocation = new HashMap<>();
+        if (symbols == null || symbols.isEmpty()) {
             return allocation;
         }
 
-        // Equal weight allocation
-        BigDecimal perStockAmount = monthlyInvestment.divide(
-                BigDecimal.valueOf(selectedSymbols.size()),
+        BigDecimal perStockAmount = amount.divide(
+                BigDecimal.valueOf(symbols.size()),
                 2,
                 RoundingMode.HALF_UP
         );
 
-        for (String symbol : selectedSymbols) {
+        for (String symbol : symbols) {
             allocation.put(symbol, perStockAmount);
         }
-
-        logger.info("Calculated target allocation for {} stocks: ${} each",
-                   selectedSymbols.size(), perStockAmount);
         return allocation;
     }
 
@@ -144,36 +133,17 @@ public class PortfolioService {
      */
     @Transactional
     public PortfolioSnapshot saveSnapshot(String snapshotType) {
+        return saveSnapshot(snapshotType, getValuation());
+    }
+
+    /**
+     * Save portfolio snapshot from a valuation the caller already holds
+     */
+    @Transactional
+    public PortfolioSnapshot saveSnapshot(String snapshotType, PortfolioValuation valuation) {
         try {
-            List<PositionHistory> positions = getCurrentPortfolio();
-            BigDecimal totalValue = getTotalValue();
-            BigDecimal cash = getCashBalance();
-
-            // Calculate total invested amount
-            BigDecimal investedAmount = positions.stream()
-                    .map(p -> p.getQuantity().multiply(p.getAveragePrice()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            // Calculate total P/L
-            BigDecimal totalPL = positions.stream()
-                    .map(PositionHistory::getUnrealizedPL)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            // Convert positions to JSON
-            String positionsJson = convertPositionsToJson(positions);
-
-            PortfolioSnapshot snapshot = new PortfolioSnapshot(
-                    totalValue,
-                    cash,
-                    investedAmount,
-                    totalPL,
-                    positionsJson,
-                    snapshotType
-            );
-
-            snapshot = snapshotRepository.save(snapshot);
-            logger.info("Saved portfolio snapshot: {} - Total Value: ${}", snapshotType, totalValue);
+            PortfolioSnapshot snapshot = snapshotRepository.save(buildSnapshot(snapshotType, valuation));
+            logger.info("Saved portfolio snapshot: {} - Total Value: ${}", snapshotType, valuation.getTotalValue());
 
             return snapshot;
 
@@ -183,6 +153,20 @@ public class PortfolioService {
         }
     }
 
+    /**
+     * Unsaved snapshot of a valuation, for callers that persist snapshots in bulk
+     */
+    public PortfolioSnapshot buildSnapshot(String snapshotType, PortfolioValuation valuation) {
+        return new PortfolioSnapshot(
+                valuation.getTotalValue(),
+                valuation.getCashBalance(),
+                valuation.getInvestedAmount(),
+                valuation.getTotalPL(),
+                convertPositionsToJson(valuation.getPositions()),
+                snapshotType
+        );
+    }
+
     /**
      * Get portfolio history
      */
@@ -213,6 +197,7 @@ public class PortfolioService {
         );
 
         deposit = transactionLogRepository.save(deposit);
+        cashLedgerService.recordTransaction(deposit);
         logger.info("Recorded cash deposit: ${}", amount);
 
         // Save snapshot after deposit
@@ -251,34 +236,6 @@ public class PortfolioService {
      * Get performance metrics
      */
     public Map<String, Object> getPerformanceMetrics() {
-        Map<String, Object> metrics = new HashMap<>();
-
-        BigDecimal totalValue = getTotalValue();
-        BigDecimal cash = getCashBalance();
-        List<PositionHistory> positions = getCurrentPortfolio();
-
-        BigDecimal investedAmount = positions.stream()
-                .map(p -> p.getQuantity().multiply(p.getAveragePrice()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalPL = positions.stream()
-                .map(PositionHistory::getUnrealizedPL)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal plPercentage = BigDecimal.ZERO;
-        if (investedAmount.compareTo(BigDecimal.ZERO) > 0) {
-            plPercentage = totalPL.divide(investedAmount, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-        }
-
-        metrics.put("totalValue", totalValue);
-        metrics.put("cashBalance", cash);
-        metrics.put("investedAmount", investedAmount);
-        metrics.put("totalPL", totalPL);
-        metrics.put("plPercentage", plPercentage);
-        metrics.put("positionCount", positions.size());
-
-        return metrics;
+        return getValuation().toMetrics();
     }
 }
@@ -0,0 +1,241 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.StockPriceHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk writer for stock_price_history.
+ * Bars are written with JDBC batches of SQLite "INSERT OR IGNORE" against the unique
+ * (symbol, date) index, each batch committed through the WriteBehindQueue together with whatever
+ * other background writes are pending, so a backfill never holds the database while waiting on
+ * the network and never issues per-row existence checks.
+ */
+@Service
+public class PriceHistoryIngestWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryIngestWriter.class);
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_OR_IGNORE_SQL =
+            "INSERT OR IGNORE INTO stock_price_history " +
+            "(symbol, date, open, high, low, close, volume, adjusted_close, market, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Hibernate's SQLite DDL does not emit the entity's UNIQUE(symbol, date), so create it explicitly
+    private static final String CREATE_UNIQUE_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_price_history_symbol_date ON stock_price_history (symbol, date)";
+
+    private static final String COUNT_DUPLICATE_KEYS_SQL =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM stock_price_history GROUP BY symbol, date HAVING COUNT(*) > 1) d";
+
+    private static final String DELETE_DUPLICATES_SQL =
+            "DELETE FROM stock_price_history WHERE id NOT IN " +
+            "(SELECT MIN(id) FROM stock_price_history GROUP BY symbol, date)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WriteBehindQueue writeQueue;
+    private final PriceHistoryStore priceHistoryStore;
+    private final AtomicBoolean uniqueIndexEnsured = new AtomicBoolean(false);
+
+    public PriceHistoryIngestWriter(JdbcTemplate jdbcTemplate,
+                                    WriteBehindQueue writeQueue,
+                                    PriceHistoryStore priceHistoryStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeQueue = writeQueue;
+        this.priceHistoryStore = priceHistoryStore;
+    }
+
+    /**
+     * Write all bars for a symbol in chunks of {@link #BATCH_SIZE}.
+     * Every chunk is queued before waiting, so consecutive chunks can share a group commit.
+     */
+    public IngestResult ingest(String symbol, List<StockPriceHistory> bars) {
+        IngestResult result = new IngestResult(symbol);
+        if (bars == null || bars.isEmpty()) {
+            return result;
+        }
+        ensureUniqueIndex();
+
+        List<CompletableFuture<BatchResult>> pending = new ArrayList<>();
+        for (int from = 0; from < bars.size(); from += BATCH_SIZE) {
+            List<StockPriceHistory> chunk = List.copyOf(bars.subList(from, Math.min(from + BATCH_SIZE, bars.size())));
+            pending.add(writeQueue.submit(() -> insertBatch(symbol, chunk)));
+        }
+        for (CompletableFuture<BatchResult> batch : pending) {
+            result.add(WriteBehindQueue.await(batch));
+        }
+
+        logger.debug("Ingested {} bars for {}: {} inserted, {} skipped in {} batches",
+                bars.size(), symbol, result.getInserted(), result.getSkipped(), result.getBatches());
+        return result;
+    }
+
+    /**
+     * Write a single chunk of bars and wait until it is committed
+     */
+    public BatchResult writeBatch(String symbol, List<StockPriceHistory> chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+        ensureUniqueIndex();
+
+        long startNanos = System.nanoTime();
+        List<StockPriceHistory> bars = List.copyOf(chunk);
+        BatchResult batch = writeQueue.write(() -> insertBatch(symbol, bars));
+
+        logger.info("Batch for {}: {} inserted, {} skipped in {} ms", symbol, batch.getInserted(),
+                batch.getSkipped(), (System.nanoTime() - startNanos) / 1_000_000);
+        return batch;
+    }
+
+    /**
+     * One JDBC batch, run on the write queue's thread inside its group transaction
+     */
+    private BatchResult insertBatch(String symbol, List<StockPriceHistory> chunk) {
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_OR_IGNORE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bind(ps, symbol, chunk.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        });
+
+        List<StockPriceHistory> inserted = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                inserted.add(chunk.get(i));
+            }
+        }
+        priceHistoryStore.recordIngested(symbol, inserted);
+        return new BatchResult(inserted.size(), chunk.size() - inserted.size());
+    }
+
+    private void bind(PreparedStatement ps, String symbol, StockPriceHistory bar) throws SQLException {
+        ps.setString(1, symbol);
+        ps.setDate(2, Date.valueOf(bar.getDate()));
+        ps.setBigDecimal(3, bar.getOpen());
+        ps.setBigDecimal(4, bar.getHigh());
+        ps.setBigDecimal(5, bar.getLow());
+        ps.setBigDecimal(6, bar.getClose());
+        ps.setLong(7, bar.getVolume() != null ? bar.getVolume() : 0L);
+        if (bar.getAdjustedClose() != null) {
+            ps.setBigDecimal(8, bar.getAdjustedClose());
+        } else {
+            ps.setNull(8, Types.NUMERIC);
+        }
+        ps.setString(9, bar.getMarket());
+        ps.setTimestamp(10, Timestamp.valueOf(bar.getCreatedAt() != null ? bar.getCreatedAt() : LocalDateTime.now()));
+    }
+
+    /**
+     * Add the (symbol, date) unique index once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        try {
+            migrateUniqueIndex();
+        } catch (Exception e) {
+            logger.error("Failed to add unique price history index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Remove duplicate (symbol, date) rows left from before the unique index existed, keeping the oldest,
+     * then create the index. Only deletes when the duplicate check finds any. Returns the rows removed.
+     */
+    int migrateUniqueIndex() {
+        synchronized (uniqueIndexEnsured) {
+            int removed = 0;
+            Integer duplicateKeys = jdbcTemplate.queryForObject(COUNT_DUPLICATE_KEYS_SQL, Integer.class);
+            if (duplicateKeys != null && duplicateKeys > 0) {
+                removed = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+                logger.warn("Removed {} duplicate price history rows across {} (symbol, date) keys",
+                        removed, duplicateKeys);
+            }
+            jdbcTemplate.execute(CREATE_UNIQUE_INDEX_SQL);
+            uniqueIndexEnsured.set(true);
+            return removed;
+        }
+    }
+
+    /**
+     * Make sure the (symbol, date) unique index exists so INSERT OR IGNORE can detect duplicates.
+     * Writes that run before the startup migration only create the index; if duplicate rows still block it,
+     * the write fails instead of deleting rows from the write path.
+     */
+    private void ensureUniqueIndex() {
+        if (uniqueIndexEnsured.get()) {
+            return;
+        }
+        synchronized (uniqueIndexEnsured) {
+            if (uniqueIndexEnsured.get()) {
+                return;
+            }
+            jdbcTemplate.execute(CREATE_UNIQUE_INDEX_SQL);
+            uniqueIndexEnsured.set(true);
+        }
+    }
+
+    /**
+     * Counts for one committed batch
+     */
+    public static class BatchResult {
+        private final int inserted;
+        private final int skipped;
+
+        public BatchResult(int inserted, int skipped) {
+            this.inserted = inserted;
+            this.skipped = skipped;
+        }
+
+        public int getInserted() { return inserted; }
+        public int getSkipped() { return skipped; }
+    }
+
+    /**
+     * Totals across all batches written for a symbol
+     */
+    public static class IngestResult {
+        private final String symbol;
+        private int inserted;
+        private int skipped;
+        private int batches;
+
+        public IngestResult(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public void add(BatchResult batch) {
+            this.inserted += batch.getInserted();
+            this.skipped += batch.getSkipped();
+            this.batches++;
+        }
+
+        public String getSymbol() { return symbol; }
+        public int getInserted() { return inserted; }
+        public int getSkipped() { return skipped; }
+        public int getBatches() { return batches; }
+    }
+}
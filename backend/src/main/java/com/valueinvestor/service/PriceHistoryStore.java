@@ -0,0 +1,397 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.repository.StockPriceHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Columnar in-memory copy of stock_price_history.
+ * Each symbol is held as parallel primitive arrays (epoch-day, OHLC, volume) sorted by date,
+ * so range and as-of lookups are a binary search instead of a database round trip.
+ *
+ * The store is loaded once at startup and kept current by the ingest path; every change
+ * invalidates the affected symbols in {@link QuoteCache}.
+ * Until loading has finished, {@link #isLoaded()} returns false and callers should
+ * fall back to the repository.
+ */
+@Service
+public class PriceHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryStore.class);
+    // Scale of the DECIMAL(12, 4) price columns, so entities match rows read through JPA
+    static final int PRICE_SCALE = 4;
+
+    @Autowired
+    private StockPriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private QuoteCache quoteCache;
+
+    private final Map<String, Series> seriesBySymbol = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * Load all price history into memory once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Failed to load price history store, lookups will use the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the whole store from the database
+     */
+    public synchronized void reload() {
+        long startNanos = System.nanoTime();
+        Map<String, Series> fresh = new HashMap<>();
+        int totalBars = 0;
+
+        for (String symbol : priceHistoryRepository.findDistinctSymbols()) {
+            Series series = Series.fromRows(priceHistoryRepository.findBarsBySymbol(symbol));
+            if (series.size() > 0) {
+                fresh.put(symbol, series);
+                totalBars += series.size();
+            }
+        }
+
+        seriesBySymbol.keySet().retainAll(fresh.keySet());
+        seriesBySymbol.putAll(fresh);
+        loaded = true;
+        quoteCache.invalidateAll();
+
+        logger.info("Price history store loaded {} bars for {} symbols in {} ms",
+                totalBars, fresh.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Whether the store has been loaded and can answer lookups authoritatively
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Merge newly persisted bars into the store.
+     * When called inside a transaction the merge is deferred until commit, so rolled-back
+     * inserts never become visible.
+     */
+    public void recordIngested(String symbol, Collection<StockPriceHistory> bars) {
+        if (bars == null || bars.isEmpty()) {
+            return;
+        }
+        List<StockPriceHistory> snapshot = new ArrayList<>(bars);
+        runAfterCommit(() -> merge(symbol, snapshot));
+    }
+
+    /**
+     * Drop a symbol from the store (after its rows have been deleted)
+     */
+    public void recordDeleted(String symbol) {
+        runAfterCommit(() -> evict(symbol));
+    }
+
+    synchronized void merge(String symbol, List<StockPriceHistory> bars) {
+        Series existing = seriesBySymbol.get(symbol);
+        Series incoming = Series.fromEntities(bars);
+        seriesBySymbol.put(symbol, existing == null ? incoming : existing.mergeKeepingExisting(incoming));
+        quoteCache.invalidate(symbol);
+    }
+
+    synchronized void evict(String symbol) {
+        seriesBySymbol.remove(symbol);
+        quoteCache.invalidate(symbol);
+    }
+
+    /**
+     * Bars for a symbol between two dates (inclusive), ordered by date ascending
+     */
+    public List<StockPriceHistory> getRange(String symbol, LocalDate startDate, LocalDate endDate) {
+        Series series = seriesBySymbol.get(symbol);
+        if (series == null) {
+            return new ArrayList<>();
+        }
+
+        int from = series.firstIndexOnOrAfter((int) startDate.toEpochDay());
+        int to = series.lastIndexOnOrBefore((int) endDate.toEpochDay());
+
+        List<StockPriceHistory> result = new ArrayList<>(Math.max(0, to - from + 1));
+        for (int i = from; i <= to; i++) {
+            result.add(series.toEntity(symbol, i));
+        }
+        return result;
+    }
+
+    /**
+     * Most recent bar for a symbol
+     */
+    public Optional<StockPriceHistory> getLatest(String symbol) {
+        Series series = seriesBySymbol.get(symbol);
+        if (series == null || series.size() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(series.toEntity(symbol, series.size() - 1));
+    }
+
+    /**
+     * Bar for a symbol on an exact date
+     */
+    public Optional<StockPriceHistory> getOnDate(String symbol, LocalDate date) {
+        Series series = seriesBySymbol.get(symbol);
+        if (series == null) {
+            return Optional.empty();
+        }
+        int index = series.indexOf((int) date.toEpochDay());
+        return index >= 0 ? Optional.of(series.toEntity(symbol, index)) : Optional.empty();
+    }
+
+    /**
+     * Latest bar on or before targetDate, but not earlier than minDate
+     */
+    public Optional<StockPriceHistory> getLatestOnOrBefore(String symbol, LocalDate targetDate, LocalDate minDate) {
+        Series series = seriesBySymbol.get(symbol);
+        if (series == null) {
+            return Optional.empty();
+        }
+        int index = series.lastIndexOnOrBefore((int) targetDate.toEpochDay());
+        if (index < 0 || series.days[index] < minDate.toEpochDay()) {
+            return Optional.empty();
+        }
+        return Optional.of(series.toEntity(symbol, index));
+    }
+
+    /**
+     * Closes for a symbol between two dates (inclusive) as primitive columns, without
+     * materialising entities. Empty when the symbol is unknown.
+     */
+    public DailyCloses getDailyCloses(String symbol, LocalDate startDate, LocalDate endDate) {
+        Series series = seriesBySymbol.get(symbol);
+        if (series == null) {
+            return new DailyCloses(new int[0], new double[0]);
+        }
+
+        int from = series.firstIndexOnOrAfter((int) startDate.toEpochDay());
+        int to = Math.max(from - 1, series.lastIndexOnOrBefore((int) endDate.toEpochDay()));
+        return new DailyCloses(Arrays.copyOfRange(series.days, from, to + 1),
+                Arrays.copyOfRange(series.close, from, to + 1));
+    }
+
+    /**
+     * Whether any bars are held for a symbol
+     */
+    public boolean hasSymbol(String symbol) {
+        Series series = seriesBySymbol.get(symbol);
+        return series != null && series.size() > 0;
+    }
+
+    /**
+     * Number of bars held for a symbol
+     */
+    public int getBarCount(String symbol) {
+        Series series = seriesBySymbol.get(symbol);
+        return series != null ? series.size() : 0;
+    }
+
+    /**
+     * Symbols currently held in the store
+     */
+    public Set<String> getSymbols() {
+        return Collections.unmodifiableSet(seriesBySymbol.keySet());
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Date-ordered closes for one symbol: epoch days and close prices at the same index
+     */
+    public static class DailyCloses {
+        private final int[] epochDays;
+        private final double[] closes;
+
+        public DailyCloses(int[] epochDays, double[] closes) {
+            this.epochDays = epochDays;
+            this.closes = closes;
+        }
+
+        public int[] getEpochDays() { return epochDays; }
+        public double[] getCloses() { return closes; }
+        public int size() { return epochDays.length; }
+    }
+
+    /**
+     * Immutable per-symbol column set. Replaced wholesale on every merge so readers never
+     * observe a partially updated series.
+     */
+    static final class Series {
+        final int[] days;
+        final double[] open;
+        final double[] high;
+        final double[] low;
+        final double[] close;
+        final double[] adjustedClose;
+        final long[] volume;
+
+        private Series(int size) {
+            this.days = new int[size];
+            this.open = new double[size];
+            this.high = new double[size];
+            this.low = new double[size];
+            this.close = new double[size];
+            this.adjustedClose = new double[size];
+            this.volume = new long[size];
+        }
+
+        int size() {
+            return days.length;
+        }
+
+        /**
+         * Build from repository rows already ordered by date (date, open, high, low, close, volume, adjustedClose)
+         */
+        static Series fromRows(List<Object[]> rows) {
+            Series series = new Series(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                series.days[i] = (int) ((LocalDate) row[0]).toEpochDay();
+                series.open[i] = toDouble(row[1]);
+                series.high[i] = toDouble(row[2]);
+                series.low[i] = toDouble(row[3]);
+                series.close[i] = toDouble(row[4]);
+                series.volume[i] = row[5] != null ? ((Number) row[5]).longValue() : 0L;
+                series.adjustedClose[i] = row[6] != null ? toDouble(row[6]) : Double.NaN;
+            }
+            return series;
+        }
+
+        /**
+         * Build from entities in any order; duplicate dates keep the first occurrence
+         */
+        static Series fromEntities(List<StockPriceHistory> bars) {
+            TreeMap<Integer, StockPriceHistory> byDay = new TreeMap<>();
+            for (StockPriceHistory bar : bars) {
+                byDay.putIfAbsent((int) bar.getDate().toEpochDay(), bar);
+            }
+
+            Series series = new Series(byDay.size());
+            int i = 0;
+            for (Map.Entry<Integer, StockPriceHistory> entry : byDay.entrySet()) {
+                StockPriceHistory bar = entry.getValue();
+                series.days[i] = entry.getKey();
+                series.open[i] = toDouble(bar.getOpen());
+                series.high[i] = toDouble(bar.getHigh());
+                series.low[i] = toDouble(bar.getLow());
+                series.close[i] = toDouble(bar.getClose());
+                series.volume[i] = bar.getVolume() != null ? bar.getVolume() : 0L;
+                series.adjustedClose[i] = bar.getAdjustedClose() != null ? toDouble(bar.getAdjustedClose()) : Double.NaN;
+                i++;
+            }
+            return series;
+        }
+
+        /**
+         * Merge two sorted series; on a date collision the existing bar wins (INSERT OR IGNORE semantics)
+         */
+        Series mergeKeepingExisting(Series incoming) {
+            // refs[i] >= 0 points into this series, refs[i] < 0 encodes -(index + 1) into incoming
+            int[] refs = new int[size() + incoming.size()];
+            int a = 0, b = 0, n = 0;
+            while (a < size() || b < incoming.size()) {
+                if (b >= incoming.size() || (a < size() && days[a] < incoming.days[b])) {
+                    refs[n++] = a++;
+                } else if (a >= size() || incoming.days[b] < days[a]) {
+                    refs[n++] = -(b++) - 1;
+                } else {
+                    refs[n++] = a++;
+                    b++;
+                }
+            }
+
+            Series result = new Series(n);
+            for (int i = 0; i < n; i++) {
+                int ref = refs[i];
+                Series source = ref >= 0 ? this : incoming;
+                int index = ref >= 0 ? ref : -ref - 1;
+                result.days[i] = source.days[index];
+                result.open[i] = source.open[index];
+                result.high[i] = source.high[index];
+                result.low[i] = source.low[index];
+                result.close[i] = source.close[index];
+                result.adjustedClose[i] = source.adjustedClose[index];
+                result.volume[i] = source.volume[index];
+            }
+            return result;
+        }
+
+        int indexOf(int day) {
+            int index = Arrays.binarySearch(days, day);
+            return index >= 0 ? index : -1;
+        }
+
+        /**
+         * Index of the last bar with day <= target, or -1
+         */
+        int lastIndexOnOrBefore(int day) {
+            int index = Arrays.binarySearch(days, day);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        /**
+         * Index of the first bar with day >= target (size() if none)
+         */
+        int firstIndexOnOrAfter(int day) {
+            int index = Arrays.binarySearch(days, day);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        StockPriceHistory toEntity(String symbol, int i) {
+            return new StockPriceHistory(
+                    symbol,
+                    LocalDate.ofEpochDay(days[i]),
+                    price(open[i]),
+                    price(high[i]),
+                    price(low[i]),
+                    price(close[i]),
+                    volume[i],
+                    Double.isNaN(adjustedClose[i]) ? null : price(adjustedClose[i])
+            );
+        }
+
+        private static BigDecimal price(double value) {
+            return BigDecimal.valueOf(value).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+        }
+
+        private static double toDouble(Object value) {
+            if (value == null) {
+                return 0.0;
+            }
+            return ((Number) value).doubleValue();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.util.TwseMarketHours;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-memory cache of latest quotes, in front of the price store and Yahoo Finance.
+ * While the TWSE session is open entries live for a short TTL; entries written after the close
+ * stay valid until the next open, since the price cannot change in between.
+ * Least recently used entries are evicted once the cache is full.
+ */
+@Component
+public class QuoteCache {
+
+    private final int maxSize;
+    private final Duration openTtl;
+    private final Clock clock;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    @Autowired
+    public QuoteCache(AppProperties appProperties) {
+        this(appProperties.getQuoteCache().getMaxSize(),
+                Duration.ofSeconds(appProperties.getQuoteCache().getOpenTtlSeconds()),
+                Clock.system(TwseMarketHours.ZONE));
+    }
+
+    QuoteCache(int maxSize, Duration openTtl, Clock clock) {
+        this.maxSize = Math.max(1, maxSize);
+        this.openTtl = openTtl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > QuoteCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached quote for a symbol, if present and not expired
+     */
+    public synchronized Optional<BigDecimal> get(String symbol) {
+        Entry entry = entries.get(symbol);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (!clock.instant().isBefore(entry.expiresAt)) {
+            entries.remove(symbol);
+            expirations++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.price);
+    }
+
+    /**
+     * Cache a quote with a TTL that follows the TWSE session
+     */
+    public synchronized void put(String symbol, BigDecimal price) {
+        if (symbol == null || price == null) {
+            return;
+        }
+        entries.put(symbol, new Entry(price, expiryFrom(ZonedDateTime.now(clock))));
+    }
+
+    /**
+     * Drop a symbol, e.g. after new bars were ingested for it
+     */
+    public synchronized void invalidate(String symbol) {
+        if (entries.remove(symbol) != null) {
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(entries.size(), maxSize, hits, misses, evictions, expirations, invalidations,
+                TwseMarketHours.isOpen(ZonedDateTime.now(clock)));
+    }
+
+    private Instant expiryFrom(ZonedDateTime now) {
+        if (TwseMarketHours.isOpen(now)) {
+            return now.toInstant().plus(openTtl);
+        }
+        return TwseMarketHours.nextOpen(now).toInstant();
+    }
+
+    private static final class Entry {
+        final BigDecimal price;
+        final Instant expiresAt;
+
+        Entry(BigDecimal price, Instant expiresAt) {
+            this.price = price;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Counters since startup
+     */
+    public static class CacheStats {
+        private final int size;
+        private final int maxSize;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+        private final boolean marketOpen;
+
+        public CacheStats(int size, int maxSize, long hits, long misses, long evictions,
+                          long expirations, long invalidations, boolean marketOpen) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+            this.marketOpen = marketOpen;
+        }
+
+        public int getSize() { return size; }
+        public int getMaxSize() { return maxSize; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+        public boolean isMarketOpen() { return marketOpen; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
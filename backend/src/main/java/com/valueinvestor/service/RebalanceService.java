@@ -1,10 +1,12 @@
 package com.valueinvestor.service;
 
 import com.valueinvestor.config.AppConfig;
+import com.valueinvestor.model.dto.AsOfClose;
 import com.valueinvestor.model.entity.AnalysisResults;
 import com.valueinvestor.model.entity.PortfolioSnapshot;
 import com.valueinvestor.model.entity.TransactionLog;
 import com.valueinvestor.repository.PortfolioSnapshotRepository;
+import com.valueinvestor.util.PhaseMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +26,10 @@ import java.util.stream.Collectors;
 public class RebalanceService {
 
     private static final Logger logger = LoggerFactory.getLogger(RebalanceService.class);
-    private static final int TARGET_POSITIONS = 5;
+    public static final int TARGET_POSITIONS = 5;
+    public static final BigDecimal MIN_DIVIDEND_YIELD = new BigDecimal("2.0");
+    public static final int CANDIDATE_POOL_SIZE = 20;
+    public static final String METRICS_OPERATION = "rebalance";
 
     @Autowired
     private AppConfig appConfig;
@@ -43,10 +48,16 @@ public class RebalanceService {
 
     @Autowired
     private PortfolioSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private CurrentPositionService currentPositionService;
     
     @Autowired
     private ProgressService progressService;
 
+    @Autowired
+    private PhaseMetrics phaseMetrics;
+
     /**
      * Perform monthly rebalance with catch-up logic
      * BULLETPROOF: Even with force=true, will NOT allow duplicate rebalances in the same month
@@ -57,6 +68,7 @@ public class RebalanceService {
 
         RebalanceResult result = new RebalanceResult();
         result.setStartTime(LocalDateTime.now());
+        long startNanos = System.nanoTime();
 
         try {
             // Determine how many months we need to catch up
@@ -88,14 +100,21 @@ public class RebalanceService {
 
             result.setMissedMonths(missedMonths.size());
 
-            // Perform rebalance for each missed month
-            for (LocalDate rebalanceDate : missedMonths) {
-                logger.info("--- Executing rebalance for {} ---", rebalanceDate);
+            if (missedMonths.size() > 1 && appConfig.getTradingMode() == TransactionLog.TradingMode.SIMULATION) {
+                // Simulated catch-up: plan every month in memory, then write it all at once
+                for (MonthlyRebalanceResult monthResult : executeCatchUp(missedMonths)) {
+                    result.addMonthlyResult(monthResult);
+                }
+            } else {
+                // Perform rebalance for each missed month (live orders go to the broker one by one)
+                for (LocalDate rebalanceDate : missedMonths) {
+                    logger.info("--- Executing rebalance for {} ---", rebalanceDate);
 
-                MonthlyRebalanceResult monthResult = executeMonthlyRebalance(rebalanceDate);
-                result.addMonthlyResult(monthResult);
+                    MonthlyRebalanceResult monthResult = executeMonthlyRebalance(rebalanceDate);
+                    result.addMonthlyResult(monthResult);
 
-                logger.info("Completed rebalance for {}: {} stocks purchased", rebalanceDate, monthResult.getStocksPurchased());
+                    logger.info("Completed rebalance for {}: {} stocks purchased", rebalanceDate, monthResult.getStocksPurchased());
+                }
             }
 
             result.setSuccess(true);
@@ -103,6 +122,7 @@ public class RebalanceService {
 
             logger.info("=== Monthly Rebalance Process Completed Successfully ===");
             logger.info("Total months processed: {}", result.getMissedMonths());
+            phaseMetrics.record(METRICS_OPERATION, "total", startNanos);
 
         } catch (Exception e) {
             logger.error("Monthly rebalance failed", e);
@@ -137,30 +157,20 @@ public class RebalanceService {
         progressService.sendProgress(ProgressService.ProgressType.DEPOSIT, 
             String.format("Adding NT$%,.0f monthly deposit...", monthlyInvestment), 10);
         
+        long phaseStart = System.nanoTime();
         if (monthlyInvestment.compareTo(BigDecimal.ZERO) > 0) {
             TransactionLog deposit = tradingService.createDeposit(monthlyInvestment, mode, 
                 "Monthly investment deposit for " + rebalanceDate);
             logger.info("Created deposit of NT${} for rebalance", monthlyInvestment);
         }
+        phaseMetrics.record(METRICS_OPERATION, "deposit", phaseStart);
 
         // Step 1: Select top 5 stocks
         progressService.sendProgress(ProgressService.ProgressType.SCREENING, 
             "Screening stocks for best dividend yield...", 25);
         
-        List<String> selectedStocks = selectTopStocks();
-
-        if (selectedStocks.isEmpty()) {
-            logger.warn("No stocks selected for rebalance - using top stocks from universe");
-            selectedStocks = marketDataService.getActiveStockSymbols()
-                    .stream()
-                    .limit(TARGET_POSITIONS)
-                    .collect(Collectors.toList());
-        }
-        
-        if (selectedStocks.size() < TARGET_POSITIONS) {
-            logger.warn("Only found {} stocks, target is {}", selectedStocks.size(), TARGET_POSITIONS);
-        }
-
+        phaseStart = System.nanoTime();
+        List<String> selectedStocks = selectStocksForRebalance();
         result.setSelectedStocks(selectedStocks);
         
         progressService.sendProgress(ProgressService.ProgressType.SCREENING, 
@@ -169,12 +179,18 @@ public class RebalanceService {
         // Step 2: Calculate allocation
         Map<String, BigDecimal> allocation = portfolioService.calculateTargetAllocation(
                 monthlyInvestment, selectedStocks);
+        phaseMetrics.record(METRICS_OPERATION, "select", phaseStart);
 
         // Step 3: Fetch prices
         progressService.sendProgress(ProgressService.ProgressType.FETCHING_PRICES, 
             "Fetching latest prices...", 45);
 
-        // Step 4: Execute buys using HISTORICAL prices for catch-up
+        // Step 4: Execute buys using HISTORICAL prices for catch-up (looked up for all symbols at once)
+        phaseStart = System.nanoTime();
+        Map<String, BigDecimal> historicalPrices = closePricesAsOf(allocation.keySet(), rebalanceDate);
+        phaseMetrics.record(METRICS_OPERATION, "prices", phaseStart);
+
+        phaseStart = System.nanoTime();
         List<TransactionLog> transactions = new ArrayList<>();
         int stockIndex = 0;
         int totalStocks = allocation.size();
@@ -188,7 +204,7 @@ public class RebalanceService {
 
             try {
                 // Use historical price for catch-up rebalancing (not current price)
-                BigDecimal historicalPrice = marketDataService.getHistoricalClosePrice(symbol, rebalanceDate);
+                BigDecimal historicalPrice = historicalPrices.getOrDefault(symbol, BigDecimal.ZERO);
                 
                 if (historicalPrice.compareTo(BigDecimal.ZERO) <= 0) {
                     logger.warn("Invalid historical price for {} on {}, skipping", symbol, rebalanceDate);
@@ -224,6 +240,8 @@ public class RebalanceService {
             }
         }
 
+        phaseMetrics.record(METRICS_OPERATION, "trades", phaseStart);
+
         result.setTransactions(transactions);
         result.setStocksPurchased(transactions.size());
         result.setTotalInvested(transactions.stream()
@@ -234,12 +252,129 @@ public class RebalanceService {
         progressService.sendProgress(ProgressService.ProgressType.GENERATING_INSIGHTS, 
             "Saving portfolio snapshot...", 95);
         
+        phaseStart = System.nanoTime();
         PortfolioSnapshot snapshot = portfolioService.saveSnapshot("MONTHLY_REBALANCE");
         result.setSnapshotId(snapshot.getId());
+        phaseMetrics.record(METRICS_OPERATION, "snapshot", phaseStart);
 
         return result;
     }
 
+    /**
+     * Simulated catch-up of several months as one plan-then-commit step.
+     * Deposits, fills and month-end valuations are computed in memory against historical closes
+     * (CatchUpPlanner), then the trades, positions and as-of snapshots are written in one batch.
+     */
+    private List<MonthlyRebalanceResult> executeCatchUp(List<LocalDate> months) {
+        BigDecimal monthlyInvestment = appConfig.getMonthlyInvestment();
+        TransactionLog.TradingMode mode = appConfig.getTradingMode();
+        logger.info("Planning catch-up of {} months ({} to {}), NT${} per month",
+                months.size(), months.get(0), months.get(months.size() - 1), monthlyInvestment);
+
+        progressService.sendProgress(ProgressService.ProgressType.SCREENING,
+            "Screening stocks for best dividend yield...", 25);
+
+        // Selection does not depend on the rebalance date, so every month buys the same stocks
+        long phaseStart = System.nanoTime();
+        List<String> selectedStocks = selectStocksForRebalance();
+        Map<String, BigDecimal> targetAllocation = portfolioService.calculateTargetAllocation(
+                monthlyInvestment, selectedStocks);
+        Map<String, BigDecimal> allocation = new LinkedHashMap<>();
+        for (String symbol : selectedStocks) {
+            if (targetAllocation.containsKey(symbol)) {
+                allocation.put(symbol, targetAllocation.get(symbol));
+            }
+        }
+        phaseMetrics.record(METRICS_OPERATION, "select", phaseStart);
+
+        progressService.sendProgress(ProgressService.ProgressType.FETCHING_PRICES,
+            String.format("Planning %d months against historical prices...", months.size()), 45);
+
+        phaseStart = System.nanoTime();
+        CatchUpPlanner.Plan plan = CatchUpPlanner.plan(months, monthlyInvestment, mode, allocation,
+                portfolioService.getCashBalance(), currentPositionService.findAll(),
+                this::closePricesAsOf);
+        phaseMetrics.record(METRICS_OPERATION, "plan", phaseStart);
+
+        progressService.sendProgress(ProgressService.ProgressType.BUYING,
+            String.format("Recording %d months of deposits and purchases...", months.size()), 70);
+
+        phaseStart = System.nanoTime();
+        tradingService.recordPlannedTrades(plan.getTransactions(), plan.getPositionRows());
+        phaseMetrics.record(METRICS_OPERATION, "trades", phaseStart);
+
+        progressService.sendProgress(ProgressService.ProgressType.GENERATING_INSIGHTS,
+            "Saving portfolio snapshots...", 95);
+
+        // Each snapshot is dated to its rebalance and valued at that month's closes
+        phaseStart = System.nanoTime();
+        List<PortfolioSnapshot> snapshots = new ArrayList<>();
+        for (CatchUpPlanner.PlannedMonth month : plan.getMonths()) {
+            PortfolioSnapshot snapshot = portfolioService.buildSnapshot("MONTHLY_REBALANCE", month.getValuation());
+            snapshot.setTimestamp(month.getRebalanceDate().atStartOfDay());
+            snapshots.add(snapshot);
+        }
+        snapshots = snapshotRepository.saveAll(snapshots);
+        phaseMetrics.record(METRICS_OPERATION, "snapshot", phaseStart);
+
+        List<MonthlyRebalanceResult> results = new ArrayList<>();
+        for (int i = 0; i < plan.getMonths().size(); i++) {
+            CatchUpPlanner.PlannedMonth month = plan.getMonths().get(i);
+            MonthlyRebalanceResult monthResult = new MonthlyRebalanceResult();
+            monthResult.setRebalanceDate(month.getRebalanceDate());
+            monthResult.setSelectedStocks(selectedStocks);
+            monthResult.setTransactions(month.getBuys());
+            monthResult.setStocksPurchased(month.getBuys().size());
+            monthResult.setTotalInvested(month.getTotalInvested());
+            monthResult.setSnapshotId(snapshots.get(i).getId());
+            month.getErrors().forEach(monthResult::addError);
+            results.add(monthResult);
+
+            logger.info("Completed rebalance for {}: {} stocks purchased", month.getRebalanceDate(),
+                    monthResult.getStocksPurchased());
+        }
+        return results;
+    }
+
+    /**
+     * Historical closes of the symbols on a date, using MarketDataService's usual fallback tiers
+     */
+    private Map<String, BigDecimal> closePricesAsOf(Collection<String> symbols, LocalDate date) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        if (symbols.isEmpty()) {
+            return prices;
+        }
+        try {
+            Map<String, AsOfClose> closes = marketDataService.closesAsOf(symbols, date);
+            if (closes != null) {
+                closes.forEach((symbol, close) -> prices.put(symbol, close.getClose()));
+            }
+        } catch (Exception e) {
+            logger.error("Failed to get historical prices on {}: {}", date, e.getMessage());
+        }
+        return prices;
+    }
+
+    /**
+     * Top stocks for this rebalance, falling back to the stock universe when there are no candidates
+     */
+    private List<String> selectStocksForRebalance() {
+        List<String> selectedStocks = selectTopStocks();
+
+        if (selectedStocks.isEmpty()) {
+            logger.warn("No stocks selected for rebalance - using top stocks from universe");
+            selectedStocks = marketDataService.getActiveStockSymbols()
+                    .stream()
+                    .limit(TARGET_POSITIONS)
+                    .collect(Collectors.toList());
+        }
+
+        if (selectedStocks.size() < TARGET_POSITIONS) {
+            logger.warn("Only found {} stocks, target is {}", selectedStocks.size(), TARGET_POSITIONS);
+        }
+        return selectedStocks;
+    }
+
     /**
      * Select top 5 stocks based on dividend yield (simplified for backtest/simulation)
      * Uses TaiwanStockScreenerService to get top dividend stocks directly
@@ -255,20 +390,33 @@ public class RebalanceService {
             return Collections.emptyList();
         }
 
-        // For simulation/backtest, just take top 5 by dividend yield
-        // The screener service already sorts by yield
-        List<String> topStocks = candidateSymbols.stream()
-            .limit(TARGET_POSITIONS)
-            .collect(Collectors.toList());
+        List<String> topStocks = selectTopStocks(candidateSymbols, TARGET_POSITIONS);
 
         logger.info("Selected top {} stocks: {}", topStocks.size(), topStocks);
         return topStocks;
     }
 
+    /**
+     * Take the first positions candidates; candidates are already ranked by dividend yield.
+     * Shared with the backtest so simulated and live selection cannot drift apart.
+     */
+    public static List<String> selectTopStocks(List<String> candidateSymbols, int positions) {
+        return candidateSymbols.stream()
+            .limit(positions)
+            .collect(Collectors.toList());
+    }
+
     /**
      * Get candidate stocks for analysis
      */
-    private List<String> getCandidateStocks() {
+    public List<String> getCandidateStocks() {
+        return getCandidateStocks(MIN_DIVIDEND_YIELD, CANDIDATE_POOL_SIZE);
+    }
+
+    /**
+     * Candidate stocks with an explicit yield floor and pool size (used by parameter sweeps)
+     */
+    public List<String> getCandidateStocks(BigDecimal minDividendYield, int poolSize) {
         // Use configured watchlist if available
         List<String> watchlist = appConfig.getWatchlist();
 
@@ -278,10 +426,9 @@ public class RebalanceService {
         }
 
         // Try to get top dividend stocks from fundamentals
-        BigDecimal minDividendYield = new BigDecimal("2.0"); // 2% minimum
         List<String> fromFundamentals = marketDataService.getStocksByMinDividendYield(minDividendYield)
                 .stream()
-                .limit(20) // Analyze top 20
+                .limit(poolSize)
                 .map(f -> f.getSymbol())
                 .collect(Collectors.toList());
         
@@ -294,7 +441,7 @@ public class RebalanceService {
         logger.info("No fundamentals data available, falling back to stock universe");
         List<String> fromUniverse = marketDataService.getActiveStockSymbols()
                 .stream()
-                .limit(20)
+                .limit(poolSize)
                 .collect(Collectors.toList());
         
         logger.info("Using {} stocks from universe as fallback", fromUniverse.size());
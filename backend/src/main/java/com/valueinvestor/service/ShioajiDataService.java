@@ -1,31 +1,52 @@
 package com.valueinvestor.service;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.valueinvestor.config.ShioajiProperties;
 import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.util.OutboundHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.ResourceAccessException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class ShioajiDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(ShioajiDataService.class);
+    static final int MAX_SYMBOLS_PER_REQUEST = 50;
+    static final String DEPENDENCY = "shioaji";
 
     private final String shioajiApiUrl;
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     private volatile boolean isAvailable = false;
 
-    public ShioajiDataService(ShioajiProperties shioajiProperties) {
+    public ShioajiDataService(ShioajiProperties shioajiProperties, OutboundHttpClient httpClient) {
         this.shioajiApiUrl = shioajiProperties.getApiUrl();
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = httpClient.restTemplate(DEPENDENCY);
         checkAvailability();
     }
 
@@ -118,58 +139,251 @@ public class ShioajiDataService {
      */
     public List<StockPriceHistory> getHistoricalPrices(String symbol, LocalDate startDate, LocalDate endDate) {
         List<StockPriceHistory> prices = new ArrayList<>();
+        streamHistoricalPrices(symbol, startDate, endDate, Integer.MAX_VALUE, prices::addAll);
+        return prices;
+    }
 
+    /**
+     * Stream historical price data for a symbol in chunks of at most chunkSize bars.
+     * The response body is decoded bar by bar with a Jackson parser, so memory use depends on
+     * chunkSize rather than on the length of the requested range. Exceptions thrown by the
+     * consumer are propagated to the caller.
+     *
+     * @return number of bars handed to the consumer
+     */
+    public int streamHistoricalPrices(String symbol, LocalDate startDate, LocalDate endDate,
+                                      int chunkSize, Consumer<List<StockPriceHistory>> chunkConsumer) {
         try {
             String url = String.format("%s/history/%s?start_date=%s&end_date=%s",
                     shioajiApiUrl, symbol.toUpperCase(), startDate, endDate);
 
             logger.info("Fetching Shioaji history for {}: {}", symbol, url);
 
-            HistoryResponse response = restTemplate.getForObject(url, HistoryResponse.class);
+            Integer count = restTemplate.execute(url, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                    response -> parseHistory(symbol, response.getBody(), chunkSize, chunkConsumer));
 
-            if (response == null || !response.success) {
-                logger.error("Shioaji history failed for {}: {}", symbol, response != null ? response.error : "null response");
-                return prices;
+            int total = count != null ? count : 0;
+            if (total > 0) {
+                logger.info("Shioaji returned {} historical prices for {}", total, symbol);
             }
+            return total;
+
+        } catch (ResourceAccessException e) {
+            // RestTemplate wraps every IOException from the extractor, including a malformed body:
+            // that only fails this symbol and says nothing about whether the bridge is reachable
+            if (e.getCause() instanceof JsonProcessingException parseError) {
+                logger.error("Malformed Shioaji history response for {}: {}", symbol, parseError.getOriginalMessage());
+                return 0;
+            }
+            logger.error("Shioaji API not reachable: {}", e.getMessage());
+            isAvailable = false;
+            return 0;
+        } catch (RestClientException e) {
+            logger.error("Error fetching Shioaji history for {}: {}", symbol, e.getMessage());
+            return 0;
+        }
+    }
 
-            if (response.prices == null || response.prices.isEmpty()) {
-                logger.warn("No historical data from Shioaji for {}", symbol);
-                return prices;
+    /**
+     * Decode a HistoryResponse body incrementally, handing bars to the consumer chunk by chunk
+     */
+    private int parseHistory(String symbol, InputStream body, int chunkSize,
+                             Consumer<List<StockPriceHistory>> chunkConsumer) throws IOException {
+        boolean success = false;
+        String error = null;
+        int total = 0;
+        List<StockPriceHistory> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object in history response for " + symbol);
             }
 
-            // Convert to StockPriceHistory entities
-            for (PriceBar bar : response.prices) {
-                try {
-                    LocalDate date = LocalDate.parse(bar.date);
-
-                    StockPriceHistory price = new StockPriceHistory();
-                    price.setSymbol(symbol);
-                    price.setDate(date);
-                    price.setOpen(bar.open);
-                    price.setHigh(bar.high);
-                    price.setLow(bar.low);
-                    price.setClose(bar.close);
-                    price.setVolume(bar.volume);
-                    price.setAdjustedClose(bar.adjustedClose);
-                    price.setMarket("US");
-
-                    prices.add(price);
-                } catch (Exception e) {
-                    logger.error("Error parsing price bar for {}: {}", symbol, e.getMessage());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "success" -> success = value == JsonToken.VALUE_TRUE;
+                    case "error" -> error = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "prices" -> {
+                        if (value != JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                            break;
+                        }
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            StockPriceHistory price = toEntity(symbol, objectMapper.readValue(parser, PriceBar.class));
+                            if (price == null) {
+                                continue;
+                            }
+                            chunk.add(price);
+                            total++;
+                            if (chunk.size() >= chunkSize) {
+                                chunkConsumer.accept(chunk);
+                                chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+                            }
+                        }
+                    }
+                    default -> parser.skipChildren();
                 }
             }
+        }
 
-            logger.info("Shioaji returned {} historical prices for {}", prices.size(), symbol);
-            return prices;
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
 
-        } catch (ResourceAccessException e) {
-            logger.error("Shioaji API not reachable: {}", e.getMessage());
-            isAvailable = false;
-            return prices;
+        if (!success) {
+            logger.error("Shioaji history failed for {}: {}", symbol, error);
+        } else if (total == 0) {
+            logger.warn("No historical data from Shioaji for {}", symbol);
+        }
+        return total;
+    }
+
+    /**
+     * Get historical price data for many symbols, one bridge request per chunk of symbols.
+     * Falls back to per-symbol requests when the bridge has no batch endpoint.
+     * Symbols the bridge could not serve are absent from the result.
+     */
+    public Map<String, List<StockPriceHistory>> getHistoricalPricesBatch(List<String> symbols,
+                                                                        LocalDate startDate, LocalDate endDate) {
+        Map<String, List<StockPriceHistory>> result = new LinkedHashMap<>();
+
+        for (List<String> chunk : chunks(symbols)) {
+            try {
+                Map<String, Object> request = new HashMap<>();
+                request.put("symbols", upperCase(chunk));
+                request.put("start_date", startDate.toString());
+                request.put("end_date", endDate.toString());
+
+                logger.info("Fetching Shioaji batch history for {} symbols from {} to {}",
+                        chunk.size(), startDate, endDate);
+                BatchHistoryResponse response = restTemplate.postForObject(
+                        shioajiApiUrl + "/history/batch", request, BatchHistoryResponse.class);
+
+                if (response == null || !response.success || response.results == null) {
+                    logger.error("Shioaji batch history failed: {}", response != null ? response.error : "null response");
+                    continue;
+                }
+
+                for (String symbol : chunk) {
+                    HistoryResponse history = response.results.get(symbol.toUpperCase());
+                    if (history == null || !history.success) {
+                        logger.warn("Shioaji batch history has no data for {}: {}",
+                                symbol, history != null ? history.error : "missing from response");
+                        continue;
+                    }
+                    result.put(symbol, history.prices != null ? toEntities(symbol, history.prices) : new ArrayList<>());
+                }
+
+            } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed e) {
+                logger.warn("Shioaji bridge has no batch history endpoint, fetching {} symbols one by one", chunk.size());
+                for (String symbol : chunk) {
+                    result.put(symbol, getHistoricalPrices(symbol, startDate, endDate));
+                }
+            } catch (ResourceAccessException e) {
+                logger.error("Shioaji API not reachable: {}", e.getMessage());
+                isAvailable = false;
+                return result;
+            } catch (Exception e) {
+                logger.error("Error fetching Shioaji batch history: {}", e.getMessage());
+            }
+        }
+
+        logger.info("Shioaji batch history returned data for {}/{} symbols", result.size(), symbols.size());
+        return result;
+    }
+
+    /**
+     * Get current quotes for many symbols with one snapshot request per chunk of symbols.
+     * Symbols without a quote are absent from the result.
+     */
+    public Map<String, QuoteDTO> getQuoteSnapshot(List<String> symbols) {
+        Map<String, QuoteDTO> result = new LinkedHashMap<>();
+        Map<String, String> requestedByUpper = new HashMap<>();
+        for (String symbol : symbols) {
+            requestedByUpper.putIfAbsent(symbol.toUpperCase(), symbol);
+        }
+
+        for (List<String> chunk : chunks(symbols)) {
+            try {
+                SnapshotResponse response = restTemplate.postForObject(
+                        shioajiApiUrl + "/quotes/snapshot", Map.of("symbols", upperCase(chunk)), SnapshotResponse.class);
+
+                if (response == null || !response.success || response.quotes == null) {
+                    logger.error("Shioaji snapshot failed: {}", response != null ? response.error : "null response");
+                    continue;
+                }
+
+                for (QuoteResponse quoteResponse : response.quotes) {
+                    if (!quoteResponse.success || quoteResponse.symbol == null || quoteResponse.price == null) {
+                        continue;
+                    }
+                    String symbol = requestedByUpper.getOrDefault(quoteResponse.symbol, quoteResponse.symbol);
+                    QuoteDTO quote = new QuoteDTO();
+                    quote.setSymbol(symbol);
+                    quote.setPrice(quoteResponse.price);
+                    quote.setMarket("US");
+                    result.put(symbol, quote);
+                }
+
+            } catch (ResourceAccessException e) {
+                logger.error("Shioaji API not reachable: {}", e.getMessage());
+                isAvailable = false;
+                return result;
+            } catch (Exception e) {
+                logger.error("Error fetching Shioaji snapshot: {}", e.getMessage());
+            }
+        }
+
+        logger.info("Shioaji snapshot returned quotes for {}/{} symbols", result.size(), symbols.size());
+        return result;
+    }
+
+    private List<StockPriceHistory> toEntities(String symbol, List<PriceBar> bars) {
+        List<StockPriceHistory> prices = new ArrayList<>(bars.size());
+        for (PriceBar bar : bars) {
+            StockPriceHistory price = toEntity(symbol, bar);
+            if (price != null) {
+                prices.add(price);
+            }
+        }
+        return prices;
+    }
+
+    private StockPriceHistory toEntity(String symbol, PriceBar bar) {
+        try {
+            LocalDate date = LocalDate.parse(bar.date);
+
+            StockPriceHistory price = new StockPriceHistory();
+            price.setSymbol(symbol);
+            price.setDate(date);
+            price.setOpen(bar.open);
+            price.setHigh(bar.high);
+            price.setLow(bar.low);
+            price.setClose(bar.close);
+            price.setVolume(bar.volume);
+            price.setAdjustedClose(bar.adjustedClose);
+            price.setMarket("US");
+            return price;
         } catch (Exception e) {
-            logger.error("Error fetching Shioaji history for {}: {}", symbol, e.getMessage());
-            return prices;
+            logger.error("Error parsing price bar for {}: {}", symbol, e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<List<String>> chunks(List<String> symbols) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < symbols.size(); from += MAX_SYMBOLS_PER_REQUEST) {
+            chunks.add(symbols.subList(from, Math.min(from + MAX_SYMBOLS_PER_REQUEST, symbols.size())));
         }
+        return chunks;
+    }
+
+    private static List<String> upperCase(List<String> symbols) {
+        return symbols.stream().map(String::toUpperCase).toList();
     }
 
     // Response DTOs
@@ -216,6 +430,20 @@ public class ShioajiDataService {
         public BigDecimal adjustedClose;
     }
 
+    private static class BatchHistoryResponse {
+        public boolean success;
+        public Map<String, HistoryResponse> results;
+        public Integer count;
+        public String error;
+    }
+
+    private static class SnapshotResponse {
+        public boolean success;
+        public List<QuoteResponse> quotes;
+        public Integer count;
+        public String error;
+    }
+
     private static class HealthResponse {
         public String status;
         public boolean connected;
@@ -2,36 +2,66 @@ package com.valueinvestor.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valueinvestor.model.entity.ScreenerSnapshot;
+import com.valueinvestor.repository.ScreenerSnapshotRepository;
+import com.valueinvestor.util.OutboundHttpClient;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
  * Service to dynamically fetch Taiwan's top dividend stocks
- * Fetches real-time data from Yahoo Finance to identify high-yield dividend stocks
+ * Fetches real-time data from Yahoo Finance to identify high-yield dividend stocks.
+ * The last screen is persisted in screener_snapshot and served stale-while-revalidate:
+ * callers never wait on Yahoo, an expired snapshot is rebuilt on a background thread.
  */
 @Service
 public class TaiwanStockScreenerService {
 
     private static final Logger logger = LoggerFactory.getLogger(TaiwanStockScreenerService.class);
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    static final String DEPENDENCY = "yahoo";
+
+    @Autowired
+    private OutboundHttpClient httpClient;
+
+    @Autowired
+    private ScreenerSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     // Cache for dynamic stock data (refreshed periodically)
     private volatile List<StockInfo> cachedDividendStocks = null;
     private volatile long lastFetchTime = 0;
     private static final long CACHE_DURATION_MS = 24 * 60 * 60 * 1000; // 24 hours
+    private static final long RETRY_INTERVAL_MS = 15 * 60 * 1000; // between failed background screens
+    static final int QUOTE_BATCH_SIZE = 25; // symbols per v7 quote request
+
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile long lastRefreshAttempt = 0;
+    ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("screener-refresh").factory());
     
     /**
      * Taiwan 50 Index constituents and other major dividend stocks to screen
@@ -93,100 +123,208 @@ public class TaiwanStockScreenerService {
     public List<StockInfo> getAllDividendStocks() {
         return fetchDividendStocksWithYield();
     }
+
+    /**
+     * All dividend stocks keyed by symbol, for callers looking up many symbols
+     */
+    public Map<String, StockInfo> getDividendStocksBySymbol() {
+        Map<String, StockInfo> bySymbol = new LinkedHashMap<>();
+        for (StockInfo info : fetchDividendStocksWithYield()) {
+            bySymbol.putIfAbsent(info.getSymbol(), info);
+        }
+        return bySymbol;
+    }
     
     /**
-     * Fetch dividend stocks with real yield data from Yahoo Finance
+     * Current screen: the in-memory copy, else the persisted snapshot, else the fallback list.
+     * An expired or missing screen triggers a background rebuild; the caller gets what is there now.
      */
     private List<StockInfo> fetchDividendStocksWithYield() {
-        // Check cache
-        if (cachedDividendStocks != null && 
-            (System.currentTimeMillis() - lastFetchTime) < CACHE_DURATION_MS) {
-            logger.debug("Using cached dividend stock data");
-            return cachedDividendStocks;
+        List<StockInfo> stocks = cachedDividendStocks;
+        if (stocks == null) {
+            stocks = loadSnapshot();
         }
-        
+
+        if (stocks == null) {
+            logger.info("No screener snapshot yet, serving fallback list while the first screen runs");
+            refreshInBackground();
+            return new ArrayList<>(FALLBACK_STOCKS.values());
+        }
+
+        if ((System.currentTimeMillis() - lastFetchTime) >= CACHE_DURATION_MS) {
+            logger.debug("Screener snapshot expired, serving stale copy while refreshing");
+            refreshInBackground();
+        }
+        return stocks;
+    }
+
+    /**
+     * Start a background screen unless one is running or the last attempt was too recent
+     */
+    private void refreshInBackground() {
+        if (System.currentTimeMillis() - lastRefreshAttempt < RETRY_INTERVAL_MS
+                || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        lastRefreshAttempt = System.currentTimeMillis();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    rebuildSnapshot();
+                } catch (Exception e) {
+                    logger.error("Background screener refresh failed: {}", e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (Exception e) {
+            refreshing.set(false);
+            logger.warn("Could not schedule screener refresh: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Screen all candidates against Yahoo Finance and, if enough succeed, replace the snapshot.
+     * A failed screen keeps whatever snapshot was there before.
+     */
+    private void rebuildSnapshot() {
         logger.info("Fetching dividend yields for {} candidate stocks", CANDIDATE_SYMBOLS.size());
+        Map<String, StockInfo> fetched = fetchStockInfos(CANDIDATE_SYMBOLS);
+
+        // Symbols Yahoo did not return are filled from the fallback list
         List<StockInfo> stocks = new ArrayList<>();
         int successCount = 0;
-        
         for (String symbol : CANDIDATE_SYMBOLS) {
-            try {
-                StockInfo stockInfo = fetchStockInfo(symbol);
-                if (stockInfo != null && stockInfo.getDividendYield().compareTo(BigDecimal.ZERO) > 0) {
-                    stocks.add(stockInfo);
-                    successCount++;
-                }
-            } catch (Exception e) {
-                logger.debug("Failed to fetch data for {}: {}", symbol, e.getMessage());
+            StockInfo stockInfo = fetched.get(symbol);
+            if (stockInfo != null) {
+                successCount++;
+            } else {
+                stockInfo = FALLBACK_STOCKS.get(symbol);
             }
-            
-            // Rate limiting - don't hammer Yahoo Finance
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+            if (stockInfo != null && stockInfo.getDividendYield().compareTo(BigDecimal.ZERO) > 0) {
+                stocks.add(stockInfo);
             }
         }
         
         logger.info("Successfully fetched dividend data for {} stocks", successCount);
         
-        // If we got less than 10 stocks, use fallback
-        if (stocks.size() < 10) {
-            logger.warn("Only got {} stocks from API, using fallback data", stocks.size());
-            stocks = new ArrayList<>(FALLBACK_STOCKS.values());
+        // If we got less than 10 stocks, keep the previous snapshot (or the fallback list)
+        if (successCount < 10) {
+            logger.warn("Only got {} stocks from API, keeping previous screener data", successCount);
+            return;
         }
-        
+
+        LocalDateTime fetchedAt = LocalDateTime.now();
+        saveSnapshot(stocks, fetchedAt);
+
         // Update cache
         cachedDividendStocks = stocks;
-        lastFetchTime = System.currentTimeMillis();
-        
-        return stocks;
+        lastFetchTime = fetchedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
-    
+
     /**
-     * Fetch stock info including dividend yield from Yahoo Finance
+     * Replace the persisted snapshot in one transaction
      */
-    private StockInfo fetchStockInfo(String symbol) {
+    private void saveSnapshot(List<StockInfo> stocks, LocalDateTime fetchedAt) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("User-Agent", "Mozilla/5.0");
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            
-            String url = String.format(
-                "https://query1.finance.yahoo.com/v7/finance/quote?symbols=%s",
-                symbol
-            );
-            
-            ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.GET, entity, String.class);
-            
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode result = root.path("quoteResponse").path("result");
-            
-            if (result.isArray() && result.size() > 0) {
-                JsonNode quote = result.get(0);
-                
-                String name = quote.path("shortName").asText(quote.path("longName").asText(symbol));
-                String sector = determineSector(symbol);
-                
-                // Get dividend yield (trailingAnnualDividendYield is a ratio, multiply by 100 for percentage)
-                BigDecimal dividendYield = BigDecimal.ZERO;
-                if (quote.has("trailingAnnualDividendYield") && !quote.path("trailingAnnualDividendYield").isNull()) {
-                    dividendYield = new BigDecimal(quote.path("trailingAnnualDividendYield").asText("0"))
-                        .multiply(new BigDecimal("100"));
-                } else if (quote.has("dividendYield") && !quote.path("dividendYield").isNull()) {
-                    dividendYield = new BigDecimal(quote.path("dividendYield").asText("0"));
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                snapshotRepository.deleteAllInBatch();
+                snapshotRepository.saveAll(stocks.stream()
+                        .map(info -> new ScreenerSnapshot(info.getSymbol(), info.getName(), info.getSector(),
+                                info.getDividendYield(), fetchedAt))
+                        .toList());
+            });
+        } catch (Exception e) {
+            logger.error("Failed to persist screener snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load the persisted snapshot into memory; null when none has been saved yet
+     */
+    private synchronized List<StockInfo> loadSnapshot() {
+        if (cachedDividendStocks != null) {
+            return cachedDividendStocks;
+        }
+        try {
+            List<ScreenerSnapshot> rows = snapshotRepository.findAllByOrderByDividendYieldDesc();
+            if (rows.isEmpty()) {
+                return null;
+            }
+
+            List<StockInfo> stocks = new ArrayList<>(rows.size());
+            LocalDateTime fetchedAt = null;
+            for (ScreenerSnapshot row : rows) {
+                stocks.add(new StockInfo(row.getSymbol(), row.getName(), row.getSector(), row.getDividendYield()));
+                if (fetchedAt == null || row.getFetchedAt().isBefore(fetchedAt)) {
+                    fetchedAt = row.getFetchedAt();
                 }
-                
-                return new StockInfo(symbol, name, sector, dividendYield);
             }
+
+            lastFetchTime = fetchedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            cachedDividendStocks = stocks;
+            logger.info("Loaded screener snapshot of {} stocks from {}", stocks.size(), fetchedAt);
+            return stocks;
         } catch (Exception e) {
-            logger.debug("Failed to fetch stock info for {}: {}", symbol, e.getMessage());
+            logger.warn("Could not load screener snapshot: {}", e.getMessage());
+            return null;
         }
-        
-        // Return fallback if available
-        return FALLBACK_STOCKS.get(symbol);
+    }
+    
+    /**
+     * Fetch stock info including dividend yield from Yahoo Finance.
+     * Symbols are sent QUOTE_BATCH_SIZE at a time as one comma-separated v7 quote request;
+     * symbols missing from a response, or from a failed batch, are absent from the result.
+     */
+    private Map<String, StockInfo> fetchStockInfos(List<String> symbols) {
+        Map<String, StockInfo> result = new LinkedHashMap<>();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("User-Agent", "Mozilla/5.0");
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        for (int from = 0; from < symbols.size(); from += QUOTE_BATCH_SIZE) {
+            List<String> batch = symbols.subList(from, Math.min(from + QUOTE_BATCH_SIZE, symbols.size()));
+            try {
+                String url = String.format(
+                    "https://query1.finance.yahoo.com/v7/finance/quote?symbols=%s",
+                    String.join(",", batch)
+                );
+
+                ResponseEntity<String> response = httpClient.restTemplate(DEPENDENCY).exchange(
+                    url, HttpMethod.GET, entity, String.class);
+
+                JsonNode quotes = objectMapper.readTree(response.getBody()).path("quoteResponse").path("result");
+                for (JsonNode quote : quotes) {
+                    String symbol = quote.path("symbol").asText(null);
+                    if (symbol != null && batch.contains(symbol)) {
+                        result.put(symbol, toStockInfo(symbol, quote));
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to fetch quotes for batch of {} symbols starting at {}: {}",
+                        batch.size(), batch.get(0), e.getMessage());
+            }
+        }
+
+        logger.debug("Yahoo returned {}/{} quotes in {} requests", result.size(), symbols.size(),
+                (symbols.size() + QUOTE_BATCH_SIZE - 1) / QUOTE_BATCH_SIZE);
+        return result;
+    }
+
+    private StockInfo toStockInfo(String symbol, JsonNode quote) {
+        String name = quote.path("shortName").asText(quote.path("longName").asText(symbol));
+        String sector = determineSector(symbol);
+
+        // Get dividend yield (trailingAnnualDividendYield is a ratio, multiply by 100 for percentage)
+        BigDecimal dividendYield = BigDecimal.ZERO;
+        if (quote.has("trailingAnnualDividendYield") && !quote.path("trailingAnnualDividendYield").isNull()) {
+            dividendYield = new BigDecimal(quote.path("trailingAnnualDividendYield").asText("0"))
+                .multiply(new BigDecimal("100"));
+        } else if (quote.has("dividendYield") && !quote.path("dividendYield").isNull()) {
+            dividendYield = new BigDecimal(quote.path("dividendYield").asText("0"));
+        }
+
+        return new StockInfo(symbol, name, sector, dividendYield);
     }
     
     /**
@@ -233,7 +371,7 @@ public class TaiwanStockScreenerService {
                 symbol
             );
             
-            ResponseEntity<String> response = restTemplate.exchange(
+            ResponseEntity<String> response = httpClient.restTemplate(DEPENDENCY).exchange(
                 url, HttpMethod.GET, entity, String.class);
             
             JsonNode root = objectMapper.readTree(response.getBody());
@@ -246,12 +384,15 @@ public class TaiwanStockScreenerService {
     }
     
     /**
-     * Force refresh the cache
+     * Force refresh the cache, screening synchronously on the caller's thread
      */
     public void refreshCache() {
-        cachedDividendStocks = null;
-        lastFetchTime = 0;
-        fetchDividendStocksWithYield();
+        rebuildSnapshot();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
     }
     
     /**
@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -29,6 +30,12 @@ public class TradingService {
     @Autowired
     private PositionHistoryRepository positionHistoryRepository;
 
+    @Autowired
+    private CashLedgerService cashLedgerService;
+
+    @Autowired
+    private CurrentPositionService currentPositionService;
+
     @Autowired
     private MarketDataService marketDataService;
 
@@ -103,6 +110,7 @@ public class TradingService {
             );
 
             transaction = transactionLogRepository.save(transaction);
+            cashLedgerService.recordTransaction(transaction);
 
             // Update position
             updatePosition(symbol, quantity, price, true);
@@ -175,6 +183,7 @@ public class TradingService {
             );
 
             transaction = transactionLogRepository.save(transaction);
+            cashLedgerService.recordTransaction(transaction);
 
             // Update position
             updatePosition(symbol, quantity, price, false);
@@ -192,7 +201,7 @@ public class TradingService {
      * Update position after trade
      */
     private void updatePosition(String symbol, BigDecimal quantity, BigDecimal price, boolean isBuy) {
-        Optional<PositionHistory> latestPosition = positionHistoryRepository.findLatestPositionBySymbol(symbol);
+        Optional<PositionHistory> latestPosition = currentPositionService.find(symbol);
 
         BigDecimal newQuantity;
         BigDecimal newAveragePrice;
@@ -230,7 +239,8 @@ public class TradingService {
         newPosition.setCurrentPrice(price);
         newPosition.calculateMetrics();
 
-        positionHistoryRepository.save(newPosition);
+        newPosition = positionHistoryRepository.save(newPosition);
+        currentPositionService.record(newPosition);
         logger.info("Updated position for {}: {} shares at avg price ${}", symbol, newQuantity, newAveragePrice);
     }
 
@@ -258,7 +268,7 @@ public class TradingService {
      * Get current position for a symbol
      */
     public Optional<PositionHistory> getCurrentPosition(String symbol) {
-        return positionHistoryRepository.findLatestPositionBySymbol(symbol);
+        return currentPositionService.find(symbol);
     }
     
     /**
@@ -278,7 +288,25 @@ public class TradingService {
                 notes != null ? notes : "Cash deposit"
         );
         
-        return transactionLogRepository.save(deposit);
+        deposit = transactionLogRepository.save(deposit);
+        cashLedgerService.recordTransaction(deposit);
+        return deposit;
+    }
+
+    /**
+     * Persist pre-planned simulated transactions and position rows in one go (catch-up rebalancing).
+     * Both lists are saved in order, then the cash ledger and current positions are updated once each.
+     */
+    @Transactional
+    public List<TransactionLog> recordPlannedTrades(List<TransactionLog> transactions, List<PositionHistory> positions) {
+        List<TransactionLog> saved = transactionLogRepository.saveAll(transactions);
+        cashLedgerService.recordTransactions(saved);
+
+        List<PositionHistory> savedPositions = positionHistoryRepository.saveAll(positions);
+        currentPositionService.recordAll(savedPositions);
+
+        logger.info("Recorded {} planned transactions and {} position updates", saved.size(), savedPositions.size());
+        return saved;
     }
 
     /**
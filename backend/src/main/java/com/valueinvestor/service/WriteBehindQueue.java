@@ -0,0 +1,232 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.util.PhaseMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer queue for background database writes (price ingest, fundamentals, analysis results).
+ * Producers enqueue writes instead of opening their own transactions; one writer thread drains the queue
+ * and commits whatever has accumulated (up to flush-size writes, waiting at most flush-latency-ms for more)
+ * in one transaction, so SQLite sees one writer and one fsync per group instead of one per producer.
+ *
+ * Each write is acknowledged through its future once its group has committed. If a group fails, its writes
+ * are retried one transaction each so only the failing write is reported, which means writes must be safe
+ * to run again: build new entities inside the write, or use upserts / INSERT OR IGNORE.
+ * When the queue is full, producers block for up to offer-timeout-ms and are then rejected.
+ */
+@Service
+public class WriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+    static final String METRICS_OPERATION = "write-queue";
+    private static final long IDLE_POLL_MS = 100;
+
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final TransactionTemplate transactionTemplate;
+    private final PhaseMetrics phaseMetrics;
+    private final int capacity;
+    private final int flushSize;
+    private final long flushLatencyNanos;
+    private final long offerTimeoutMs;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public WriteBehindQueue(AppProperties appProperties, PlatformTransactionManager transactionManager,
+                            PhaseMetrics phaseMetrics) {
+        AppProperties.WriteQueue config = appProperties.getWriteQueue();
+        this.capacity = Math.max(1, config.getCapacity());
+        this.flushSize = Math.max(1, config.getFlushSize());
+        this.flushLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getFlushLatencyMs()));
+        this.offerTimeoutMs = config.getOfferTimeoutMs();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.phaseMetrics = phaseMetrics;
+
+        this.writerThread = Thread.ofPlatform().name("db-write-behind").daemon(true).unstarted(this::drain);
+        writerThread.start();
+        logger.info("Write-behind queue: capacity {}, flush at {} writes or {} ms", capacity, flushSize,
+                config.getFlushLatencyMs());
+    }
+
+    /**
+     * Enqueue a write; the future completes with its result once the group containing it has committed.
+     * Blocks while the queue is full and throws RejectedExecutionException after offer-timeout-ms.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> write) {
+        if (Thread.currentThread() == writerThread) {
+            throw new IllegalStateException("A queued write cannot enqueue another write");
+        }
+        if (!running) {
+            throw new RejectedExecutionException("Write queue is shut down");
+        }
+
+        PendingWrite<T> pending = new PendingWrite<>(write);
+        try {
+            if (!queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new RejectedExecutionException(
+                        "Write queue full (" + capacity + " pending) for " + offerTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for write queue space", e);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Enqueue a write and wait until it is committed
+     */
+    public <T> T write(Supplier<T> write) {
+        return await(submit(write));
+    }
+
+    /**
+     * Wait for a submitted write, rethrowing the write's own exception
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void drain() {
+        List<PendingWrite<?>> group = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite<?> first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, flushSize - group.size());
+
+                // Give concurrent producers a short window to join this commit
+                long deadline = System.nanoTime() + flushLatencyNanos;
+                while (group.size() < flushSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    queue.drainTo(group, flushSize - group.size());
+                }
+
+                flush(group);
+            } catch (InterruptedException e) {
+                logger.warn("Write-behind writer interrupted with {} writes pending", queue.size() + group.size());
+                running = false;
+                group.forEach(pending -> pending.future.completeExceptionally(e));
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // flush() completes every future itself; this only guards the writer thread
+                logger.error("Write-behind writer error", e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite<?>> group) {
+        long startNanos = System.nanoTime();
+        List<Object> results = new ArrayList<>(group.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingWrite<?> pending : group) {
+                    results.add(pending.write.get());
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Group commit of {} writes failed ({}), retrying one at a time", group.size(), e.getMessage());
+            group.forEach(this::flushAlone);
+            return;
+        } finally {
+            phaseMetrics.record(METRICS_OPERATION, "flush", startNanos);
+        }
+
+        groups.increment();
+        writes.add(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).complete(results.get(i));
+        }
+        logger.debug("Committed {} writes in {} ms", group.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private void flushAlone(PendingWrite<?> pending) {
+        try {
+            Object result = transactionTemplate.execute(status -> pending.write.get());
+            groups.increment();
+            writes.increment();
+            pending.complete(result);
+        } catch (RuntimeException e) {
+            failures.increment();
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    public int getPendingCount() { return queue.size(); }
+    public long getWriteCount() { return writes.sum(); }
+    public long getGroupCount() { return groups.sum(); }
+    public long getFailureCount() { return failures.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+
+    /**
+     * Stop accepting writes and commit what is already queued
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingWrite<?> left;
+        while ((left = queue.poll()) != null) {
+            left.future.completeExceptionally(new RejectedExecutionException("Write queue shut down before commit"));
+        }
+    }
+
+    private static class PendingWrite<T> {
+        private final Supplier<T> write;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        PendingWrite(Supplier<T> write) {
+            this.write = write;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.valueinvestor.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error counters for outbound calls, per named dependency (e.g. "shioaji", "yahoo", "ollama").
+ * Every call is also recorded on the "outbound.calls" timer (tags: dependency, outcome), which
+ * /actuator/prometheus exposes with percentile histograms.
+ */
+@Component
+public class HttpDependencyMetrics {
+
+    public static final String TIMER = "outbound.calls";
+
+    private final MeterRegistry registry;
+    private final Map<String, Counters> countersByDependency = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HttpDependencyMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public HttpDependencyMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Record one completed call. A call is an error if it threw or returned a 4xx/5xx status.
+     */
+    public void record(String dependency, long elapsedNanos, boolean error) {
+        Counters counters = countersByDependency.computeIfAbsent(dependency, name -> new Counters());
+        counters.requests.increment();
+        if (error) {
+            counters.errors.increment();
+        }
+        counters.totalNanos.add(elapsedNanos);
+        counters.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+
+        Timer.builder(TIMER)
+                .description("Outbound dependency call latency")
+                .tag("dependency", dependency)
+                .tag("outcome", error ? "error" : "success")
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Current counters for every dependency seen so far, by name
+     */
+    public Map<String, DependencyStats> snapshot() {
+        Map<String, DependencyStats> result = new TreeMap<>();
+        countersByDependency.forEach((name, counters) -> result.put(name, counters.toStats()));
+        return result;
+    }
+
+    public DependencyStats get(String dependency) {
+        Counters counters = countersByDependency.get(dependency);
+        return counters != null ? counters.toStats() : new DependencyStats(0, 0, 0, 0);
+    }
+
+    private static class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        DependencyStats toStats() {
+            return new DependencyStats(requests.sum(), errors.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+
+    /**
+     * Immutable view of one dependency's counters
+     */
+    public static class DependencyStats {
+        private final long requests;
+        private final long errors;
+        private final double avgLatencyMs;
+        private final double maxLatencyMs;
+
+        DependencyStats(long requests, long errors, long totalNanos, long maxNanos) {
+            this.requests = requests;
+            this.errors = errors;
+            this.avgLatencyMs = requests > 0 ? totalNanos / 1_000_000.0 / requests : 0;
+            this.maxLatencyMs = maxNanos / 1_000_000.0;
+        }
+
+        public long getRequests() { return requests; }
+        public long getErrors() { return errors; }
+        public double getAvgLatencyMs() { return avgLatencyMs; }
+        public double getMaxLatencyMs() { return maxLatencyMs; }
+    }
+}
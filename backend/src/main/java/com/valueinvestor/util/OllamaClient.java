@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -15,6 +16,7 @@ import java.util.concurrent.TimeUnit;
 public class OllamaClient {
 
     private static final Logger logger = LoggerFactory.getLogger(OllamaClient.class);
+    public static final String DEPENDENCY = "ollama";
     private static final String OLLAMA_BASE_URL = "http://localhost:11434";
     private static final String DEFAULT_MODEL = "llama3.1:8b-instruct-q5_K_M";
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
@@ -23,10 +25,27 @@ public class OllamaClient {
     private final ObjectMapper objectMapper;
 
     public OllamaClient() {
+        this(new HttpDependencyMetrics());
+    }
+
+    @Autowired
+    public OllamaClient(HttpDependencyMetrics metrics) {
         this.client = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(120, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
+                // Latency is measured up to the response headers, like OutboundHttpClient
+                .addInterceptor(chain -> {
+                    long startNanos = System.nanoTime();
+                    try {
+                        Response response = chain.proceed(chain.request());
+                        metrics.record(DEPENDENCY, System.nanoTime() - startNanos, !response.isSuccessful());
+                        return response;
+                    } catch (IOException | RuntimeException e) {
+                        metrics.record(DEPENDENCY, System.nanoTime() - startNanos, true);
+                        throw e;
+                    }
+                })
                 .build();
         this.objectMapper = new ObjectMapper();
     }
@@ -165,6 +184,11 @@ public class OllamaClient {
         return false;
     }
 
+    /**
+     * Version of the stock analysis prompt below; bump it when the template changes so cached analyses are not reused
+     */
+    public static final int STOCK_ANALYSIS_PROMPT_VERSION = 1;
+
     /**
      * Create a prompt for stock analysis
      */
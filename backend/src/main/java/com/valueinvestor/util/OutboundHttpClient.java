@@ -0,0 +1,100 @@
+package com.valueinvestor.util;
+
+import com.valueinvestor.config.HttpClientProperties;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared HTTP client for all outbound REST calls.
+ * One pooled Apache HttpClient (keep-alive, per-host connect/read timeouts) backs a RestTemplate
+ * per named dependency; each RestTemplate records latency and errors under that name.
+ */
+@Component
+public class OutboundHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundHttpClient.class);
+
+    private final CloseableHttpClient httpClient;
+    private final HttpDependencyMetrics metrics;
+    private final Map<String, RestTemplate> restTemplates = new ConcurrentHashMap<>();
+
+    public OutboundHttpClient(HttpClientProperties properties, HttpDependencyMetrics metrics) {
+        this.metrics = metrics;
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerHost())
+                .build();
+        connectionManager.setConnectionConfigResolver(route -> {
+            HttpClientProperties.Timeouts timeouts = properties.timeoutsFor(route.getTargetHost().getHostName());
+            return ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(timeouts.getConnectTimeoutMs()))
+                    .setSocketTimeout(Timeout.ofMilliseconds(timeouts.getReadTimeoutMs()))
+                    .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                    .build();
+        });
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeoutMs()))
+                        .setConnectionKeepAlive(TimeValue.ofSeconds(properties.getKeepAliveSeconds()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(properties.getKeepAliveSeconds()))
+                .build();
+
+        logger.info("Outbound HTTP client: pool {} ({} per host), keep-alive {}s",
+                properties.getMaxConnections(), properties.getMaxConnectionsPerHost(), properties.getKeepAliveSeconds());
+    }
+
+    /**
+     * RestTemplate for a named dependency, sharing the pooled connections
+     */
+    public RestTemplate restTemplate(String dependency) {
+        return restTemplates.computeIfAbsent(dependency, this::createRestTemplate);
+    }
+
+    public HttpDependencyMetrics getMetrics() {
+        return metrics;
+    }
+
+    private RestTemplate createRestTemplate(String dependency) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        // Latency is measured up to the response headers; streamed bodies are read by the caller afterwards
+        restTemplate.getInterceptors().add((request, body, execution) -> {
+            long startNanos = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                metrics.record(dependency, System.nanoTime() - startNanos, response.getStatusCode().isError());
+                return response;
+            } catch (IOException | RuntimeException e) {
+                metrics.record(dependency, System.nanoTime() - startNanos, true);
+                throw e;
+            }
+        });
+        return restTemplate;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
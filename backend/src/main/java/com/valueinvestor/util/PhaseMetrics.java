@@ -0,0 +1,46 @@
+package com.valueinvestor.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durations of the phases of a long-running operation (e.g. rebalance: select, prices, trades, snapshot),
+ * recorded on the "operation.phase" timer (tags: operation, phase) and exposed by /actuator/prometheus
+ */
+@Component
+public class PhaseMetrics {
+
+    public static final String TIMER = "operation.phase";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public PhaseMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public PhaseMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Record a phase that started at startNanos (System.nanoTime) and has just finished
+     */
+    public void record(String operation, String phase, long startNanos) {
+        Timer.builder(TIMER)
+                .description("Duration of one phase of a long-running operation")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer timer(String operation, String phase) {
+        return registry.find(TIMER).tag("operation", operation).tag("phase", phase).timer();
+    }
+}
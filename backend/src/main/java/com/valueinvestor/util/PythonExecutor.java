@@ -2,8 +2,10 @@ package com.valueinvestor.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
@@ -21,11 +23,59 @@ public class PythonExecutor {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private static final String PYTHON_EXECUTABLE = "python3";
     private static final int TIMEOUT_SECONDS = 30;
+    public static final String PROCESS_DEPENDENCY = "python-process";
+    public static final String WORKER_DEPENDENCY = "python-worker";
+
+    @Autowired(required = false)
+    private PythonWorkerPool workerPool;
+
+    @Autowired(required = false)
+    private HttpDependencyMetrics metrics;
+
+    /**
+     * Calls go to the persistent worker pool when it is configured; otherwise a process is started per call
+     */
+    private boolean useWorkerPool() {
+        return workerPool != null && workerPool.isEnabled();
+    }
 
     /**
      * Execute a Python script with arguments
      */
     public String executePython(String scriptPath, String... args) throws Exception {
+        long startNanos = System.nanoTime();
+        boolean error = true;
+        try {
+            String output = runProcess(scriptPath, args);
+            error = false;
+            return output;
+        } finally {
+            recordCall(PROCESS_DEPENDENCY, startNanos, error);
+        }
+    }
+
+    /**
+     * One request to the persistent worker pool
+     */
+    private JsonNode callWorker(String op, ObjectNode request) throws Exception {
+        long startNanos = System.nanoTime();
+        boolean error = true;
+        try {
+            JsonNode response = workerPool.call(op, request);
+            error = false;
+            return response;
+        } finally {
+            recordCall(WORKER_DEPENDENCY, startNanos, error);
+        }
+    }
+
+    private void recordCall(String dependency, long startNanos, boolean error) {
+        if (metrics != null) {
+            metrics.record(dependency, System.nanoTime() - startNanos, error);
+        }
+    }
+
+    private String runProcess(String scriptPath, String... args) throws Exception {
         List<String> command = new ArrayList<>();
         command.add(PYTHON_EXECUTABLE);
         command.add(scriptPath);
@@ -94,6 +144,15 @@ public class PythonExecutor {
         logger.info("Executing Shioaji order: {} {} shares of {} at ${}",
                    action, quantity, symbol, price);
 
+        if (useWorkerPool()) {
+            ObjectNode request = objectMapper.createObjectNode()
+                    .put("action", action)
+                    .put("symbol", symbol)
+                    .put("quantity", quantity.toString())
+                    .put("price", price.toString());
+            return parseShioajiResponse(callWorker("order", request));
+        }
+
         String result = executePython(scriptPath, args);
 
         // Parse JSON response from Python
@@ -105,35 +164,40 @@ public class PythonExecutor {
      */
     private ShioajiOrderResult parseShioajiResponse(String jsonResponse) throws Exception {
         try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            ShioajiOrderResult result = new ShioajiOrderResult();
-            result.setSuccess(root.path("success").asBoolean());
-            result.setOrderId(root.path("order_id").asText());
-            result.setMessage(root.path("message").asText());
-            result.setStatus(root.path("status").asText());
-
-            if (root.has("filled_quantity")) {
-                result.setFilledQuantity(new BigDecimal(root.path("filled_quantity").asText()));
-            }
-
-            if (root.has("filled_price")) {
-                result.setFilledPrice(new BigDecimal(root.path("filled_price").asText()));
-            }
-
-            return result;
-
+            return parseShioajiResponse(objectMapper.readTree(jsonResponse));
         } catch (Exception e) {
             logger.error("Failed to parse Shioaji response: {}", jsonResponse, e);
             throw new RuntimeException("Failed to parse Shioaji response", e);
         }
     }
 
+    private ShioajiOrderResult parseShioajiResponse(JsonNode root) {
+        ShioajiOrderResult result = new ShioajiOrderResult();
+        result.setSuccess(root.path("success").asBoolean());
+        result.setOrderId(root.path("order_id").asText());
+        result.setMessage(root.path("message").asText());
+        result.setStatus(root.path("status").asText());
+
+        if (root.has("filled_quantity")) {
+            result.setFilledQuantity(new BigDecimal(root.path("filled_quantity").asText()));
+        }
+
+        if (root.has("filled_price")) {
+            result.setFilledPrice(new BigDecimal(root.path("filled_price").asText()));
+        }
+
+        return result;
+    }
+
     /**
      * Test Shioaji connection
      */
     public boolean testShioajiConnection() {
         try {
+            if (useWorkerPool()) {
+                return callWorker("connection", objectMapper.createObjectNode()).path("connected").asBoolean();
+            }
+
             String scriptPath = "/Users/gc/Downloads/work/US-stock/shioaji_bridge/test_connection.py";
             String result = executePython(scriptPath);
 
@@ -150,10 +214,14 @@ public class PythonExecutor {
      * Fetch current quote via Shioaji
      */
     public ShioajiQuoteResult fetchShioajiQuote(String symbol) throws Exception {
-        String scriptPath = "/Users/gc/Downloads/work/US-stock/shioaji_bridge/fetch_quote.py";
-
         logger.info("Fetching Shioaji quote for: {}", symbol);
 
+        if (useWorkerPool()) {
+            return parseShioajiQuoteResponse(callWorker("quote",
+                    objectMapper.createObjectNode().put("symbol", symbol)));
+        }
+
+        String scriptPath = "/Users/gc/Downloads/work/US-stock/shioaji_bridge/fetch_quote.py";
         String result = executePython(scriptPath, symbol);
 
         // Parse JSON response
@@ -164,10 +232,17 @@ public class PythonExecutor {
      * Fetch historical data via Shioaji
      */
     public ShioajiHistoryResult fetchShioajiHistory(String symbol, String startDate, String endDate) throws Exception {
-        String scriptPath = "/Users/gc/Downloads/work/US-stock/shioaji_bridge/fetch_history.py";
-
         logger.info("Fetching Shioaji history for: {} from {} to {}", symbol, startDate, endDate);
 
+        if (useWorkerPool()) {
+            ObjectNode request = objectMapper.createObjectNode()
+                    .put("symbol", symbol)
+                    .put("start_date", startDate)
+                    .put("end_date", endDate);
+            return parseShioajiHistoryResponse(callWorker("history", request));
+        }
+
+        String scriptPath = "/Users/gc/Downloads/work/US-stock/shioaji_bridge/fetch_history.py";
         String result = executePython(scriptPath, symbol, startDate, endDate);
 
         // Parse JSON response
@@ -179,77 +254,79 @@ public class PythonExecutor {
      */
     private ShioajiQuoteResult parseShioajiQuoteResponse(String jsonResponse) throws Exception {
         try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            ShioajiQuoteResult result = new ShioajiQuoteResult();
-            result.setSuccess(root.path("success").asBoolean());
-            result.setSymbol(root.path("symbol").asText());
-            result.setError(root.path("error").asText(null));
-
-            if (result.isSuccess() && root.has("price")) {
-                result.setPrice(new BigDecimal(root.path("price").asText()));
-
-                if (root.has("open") && !root.path("open").isNull()) {
-                    result.setOpen(new BigDecimal(root.path("open").asText()));
-                }
-                if (root.has("high") && !root.path("high").isNull()) {
-                    result.setHigh(new BigDecimal(root.path("high").asText()));
-                }
-                if (root.has("low") && !root.path("low").isNull()) {
-                    result.setLow(new BigDecimal(root.path("low").asText()));
-                }
-                if (root.has("volume") && !root.path("volume").isNull()) {
-                    result.setVolume(root.path("volume").asLong());
-                }
-            }
-
-            return result;
-
+            return parseShioajiQuoteResponse(objectMapper.readTree(jsonResponse));
         } catch (Exception e) {
             logger.error("Failed to parse Shioaji quote response: {}", jsonResponse, e);
             throw new RuntimeException("Failed to parse Shioaji quote response", e);
         }
     }
 
+    private ShioajiQuoteResult parseShioajiQuoteResponse(JsonNode root) {
+        ShioajiQuoteResult result = new ShioajiQuoteResult();
+        result.setSuccess(root.path("success").asBoolean());
+        result.setSymbol(root.path("symbol").asText());
+        result.setError(root.path("error").asText(null));
+
+        if (result.isSuccess() && root.has("price")) {
+            result.setPrice(new BigDecimal(root.path("price").asText()));
+
+            if (root.has("open") && !root.path("open").isNull()) {
+                result.setOpen(new BigDecimal(root.path("open").asText()));
+            }
+            if (root.has("high") && !root.path("high").isNull()) {
+                result.setHigh(new BigDecimal(root.path("high").asText()));
+            }
+            if (root.has("low") && !root.path("low").isNull()) {
+                result.setLow(new BigDecimal(root.path("low").asText()));
+            }
+            if (root.has("volume") && !root.path("volume").isNull()) {
+                result.setVolume(root.path("volume").asLong());
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Parse Shioaji history response from JSON
      */
     private ShioajiHistoryResult parseShioajiHistoryResponse(String jsonResponse) throws Exception {
         try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            ShioajiHistoryResult result = new ShioajiHistoryResult();
-            result.setSuccess(root.path("success").asBoolean());
-            result.setSymbol(root.path("symbol").asText());
-            result.setError(root.path("error").asText(null));
-
-            if (result.isSuccess() && root.has("prices")) {
-                List<PriceBar> prices = new ArrayList<>();
-                JsonNode pricesNode = root.path("prices");
-
-                for (JsonNode priceNode : pricesNode) {
-                    PriceBar bar = new PriceBar();
-                    bar.setDate(priceNode.path("date").asText());
-                    bar.setOpen(new BigDecimal(priceNode.path("open").asText()));
-                    bar.setHigh(new BigDecimal(priceNode.path("high").asText()));
-                    bar.setLow(new BigDecimal(priceNode.path("low").asText()));
-                    bar.setClose(new BigDecimal(priceNode.path("close").asText()));
-                    bar.setVolume(priceNode.path("volume").asLong());
-                    bar.setAdjustedClose(new BigDecimal(priceNode.path("adjusted_close").asText()));
-                    prices.add(bar);
-                }
-
-                result.setPrices(prices);
-            }
-
-            return result;
-
+            return parseShioajiHistoryResponse(objectMapper.readTree(jsonResponse));
         } catch (Exception e) {
             logger.error("Failed to parse Shioaji history response: {}", jsonResponse, e);
             throw new RuntimeException("Failed to parse Shioaji history response", e);
         }
     }
 
+    private ShioajiHistoryResult parseShioajiHistoryResponse(JsonNode root) {
+        ShioajiHistoryResult result = new ShioajiHistoryResult();
+        result.setSuccess(root.path("success").asBoolean());
+        result.setSymbol(root.path("symbol").asText());
+        result.setError(root.path("error").asText(null));
+
+        if (result.isSuccess() && root.has("prices")) {
+            List<PriceBar> prices = new ArrayList<>();
+            JsonNode pricesNode = root.path("prices");
+
+            for (JsonNode priceNode : pricesNode) {
+                PriceBar bar = new PriceBar();
+                bar.setDate(priceNode.path("date").asText());
+                bar.setOpen(new BigDecimal(priceNode.path("open").asText()));
+                bar.setHigh(new BigDecimal(priceNode.path("high").asText()));
+                bar.setLow(new BigDecimal(priceNode.path("low").asText()));
+                bar.setClose(new BigDecimal(priceNode.path("close").asText()));
+                bar.setVolume(priceNode.path("volume").asLong());
+                bar.setAdjustedClose(new BigDecimal(priceNode.path("adjusted_close").asText()));
+                prices.add(bar);
+            }
+
+            result.setPrices(prices);
+        }
+
+        return result;
+    }
+
     /**
      * Result object for Shioaji orders
      */
@@ -0,0 +1,416 @@
+package com.valueinvestor.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.valueinvestor.config.ShioajiProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of long-lived Python worker processes (shioaji_bridge/worker.py).
+ * Requests and responses are JSON lines over each worker's stdin/stdout, tagged with an id so
+ * several calls can be in flight on one worker at once. Workers are started on first use, keep
+ * their Shioaji login between calls, are pinged periodically, and are restarted with backoff
+ * if they crash or stop answering. A worker with an order in flight is never killed: it is marked
+ * draining, gets no new requests, and is recycled once its orders have been answered, so an order
+ * is never left in an unknown filled/unfilled state.
+ */
+@Component
+public class PythonWorkerPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(PythonWorkerPool.class);
+    private static final long PING_TIMEOUT_MS = 5_000;
+    static final String ORDER_OP = "order";
+    private static final long MAX_RESTART_BACKOFF_MS = 30_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong nextRequestId = new AtomicLong();
+
+    private final List<String> command;
+    private final File workingDirectory;
+    private final boolean enabled;
+    private final Duration requestTimeout;
+    private final long healthCheckIntervalMs;
+    private final long pingTimeoutMs;
+    private final Slot[] slots;
+
+    private ScheduledExecutorService healthChecker;
+    private volatile boolean shutdown;
+
+    @Autowired
+    public PythonWorkerPool(ShioajiProperties properties) {
+        this(List.of(properties.getPythonPath(), "-u", "worker.py"),
+                new File(properties.getWorker().getBridgeDir()),
+                properties.getWorker().isEnabled(),
+                properties.getWorker().getPoolSize(),
+                Duration.ofSeconds(properties.getWorker().getRequestTimeoutSeconds()),
+                TimeUnit.SECONDS.toMillis(properties.getWorker().getHealthCheckIntervalSeconds()),
+                PING_TIMEOUT_MS);
+    }
+
+    PythonWorkerPool(List<String> command, File workingDirectory, boolean enabled, int poolSize,
+                     Duration requestTimeout, long healthCheckIntervalMs, long pingTimeoutMs) {
+        this.command = command;
+        this.workingDirectory = workingDirectory;
+        this.enabled = enabled;
+        this.requestTimeout = requestTimeout;
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+        this.pingTimeoutMs = pingTimeoutMs;
+        this.slots = new Slot[Math.max(1, poolSize)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(i);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Send one operation to the least busy worker and wait for its result
+     *
+     * @throws IOException if no worker could be started or the worker died mid-request
+     * @throws TimeoutException if the worker did not answer within the request timeout
+     */
+    public JsonNode call(String op, ObjectNode args) throws Exception {
+        return call(op, args, requestTimeout.toMillis());
+    }
+
+    private JsonNode call(String op, ObjectNode args, long timeoutMs) throws Exception {
+        Worker worker = acquireWorker();
+        long id = nextRequestId.incrementAndGet();
+
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("id", id);
+        request.put("op", op);
+        request.set("args", args != null ? args : objectMapper.createObjectNode());
+
+        boolean order = ORDER_OP.equals(op);
+        CompletableFuture<JsonNode> response = worker.send(id, objectMapper.writeValueAsString(request), order);
+        try {
+            JsonNode message = response.get(timeoutMs, TimeUnit.MILLISECONDS);
+            if (!message.path("ok").asBoolean()) {
+                throw new IllegalStateException("Python worker " + op + " failed: " + message.path("error").asText());
+            }
+            return message.path("result");
+        } catch (TimeoutException e) {
+            if (!order) {
+                worker.pending.remove(id);
+            }
+            // A timed-out order stays pending (and keeps its worker alive) until the worker answers it
+            throw new TimeoutException("Python worker " + op + " timed out after " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Number of worker processes currently running
+     */
+    public int getLiveWorkerCount() {
+        int live = 0;
+        for (Slot slot : slots) {
+            Worker worker = slot.worker;
+            if (worker != null && worker.isAlive()) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private Worker acquireWorker() throws IOException {
+        if (shutdown) {
+            throw new IOException("Python worker pool is shut down");
+        }
+        startHealthCheckerOnce();
+
+        Worker best = null;
+        IOException lastFailure = null;
+        for (Slot slot : slots) {
+            try {
+                Worker worker = slot.ensureStarted();
+                if (worker != null && !worker.draining && (best == null || worker.pending.size() < best.pending.size())) {
+                    best = worker;
+                }
+            } catch (IOException e) {
+                lastFailure = e;
+            }
+        }
+
+        if (best == null) {
+            throw lastFailure != null ? lastFailure : new IOException("No Python worker available (restarting)");
+        }
+        return best;
+    }
+
+    private synchronized void startHealthCheckerOnce() {
+        if (healthChecker != null || healthCheckIntervalMs <= 0) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "python-worker-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth,
+                healthCheckIntervalMs, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ping every running worker; kill any that does not answer so it gets restarted.
+     * A worker with orders in flight is only marked draining and is recycled once they are answered.
+     */
+    void checkHealth() {
+        for (Slot slot : slots) {
+            Worker worker = slot.worker;
+            if (worker == null || !worker.isAlive()) {
+                try {
+                    slot.ensureStarted();
+                } catch (IOException e) {
+                    logger.warn("Python worker {} could not be restarted: {}", slot.index, e.getMessage());
+                }
+                continue;
+            }
+            if (worker.draining) {
+                if (worker.pendingOrders.isEmpty()) {
+                    logger.info("Python worker {} drained, restarting", slot.index);
+                    worker.kill();
+                }
+                continue;
+            }
+            try {
+                long id = nextRequestId.incrementAndGet();
+                CompletableFuture<JsonNode> pong =
+                        worker.send(id, "{\"id\":" + id + ",\"op\":\"ping\",\"args\":{}}", false);
+                pong.get(pingTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                if (!worker.pendingOrders.isEmpty()) {
+                    logger.warn("Python worker {} failed health check with {} orders in flight, draining: {}",
+                            slot.index, worker.pendingOrders.size(), e.toString());
+                    worker.draining = true;
+                } else {
+                    logger.warn("Python worker {} failed health check, restarting: {}", slot.index, e.toString());
+                    worker.kill();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Slot slot : slots) {
+            Worker worker = slot.worker;
+            if (worker != null) {
+                worker.stop();
+            }
+        }
+    }
+
+    /**
+     * One position in the pool; owns the current worker process and its restart backoff
+     */
+    private class Slot {
+        private final int index;
+        private volatile Worker worker;
+        private int consecutiveFailures;
+        private long nextStartAllowedAt;
+
+        Slot(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Return the running worker, starting a new one if the previous one died and backoff allows
+         *
+         * @return null while waiting out the restart backoff
+         */
+        synchronized Worker ensureStarted() throws IOException {
+            if (worker != null && worker.isAlive()) {
+                return worker;
+            }
+            if (worker != null && !worker.answered) {
+                // Died without ever answering: likely a startup problem, so back off before retrying
+                consecutiveFailures++;
+                nextStartAllowedAt = System.currentTimeMillis()
+                        + Math.min(MAX_RESTART_BACKOFF_MS, 500L * (1L << Math.min(consecutiveFailures, 16)));
+            } else if (worker != null) {
+                consecutiveFailures = 0;
+            }
+            if (System.currentTimeMillis() < nextStartAllowedAt) {
+                return null;
+            }
+
+            try {
+                worker = new Worker(index);
+            } catch (IOException e) {
+                worker = null;
+                consecutiveFailures++;
+                nextStartAllowedAt = System.currentTimeMillis()
+                        + Math.min(MAX_RESTART_BACKOFF_MS, 500L * (1L << Math.min(consecutiveFailures, 16)));
+                throw e;
+            }
+            return worker;
+        }
+    }
+
+    /**
+     * A running worker process with its reader thread and outstanding requests
+     */
+    private class Worker {
+        private final int index;
+        private final Process process;
+        private final BufferedWriter stdin;
+        private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+        private final Set<Long> pendingOrders = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+        private volatile boolean draining;
+        private volatile boolean answered;
+
+        Worker(int index) throws IOException {
+            this.index = index;
+            ProcessBuilder builder = new ProcessBuilder(command);
+            if (workingDirectory != null) {
+                builder.directory(workingDirectory);
+            }
+            this.process = builder.start();
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+            startDaemon("python-worker-" + index + "-out", this::readResponses);
+            startDaemon("python-worker-" + index + "-err", this::drainStderr);
+            logger.info("Started Python worker {} (pid {})", index, process.pid());
+        }
+
+        boolean isAlive() {
+            return !closed && process.isAlive();
+        }
+
+        CompletableFuture<JsonNode> send(long id, String line, boolean order) throws IOException {
+            CompletableFuture<JsonNode> future = new CompletableFuture<>();
+            if (order) {
+                pendingOrders.add(id);
+                future.whenComplete((message, error) -> pendingOrders.remove(id));
+            }
+            pending.put(id, future);
+            try {
+                synchronized (stdin) {
+                    stdin.write(line);
+                    stdin.newLine();
+                    stdin.flush();
+                }
+            } catch (IOException e) {
+                pending.remove(id);
+                future.completeExceptionally(e);
+                kill();
+                throw new IOException("Python worker " + index + " is not accepting requests", e);
+            }
+            if (closed) {
+                // The reader may have failed everything just before this request was registered
+                future.completeExceptionally(new IOException("Python worker " + index + " exited"));
+                pending.remove(id);
+            }
+            return future;
+        }
+
+        private void readResponses() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    complete(line);
+                }
+            } catch (IOException e) {
+                logger.debug("Python worker {} stdout closed: {}", index, e.getMessage());
+            }
+            closed = true;
+            if (!shutdown) {
+                logger.error("Python worker {} exited; failing {} pending requests", index, pending.size());
+            }
+            IOException failure = new IOException("Python worker " + index + " exited");
+            pending.values().forEach(future -> future.completeExceptionally(failure));
+            pending.clear();
+        }
+
+        private void complete(String line) {
+            try {
+                JsonNode message = objectMapper.readTree(line);
+                CompletableFuture<JsonNode> future = pending.remove(message.path("id").asLong());
+                if (future != null) {
+                    answered = true;
+                    future.complete(message);
+                } else {
+                    logger.warn("Python worker {} sent a response for an unknown request: {}", index, line);
+                }
+            } catch (IOException e) {
+                logger.warn("Python worker {} wrote a non-JSON line: {}", index, line);
+            }
+        }
+
+        private void drainStderr() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.debug("[python-worker-{}] {}", index, line);
+                }
+            } catch (IOException ignored) {
+                // Process is gone
+            }
+        }
+
+        void kill() {
+            closed = true;
+            process.destroyForcibly();
+        }
+
+        void stop() {
+            closed = true;
+            try {
+                synchronized (stdin) {
+                    stdin.close();
+                }
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void startDaemon(String name, Runnable task) {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.valueinvestor.util;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key request coalescing.
+ * The first caller for a key runs the loader; callers arriving while it is in flight wait for
+ * and share its result (or exception) instead of starting their own call, for at most their own deadline.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Run the loader for a key, or join the call already in flight for it
+     */
+    public V execute(K key, Callable<V> loader) throws Exception {
+        return execute(key, null, loader);
+    }
+
+    /**
+     * Run the loader for a key, or join the call already in flight for it and wait at most maxWait
+     * (null waits for as long as the leader takes)
+     *
+     * @throws TimeoutException if the in-flight call did not finish within maxWait; the call itself goes on
+     */
+    public V execute(K key, Duration maxWait, Callable<V> loader) throws Exception {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing, maxWait);
+        }
+
+        try {
+            V value = loader.call();
+            call.complete(value);
+            return value;
+        } catch (Throwable t) {
+            call.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Callers that joined an in-flight call instead of running the loader
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call, Duration maxWait) throws Exception {
+        try {
+            return maxWait != null ? call.get(maxWait.toNanos(), TimeUnit.NANOSECONDS) : call.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.valueinvestor.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe token bucket.
+ * Tokens refill continuously at a fixed rate up to a burst capacity; each call takes one token.
+ * Callers reserve a token and then wait outside the lock, so waiting threads never hold up others.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double availableTokens;
+    private long lastRefillNanos;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.availableTokens = this.capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Take one token, sleeping until it becomes available
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Take one token only if it is available within the timeout
+     *
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            waitNanos = nanosUntilToken();
+            if (waitNanos > unit.toNanos(timeout)) {
+                return false;
+            }
+            availableTokens -= 1;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+
+    /**
+     * Reserve one token and return how long the caller must wait before using it (0 if immediately available).
+     * The token may go into debt, which is how later callers are queued behind earlier ones.
+     */
+    public synchronized long reserve() {
+        refill();
+        long waitNanos = nanosUntilToken();
+        availableTokens -= 1;
+        return waitNanos;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        double refilled = (now - lastRefillNanos) * permitsPerSecond / 1_000_000_000.0;
+        availableTokens = Math.min(capacity, availableTokens + refilled);
+        lastRefillNanos = now;
+    }
+
+    private long nanosUntilToken() {
+        if (availableTokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - availableTokens) * 1_000_000_000.0 / permitsPerSecond);
+    }
+}
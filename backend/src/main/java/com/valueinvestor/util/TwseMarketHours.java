@@ -0,0 +1,53 @@
+package com.valueinvestor.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Taiwan Stock Exchange regular session: Monday to Friday, 09:00 - 13:30 Asia/Taipei.
+ * Exchange holidays are not modelled; a holiday is treated as a normal trading day.
+ */
+public final class TwseMarketHours {
+
+    public static final ZoneId ZONE = ZoneId.of("Asia/Taipei");
+    public static final LocalTime OPEN = LocalTime.of(9, 0);
+    public static final LocalTime CLOSE = LocalTime.of(13, 30);
+
+    private TwseMarketHours() {
+    }
+
+    /**
+     * Whether the regular session is in progress at the given instant
+     */
+    public static boolean isOpen(ZonedDateTime time) {
+        ZonedDateTime local = time.withZoneSameInstant(ZONE);
+        if (!isTradingDay(local.toLocalDate())) {
+            return false;
+        }
+        LocalTime clock = local.toLocalTime();
+        return !clock.isBefore(OPEN) && clock.isBefore(CLOSE);
+    }
+
+    /**
+     * Start of the next regular session strictly after the given instant
+     */
+    public static ZonedDateTime nextOpen(ZonedDateTime time) {
+        ZonedDateTime local = time.withZoneSameInstant(ZONE);
+        LocalDate day = local.toLocalDate();
+        if (!local.toLocalTime().isBefore(OPEN)) {
+            day = day.plusDays(1);
+        }
+        while (!isTradingDay(day)) {
+            day = day.plusDays(1);
+        }
+        return day.atTime(OPEN).atZone(ZONE);
+    }
+
+    private static boolean isTradingDay(LocalDate day) {
+        DayOfWeek dow = day.getDayOfWeek();
+        return dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,187 @@
+package com.valueinvestor.util;
+
+import com.valueinvestor.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import yahoofinance.Stock;
+import yahoofinance.YahooFinance;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate-limited, coalescing access to the YahooFinance library.
+ * Concurrent lookups of the same symbol share one in-flight request. Each request takes a token
+ * from a shared bucket, waiting at most the caller's deadline; when no token can be had in time
+ * the call fails fast with {@link RateLimitedException} instead of blocking the caller.
+ */
+@Component
+public class YahooFinanceClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(YahooFinanceClient.class);
+    public static final String DEPENDENCY = "yahoo";
+    static final int BATCH_SIZE = 25;
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Duration defaultMaxWait;
+    private final HttpDependencyMetrics metrics;
+    private final StockFetcher fetcher;
+    private final BatchFetcher batchFetcher;
+    private final SingleFlight<String, Stock> flights = new SingleFlight<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public YahooFinanceClient(AppProperties appProperties, HttpDependencyMetrics metrics) {
+        this(new TokenBucketRateLimiter(appProperties.getYahoo().getPermitsPerSecond(), appProperties.getYahoo().getBurst()),
+                Duration.ofMillis(appProperties.getYahoo().getMaxWaitMs()), metrics, YahooFinance::get, YahooFinance::get);
+    }
+
+    YahooFinanceClient(TokenBucketRateLimiter rateLimiter, Duration defaultMaxWait,
+                       HttpDependencyMetrics metrics, StockFetcher fetcher, BatchFetcher batchFetcher) {
+        this.rateLimiter = rateLimiter;
+        this.defaultMaxWait = defaultMaxWait;
+        this.metrics = metrics;
+        this.fetcher = fetcher;
+        this.batchFetcher = batchFetcher;
+    }
+
+    /**
+     * Quote, stats and dividend for a symbol, waiting up to the configured default for a rate-limit token
+     */
+    public Stock get(String symbol) throws IOException {
+        return get(symbol, defaultMaxWait);
+    }
+
+    /**
+     * Quote, stats and dividend for a symbol, waiting at most maxWait for a rate-limit token,
+     * or for the lookup of the same symbol already in flight. May return null when Yahoo does not know the symbol.
+     */
+    public Stock get(String symbol, Duration maxWait) throws IOException {
+        try {
+            return flights.execute(symbol, maxWait, () -> fetch(symbol, maxWait));
+        } catch (TimeoutException e) {
+            rejected.incrementAndGet();
+            throw new RateLimitedException(symbol, maxWait);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for Yahoo Finance", e);
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Quotes for many symbols, BATCH_SIZE symbols per request and one rate-limit token per request.
+     * Symbols Yahoo does not return are absent from the result; a batch that cannot get a token
+     * within maxWait, or fails, is skipped and the remaining batches are still attempted.
+     */
+    public Map<String, Stock> getAll(Collection<String> symbols, Duration maxWait) {
+        Map<String, Stock> result = new LinkedHashMap<>();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(symbols));
+        Duration wait = maxWait != null ? maxWait : defaultMaxWait;
+
+        for (int from = 0; from < distinct.size(); from += BATCH_SIZE) {
+            List<String> batch = distinct.subList(from, Math.min(from + BATCH_SIZE, distinct.size()));
+            try {
+                if (!rateLimiter.tryAcquire(wait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    rejected.incrementAndGet();
+                    logger.warn("Yahoo Finance rate limit: no slot for batch of {} within {} ms", batch.size(), wait.toMillis());
+                    continue;
+                }
+                Map<String, Stock> stocks = fetchBatch(batch);
+                for (String symbol : batch) {
+                    Stock stock = stocks != null ? stocks.get(symbol) : null;
+                    if (stock != null) {
+                        result.put(symbol, stock);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                logger.warn("Yahoo Finance batch of {} symbols failed: {}", batch.size(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    public long getCoalescedCount() {
+        return flights.getCoalescedCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    int getInFlightCount() {
+        return flights.getInFlightCount();
+    }
+
+    private Stock fetch(String symbol, Duration maxWait) throws IOException, InterruptedException {
+        if (!rateLimiter.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+            rejected.incrementAndGet();
+            logger.debug("Yahoo Finance rate limit: no slot for {} within {} ms", symbol, maxWait.toMillis());
+            throw new RateLimitedException(symbol, maxWait);
+        }
+
+        long startNanos = System.nanoTime();
+        boolean error = true;
+        try {
+            Stock stock = fetcher.fetch(symbol);
+            error = false;
+            return stock;
+        } finally {
+            metrics.record(DEPENDENCY, System.nanoTime() - startNanos, error);
+        }
+    }
+
+    private Map<String, Stock> fetchBatch(List<String> batch) throws IOException {
+        long startNanos = System.nanoTime();
+        boolean error = true;
+        try {
+            Map<String, Stock> stocks = batchFetcher.fetch(batch.toArray(new String[0]));
+            error = false;
+            return stocks;
+        } finally {
+            metrics.record(DEPENDENCY, System.nanoTime() - startNanos, error);
+        }
+    }
+
+    /**
+     * Raw lookup, replaceable in tests
+     */
+    @FunctionalInterface
+    interface StockFetcher {
+        Stock fetch(String symbol) throws IOException;
+    }
+
+    /**
+     * Raw multi-symbol lookup, replaceable in tests
+     */
+    @FunctionalInterface
+    interface BatchFetcher {
+        Map<String, Stock> fetch(String[] symbols) throws IOException;
+    }
+
+    /**
+     * No rate-limit token was available within the caller's deadline
+     */
+    public static class RateLimitedException extends IOException {
+        public RateLimitedException(String symbol, Duration maxWait) {
+            super("Yahoo Finance rate limit exceeded for " + symbol + " (waited up to " + maxWait.toMillis() + " ms)");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.valueinvestor.backtest;
+
+import com.valueinvestor.service.PriceHistoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class BacktestEngineTest {
+
+    @Test
+    void should_buyEqualWeights_atNearestEarlierClose() {
+        // Given - 2024-06-01 is a Saturday, so June buys use Friday 2024-05-31
+        PriceMatrix prices = new PriceMatrix()
+                .put("2330.TW", closes(LocalDate.of(2024, 5, 1), 100.0, LocalDate.of(2024, 5, 31), 100.0))
+                .put("2412.TW", closes(LocalDate.of(2024, 5, 1), 50.0, LocalDate.of(2024, 5, 31), 50.0));
+        BacktestConfig config = new BacktestConfig(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 15),
+                new BigDecimal("10000"), 2);
+
+        // When
+        BacktestResult result = BacktestEngine.run(config, List.of("2330.TW", "2412.TW", "2886.TW"), prices);
+
+        // Then
+        assertThat(result.getSelectedStocks()).containsExactly("2330.TW", "2412.TW");
+        assertThat(result.getTrades()).hasSize(4);
+        BacktestResult.Trade juneBuy = result.getTrades().get(2);
+        assertThat(juneBuy.getDate()).isEqualTo(LocalDate.of(2024, 6, 1));
+        assertThat(juneBuy.getPriceDate()).isEqualTo(LocalDate.of(2024, 5, 31));
+        assertThat(juneBuy.getShares()).isEqualByComparingTo("50");
+        assertThat(juneBuy.getTotalAmount()).isEqualByComparingTo("5000.00");
+        assertThat(result.getStats().getTotalDeposited()).isEqualByComparingTo("20000");
+        assertThat(result.getStats().getFinalValue()).isEqualByComparingTo("20000.00");
+    }
+
+    @Test
+    void should_skipBuy_when_noCloseWithinLookback() {
+        // Given - last close is ten days before the rebalance date; later prices must not be used
+        PriceMatrix prices = new PriceMatrix()
+                .put("2330.TW", closes(LocalDate.of(2024, 5, 22), 100.0, LocalDate.of(2024, 6, 3), 120.0));
+        BacktestConfig config = new BacktestConfig(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30),
+                new BigDecimal("10000"), 1);
+
+        // When
+        BacktestResult result = BacktestEngine.run(config, List.of("2330.TW"), prices);
+
+        // Then
+        assertThat(result.getTrades()).isEmpty();
+        assertThat(result.getStats().getSkippedBuys()).isEqualTo(1);
+        assertThat(result.getStats().getFinalCash()).isEqualByComparingTo("10000");
+    }
+
+    @Test
+    void should_measureTimeWeightedDrawdown_excludingDeposits() {
+        // Given - price halves in February and recovers in March
+        PriceMatrix prices = new PriceMatrix().put("2330.TW", closes(
+                LocalDate.of(2024, 1, 1), 100.0, LocalDate.of(2024, 2, 1), 50.0, LocalDate.of(2024, 3, 1), 100.0));
+        BacktestConfig config = new BacktestConfig(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1),
+                new BigDecimal("1000"), 1);
+
+        // When
+        BacktestResult result = BacktestEngine.run(config, List.of("2330.TW"), prices);
+
+        // Then - Jan: 10 sh @100, Feb: 10 + 20 sh @50 = 1500, Mar: 30 + 10 sh @100 = 4000
+        assertThat(result.getEquityCurve()).extracting(p -> p.getTotalValue().intValue())
+                .containsExactly(1000, 1500, 4000);
+        // Deposits made the curve rise every month, but the holdings themselves lost half in February
+        assertThat(result.getStats().getMaxDrawdownPct()).isCloseTo(50.0, offset(1e-9));
+        assertThat(result.getStats().getTotalReturnPct()).isCloseTo(100.0 / 3, offset(1e-9));
+    }
+
+    @Test
+    void should_runTenYearsOfSixtySymbols_wellUnderASecond() {
+        // Given - ten years of weekday closes for 60 symbols
+        LocalDate start = LocalDate.of(2014, 1, 1);
+        LocalDate end = LocalDate.of(2023, 12, 31);
+        PriceMatrix prices = new PriceMatrix();
+        List<String> candidates = new ArrayList<>();
+        for (int s = 0; s < 60; s++) {
+            String symbol = (1000 + s) + ".TW";
+            candidates.add(symbol);
+            prices.put(symbol, weekdayCloses(start, end, 20.0 + s));
+        }
+        BacktestConfig config = new BacktestConfig(start, end, new BigDecimal("16000"), 60);
+
+        // When
+        BacktestEngine.run(config, candidates, prices);
+        long startNanos = System.nanoTime();
+        BacktestResult result = BacktestEngine.run(config, candidates, prices);
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        // Then
+        assertThat(result.getStats().getMonths()).isEqualTo(120);
+        assertThat(result.getStats().getTradeCount()).isEqualTo(120 * 60);
+        assertThat(elapsedMillis).isLessThan(1000);
+    }
+
+    private static PriceHistoryStore.DailyCloses closes(Object... dateThenClose) {
+        int n = dateThenClose.length / 2;
+        int[] days = new int[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = (int) ((LocalDate) dateThenClose[2 * i]).toEpochDay();
+            values[i] = (Double) dateThenClose[2 * i + 1];
+        }
+        return new PriceHistoryStore.DailyCloses(days, values);
+    }
+
+    private static PriceHistoryStore.DailyCloses weekdayCloses(LocalDate start, LocalDate end, double base) {
+        List<LocalDate> dates = start.datesUntil(end.plusDays(1))
+                .filter(d -> d.getDayOfWeek() != DayOfWeek.SATURDAY && d.getDayOfWeek() != DayOfWeek.SUNDAY)
+                .toList();
+        int[] days = new int[dates.size()];
+        double[] values = new double[dates.size()];
+        for (int i = 0; i < dates.size(); i++) {
+            days[i] = (int) dates.get(i).toEpochDay();
+            values[i] = base * (1.0 + 0.0001 * i);
+        }
+        return new PriceHistoryStore.DailyCloses(days, values);
+    }
+}
@@ -0,0 +1,125 @@
+package com.valueinvestor.backtest;
+
+import com.valueinvestor.service.PriceHistoryStore;
+import com.valueinvestor.service.RebalanceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParameterSweepServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private BacktestService backtestService;
+
+    @Mock
+    private RebalanceService rebalanceService;
+
+    @InjectMocks
+    private ParameterSweepService parameterSweepService;
+
+    @AfterEach
+    void tearDown() {
+        parameterSweepService.shutdown();
+    }
+
+    @Test
+    void should_backtestEveryCombination_andRankBestFirst() {
+        // Given - 2330.TW doubles over the period while 2412.TW stays flat
+        when(backtestService.withDefaults(any())).thenReturn(
+                new BacktestConfig(START, END, new BigDecimal("1000"), RebalanceService.TARGET_POSITIONS));
+        when(rebalanceService.getCandidateStocks(any(BigDecimal.class), anyInt()))
+                .thenReturn(List.of("2330.TW", "2412.TW"));
+        when(backtestService.loadPrices(anyList(), any(), any())).thenReturn(new PriceMatrix()
+                .put("2330.TW", closes(100.0, 150.0, 200.0))
+                .put("2412.TW", closes(50.0, 50.0, 50.0)));
+
+        SweepRequest request = new SweepRequest();
+        request.setPositions(List.of(1, 2));
+        request.setMinDividendYields(List.of(new BigDecimal("2.0"), new BigDecimal("4.0")));
+        request.setPoolSizes(List.of(10));
+        request.setAllocationSchemes(List.of(AllocationScheme.EQUAL_WEIGHT, AllocationScheme.RANK_WEIGHTED));
+
+        // When
+        SweepResult result = parameterSweepService.run(request);
+
+        // Then
+        assertThat(result.getRuns()).isEqualTo(8);
+        assertThat(result.getRows()).extracting(SweepResult.Row::getRank).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(result.getRows().get(0).getPositions()).isEqualTo(1);
+        assertThat(result.getRows()).extracting(SweepResult.Row::getAnnualizedReturnPct)
+                .isSortedAccordingTo((a, b) -> Double.compare(b, a));
+        // One candidate lookup per (yield, pool size), not per run
+        verify(rebalanceService, times(2)).getCandidateStocks(any(BigDecimal.class), anyInt());
+        verify(backtestService).loadPrices(anyList(), any(), any());
+
+        String[] csv = result.toCsv().split("\n");
+        assertThat(csv).hasSize(9);
+        assertThat(csv[0]).isEqualTo(SweepResult.CSV_HEADER);
+        assertThat(csv[1]).startsWith("1,1,");
+    }
+
+    @Test
+    void should_reject_when_gridExceedsRunLimit() {
+        // Given
+        SweepRequest request = new SweepRequest();
+        request.setPositions(IntStream.rangeClosed(1, 100).boxed().toList());
+        request.setPoolSizes(IntStream.rangeClosed(1, 100).boxed().toList());
+
+        // When / Then
+        assertThatThrownBy(() -> parameterSweepService.run(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds the limit");
+        verifyNoInteractions(rebalanceService);
+    }
+
+    @Test
+    void should_reject_when_gridContainsNull() {
+        // Given - "positions": [null] in the request body
+        SweepRequest request = new SweepRequest();
+        request.setPositions(Arrays.asList(5, null));
+
+        // When / Then
+        assertThatThrownBy(() -> parameterSweepService.run(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("positions");
+        verifyNoInteractions(rebalanceService);
+    }
+
+    @Test
+    void should_weightByRank_when_rankWeighted() {
+        // When
+        Map<String, BigDecimal> allocation = AllocationScheme.RANK_WEIGHTED.allocate(
+                new BigDecimal("6000"), List.of("2330.TW", "2412.TW", "2886.TW"));
+
+        // Then
+        assertThat(allocation.get("2330.TW")).isEqualByComparingTo("3000.00");
+        assertThat(allocation.get("2412.TW")).isEqualByComparingTo("2000.00");
+        assertThat(allocation.get("2886.TW")).isEqualByComparingTo("1000.00");
+    }
+
+    private static PriceHistoryStore.DailyCloses closes(double jan, double feb, double mar) {
+        int[] days = {(int) START.toEpochDay(), (int) START.plusMonths(1).toEpochDay(), (int) END.toEpochDay()};
+        return new PriceHistoryStore.DailyCloses(days, new double[]{jan, feb, mar});
+    }
+}
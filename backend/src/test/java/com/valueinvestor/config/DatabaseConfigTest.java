@@ -0,0 +1,109 @@
+package com.valueinvestor.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the writer/reader pools against a real SQLite file
+ */
+class DatabaseConfigTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource writer;
+    private HikariDataSource reader;
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        SqliteProperties sqlite = new SqliteProperties();
+        String url = "jdbc:sqlite:" + tempDir.resolve("split.db");
+
+        DatabaseConfig.SqliteDataSources config = new DatabaseConfig.SqliteDataSources();
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url);
+        writer = config.sqliteWriterDataSource(properties, sqlite);
+        reader = config.sqliteReaderDataSource(properties, sqlite, writer);
+        dataSource = config.dataSource(writer, reader);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE tx (id INTEGER PRIMARY KEY, amount NUMERIC NOT NULL)");
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (reader != null) {
+            reader.close();
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void should_useWalMode_onWriter() {
+        // When
+        String journalMode = new JdbcTemplate(writer).queryForObject("PRAGMA journal_mode", String.class);
+
+        // Then
+        assertThat(journalMode).isEqualToIgnoringCase("wal");
+    }
+
+    @Test
+    void should_routeReadOnlyTransactions_toReaders() {
+        // Given
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO tx (amount) VALUES (100)"));
+
+        // When / Then - reads work, writes are rejected by the read-only connection
+        Integer count = readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tx", Integer.class));
+        assertThat(count).isEqualTo(1);
+        assertThatThrownBy(() -> readOnly.executeWithoutResult(
+                status -> jdbcTemplate.update("INSERT INTO tx (amount) VALUES (200)")))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void should_readCommittedRows_whileWriteTransactionIsOpen() throws Exception {
+        // Given - one committed row and an open write transaction holding the write lock
+        jdbcTemplate.update("INSERT INTO tx (amount) VALUES (100)");
+        try (Connection connection = writer.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeUpdate("INSERT INTO tx (amount) VALUES (200)");
+
+            // When - a read-only transaction runs before the write commits
+            long startNanos = System.nanoTime();
+            Integer count = readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tx", Integer.class));
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+            // Then - the last committed state, without waiting for the busy timeout
+            assertThat(count).isEqualTo(1);
+            assertThat(elapsedMs).isLessThan(new SqliteProperties().getBusyTimeoutMs());
+            connection.rollback();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.valueinvestor.controller;
 
 import com.valueinvestor.model.entity.AnalysisResults;
 import com.valueinvestor.service.AnalysisService;
+import com.valueinvestor.service.BatchAnalysisService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -12,7 +13,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -30,6 +33,9 @@ class AnalysisControllerTest {
     @MockBean
     private AnalysisService analysisService;
 
+    @MockBean
+    private BatchAnalysisService batchAnalysisService;
+
     @Test
     void should_analyzeStock_when_symbolProvided() throws Exception {
         // Given
@@ -65,4 +71,16 @@ class AnalysisControllerTest {
         mockMvc.perform(get("/api/analysis/recent?limit=10"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void should_return429_when_analysisQueueIsFull() throws Exception {
+        // Given
+        when(batchAnalysisService.submit(any())).thenThrow(new RejectedExecutionException("Analysis queue full"));
+
+        // When/Then
+        mockMvc.perform(post("/api/analysis/analyze-batch")
+                        .contentType("application/json")
+                        .content("{\"symbols\": [\"2330.TW\", \"2317.TW\"]}"))
+                .andExpect(status().isTooManyRequests());
+    }
 }
@@ -1,7 +1,9 @@
 package com.valueinvestor.controller;
 
+import com.valueinvestor.model.dto.PortfolioValuation;
 import com.valueinvestor.model.entity.PositionHistory;
 import com.valueinvestor.model.entity.TransactionLog;
+import com.valueinvestor.service.CashLedgerService;
 import com.valueinvestor.service.PortfolioService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,31 +35,29 @@ class PortfolioControllerTest {
     @MockBean
     private PortfolioService portfolioService;
 
+    @MockBean
+    private CashLedgerService cashLedgerService;
+
     @Test
     void should_getCurrentPortfolio_when_requested() throws Exception {
         // Given
-        Map<String, Object> metrics = new HashMap<>();
-        metrics.put("totalValue", new BigDecimal("10000.00"));
-        metrics.put("cashBalance", new BigDecimal("1000.00"));
-        metrics.put("investedAmount", new BigDecimal("9000.00"));
-        metrics.put("totalPL", new BigDecimal("1000.00"));
-        metrics.put("plPercentage", new BigDecimal("11.11"));
-        metrics.put("positionCount", 3);
-
         List<PositionHistory> positions = new ArrayList<>();
         PositionHistory position = new PositionHistory("AAPL", new BigDecimal("10"), new BigDecimal("150.00"));
         position.setCurrentPrice(new BigDecimal("160.00"));
         position.calculateMetrics();
         positions.add(position);
 
-        when(portfolioService.getPerformanceMetrics()).thenReturn(metrics);
-        when(portfolioService.getCurrentPortfolio()).thenReturn(positions);
+        when(portfolioService.getValuation())
+                .thenReturn(PortfolioValuation.of(positions, new BigDecimal("1000.00")));
 
         // When/Then
         mockMvc.perform(get("/api/portfolio/current"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.totalValue").value(10000.00))
-                .andExpect(jsonPath("$.positionCount").value(3));
+                .andExpect(jsonPath("$.totalValue").value(2600.00))
+                .andExpect(jsonPath("$.cashBalance").value(1000.00))
+                .andExpect(jsonPath("$.totalPL").value(100.00))
+                .andExpect(jsonPath("$.positionCount").value(1))
+                .andExpect(jsonPath("$.positions[0].symbol").value("AAPL"));
     }
 
     @Test
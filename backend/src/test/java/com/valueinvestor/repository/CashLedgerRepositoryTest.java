@@ -0,0 +1,99 @@
+package com.valueinvestor.repository;
+
+import com.valueinvestor.model.entity.CashLedger;
+import com.valueinvestor.model.entity.TransactionLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class CashLedgerRepositoryTest {
+
+    @Autowired
+    private CashLedgerRepository cashLedgerRepository;
+
+    @Autowired
+    private TransactionLogRepository transactionLogRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void should_applyTransactionInPlace_when_ledgerExists() {
+        // Given
+        cashLedgerRepository.save(new CashLedger(new BigDecimal("10000.00"), BigDecimal.ZERO, BigDecimal.ZERO, 1, 1L));
+
+        // When
+        int updated = cashLedgerRepository.applyTransaction(BigDecimal.ZERO, new BigDecimal("1500.00"),
+                BigDecimal.ZERO, 2L, LocalDateTime.now());
+
+        // Then - the update bypasses the persistence context, so reload the row
+        entityManager.clear();
+        CashLedger ledger = cashLedgerRepository.findById(CashLedger.LEDGER_ID).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(cashLedgerRepository.findBalance()).hasValueSatisfying(
+                balance -> assertThat(balance).isEqualByComparingTo("8500.00"));
+        assertThat(ledger.getBalance()).isEqualByComparingTo("8500.00");
+        assertThat(ledger.getTotalBuys()).isEqualByComparingTo("1500.00");
+        assertThat(ledger.getTransactionCount()).isEqualTo(2L);
+        assertThat(ledger.getLastTransactionId()).isEqualTo(2L);
+    }
+
+    @Test
+    void should_keepCallerEntitiesAttached_when_applyingTransaction() {
+        // Given - a trade transaction holding a managed transaction_log row
+        cashLedgerRepository.save(new CashLedger(new BigDecimal("10000.00"), BigDecimal.ZERO, BigDecimal.ZERO, 1, 1L));
+        TransactionLog buy = transactionLogRepository.save(new TransactionLog(TransactionLog.TransactionType.BUY,
+                "2330.TW", new BigDecimal("2"), new BigDecimal("600.00"), new BigDecimal("1200.00"),
+                TransactionLog.TradingMode.SIMULATION, "Buy"));
+
+        // When
+        cashLedgerRepository.applyTransaction(BigDecimal.ZERO, new BigDecimal("1200.00"), BigDecimal.ZERO,
+                buy.getId(), LocalDateTime.now());
+        buy.setNotes("Filled");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then - the later setter was not lost
+        assertThat(transactionLogRepository.findById(buy.getId()).orElseThrow().getNotes()).isEqualTo("Filled");
+    }
+
+    @Test
+    void should_reportNoRow_when_ledgerMissing() {
+        // When
+        int updated = cashLedgerRepository.applyTransaction(new BigDecimal("100"), BigDecimal.ZERO,
+                BigDecimal.ZERO, 1L, LocalDateTime.now());
+
+        // Then
+        assertThat(updated).isZero();
+    }
+
+    @Test
+    void should_sumAmountsByType_forLedgerRebuild() {
+        // Given
+        transactionLogRepository.save(new TransactionLog(TransactionLog.TransactionType.DEPOSIT, null, null, null,
+                new BigDecimal("5000.00"), TransactionLog.TradingMode.SIMULATION, "Deposit"));
+        transactionLogRepository.save(new TransactionLog(TransactionLog.TransactionType.BUY, "2330.TW",
+                new BigDecimal("2"), new BigDecimal("600.00"), new BigDecimal("1200.00"),
+                TransactionLog.TradingMode.SIMULATION, "Buy"));
+        transactionLogRepository.save(new TransactionLog(TransactionLog.TransactionType.REBALANCE, null, null, null,
+                null, TransactionLog.TradingMode.SIMULATION, "Rebalance"));
+
+        // When/Then
+        assertThat(transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.DEPOSIT))
+                .isEqualByComparingTo("5000.00");
+        assertThat(transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.SELL))
+                .isEqualByComparingTo("0");
+        assertThat(transactionLogRepository.countCashTransactions()).isEqualTo(2L);
+    }
+}
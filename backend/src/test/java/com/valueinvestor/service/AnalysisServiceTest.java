@@ -1,9 +1,12 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.config.AppProperties;
 import com.valueinvestor.model.entity.AnalysisResults;
 import com.valueinvestor.model.entity.StockFundamentals;
 import com.valueinvestor.repository.AnalysisResultsRepository;
 import com.valueinvestor.util.OllamaClient;
+import com.valueinvestor.util.PhaseMetrics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +15,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,6 +41,10 @@ class AnalysisServiceTest {
     @Mock
     private OllamaClient ollamaClient;
 
+    // Real queue rather than a spy: a spy copies the instance, so shutdown() would stop the copy
+    // and leave the original writer thread running
+    private WriteBehindQueue writeQueue;
+
     @InjectMocks
     private AnalysisService analysisService;
 
@@ -44,6 +53,10 @@ class AnalysisServiceTest {
 
     @BeforeEach
     void setUp() {
+        writeQueue = new WriteBehindQueue(new AppProperties(), mock(PlatformTransactionManager.class),
+                new PhaseMetrics());
+        ReflectionTestUtils.setField(analysisService, "writeQueue", writeQueue);
+
         testFundamentals = new StockFundamentals("AAPL", "Apple Inc.");
         testFundamentals.setCurrentPrice(new BigDecimal("150.00"));
         testFundamentals.setDividendYield(new BigDecimal("0.5"));
@@ -59,6 +72,11 @@ class AnalysisServiceTest {
         );
     }
 
+    @AfterEach
+    void tearDown() {
+        writeQueue.shutdown();
+    }
+
     @Test
     void should_analyzeStock_when_fundamentalsAvailable() throws Exception {
         // Given
@@ -240,4 +258,43 @@ class AnalysisServiceTest {
         assertThat(result.getRecommendation()).isEqualTo("SELL");
         assertThat(result.getScore()).isEqualTo(25.0);
     }
+
+    @Test
+    void should_reuseCachedAnalysis_when_promptUnchanged() throws Exception {
+        // Given - a first analysis stores its prompt hash
+        when(marketDataService.getFundamentals("AAPL")).thenReturn(testFundamentals);
+        when(ollamaClient.isAvailable()).thenReturn(true);
+        when(ollamaClient.sendPrompt(anyString(), anyString()))
+                .thenReturn("Strong buy recommendation. RECOMMENDATION: BUY SCORE: 85");
+        when(analysisRepository.save(any(AnalysisResults.class))).thenAnswer(i -> i.getArgument(0));
+        AnalysisResults first = analysisService.analyzeStock("AAPL");
+        assertThat(first.getPromptHash()).hasSize(64);
+        when(analysisRepository.findFirstBySymbolAndPromptHashOrderByTimestampDesc("AAPL", first.getPromptHash()))
+                .thenReturn(Optional.of(first));
+
+        // When - same fundamentals again
+        AnalysisResults second = analysisService.analyzeStock("AAPL");
+
+        // Then - no second LLM call
+        assertThat(second).isSameAs(first);
+        verify(ollamaClient, times(1)).sendPrompt(anyString(), anyString());
+        assertThat(analysisService.getCacheHits()).isEqualTo(1);
+        assertThat(analysisService.getCacheMisses()).isEqualTo(1);
+        assertThat(analysisService.getCacheHitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void should_changePromptHash_when_modelOrPromptVersionChanges() {
+        // Given
+        String prompt = "Stock Symbol: AAPL";
+
+        // When
+        String hash = AnalysisService.promptHash("model-a", 1, prompt);
+
+        // Then
+        assertThat(AnalysisService.promptHash("model-a", 1, prompt)).isEqualTo(hash);
+        assertThat(AnalysisService.promptHash("model-b", 1, prompt)).isNotEqualTo(hash);
+        assertThat(AnalysisService.promptHash("model-a", 2, prompt)).isNotEqualTo(hash);
+        assertThat(AnalysisService.promptHash("model-a", 1, prompt + " ")).isNotEqualTo(hash);
+    }
 }
@@ -0,0 +1,113 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.model.entity.AnalysisResults;
+import com.valueinvestor.util.PhaseMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchAnalysisServiceTest {
+
+    @Mock
+    private AnalysisService analysisService;
+
+    @Mock
+    private StockUniverseService stockUniverseService;
+
+    private BatchAnalysisService batchAnalysisService;
+
+    @AfterEach
+    void tearDown() {
+        if (batchAnalysisService != null) {
+            batchAnalysisService.shutdown();
+        }
+    }
+
+    @Test
+    void should_analyzeUniverse_withAtMostParallelSlotsInFlight() throws Exception {
+        // Given - 2 slots, 6 universe symbols, one of which fails
+        batchAnalysisService = service(2, 100);
+        when(stockUniverseService.getAllActiveSymbols())
+                .thenReturn(List.of("1101.TW", "1102.TW", "1103.TW", "1104.TW", "1105.TW", "9999.TW"));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(analysisService.analyzeStock(anyString())).thenAnswer(invocation -> {
+            String symbol = invocation.getArgument(0);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                if (symbol.equals("9999.TW")) {
+                    throw new IllegalStateException("Ollama unavailable");
+                }
+                return new AnalysisResults(symbol, "SCORE: 70", 70.0, "BUY", "Data");
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        // When
+        BatchAnalysisService.BatchJob job = batchAnalysisService.submit(null);
+        awaitFinished(job);
+
+        // Then
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+        assertThat(job.getTotal()).isEqualTo(6);
+        assertThat(job.getFailed()).isEqualTo(1);
+        assertThat(job.getItems()).extracting(BatchAnalysisService.ItemResult::getSymbol)
+                .containsExactly("1101.TW", "1102.TW", "1103.TW", "1104.TW", "1105.TW", "9999.TW");
+        assertThat(job.getItems().get(0).getRecommendation()).isEqualTo("BUY");
+        assertThat(job.getItems().get(5).getError()).isEqualTo("Ollama unavailable");
+    }
+
+    @Test
+    void should_rejectWholeBatch_when_queueHasNoRoom() throws Exception {
+        // Given - a queue of 3 with 2 analyses held in progress
+        batchAnalysisService = service(1, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        when(analysisService.analyzeStock(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new AnalysisResults(invocation.getArgument(0), "SCORE: 70", 70.0, "BUY", "Data");
+        });
+        BatchAnalysisService.BatchJob first = batchAnalysisService.submit(List.of("1101.TW", "1102.TW"));
+
+        // When / Then - 2 more do not fit, 1 more does
+        assertThatThrownBy(() -> batchAnalysisService.submit(List.of("2330.TW", "2317.TW")))
+                .isInstanceOf(RejectedExecutionException.class);
+        BatchAnalysisService.BatchJob second = batchAnalysisService.submit(List.of("2330.TW"));
+
+        release.countDown();
+        awaitFinished(first);
+        awaitFinished(second);
+        assertThat(second.getItems().get(0).getStatus()).isEqualTo(BatchAnalysisService.ItemStatus.DONE);
+    }
+
+    private BatchAnalysisService service(int parallelSlots, int queueCapacity) {
+        AppProperties properties = new AppProperties();
+        properties.getBatchAnalysis().setParallelSlots(parallelSlots);
+        properties.getBatchAnalysis().setQueueCapacity(queueCapacity);
+        return new BatchAnalysisService(properties, analysisService, stockUniverseService, new PhaseMetrics());
+    }
+
+    private static void awaitFinished(BatchAnalysisService.BatchJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.isFinished()).isTrue();
+    }
+}
@@ -0,0 +1,78 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkDownloadExecutorTest {
+
+    private BulkDownloadExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties properties = new AppProperties();
+        properties.getDownload().setPermitsPerSecond(1000);
+        properties.getDownload().setBurst(10);
+        properties.getDownload().setMaxInFlight(2);
+        executor = new BulkDownloadExecutor(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void should_returnOutcomes_inSymbolOrder() {
+        // When
+        BulkDownloadExecutor.DownloadReport<Integer> report = executor.runAll(
+                "test", List.of("A", "BB", "CCC"), String::length);
+
+        // Then
+        assertThat(report.getOutcomes()).containsOnlyKeys("A", "BB", "CCC");
+        assertThat(report.resultsOrDefault(0)).containsExactly(
+                Map.entry("A", 1), Map.entry("BB", 2), Map.entry("CCC", 3));
+        assertThat(report.getSuccessCount()).isEqualTo(3);
+    }
+
+    @Test
+    void should_captureFailures_perSymbol() {
+        // When
+        BulkDownloadExecutor.DownloadReport<Integer> report = executor.runAll("test", List.of("OK", "BAD"), symbol -> {
+            if (symbol.equals("BAD")) {
+                throw new IllegalStateException("bridge down");
+            }
+            return 5;
+        });
+
+        // Then
+        assertThat(report.getFailureCount()).isEqualTo(1);
+        assertThat(report.getOutcomes().get("BAD").getError()).isEqualTo("bridge down");
+        assertThat(report.resultsOrDefault(0)).containsEntry("OK", 5).containsEntry("BAD", 0);
+    }
+
+    @Test
+    void should_capInFlightRequests() {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // When
+        executor.runAll("test", List.of("1", "2", "3", "4", "5", "6"), symbol -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return 0;
+        });
+
+        // Then
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(executor.getMaxInFlight());
+    }
+}
@@ -0,0 +1,136 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.CashLedger;
+import com.valueinvestor.model.entity.TransactionLog;
+import com.valueinvestor.repository.CashLedgerRepository;
+import com.valueinvestor.repository.TransactionLogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CashLedgerServiceTest {
+
+    @Mock
+    private CashLedgerRepository cashLedgerRepository;
+
+    @Mock
+    private TransactionLogRepository transactionLogRepository;
+
+    @InjectMocks
+    private CashLedgerService cashLedgerService;
+
+    @Test
+    void should_applyBuyToLedger_when_rowExists() {
+        // Given
+        TransactionLog buy = transaction(TransactionLog.TransactionType.BUY, "1500.00", 7L);
+        when(cashLedgerRepository.applyTransaction(any(), any(), any(), any(), any())).thenReturn(1);
+
+        // When
+        cashLedgerService.recordTransaction(buy);
+
+        // Then
+        verify(cashLedgerRepository).applyTransaction(eq(BigDecimal.ZERO), eq(new BigDecimal("1500.00")),
+                eq(BigDecimal.ZERO), eq(7L), any());
+        verifyNoInteractions(transactionLogRepository);
+    }
+
+    @Test
+    void should_rebuildFromTransactionLog_when_ledgerRowMissing() {
+        // Given
+        TransactionLog deposit = transaction(TransactionLog.TransactionType.DEPOSIT, "5000.00", 1L);
+        when(cashLedgerRepository.applyTransaction(any(), any(), any(), any(), any())).thenReturn(0);
+        stubTotals("5000.00", "0", "0", 1);
+        when(cashLedgerRepository.save(any(CashLedger.class))).thenAnswer(i -> i.getArgument(0));
+
+        // When
+        cashLedgerService.recordTransaction(deposit);
+
+        // Then
+        ArgumentCaptor<CashLedger> saved = ArgumentCaptor.forClass(CashLedger.class);
+        verify(cashLedgerRepository).save(saved.capture());
+        assertThat(saved.getValue().getBalance()).isEqualByComparingTo("5000.00");
+        assertThat(saved.getValue().getTransactionCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void should_ignoreRebalanceEntries() {
+        // When
+        cashLedgerService.recordTransaction(transaction(TransactionLog.TransactionType.REBALANCE, null, 3L));
+
+        // Then
+        verifyNoInteractions(cashLedgerRepository);
+    }
+
+    @Test
+    void should_readBalanceFromLedgerRow() {
+        // Given
+        when(cashLedgerRepository.findBalance()).thenReturn(Optional.of(new BigDecimal("6500")));
+
+        // When
+        BigDecimal balance = cashLedgerService.getBalance();
+
+        // Then
+        assertThat(balance).isEqualByComparingTo("6500");
+        verifyNoInteractions(transactionLogRepository);
+    }
+
+    @Test
+    void should_sumTransactionLog_withoutWriting_when_ledgerRowMissing() {
+        // Given
+        when(cashLedgerRepository.findBalance()).thenReturn(Optional.empty());
+        stubTotals("10000", "4000", "500", 3);
+
+        // When
+        BigDecimal balance = cashLedgerService.getBalance();
+
+        // Then
+        assertThat(balance).isEqualByComparingTo("6500");
+        verify(cashLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    void should_reportInconsistent_when_ledgerDriftsFromTransactionLog() {
+        // Given
+        CashLedger stale = new CashLedger(new BigDecimal("10000"), BigDecimal.ZERO, BigDecimal.ZERO, 1, 1L);
+        when(cashLedgerRepository.findById(CashLedger.LEDGER_ID)).thenReturn(Optional.of(stale));
+        stubTotals("10000", "2500", "0", 2);
+
+        // When
+        CashLedgerService.LedgerCheck check = cashLedgerService.verify();
+
+        // Then
+        assertThat(check.isConsistent()).isFalse();
+        assertThat(check.getLedgerBalance()).isEqualByComparingTo("10000");
+        assertThat(check.getComputedBalance()).isEqualByComparingTo("7500");
+    }
+
+    private void stubTotals(String deposits, String buys, String sells, long count) {
+        when(transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.DEPOSIT))
+                .thenReturn(new BigDecimal(deposits));
+        when(transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.BUY))
+                .thenReturn(new BigDecimal(buys));
+        when(transactionLogRepository.sumTotalAmountByType(TransactionLog.TransactionType.SELL))
+                .thenReturn(new BigDecimal(sells));
+        when(transactionLogRepository.countCashTransactions()).thenReturn(count);
+        when(transactionLogRepository.findMaxId()).thenReturn(count);
+    }
+
+    private TransactionLog transaction(TransactionLog.TransactionType type, String amount, Long id) {
+        TransactionLog transaction = new TransactionLog(type, null, null, null,
+                amount != null ? new BigDecimal(amount) : null, TransactionLog.TradingMode.SIMULATION, "Test");
+        transaction.setId(id);
+        return transaction;
+    }
+}
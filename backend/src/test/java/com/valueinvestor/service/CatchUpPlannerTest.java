@@ -0,0 +1,65 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.PositionHistory;
+import com.valueinvestor.model.entity.TransactionLog;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatchUpPlannerTest {
+
+    private static final LocalDate JAN = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FEB = LocalDate.of(2024, 2, 1);
+
+    @Test
+    void should_planDepositsAndFills_withRunningAveragePrice() {
+        // Given - 2330.TW closes at 100 in January and 200 in February
+        Map<String, BigDecimal> allocation = new LinkedHashMap<>();
+        allocation.put("2330.TW", new BigDecimal("1000.00"));
+
+        // When
+        CatchUpPlanner.Plan plan = CatchUpPlanner.plan(List.of(JAN, FEB), new BigDecimal("1000"),
+                TransactionLog.TradingMode.SIMULATION, allocation, BigDecimal.ZERO, List.of(),
+                (symbols, date) -> Map.of("2330.TW", date.equals(JAN) ? new BigDecimal("100") : new BigDecimal("200")));
+
+        // Then
+        assertThat(plan.getTransactions()).extracting(TransactionLog::getType).containsExactly(
+                TransactionLog.TransactionType.DEPOSIT, TransactionLog.TransactionType.BUY,
+                TransactionLog.TransactionType.DEPOSIT, TransactionLog.TransactionType.BUY);
+        PositionHistory february = plan.getPositionRows().get(1);
+        assertThat(february.getQuantity()).isEqualByComparingTo("15");
+        assertThat(february.getAveragePrice()).isEqualByComparingTo("133.3333");
+
+        // February is valued at February's close: 15 sh @200, no cash left
+        CatchUpPlanner.PlannedMonth last = plan.getMonths().get(1);
+        assertThat(last.getValuation().getTotalValue()).isEqualByComparingTo("3000");
+        assertThat(last.getValuation().getCashBalance()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void should_keepExistingHoldings_andRecordMissingPrices() {
+        // Given - an existing 2412.TW position and no price for 2886.TW
+        PositionHistory existing = new PositionHistory("2412.TW", new BigDecimal("10"), new BigDecimal("100"));
+        existing.setCurrentPrice(new BigDecimal("110"));
+        Map<String, BigDecimal> allocation = new LinkedHashMap<>();
+        allocation.put("2886.TW", new BigDecimal("500.00"));
+
+        // When
+        CatchUpPlanner.Plan plan = CatchUpPlanner.plan(List.of(JAN), new BigDecimal("500"),
+                TransactionLog.TradingMode.SIMULATION, allocation, new BigDecimal("200"), List.of(existing),
+                (symbols, date) -> Map.of("2412.TW", new BigDecimal("120")));
+
+        // Then - nothing bought, cash grows by the deposit, 2412.TW valued at the January close
+        CatchUpPlanner.PlannedMonth month = plan.getMonths().get(0);
+        assertThat(month.getBuys()).isEmpty();
+        assertThat(month.getErrors()).containsKey("2886.TW");
+        assertThat(month.getValuation().getCashBalance()).isEqualByComparingTo("700");
+        assertThat(month.getValuation().getTotalValue()).isEqualByComparingTo("1900");
+    }
+}
@@ -0,0 +1,93 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.CurrentPosition;
+import com.valueinvestor.model.entity.PositionHistory;
+import com.valueinvestor.repository.CurrentPositionRepository;
+import com.valueinvestor.repository.PositionHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentPositionServiceTest {
+
+    @Mock
+    private CurrentPositionRepository currentPositionRepository;
+
+    @Mock
+    private PositionHistoryRepository positionHistoryRepository;
+
+    @InjectMocks
+    private CurrentPositionService currentPositionService;
+
+    @Test
+    void should_overwriteExistingRow_when_newFillRecorded() {
+        // Given
+        CurrentPosition existing = CurrentPosition.from(history(1L, "2330.TW", "10", "600.00"));
+        when(currentPositionRepository.findById("2330.TW")).thenReturn(Optional.of(existing));
+
+        // When
+        currentPositionService.record(history(2L, "2330.TW", "15", "610.00"));
+
+        // Then
+        verify(currentPositionRepository).save(existing);
+        assertThat(existing.getQuantity()).isEqualByComparingTo("15");
+        assertThat(existing.getAveragePrice()).isEqualByComparingTo("610.00");
+        assertThat(existing.getHistoryId()).isEqualTo(2L);
+    }
+
+    @Test
+    void should_returnPositionHistoryView_withMetrics() {
+        // Given
+        PositionHistory latest = history(5L, "2454.TW", "4", "1000.00");
+        latest.setCurrentPrice(new BigDecimal("1100.00"));
+        when(currentPositionRepository.findAllByOrderBySymbolAsc()).thenReturn(List.of(CurrentPosition.from(latest)));
+
+        // When
+        List<PositionHistory> positions = currentPositionService.findAll();
+
+        // Then - no position_history scan on the read path
+        assertThat(positions).hasSize(1);
+        assertThat(positions.get(0).getId()).isEqualTo(5L);
+        assertThat(positions.get(0).getMarketValue()).isEqualByComparingTo("4400.00");
+        assertThat(positions.get(0).getUnrealizedPL()).isEqualByComparingTo("400.00");
+        verifyNoInteractions(positionHistoryRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void should_rebuildFromLatestHistory_keepingLastRowOnTimestampTie() {
+        // Given
+        when(positionHistoryRepository.findLatestPositions()).thenReturn(List.of(
+                history(3L, "2330.TW", "10", "600.00"),
+                history(4L, "2330.TW", "12", "605.00"),
+                history(2L, "2317.TW", "20", "100.00")));
+
+        // When
+        int rebuilt = currentPositionService.rebuild();
+
+        // Then
+        ArgumentCaptor<List<CurrentPosition>> saved = ArgumentCaptor.forClass(List.class);
+        verify(currentPositionRepository).deleteAllInBatch();
+        verify(currentPositionRepository).saveAll(saved.capture());
+        assertThat(rebuilt).isEqualTo(2);
+        assertThat(saved.getValue()).extracting(CurrentPosition::getHistoryId).containsExactly(4L, 2L);
+    }
+
+    private PositionHistory history(Long id, String symbol, String quantity, String averagePrice) {
+        PositionHistory history = new PositionHistory(symbol, new BigDecimal(quantity), new BigDecimal(averagePrice));
+        history.setId(id);
+        return history;
+    }
+}
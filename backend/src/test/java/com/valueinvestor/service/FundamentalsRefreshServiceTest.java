@@ -0,0 +1,152 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.config.ShioajiProperties;
+import com.valueinvestor.model.entity.StockFundamentals;
+import com.valueinvestor.repository.StockFundamentalsRepository;
+import com.valueinvestor.util.OutboundHttpClient;
+import com.valueinvestor.util.PhaseMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FundamentalsRefreshServiceTest {
+
+    @Mock
+    private StockFundamentalsRepository fundamentalsRepository;
+
+    @Mock
+    private ShioajiProperties shioajiProperties;
+
+    @Mock
+    private TaiwanStockScreenerService screeningService;
+
+    @Mock
+    private OutboundHttpClient httpClient;
+
+    // Plain instance so tearDown stops the writer thread the service actually writes through
+    private WriteBehindQueue writeQueue;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Spy
+    private BulkDownloadExecutor bulkDownloadExecutor = new BulkDownloadExecutor(fastDownloads());
+
+    @InjectMocks
+    private FundamentalsRefreshService fundamentalsRefreshService;
+
+    @BeforeEach
+    void setUp() {
+        writeQueue = new WriteBehindQueue(new AppProperties(), mock(PlatformTransactionManager.class),
+                new PhaseMetrics());
+        ReflectionTestUtils.setField(fundamentalsRefreshService, "writeQueue", writeQueue);
+
+        when(shioajiProperties.getApiUrl()).thenReturn("http://bridge");
+        when(httpClient.restTemplate(ShioajiDataService.DEPENDENCY)).thenReturn(restTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkDownloadExecutor.shutdown();
+        writeQueue.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void should_fetchInParallel_fallBackOnce_and_saveInOneBatch() {
+        // Given - the bridge serves 2330, is down for 2317, and returns an error for everything else
+        when(restTemplate.getForEntity(anyString(), eq(String.class))).thenReturn(
+                ResponseEntity.ok("{\"success\": false, \"error\": \"no data\"}"));
+        when(restTemplate.getForEntity(eq("http://bridge/fundamentals/2330"), eq(String.class))).thenReturn(
+                ResponseEntity.ok("{\"success\": true, \"name\": \"TSMC\", \"sector\": \"Technology\", " +
+                        "\"dividendYield\": 1.8, \"peRatio\": 22.5}"));
+        when(restTemplate.getForEntity(eq("http://bridge/fundamentals/2317"), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        when(screeningService.getDividendStocksBySymbol()).thenReturn(Map.of("2317.TW",
+                new TaiwanStockScreenerService.StockInfo("2317.TW", "鴻海", "Technology", new BigDecimal("4.8"))));
+
+        StockFundamentals existing = new StockFundamentals("2330.TW", "台積電");
+        existing.setPbRatio(new BigDecimal("6.1"));
+        when(fundamentalsRepository.findBySymbolIn(any())).thenReturn(List.of(existing));
+
+        // When
+        int saved = fundamentalsRefreshService.refreshAllFundamentals();
+
+        // Then - one Yahoo lookup for all misses, one lookup and one save for all rows
+        assertThat(saved).isEqualTo(2);
+        verify(screeningService, times(1)).getDividendStocksBySymbol();
+        verify(fundamentalsRepository, times(1)).findBySymbolIn(any());
+        verify(fundamentalsRepository, never()).save(any());
+
+        ArgumentCaptor<List<StockFundamentals>> rows = ArgumentCaptor.forClass(List.class);
+        verify(fundamentalsRepository).saveAll(rows.capture());
+        assertThat(rows.getValue()).extracting(StockFundamentals::getSymbol).containsExactly("2330.TW", "2317.TW");
+        assertThat(existing.getName()).isEqualTo("TSMC");
+        assertThat(existing.getPeRatio()).isEqualByComparingTo("22.5");
+        assertThat(existing.getPbRatio()).isEqualByComparingTo("6.1");
+        assertThat(rows.getValue().get(1).getDividendYield()).isEqualByComparingTo("4.8");
+    }
+
+    @Test
+    void should_keepStoredSector_when_bridgeReturnsNone() {
+        // Given
+        when(restTemplate.getForEntity(eq("http://bridge/fundamentals/2330"), eq(String.class))).thenReturn(
+                ResponseEntity.ok("{\"success\": true, \"name\": \"TSMC\", \"peRatio\": 22.5}"));
+        StockFundamentals existing = new StockFundamentals("2330.TW", "台積電");
+        existing.setSector("Semiconductors");
+        when(fundamentalsRepository.findBySymbolIn(any())).thenReturn(List.of(existing));
+
+        // When
+        boolean refreshed = fundamentalsRefreshService.refreshFundamentalsForSymbol("2330.TW");
+
+        // Then
+        assertThat(refreshed).isTrue();
+        assertThat(existing.getSector()).isEqualTo("Semiconductors");
+        assertThat(existing.getPeRatio()).isEqualByComparingTo("22.5");
+    }
+
+    @Test
+    void should_notWrite_when_noSourceHasData() {
+        // Given
+        when(restTemplate.getForEntity(anyString(), eq(String.class))).thenReturn(ResponseEntity.ok("{\"success\": false}"));
+        when(screeningService.getDividendStocksBySymbol()).thenReturn(Map.of());
+
+        // When
+        boolean refreshed = fundamentalsRefreshService.refreshFundamentalsForSymbol("9999.TW");
+
+        // Then
+        assertThat(refreshed).isFalse();
+        verifyNoInteractions(fundamentalsRepository);
+    }
+
+    private static AppProperties fastDownloads() {
+        AppProperties properties = new AppProperties();
+        properties.getDownload().setPermitsPerSecond(1000);
+        properties.getDownload().setBurst(50);
+        properties.getDownload().setMaxInFlight(8);
+        return properties;
+    }
+}
@@ -1,5 +1,6 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.config.AppProperties;
 import com.valueinvestor.model.entity.StockPriceHistory;
 import com.valueinvestor.repository.StockPriceHistoryRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,15 +8,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +34,15 @@ class HistoricalDataServiceTest {
     @Mock
     private ShioajiDataService shioajiDataService;
 
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @Mock
+    private PriceHistoryIngestWriter ingestWriter;
+
+    @Spy
+    private BulkDownloadExecutor downloadExecutor = new BulkDownloadExecutor(fastDownloads());
+
     @InjectMocks
     private HistoricalDataService historicalDataService;
 
@@ -48,10 +64,8 @@ class HistoricalDataServiceTest {
     void should_downloadHistoricalPrices_when_shioajiAvailable() {
         // Given
         when(shioajiDataService.isAvailable()).thenReturn(true);
-        when(shioajiDataService.getHistoricalPrices(anyString(), any(), any()))
-                .thenReturn(Arrays.asList(testPrice));
-        when(priceHistoryRepository.existsBySymbolAndDate(anyString(), any())).thenReturn(false);
-        when(priceHistoryRepository.save(any())).thenReturn(testPrice);
+        stubHistory(testPrice);
+        when(ingestWriter.writeBatch(anyString(), any())).thenReturn(new PriceHistoryIngestWriter.BatchResult(1, 0));
 
         // When
         int count = historicalDataService.downloadHistoricalPrices(
@@ -59,30 +73,54 @@ class HistoricalDataServiceTest {
 
         // Then
         assertThat(count).isEqualTo(1);
-        verify(priceHistoryRepository).save(testPrice);
+        verify(ingestWriter).writeBatch(eq("2330.TW"), eq(List.of(testPrice)));
+    }
+
+    @Test
+    void should_fail_when_shioajiNotAvailable() {
+        // Given
+        when(shioajiDataService.isAvailable()).thenReturn(false);
+
+        // When / Then
+        assertThatThrownBy(() -> historicalDataService.downloadHistoricalPrices(
+                "2330.TW", LocalDate.now().minusDays(30), LocalDate.now()))
+                .isInstanceOf(IllegalStateException.class);
+        verify(ingestWriter, never()).writeBatch(anyString(), any());
+    }
+
+    @Test
+    void should_fail_when_bridgeDropsDuringDownload() {
+        // Given - available up front, unreachable by the time the request returns
+        when(shioajiDataService.isAvailable()).thenReturn(true, false);
+        stubHistory();
+
+        // When / Then
+        assertThatThrownBy(() -> historicalDataService.downloadHistoricalPrices(
+                "2330.TW", LocalDate.now().minusDays(30), LocalDate.now()))
+                .isInstanceOf(IllegalStateException.class);
     }
 
     @Test
-    void should_returnZero_when_shioajiNotAvailable() {
+    void should_countFailedSymbols_when_shioajiNotAvailable() {
         // Given
         when(shioajiDataService.isAvailable()).thenReturn(false);
 
         // When
-        int count = historicalDataService.downloadHistoricalPrices(
-                "2330.TW", LocalDate.now().minusDays(30), LocalDate.now());
+        BulkDownloadExecutor.DownloadReport<Integer> report = downloadExecutor.runAll("Bulk download",
+                List.of("2330.TW", "2317.TW"),
+                symbol -> historicalDataService.downloadHistoricalPrices(symbol, LocalDate.now().minusDays(30), LocalDate.now()));
 
         // Then
-        assertThat(count).isEqualTo(0);
-        verify(priceHistoryRepository, never()).save(any());
+        assertThat(report.getSuccessCount()).isZero();
+        assertThat(report.getFailureCount()).isEqualTo(2);
     }
 
     @Test
     void should_skipExistingData_when_alreadyInDatabase() {
         // Given
         when(shioajiDataService.isAvailable()).thenReturn(true);
-        when(shioajiDataService.getHistoricalPrices(anyString(), any(), any()))
-                .thenReturn(Arrays.asList(testPrice));
-        when(priceHistoryRepository.existsBySymbolAndDate(anyString(), any())).thenReturn(true);
+        stubHistory(testPrice);
+        when(ingestWriter.writeBatch(anyString(), any())).thenReturn(new PriceHistoryIngestWriter.BatchResult(0, 1));
 
         // When
         int count = historicalDataService.downloadHistoricalPrices(
@@ -97,8 +135,7 @@ class HistoricalDataServiceTest {
     void should_returnZero_when_noDataFromShioaji() {
         // Given
         when(shioajiDataService.isAvailable()).thenReturn(true);
-        when(shioajiDataService.getHistoricalPrices(anyString(), any(), any()))
-                .thenReturn(Collections.emptyList());
+        stubHistory();
 
         // When
         int count = historicalDataService.downloadHistoricalPrices(
@@ -112,10 +149,8 @@ class HistoricalDataServiceTest {
     void should_bulkDownload_multipleSymbols() {
         // Given
         when(shioajiDataService.isAvailable()).thenReturn(true);
-        when(shioajiDataService.getHistoricalPrices(anyString(), any(), any()))
-                .thenReturn(Arrays.asList(testPrice));
-        when(priceHistoryRepository.existsBySymbolAndDate(anyString(), any())).thenReturn(false);
-        when(priceHistoryRepository.save(any())).thenReturn(testPrice);
+        stubHistory(testPrice);
+        when(ingestWriter.writeBatch(anyString(), any())).thenReturn(new PriceHistoryIngestWriter.BatchResult(1, 0));
 
         List<String> symbols = Arrays.asList("2330.TW", "2317.TW", "2454.TW");
 
@@ -128,6 +163,40 @@ class HistoricalDataServiceTest {
         assertThat(results.values()).allMatch(count -> count >= 0);
     }
 
+    @Test
+    void should_bulkDownload_reportZero_forFailedSymbol() {
+        // Given
+        when(shioajiDataService.isAvailable()).thenReturn(true);
+        stubHistory(testPrice);
+        when(ingestWriter.writeBatch(anyString(), any())).thenReturn(new PriceHistoryIngestWriter.BatchResult(1, 0));
+        when(ingestWriter.writeBatch(eq("2317.TW"), any())).thenThrow(new RuntimeException("database locked"));
+
+        // When
+        Map<String, Integer> results = historicalDataService.bulkDownload(
+                Arrays.asList("2330.TW", "2317.TW"), LocalDate.now().minusDays(30), LocalDate.now());
+
+        // Then
+        assertThat(results).containsEntry("2330.TW", 1).containsEntry("2317.TW", 0);
+    }
+
+    @Test
+    void should_downloadRecentPrices_withOneBatchFetch() {
+        // Given - bridge returns data for one of two symbols
+        when(shioajiDataService.isAvailable()).thenReturn(true);
+        when(shioajiDataService.getHistoricalPricesBatch(anyList(), any(), any()))
+                .thenReturn(Map.of("2330.TW", Arrays.asList(testPrice)));
+        when(ingestWriter.ingest(eq("2330.TW"), any())).thenReturn(ingestResult(1, 0));
+
+        // When
+        Map<String, Integer> results = historicalDataService.downloadRecentPricesBatch(
+                Arrays.asList("2330.TW", "2317.TW"), LocalDate.now().minusDays(3), LocalDate.now());
+
+        // Then
+        assertThat(results).containsEntry("2330.TW", 1).containsEntry("2317.TW", 0);
+        verify(shioajiDataService, times(1)).getHistoricalPricesBatch(anyList(), any(), any());
+        verify(shioajiDataService, never()).streamHistoricalPrices(anyString(), any(), any(), anyInt(), any());
+    }
+
     @Test
     void should_getHistoricalPrices_fromRepository() {
         // Given
@@ -144,6 +213,21 @@ class HistoricalDataServiceTest {
         assertThat(result.get(0).getSymbol()).isEqualTo("2330.TW");
     }
 
+    @Test
+    void should_getHistoricalPrices_fromStore_when_loaded() {
+        // Given
+        when(priceHistoryStore.isLoaded()).thenReturn(true);
+        when(priceHistoryStore.getRange(anyString(), any(), any())).thenReturn(List.of(testPrice));
+
+        // When
+        List<StockPriceHistory> result = historicalDataService.getHistoricalPrices(
+                "2330.TW", LocalDate.now().minusDays(30), LocalDate.now());
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(priceHistoryRepository, never()).findBySymbolAndDateBetweenOrderByDateAsc(anyString(), any(), any());
+    }
+
     @Test
     void should_getLatestPrice_fromRepository() {
         // Given
@@ -204,10 +288,8 @@ class HistoricalDataServiceTest {
         when(priceHistoryRepository.findEarliestPriceForSymbol("2330.TW"))
                 .thenReturn(Optional.empty());
         when(shioajiDataService.isAvailable()).thenReturn(true);
-        when(shioajiDataService.getHistoricalPrices(anyString(), any(), any()))
-                .thenReturn(Arrays.asList(testPrice));
-        when(priceHistoryRepository.existsBySymbolAndDate(anyString(), any())).thenReturn(false);
-        when(priceHistoryRepository.save(any())).thenReturn(testPrice);
+        stubHistory(testPrice);
+        when(ingestWriter.writeBatch(anyString(), any())).thenReturn(new PriceHistoryIngestWriter.BatchResult(1, 0));
 
         // When
         int count = historicalDataService.downloadMissingData("2330.TW");
@@ -230,7 +312,7 @@ class HistoricalDataServiceTest {
 
         // Then
         assertThat(count).isEqualTo(0);
-        verify(shioajiDataService, never()).getHistoricalPrices(anyString(), any(), any());
+        verify(shioajiDataService, never()).streamHistoricalPrices(anyString(), any(), any(), anyInt(), any());
     }
 
     @Test
@@ -259,10 +341,8 @@ class HistoricalDataServiceTest {
     void should_refreshRecentData() {
         // Given
         when(shioajiDataService.isAvailable()).thenReturn(true);
-        when(shioajiDataService.getHistoricalPrices(anyString(), any(), any()))
-                .thenReturn(Arrays.asList(testPrice));
-        when(priceHistoryRepository.existsBySymbolAndDate(anyString(), any())).thenReturn(false);
-        when(priceHistoryRepository.save(any())).thenReturn(testPrice);
+        stubHistory(testPrice);
+        when(ingestWriter.writeBatch(anyString(), any())).thenReturn(new PriceHistoryIngestWriter.BatchResult(1, 0));
 
         // When
         int count = historicalDataService.refreshRecentData("2330.TW");
@@ -270,4 +350,27 @@ class HistoricalDataServiceTest {
         // Then
         assertThat(count).isGreaterThanOrEqualTo(0);
     }
+
+    private void stubHistory(StockPriceHistory... bars) {
+        when(shioajiDataService.streamHistoricalPrices(anyString(), any(), any(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    List<StockPriceHistory> chunk = List.of(bars);
+                    if (!chunk.isEmpty()) {
+                        invocation.<Consumer<List<StockPriceHistory>>>getArgument(4).accept(chunk);
+                    }
+                    return chunk.size();
+                });
+    }
+
+    private static PriceHistoryIngestWriter.IngestResult ingestResult(int inserted, int skipped) {
+        PriceHistoryIngestWriter.IngestResult result = new PriceHistoryIngestWriter.IngestResult("2330.TW");
+        result.add(new PriceHistoryIngestWriter.BatchResult(inserted, skipped));
+        return result;
+    }
+
+    private static AppProperties fastDownloads() {
+        AppProperties properties = new AppProperties();
+        properties.getDownload().setPermitsPerSecond(1000);
+        return properties;
+    }
 }
@@ -1,5 +1,6 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.model.dto.PortfolioValuation;
 import com.valueinvestor.model.entity.InsightsHistory;
 import com.valueinvestor.model.entity.PortfolioSnapshot;
 import com.valueinvestor.model.entity.PositionHistory;
@@ -76,9 +77,8 @@ class InsightsServiceTest {
     @Test
     void should_generateMonthlyInsights_successfully() throws IOException {
         // Given
-        when(portfolioService.getCurrentPortfolio()).thenReturn(Arrays.asList(testPosition));
-        when(portfolioService.getTotalValue()).thenReturn(new BigDecimal("160000.00"));
-        when(portfolioService.getCashBalance()).thenReturn(new BigDecimal("10000.00"));
+        when(portfolioService.getValuation())
+                .thenReturn(PortfolioValuation.of(Arrays.asList(testPosition), new BigDecimal("10000.00")));
         when(transactionLogRepository.findRecentTransactions(any(), any()))
                 .thenReturn(Collections.emptyList());
         when(portfolioService.getLatestSnapshot()).thenReturn(Optional.of(testSnapshot));
@@ -151,9 +151,8 @@ class InsightsServiceTest {
     @Test
     void should_handleOllamaError_gracefully() throws IOException {
         // Given
-        when(portfolioService.getCurrentPortfolio()).thenReturn(Arrays.asList(testPosition));
-        when(portfolioService.getTotalValue()).thenReturn(new BigDecimal("160000.00"));
-        when(portfolioService.getCashBalance()).thenReturn(new BigDecimal("10000.00"));
+        when(portfolioService.getValuation())
+                .thenReturn(PortfolioValuation.of(Arrays.asList(testPosition), new BigDecimal("10000.00")));
         when(transactionLogRepository.findRecentTransactions(any(), any()))
                 .thenReturn(Collections.emptyList());
         when(portfolioService.getLatestSnapshot()).thenReturn(Optional.of(testSnapshot));
@@ -179,9 +178,8 @@ class InsightsServiceTest {
         PortfolioSnapshot oldSnapshot = new PortfolioSnapshot();
         oldSnapshot.setTotalValue(new BigDecimal("160000.00"));
 
-        when(portfolioService.getCurrentPortfolio()).thenReturn(Arrays.asList(testPosition));
-        when(portfolioService.getTotalValue()).thenReturn(new BigDecimal("165000.00"));
-        when(portfolioService.getCashBalance()).thenReturn(new BigDecimal("10000.00"));
+        when(portfolioService.getValuation())
+                .thenReturn(PortfolioValuation.of(Arrays.asList(testPosition), new BigDecimal("10000.00")));
         when(transactionLogRepository.findRecentTransactions(any(), any()))
                 .thenReturn(Collections.emptyList());
         when(portfolioService.getLatestSnapshot()).thenReturn(Optional.of(currentSnapshot));
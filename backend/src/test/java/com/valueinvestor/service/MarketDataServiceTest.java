@@ -1,20 +1,28 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.model.dto.AsOfClose;
 import com.valueinvestor.model.entity.StockFundamentals;
+import com.valueinvestor.model.entity.StockPriceHistory;
 import com.valueinvestor.repository.StockFundamentalsRepository;
 import com.valueinvestor.repository.StockPriceHistoryRepository;
 import com.valueinvestor.repository.StockUniverseRepository;
+import com.valueinvestor.util.YahooFinanceClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import yahoofinance.Stock;
+import yahoofinance.quotes.stock.StockQuote;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,6 +41,18 @@ class MarketDataServiceTest {
     @Mock
     private StockUniverseRepository stockUniverseRepository;
 
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    @Mock
+    private QuoteCache quoteCache;
+
+    @Mock
+    private YahooFinanceClient yahooFinanceClient;
+
+    @Mock
+    private ShioajiDataService shioajiDataService;
+
     @InjectMocks
     private MarketDataService marketDataService;
 
@@ -147,6 +167,145 @@ class MarketDataServiceTest {
         assertThat(quote).isEqualByComparingTo(BigDecimal.ZERO);
     }
 
+    @Test
+    void should_serveQuoteFromCache_withoutTouchingStoreOrDatabase() {
+        // Given
+        when(quoteCache.get("2330.TW")).thenReturn(Optional.of(new BigDecimal("805")));
+
+        // When
+        BigDecimal quote = marketDataService.getQuote("2330.TW");
+
+        // Then
+        assertThat(quote).isEqualByComparingTo("805");
+        verifyNoInteractions(priceHistoryStore, priceHistoryRepository);
+    }
+
+    @Test
+    void should_cacheFreshStorePrice_on_miss() {
+        // Given
+        StockPriceHistory bar = new StockPriceHistory("2330.TW", LocalDate.now(), new BigDecimal("800"),
+                new BigDecimal("810"), new BigDecimal("795"), new BigDecimal("805"), 1000L, null);
+        when(priceHistoryStore.isLoaded()).thenReturn(true);
+        when(priceHistoryStore.getLatest("2330.TW")).thenReturn(Optional.of(bar));
+
+        // When
+        BigDecimal quote = marketDataService.getQuote("2330.TW");
+
+        // Then
+        assertThat(quote).isEqualByComparingTo("805");
+        verify(quoteCache).put("2330.TW", bar.getClose());
+    }
+
+    @Test
+    void should_returnStalePrice_withoutCaching_when_yahooRateLimited() throws Exception {
+        // Given - only a week-old bar and no Yahoo slot within the configured wait
+        StockPriceHistory stale = new StockPriceHistory("2330.TW", LocalDate.now().minusDays(7), new BigDecimal("780"),
+                new BigDecimal("790"), new BigDecimal("775"), new BigDecimal("785"), 1000L, null);
+        when(priceHistoryRepository.findLatestPriceForSymbol("2330.TW")).thenReturn(Optional.of(stale));
+        when(yahooFinanceClient.get("2330.TW"))
+                .thenThrow(new YahooFinanceClient.RateLimitedException("2330.TW", Duration.ofMillis(50)));
+
+        // When
+        BigDecimal quote = marketDataService.getQuote("2330.TW");
+
+        // Then
+        assertThat(quote).isEqualByComparingTo("785");
+        verify(quoteCache, never()).put(anyString(), any());
+    }
+
+    @Test
+    void should_quoteManySymbols_withOneBatchedYahooCall_forMisses() {
+        // Given - one warm symbol, two that need Yahoo (one of which Yahoo does not return)
+        when(quoteCache.get("2330.TW")).thenReturn(Optional.of(new BigDecimal("805")));
+        Stock honHai = new Stock("2317.TW");
+        StockQuote quote = new StockQuote("2317.TW");
+        quote.setPrice(new BigDecimal("150"));
+        honHai.setQuote(quote);
+        when(yahooFinanceClient.getAll(List.of("2317.TW", "9999.TW"), null)).thenReturn(Map.of("2317.TW", honHai));
+
+        // When
+        Map<String, BigDecimal> quotes = marketDataService.getQuotes(List.of("2330.TW", "2317.TW", "9999.TW"));
+
+        // Then
+        assertThat(quotes).containsOnlyKeys("2330.TW", "2317.TW", "9999.TW");
+        assertThat(quotes.get("2317.TW")).isEqualByComparingTo("150");
+        assertThat(quotes.get("9999.TW")).isEqualByComparingTo("0");
+        verify(quoteCache).put("2317.TW", new BigDecimal("150"));
+        verify(yahooFinanceClient, times(1)).getAll(any(), any());
+    }
+
+    @Test
+    void should_quoteMisses_withOneShioajiSnapshot_beforeYahoo() {
+        // Given - the bridge quotes 2317.TW; 9999.TW has no snapshot and goes to Yahoo
+        when(shioajiDataService.isAvailable()).thenReturn(true);
+        ShioajiDataService.QuoteDTO honHai = new ShioajiDataService.QuoteDTO();
+        honHai.setSymbol("2317.TW");
+        honHai.setPrice(new BigDecimal("151"));
+        when(shioajiDataService.getQuoteSnapshot(List.of("2317.TW", "9999.TW"))).thenReturn(Map.of("2317.TW", honHai));
+        when(yahooFinanceClient.getAll(List.of("9999.TW"), null)).thenReturn(Map.of());
+
+        // When
+        Map<String, BigDecimal> quotes = marketDataService.getQuotes(List.of("2317.TW", "9999.TW"));
+
+        // Then
+        assertThat(quotes.get("2317.TW")).isEqualByComparingTo("151");
+        assertThat(quotes.get("9999.TW")).isEqualByComparingTo("0");
+        verify(quoteCache).put("2317.TW", new BigDecimal("151"));
+        verify(shioajiDataService, times(1)).getQuoteSnapshot(any());
+    }
+
+    @Test
+    void should_getHistoricalClosePrice_fromStore_when_loaded() {
+        // Given
+        LocalDate date = LocalDate.of(2024, 6, 3);
+        StockPriceHistory bar = new StockPriceHistory("2330.TW", date.minusDays(2), new BigDecimal("800"),
+                new BigDecimal("810"), new BigDecimal("795"), new BigDecimal("805"), 1000L, null);
+        when(priceHistoryStore.isLoaded()).thenReturn(true);
+        when(priceHistoryStore.getLatestOnOrBefore("2330.TW", date, date.minusDays(7))).thenReturn(Optional.of(bar));
+
+        // When
+        BigDecimal price = marketDataService.getHistoricalClosePrice("2330.TW", date);
+
+        // Then
+        assertThat(price).isEqualByComparingTo("805");
+        verifyNoInteractions(priceHistoryRepository);
+    }
+
+    @Test
+    void should_resolveClosesAsOf_withOneQueryPerTier_andReportTheTier() {
+        // Given - exact close for 2330.TW, Friday's close for 2317.TW, only an old close for 2454.TW, nothing for 9999.TW
+        LocalDate date = LocalDate.of(2024, 6, 3);
+        when(priceHistoryStore.isLoaded()).thenReturn(false);
+        when(priceHistoryRepository.findInWindowForSymbols(List.of("2330.TW", "2317.TW", "2454.TW", "9999.TW"),
+                date, date.minusDays(7))).thenReturn(List.of(
+                bar("2317.TW", date.minusDays(3), "150"),
+                bar("2317.TW", date.minusDays(4), "149"),
+                bar("2330.TW", date, "805")));
+        when(priceHistoryRepository.findLatestPricesForSymbols(List.of("2454.TW", "9999.TW")))
+                .thenReturn(List.of(bar("2454.TW", date.minusMonths(2), "900")));
+        when(yahooFinanceClient.getAll(List.of("9999.TW"), null)).thenReturn(Map.of());
+
+        // When
+        Map<String, AsOfClose> closes = marketDataService.closesAsOf(
+                List.of("2330.TW", "2317.TW", "2454.TW", "9999.TW"), date);
+
+        // Then
+        assertThat(closes).containsOnlyKeys("2330.TW", "2317.TW", "2454.TW", "9999.TW");
+        assertThat(closes.get("2330.TW").getSource()).isEqualTo(AsOfClose.Source.EXACT);
+        assertThat(closes.get("2317.TW").getSource()).isEqualTo(AsOfClose.Source.NEAREST_BEFORE);
+        assertThat(closes.get("2317.TW").getClose()).isEqualByComparingTo("150");
+        assertThat(closes.get("2317.TW").getPriceDate()).isEqualTo(date.minusDays(3));
+        assertThat(closes.get("2454.TW").getSource()).isEqualTo(AsOfClose.Source.LATEST_CACHED);
+        assertThat(closes.get("9999.TW").getSource()).isEqualTo(AsOfClose.Source.NONE);
+        assertThat(closes.get("9999.TW").getClose()).isEqualByComparingTo("0");
+        verify(priceHistoryRepository, never()).findBySymbolAndDate(anyString(), any());
+    }
+
+    private static StockPriceHistory bar(String symbol, LocalDate date, String close) {
+        BigDecimal price = new BigDecimal(close);
+        return new StockPriceHistory(symbol, date, price, price, price, price, 1000L, null);
+    }
+
     @Test
     void should_returnZero_when_dividendYieldNotFound() {
         // When
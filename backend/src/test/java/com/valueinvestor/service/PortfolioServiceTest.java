@@ -1,10 +1,10 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.model.dto.PortfolioValuation;
 import com.valueinvestor.model.entity.PortfolioSnapshot;
 import com.valueinvestor.model.entity.PositionHistory;
 import com.valueinvestor.model.entity.TransactionLog;
 import com.valueinvestor.repository.PortfolioSnapshotRepository;
-import com.valueinvestor.repository.PositionHistoryRepository;
 import com.valueinvestor.repository.TransactionLogRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,7 +29,7 @@ import static org.mockito.Mockito.*;
 class PortfolioServiceTest {
 
     @Mock
-    private PositionHistoryRepository positionHistoryRepository;
+    private CurrentPositionService currentPositionService;
 
     @Mock
     private PortfolioSnapshotRepository snapshotRepository;
@@ -40,6 +40,9 @@ class PortfolioServiceTest {
     @Mock
     private MarketDataService marketDataService;
 
+    @Mock
+    private CashLedgerService cashLedgerService;
+
     @InjectMocks
     private PortfolioService portfolioService;
 
@@ -69,8 +72,8 @@ class PortfolioServiceTest {
         List<PositionHistory> positions = new ArrayList<>();
         positions.add(testPosition);
 
-        when(positionHistoryRepository.findLatestPositions()).thenReturn(positions);
-        when(marketDataService.getQuote("AAPL")).thenReturn(new BigDecimal("160.00"));
+        when(currentPositionService.findAll()).thenReturn(positions);
+        when(marketDataService.getQuotes(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("160.00")));
 
         // When
         List<PositionHistory> result = portfolioService.getCurrentPortfolio();
@@ -78,7 +81,7 @@ class PortfolioServiceTest {
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getSymbol()).isEqualTo("AAPL");
-        verify(positionHistoryRepository).findLatestPositions();
+        verify(currentPositionService).findAll();
     }
 
     @Test
@@ -87,9 +90,9 @@ class PortfolioServiceTest {
         List<PositionHistory> positions = new ArrayList<>();
         positions.add(testPosition);
 
-        when(positionHistoryRepository.findLatestPositions()).thenReturn(positions);
-        when(marketDataService.getQuote("AAPL")).thenReturn(new BigDecimal("160.00"));
-        when(transactionLogRepository.findByTypeOrderByTimestampDesc(any())).thenReturn(new ArrayList<>());
+        when(currentPositionService.findAll()).thenReturn(positions);
+        when(marketDataService.getQuotes(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("160.00")));
+        when(cashLedgerService.getBalance()).thenReturn(BigDecimal.ZERO);
 
         // When
         BigDecimal totalValue = portfolioService.getTotalValue();
@@ -100,31 +103,39 @@ class PortfolioServiceTest {
     }
 
     @Test
-    void should_getCashBalance_when_depositsAndTransactionsExist() {
+    void should_valuePortfolio_withOneQuoteAndOneCashReadPerCall() {
         // Given
-        List<TransactionLog> deposits = new ArrayList<>();
-        TransactionLog deposit = new TransactionLog(
-                TransactionLog.TransactionType.DEPOSIT,
-                null, null, null,
-                new BigDecimal("5000.00"),
-                TransactionLog.TradingMode.SIMULATION,
-                "Initial deposit"
-        );
-        deposits.add(deposit);
+        List<PositionHistory> positions = new ArrayList<>();
+        positions.add(testPosition);
 
-        when(transactionLogRepository.findByTypeOrderByTimestampDesc(TransactionLog.TransactionType.DEPOSIT))
-                .thenReturn(deposits);
-        when(transactionLogRepository.findByTypeOrderByTimestampDesc(TransactionLog.TransactionType.BUY))
-                .thenReturn(new ArrayList<>());
-        when(transactionLogRepository.findByTypeOrderByTimestampDesc(TransactionLog.TransactionType.SELL))
-                .thenReturn(new ArrayList<>());
+        when(currentPositionService.findAll()).thenReturn(positions);
+        when(marketDataService.getQuotes(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("160.00")));
+        when(cashLedgerService.getBalance()).thenReturn(new BigDecimal("500.00"));
+
+        // When
+        PortfolioValuation valuation = portfolioService.getValuation();
+
+        // Then - 10 shares @ 160 = 1600 + 500 cash; cost 1500
+        assertThat(valuation.getTotalValue()).isEqualByComparingTo("2100.00");
+        assertThat(valuation.getInvestedAmount()).isEqualByComparingTo("1500.00");
+        assertThat(valuation.getTotalPL()).isEqualByComparingTo("100.00");
+        assertThat(valuation.getPlPercentage()).isEqualByComparingTo("6.67");
+        assertThat(valuation.getPositionCount()).isEqualTo(1);
+        verify(marketDataService, times(1)).getQuotes(List.of("AAPL"));
+        verify(cashLedgerService, times(1)).getBalance();
+    }
+
+    @Test
+    void should_getCashBalance_fromCashLedger() {
+        // Given
+        when(cashLedgerService.getBalance()).thenReturn(new BigDecimal("5000.00"));
 
         // When
         BigDecimal cash = portfolioService.getCashBalance();
 
-        // Then
+        // Then - no scan of transaction_log
         assertThat(cash).isEqualByComparingTo("5000.00");
-        verify(transactionLogRepository, times(3)).findByTypeOrderByTimestampDesc(any());
+        verifyNoInteractions(transactionLogRepository);
     }
 
     @Test
@@ -162,9 +173,9 @@ class PortfolioServiceTest {
         List<PositionHistory> positions = new ArrayList<>();
         positions.add(testPosition);
 
-        when(positionHistoryRepository.findLatestPositions()).thenReturn(positions);
-        when(marketDataService.getQuote("AAPL")).thenReturn(new BigDecimal("160.00"));
-        when(transactionLogRepository.findByTypeOrderByTimestampDesc(any())).thenReturn(new ArrayList<>());
+        when(currentPositionService.findAll()).thenReturn(positions);
+        when(marketDataService.getQuotes(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("160.00")));
+        when(cashLedgerService.getBalance()).thenReturn(BigDecimal.ZERO);
         when(snapshotRepository.save(any(PortfolioSnapshot.class))).thenAnswer(i -> {
             PortfolioSnapshot snapshot = i.getArgument(0);
             snapshot.setId(1L);
@@ -187,8 +198,8 @@ class PortfolioServiceTest {
         String notes = "Test deposit";
 
         when(transactionLogRepository.save(any(TransactionLog.class))).thenReturn(testTransaction);
-        when(positionHistoryRepository.findLatestPositions()).thenReturn(new ArrayList<>());
-        when(transactionLogRepository.findByTypeOrderByTimestampDesc(any())).thenReturn(new ArrayList<>());
+        when(currentPositionService.findAll()).thenReturn(new ArrayList<>());
+        when(cashLedgerService.getBalance()).thenReturn(BigDecimal.ZERO);
         when(snapshotRepository.save(any(PortfolioSnapshot.class))).thenAnswer(i -> i.getArgument(0));
 
         // When
@@ -197,6 +208,7 @@ class PortfolioServiceTest {
         // Then
         assertThat(result).isNotNull();
         verify(transactionLogRepository).save(any(TransactionLog.class));
+        verify(cashLedgerService).recordTransaction(testTransaction);
         verify(snapshotRepository).save(any(PortfolioSnapshot.class));
     }
 
@@ -238,9 +250,9 @@ class PortfolioServiceTest {
         List<PositionHistory> positions = new ArrayList<>();
         positions.add(testPosition);
 
-        when(positionHistoryRepository.findLatestPositions()).thenReturn(positions);
-        when(marketDataService.getQuote("AAPL")).thenReturn(new BigDecimal("160.00"));
-        when(transactionLogRepository.findByTypeOrderByTimestampDesc(any())).thenReturn(new ArrayList<>());
+        when(currentPositionService.findAll()).thenReturn(positions);
+        when(marketDataService.getQuotes(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("160.00")));
+        when(cashLedgerService.getBalance()).thenReturn(BigDecimal.ZERO);
 
         // When
         Map<String, Object> metrics = portfolioService.getPerformanceMetrics();
@@ -0,0 +1,158 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.util.PhaseMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the batch writer against a real SQLite file so INSERT OR IGNORE semantics are exercised
+ */
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryIngestWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
+    private JdbcTemplate jdbcTemplate;
+    private WriteBehindQueue writeQueue;
+    private PriceHistoryIngestWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:sqlite:" + tempDir.resolve("ingest.db"));
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Same shape as the table Hibernate generates (no unique constraint)
+        jdbcTemplate.execute("CREATE TABLE stock_price_history (id integer, adjusted_close numeric(38,2), " +
+                "close numeric(38,2) not null, created_at timestamp not null, date date not null, " +
+                "high numeric(38,2) not null, low numeric(38,2) not null, market varchar(10) not null, " +
+                "open numeric(38,2) not null, symbol varchar(10) not null, volume bigint not null, primary key (id))");
+
+        writeQueue = new WriteBehindQueue(new AppProperties(), new DataSourceTransactionManager(dataSource),
+                new PhaseMetrics());
+        writer = new PriceHistoryIngestWriter(jdbcTemplate, writeQueue, priceHistoryStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeQueue.shutdown();
+    }
+
+    @Test
+    void should_insertAllBars_inBatches() {
+        // Given - more bars than one batch
+        List<StockPriceHistory> bars = bars(LocalDate.of(2020, 1, 1), PriceHistoryIngestWriter.BATCH_SIZE + 10);
+
+        // When
+        PriceHistoryIngestWriter.IngestResult result = writer.ingest("2330.TW", bars);
+
+        // Then
+        assertThat(result.getInserted()).isEqualTo(bars.size());
+        assertThat(result.getSkipped()).isZero();
+        assertThat(result.getBatches()).isEqualTo(2);
+        assertThat(countRows()).isEqualTo(bars.size());
+        verify(priceHistoryStore, times(2)).recordIngested(eq("2330.TW"), anyList());
+    }
+
+    @Test
+    void should_skipExistingDates_onReingest() {
+        // Given
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        writer.ingest("2330.TW", bars(start, 10));
+
+        // When - 5 overlapping days plus 5 new ones
+        PriceHistoryIngestWriter.IngestResult result = writer.ingest("2330.TW", bars(start.plusDays(5), 10));
+
+        // Then
+        assertThat(result.getInserted()).isEqualTo(5);
+        assertThat(result.getSkipped()).isEqualTo(5);
+        assertThat(countRows()).isEqualTo(15);
+    }
+
+    @Test
+    void should_removeDuplicates_inStartupMigration() {
+        // Given - duplicates written before the unique index existed
+        insertDuplicateRows();
+
+        // When
+        int removed = writer.migrateUniqueIndex();
+        writer.ingest("2317.TW", bars(LocalDate.of(2024, 1, 1), 1));
+
+        // Then
+        assertThat(removed).isEqualTo(1);
+        assertThat(countRows()).isEqualTo(2);
+    }
+
+    @Test
+    void should_deleteNothing_when_migrationFindsNoDuplicates() {
+        // Given
+        writer.ingest("2330.TW", bars(LocalDate.of(2024, 1, 1), 3));
+
+        // When
+        int removed = writer.migrateUniqueIndex();
+
+        // Then
+        assertThat(removed).isZero();
+        assertThat(countRows()).isEqualTo(3);
+    }
+
+    @Test
+    void should_failWrite_withoutDeletingRows_when_duplicatesBlockIndex() {
+        // Given - the startup migration has not run yet
+        insertDuplicateRows();
+
+        // When / Then
+        assertThatThrownBy(() -> writer.ingest("2317.TW", bars(LocalDate.of(2024, 1, 1), 1)))
+                .isInstanceOf(DataAccessException.class);
+        assertThat(countRows()).isEqualTo(2);
+    }
+
+    private void insertDuplicateRows() {
+        for (int i = 0; i < 2; i++) {
+            jdbcTemplate.update("INSERT INTO stock_price_history (symbol, date, open, high, low, close, volume, " +
+                    "market, created_at) VALUES ('2330.TW', 1, 1, 1, 1, 1, 1, 'TW', 1)");
+        }
+    }
+
+    private int countRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_price_history", Integer.class);
+    }
+
+    private static List<StockPriceHistory> bars(LocalDate start, int days) {
+        List<StockPriceHistory> bars = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            BigDecimal price = BigDecimal.valueOf(500 + i);
+            bars.add(new StockPriceHistory("2330.TW", start.plusDays(i), price, price, price, price, 1000L, price));
+        }
+        return bars;
+    }
+}
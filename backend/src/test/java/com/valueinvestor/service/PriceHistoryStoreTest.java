@@ -0,0 +1,142 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.repository.StockPriceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryStoreTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 6, 3);
+
+    @Mock
+    private StockPriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private QuoteCache quoteCache;
+
+    @InjectMocks
+    private PriceHistoryStore priceHistoryStore;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(MONDAY, "100.5"));
+        rows.add(row(MONDAY.plusDays(1), "101"));
+        rows.add(row(MONDAY.plusDays(2), "102"));
+        rows.add(row(MONDAY.plusDays(7), "107"));
+
+        when(priceHistoryRepository.findDistinctSymbols()).thenReturn(List.of("2330.TW"));
+        when(priceHistoryRepository.findBarsBySymbol("2330.TW")).thenReturn(rows);
+
+        priceHistoryStore.reload();
+    }
+
+    @Test
+    void should_beLoaded_after_reload() {
+        assertThat(priceHistoryStore.isLoaded()).isTrue();
+        assertThat(priceHistoryStore.hasSymbol("2330.TW")).isTrue();
+        assertThat(priceHistoryStore.getBarCount("2330.TW")).isEqualTo(4);
+        assertThat(priceHistoryStore.hasSymbol("2317.TW")).isFalse();
+    }
+
+    @Test
+    void should_returnRange_inclusiveAndOrdered() {
+        // When
+        List<StockPriceHistory> range = priceHistoryStore.getRange("2330.TW", MONDAY.plusDays(1), MONDAY.plusDays(7));
+
+        // Then
+        assertThat(range).extracting(StockPriceHistory::getDate)
+                .containsExactly(MONDAY.plusDays(1), MONDAY.plusDays(2), MONDAY.plusDays(7));
+        assertThat(range.get(0).getClose()).isEqualByComparingTo("101");
+    }
+
+    @Test
+    void should_returnEmptyRange_when_noBarsInWindow() {
+        assertThat(priceHistoryStore.getRange("2330.TW", MONDAY.plusDays(3), MONDAY.plusDays(6))).isEmpty();
+        assertThat(priceHistoryStore.getRange("2330.TW", MONDAY.minusYears(1), MONDAY.minusDays(1))).isEmpty();
+        assertThat(priceHistoryStore.getRange("UNKNOWN", MONDAY, MONDAY.plusDays(7))).isEmpty();
+    }
+
+    @Test
+    void should_answerAsOfLookups() {
+        // Exact date
+        assertThat(priceHistoryStore.getOnDate("2330.TW", MONDAY).map(StockPriceHistory::getClose))
+                .hasValueSatisfying(close -> assertThat(close).isEqualTo(new BigDecimal("100.5000")));
+        assertThat(priceHistoryStore.getOnDate("2330.TW", MONDAY.plusDays(3))).isEmpty();
+
+        // Weekend gap falls back to the previous trading day
+        Optional<StockPriceHistory> asOf = priceHistoryStore.getLatestOnOrBefore(
+                "2330.TW", MONDAY.plusDays(5), MONDAY.minusDays(2));
+        assertThat(asOf).isPresent();
+        assertThat(asOf.get().getDate()).isEqualTo(MONDAY.plusDays(2));
+
+        // Respect the lower bound of the search window
+        assertThat(priceHistoryStore.getLatestOnOrBefore("2330.TW", MONDAY.plusDays(5), MONDAY.plusDays(4))).isEmpty();
+
+        // Latest
+        assertThat(priceHistoryStore.getLatest("2330.TW").map(StockPriceHistory::getDate)).contains(MONDAY.plusDays(7));
+    }
+
+    @Test
+    void should_mergeIngestedBars_keepingExisting() {
+        // Given - one overlapping date with a different close and two new dates
+        List<StockPriceHistory> ingested = List.of(
+                bar(MONDAY.plusDays(8), "108"),
+                bar(MONDAY.plusDays(1), "999"),
+                bar(MONDAY.plusDays(3), "103"));
+
+        // When (no transaction active - applied immediately)
+        priceHistoryStore.recordIngested("2330.TW", ingested);
+
+        // Then
+        assertThat(priceHistoryStore.getBarCount("2330.TW")).isEqualTo(6);
+        assertThat(priceHistoryStore.getOnDate("2330.TW", MONDAY.plusDays(1)).get().getClose())
+                .isEqualByComparingTo("101");
+        assertThat(priceHistoryStore.getOnDate("2330.TW", MONDAY.plusDays(3))).isPresent();
+        assertThat(priceHistoryStore.getLatest("2330.TW").get().getDate()).isEqualTo(MONDAY.plusDays(8));
+    }
+
+    @Test
+    void should_addNewSymbol_and_evictDeletedSymbol() {
+        // When
+        priceHistoryStore.recordIngested("2317.TW", List.of(bar(MONDAY, "150")));
+
+        // Then
+        assertThat(priceHistoryStore.getSymbols()).containsExactlyInAnyOrder("2330.TW", "2317.TW");
+
+        // When
+        priceHistoryStore.recordDeleted("2330.TW");
+
+        // Then
+        assertThat(priceHistoryStore.hasSymbol("2330.TW")).isFalse();
+        assertThat(priceHistoryStore.getLatest("2330.TW")).isEmpty();
+        verify(quoteCache).invalidate("2317.TW");
+        verify(quoteCache).invalidate("2330.TW");
+    }
+
+    private static Object[] row(LocalDate date, String close) {
+        BigDecimal price = new BigDecimal(close);
+        return new Object[]{date, price, price, price, price, 1000L, null};
+    }
+
+    private static StockPriceHistory bar(LocalDate date, String close) {
+        BigDecimal price = new BigDecimal(close);
+        return new StockPriceHistory("2330.TW", date, price, price, price, price, 1000L, null);
+    }
+}
@@ -0,0 +1,121 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.util.TwseMarketHours;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteCacheTest {
+
+    // Monday 2024-06-03
+    private static final LocalDateTime MONDAY_10AM = LocalDateTime.of(2024, 6, 3, 10, 0);
+    private static final LocalDateTime FRIDAY_2PM = LocalDateTime.of(2024, 6, 7, 14, 0);
+
+    @Test
+    void should_expireAfterShortTtl_when_marketOpen() {
+        // Given
+        MutableClock clock = new MutableClock(MONDAY_10AM);
+        QuoteCache cache = new QuoteCache(10, Duration.ofSeconds(60), clock);
+        cache.put("2330.TW", new BigDecimal("805"));
+
+        // When / Then
+        clock.advance(Duration.ofSeconds(59));
+        assertThat(cache.get("2330.TW")).contains(new BigDecimal("805"));
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(cache.get("2330.TW")).isEmpty();
+        assertThat(cache.getStats().getExpirations()).isEqualTo(1);
+    }
+
+    @Test
+    void should_keepEntryUntilNextOpen_when_marketClosed() {
+        // Given - written after Friday's close
+        MutableClock clock = new MutableClock(FRIDAY_2PM);
+        QuoteCache cache = new QuoteCache(10, Duration.ofSeconds(60), clock);
+        cache.put("2330.TW", new BigDecimal("805"));
+
+        // When - still valid through the weekend, gone at Monday's open
+        clock.set(LocalDateTime.of(2024, 6, 10, 8, 59));
+        assertThat(cache.get("2330.TW")).isPresent();
+        clock.set(LocalDateTime.of(2024, 6, 10, 9, 0));
+
+        // Then
+        assertThat(cache.get("2330.TW")).isEmpty();
+    }
+
+    @Test
+    void should_evictLeastRecentlyUsed_and_countStats() {
+        // Given
+        QuoteCache cache = new QuoteCache(2, Duration.ofSeconds(60), new MutableClock(MONDAY_10AM));
+        cache.put("A", BigDecimal.ONE);
+        cache.put("B", BigDecimal.TEN);
+        cache.get("A");
+
+        // When
+        cache.put("C", BigDecimal.ZERO);
+
+        // Then - B was least recently used
+        assertThat(cache.get("B")).isEmpty();
+        assertThat(cache.get("A")).isPresent();
+        assertThat(cache.get("C")).isPresent();
+
+        QuoteCache.CacheStats stats = cache.getStats();
+        assertThat(stats.getSize()).isEqualTo(2);
+        assertThat(stats.getEvictions()).isEqualTo(1);
+        assertThat(stats.getHits()).isEqualTo(3);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getHitRatio()).isEqualTo(0.75);
+        assertThat(stats.isMarketOpen()).isTrue();
+    }
+
+    @Test
+    void should_dropEntry_when_invalidated() {
+        // Given
+        QuoteCache cache = new QuoteCache(10, Duration.ofSeconds(60), new MutableClock(MONDAY_10AM));
+        cache.put("2330.TW", new BigDecimal("805"));
+
+        // When
+        cache.invalidate("2330.TW");
+
+        // Then
+        assertThat(cache.get("2330.TW")).isEmpty();
+        assertThat(cache.getStats().getInvalidations()).isEqualTo(1);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(LocalDateTime taipeiTime) {
+            set(taipeiTime);
+        }
+
+        void set(LocalDateTime taipeiTime) {
+            this.now = taipeiTime.atZone(TwseMarketHours.ZONE).toInstant();
+        }
+
+        void advance(Duration duration) {
+            this.now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return TwseMarketHours.ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
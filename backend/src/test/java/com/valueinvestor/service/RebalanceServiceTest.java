@@ -1,15 +1,19 @@
 package com.valueinvestor.service;
 
 import com.valueinvestor.config.AppConfig;
+import com.valueinvestor.model.dto.AsOfClose;
 import com.valueinvestor.model.entity.AnalysisResults;
 import com.valueinvestor.model.entity.PortfolioSnapshot;
 import com.valueinvestor.model.entity.TransactionLog;
 import com.valueinvestor.repository.PortfolioSnapshotRepository;
+import com.valueinvestor.util.PhaseMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -49,6 +53,12 @@ class RebalanceServiceTest {
     @Mock
     private ProgressService progressService;
 
+    @Mock
+    private CurrentPositionService currentPositionService;
+
+    @Spy
+    private PhaseMetrics phaseMetrics = new PhaseMetrics();
+
     @InjectMocks
     private RebalanceService rebalanceService;
 
@@ -66,6 +76,10 @@ class RebalanceServiceTest {
         
         // Default mock setup for progress service
         doNothing().when(progressService).sendProgress(any(), anyString(), anyInt());
+
+        // Catch-up of several simulated months builds snapshots and saves them in one batch
+        when(portfolioService.buildSnapshot(anyString(), any())).thenAnswer(invocation -> new PortfolioSnapshot());
+        when(snapshotRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
@@ -84,7 +98,8 @@ class RebalanceServiceTest {
         allocation.put("2330.TW", new BigDecimal("3200.00"));
 
         when(portfolioService.calculateTargetAllocation(any(), any())).thenReturn(allocation);
-        when(marketDataService.getHistoricalClosePrice(anyString(), any())).thenReturn(new BigDecimal("580.00"));
+        when(marketDataService.closesAsOf(any(), any()))
+                .thenAnswer(invocation -> asOfCloses(invocation.getArgument(0), "580.00"));
         
         // Create a proper transaction with totalAmount
         TransactionLog buyTransaction = new TransactionLog();
@@ -138,23 +153,35 @@ class RebalanceServiceTest {
                 .thenReturn(Optional.of(oldSnapshot));
         when(appConfig.getMonthlyInvestment()).thenReturn(new BigDecimal("16000.00"));
         when(appConfig.getTradingMode()).thenReturn(TransactionLog.TradingMode.SIMULATION);
-        when(appConfig.getWatchlist()).thenReturn(
-                Arrays.asList("2330.TW", "2317.TW", "2454.TW", "2881.TW", "2882.TW"));
-        when(tradingService.createDeposit(any(), any(), anyString())).thenReturn(new TransactionLog());
-        when(portfolioService.calculateTargetAllocation(any(), any())).thenReturn(new HashMap<>());
-        when(portfolioService.saveSnapshot(anyString())).thenAnswer(invocation -> {
-            PortfolioSnapshot snapshot = new PortfolioSnapshot();
-            snapshot.setId(System.currentTimeMillis());
-            snapshot.setSnapshotType("MONTHLY_REBALANCE");
-            return snapshot;
-        });
+        when(appConfig.getWatchlist()).thenReturn(Arrays.asList("2330.TW", "2317.TW"));
+        when(portfolioService.calculateTargetAllocation(any(), any())).thenReturn(new HashMap<>(Map.of(
+                "2330.TW", new BigDecimal("8000.00"), "2317.TW", new BigDecimal("8000.00"))));
+        when(portfolioService.getCashBalance()).thenReturn(BigDecimal.ZERO);
+        when(currentPositionService.findAll()).thenReturn(List.of());
+        when(marketDataService.closesAsOf(any(), any()))
+                .thenAnswer(invocation -> asOfCloses(invocation.getArgument(0), "100"));
 
         // When
         RebalanceService.RebalanceResult result = rebalanceService.performMonthlyRebalance();
 
-        // Then
-        assertThat(result).isNotNull();
+        // Then - every month is planned in memory and written in one batch, never trade by trade
+        assertThat(result.isSuccess()).isTrue();
         assertThat(result.getMissedMonths()).isGreaterThanOrEqualTo(3);
+        assertThat(result.getMonthlyResults()).allSatisfy(m -> assertThat(m.getStocksPurchased()).isEqualTo(2));
+        verify(tradingService).recordPlannedTrades(argThat(t -> t.size() == result.getMissedMonths() * 3),
+                argThat(p -> p.size() == result.getMissedMonths() * 2));
+        verify(tradingService, never()).executeBuy(anyString(), any(), any(), any());
+        verify(tradingService, never()).createDeposit(any(), any(), anyString());
+        verify(portfolioService, never()).saveSnapshot(anyString());
+        ArgumentCaptor<List<PortfolioSnapshot>> snapshots = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository).saveAll(snapshots.capture());
+        assertThat(snapshots.getValue()).hasSize(result.getMissedMonths());
+        assertThat(snapshots.getValue().get(snapshots.getValue().size() - 1).getTimestamp())
+                .isEqualTo(LocalDate.now().withDayOfMonth(1).atStartOfDay());
+        // One timing per catch-up phase, plus the whole run
+        for (String phase : List.of("select", "plan", "trades", "snapshot", "total")) {
+            assertThat(phaseMetrics.timer(RebalanceService.METRICS_OPERATION, phase).count()).isEqualTo(1);
+        }
     }
 
     @Test
@@ -221,4 +248,13 @@ class RebalanceServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.isSuccess()).isTrue();
     }
+
+    private static Map<String, AsOfClose> asOfCloses(Collection<String> symbols, String close) {
+        Map<String, AsOfClose> closes = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            closes.put(symbol, new AsOfClose(symbol, LocalDate.now(), LocalDate.now(), new BigDecimal(close),
+                    AsOfClose.Source.EXACT));
+        }
+        return closes;
+    }
 }
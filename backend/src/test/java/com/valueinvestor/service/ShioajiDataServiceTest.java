@@ -1,18 +1,28 @@
 package com.valueinvestor.service;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.valueinvestor.config.HttpClientProperties;
 import com.valueinvestor.config.ShioajiProperties;
 import com.valueinvestor.model.entity.StockPriceHistory;
+import com.valueinvestor.util.HttpDependencyMetrics;
+import com.valueinvestor.util.OutboundHttpClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,10 +38,15 @@ class ShioajiDataServiceTest {
 
     private ShioajiDataService shioajiDataService;
 
+    private final OutboundHttpClient httpClient =
+            new OutboundHttpClient(new HttpClientProperties(), new HttpDependencyMetrics());
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile String lastRequestBody;
+
     @BeforeEach
     void setUp() {
         when(shioajiProperties.getApiUrl()).thenReturn("http://localhost:8888");
-        shioajiDataService = new ShioajiDataService(shioajiProperties);
+        shioajiDataService = new ShioajiDataService(shioajiProperties, httpClient);
     }
 
     @Test
@@ -87,4 +102,205 @@ class ShioajiDataServiceTest {
             assertThat(cleaned).matches("\\d+");
         }
     }
+
+    @Test
+    void should_fetchHistoryForManySymbols_inOneRequest() throws IOException {
+        // Given - a local stub bridge serving the batch endpoint
+        HttpServer bridge = stubBridge();
+        bridge.createContext("/history/batch", exchange -> {
+            requestCount.incrementAndGet();
+            lastRequestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            respond(exchange, """
+                    {"success": true, "count": 2, "results": {
+                      "2330.TW": {"success": true, "symbol": "2330.TW", "count": 1, "prices": [
+                        {"date": "2024-11-26", "open": 575, "high": 582, "low": 573, "close": 580,
+                         "volume": 25000000, "adjusted_close": 580}]},
+                      "9999.TW": {"success": false, "error": "symbol not found"}}}
+                    """);
+        });
+
+        try {
+            ShioajiDataService service = serviceFor(bridge);
+
+            // When
+            Map<String, List<StockPriceHistory>> result = service.getHistoricalPricesBatch(
+                    List.of("2330.TW", "9999.TW"), LocalDate.of(2024, 11, 25), LocalDate.of(2024, 11, 27));
+
+            // Then
+            assertThat(requestCount.get()).isEqualTo(1);
+            assertThat(httpClient.getMetrics().get(ShioajiDataService.DEPENDENCY).getRequests()).isEqualTo(3); // setUp health, stub health, batch
+            assertThat(lastRequestBody).contains("\"2330.TW\"", "\"9999.TW\"", "\"start_date\":\"2024-11-25\"");
+            assertThat(result).containsOnlyKeys("2330.TW");
+            StockPriceHistory bar = result.get("2330.TW").get(0);
+            assertThat(bar.getDate()).isEqualTo(LocalDate.of(2024, 11, 26));
+            assertThat(bar.getClose()).isEqualByComparingTo("580");
+            assertThat(bar.getAdjustedClose()).isEqualByComparingTo("580");
+        } finally {
+            bridge.stop(0);
+        }
+    }
+
+    @Test
+    void should_fetchQuoteSnapshot_forUniverse() throws IOException {
+        // Given
+        HttpServer bridge = stubBridge();
+        bridge.createContext("/quotes/snapshot", exchange -> {
+            requestCount.incrementAndGet();
+            respond(exchange, """
+                    {"success": true, "count": 2, "quotes": [
+                      {"success": true, "symbol": "2330.TW", "price": 580.0},
+                      {"success": false, "symbol": "9999.TW", "error": "no data"}]}
+                    """);
+        });
+
+        try {
+            ShioajiDataService service = serviceFor(bridge);
+
+            // When
+            Map<String, ShioajiDataService.QuoteDTO> quotes = service.getQuoteSnapshot(List.of("2330.tw", "9999.TW"));
+
+            // Then - keyed by the symbol as requested
+            assertThat(requestCount.get()).isEqualTo(1);
+            assertThat(quotes).containsOnlyKeys("2330.tw");
+            assertThat(quotes.get("2330.tw").getPrice()).isEqualByComparingTo("580.0");
+        } finally {
+            bridge.stop(0);
+        }
+    }
+
+    @Test
+    void should_fallBackToSingleRequests_when_bridgeHasNoBatchEndpoint() throws IOException {
+        // Given - an older bridge with only the per-symbol endpoint
+        HttpServer bridge = stubBridge();
+        bridge.createContext("/history/", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/history/batch")) {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+                return;
+            }
+            requestCount.incrementAndGet();
+            respond(exchange, """
+                    {"success": true, "symbol": "2330.TW", "count": 1, "prices": [
+                      {"date": "2024-11-26", "open": 1, "high": 1, "low": 1, "close": 1, "volume": 1, "adjusted_close": 1}]}
+                    """);
+        });
+
+        try {
+            ShioajiDataService service = serviceFor(bridge);
+
+            // When
+            Map<String, List<StockPriceHistory>> result = service.getHistoricalPricesBatch(
+                    List.of("2330.TW", "2317.TW"), LocalDate.of(2024, 11, 25), LocalDate.of(2024, 11, 27));
+
+            // Then
+            assertThat(requestCount.get()).isEqualTo(2);
+            assertThat(result).containsOnlyKeys("2330.TW", "2317.TW");
+        } finally {
+            bridge.stop(0);
+        }
+    }
+
+    @Test
+    void should_streamHistory_inFixedSizeChunks() throws IOException {
+        // Given - a long history response, with fields the client does not know about
+        StringBuilder json = new StringBuilder("{\"success\": true, \"symbol\": \"2330.TW\", \"extra\": {\"a\": [1]}, \"prices\": [");
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < 1200; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"date\": \"").append(start.plusDays(i))
+                    .append("\", \"open\": 1, \"high\": 2, \"low\": 0.5, \"close\": 1.5, \"volume\": 10, ")
+                    .append("\"adjusted_close\": 1.5, \"source\": \"stub\"}");
+        }
+        json.append("], \"count\": 1200, \"error\": null}");
+
+        HttpServer bridge = stubBridge();
+        bridge.createContext("/history/", exchange -> respond(exchange, json.toString()));
+
+        try {
+            ShioajiDataService service = serviceFor(bridge);
+            List<Integer> chunkSizes = new ArrayList<>();
+            List<LocalDate> lastDates = new ArrayList<>();
+
+            // When
+            int total = service.streamHistoricalPrices("2330.TW", start, start.plusDays(1199), 500, chunk -> {
+                chunkSizes.add(chunk.size());
+                lastDates.add(chunk.get(chunk.size() - 1).getDate());
+            });
+
+            // Then
+            assertThat(total).isEqualTo(1200);
+            assertThat(chunkSizes).containsExactly(500, 500, 200);
+            assertThat(lastDates.get(2)).isEqualTo(start.plusDays(1199));
+        } finally {
+            bridge.stop(0);
+        }
+    }
+
+    @Test
+    void should_streamNothing_when_bridgeReportsFailure() throws IOException {
+        // Given
+        HttpServer bridge = stubBridge();
+        bridge.createContext("/history/", exchange ->
+                respond(exchange, "{\"success\": false, \"prices\": [], \"error\": \"symbol not found\"}"));
+
+        try {
+            ShioajiDataService service = serviceFor(bridge);
+            List<List<StockPriceHistory>> chunks = new ArrayList<>();
+
+            // When
+            int total = service.streamHistoricalPrices("9999.TW", LocalDate.now().minusDays(5), LocalDate.now(), 500, chunks::add);
+
+            // Then
+            assertThat(total).isZero();
+            assertThat(chunks).isEmpty();
+        } finally {
+            bridge.stop(0);
+        }
+    }
+
+    @Test
+    void should_failOnlyThatSymbol_when_historyBodyIsMalformed() throws IOException {
+        // Given - a truncated body for one symbol
+        HttpServer bridge = stubBridge();
+        bridge.createContext("/history/", exchange ->
+                respond(exchange, "{\"success\": true, \"prices\": [{\"date\": \"2024-01-02\", \"close\": "));
+
+        try {
+            ShioajiDataService service = serviceFor(bridge);
+            List<List<StockPriceHistory>> chunks = new ArrayList<>();
+
+            // When
+            int total = service.streamHistoricalPrices("2330.TW", LocalDate.now().minusDays(5), LocalDate.now(), 500, chunks::add);
+
+            // Then - the bridge stays available for the other symbols
+            assertThat(total).isZero();
+            assertThat(chunks).isEmpty();
+            assertThat(service.isAvailable()).isTrue();
+        } finally {
+            bridge.stop(0);
+        }
+    }
+
+    private static HttpServer stubBridge() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/health", exchange ->
+                respond(exchange, "{\"status\": \"healthy\", \"connected\": true, \"message\": \"stub\"}"));
+        server.start();
+        return server;
+    }
+
+    private ShioajiDataService serviceFor(HttpServer bridge) {
+        when(shioajiProperties.getApiUrl()).thenReturn("http://127.0.0.1:" + bridge.getAddress().getPort());
+        ShioajiDataService service = new ShioajiDataService(shioajiProperties, httpClient);
+        assertThat(service.isAvailable()).isTrue();
+        return service;
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
 }
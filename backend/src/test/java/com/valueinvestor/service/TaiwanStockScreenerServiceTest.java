@@ -1,25 +1,138 @@
 package com.valueinvestor.service;
 
+import com.valueinvestor.config.HttpClientProperties;
+import com.valueinvestor.model.entity.ScreenerSnapshot;
+import com.valueinvestor.repository.ScreenerSnapshotRepository;
+import com.valueinvestor.util.HttpDependencyMetrics;
+import com.valueinvestor.util.OutboundHttpClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TaiwanStockScreenerServiceTest {
 
+    @Spy
+    private OutboundHttpClient httpClient = new OutboundHttpClient(new HttpClientProperties(), new HttpDependencyMetrics());
+
+    @Mock
+    private ScreenerSnapshotRepository snapshotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private TaiwanStockScreenerService screenerService;
 
+    private final RecordingExecutor refreshExecutor = new RecordingExecutor();
+
     @BeforeEach
     void setUp() {
-        // Setup common test fixtures
+        // Background screens are recorded, not run
+        screenerService.refreshExecutor = refreshExecutor;
+    }
+
+    @Test
+    void should_serveFallback_and_scheduleScreen_when_noSnapshotExists() {
+        // When
+        List<TaiwanStockScreenerService.StockInfo> result = screenerService.getAllDividendStocks();
+
+        // Then - answered without touching Yahoo
+        assertThat(result).extracting(TaiwanStockScreenerService.StockInfo::getSymbol).contains("2330.TW", "2886.TW");
+        assertThat(refreshExecutor.tasks).hasSize(1);
+        verify(httpClient, never()).restTemplate(anyString());
+    }
+
+    @Test
+    void should_servePersistedSnapshot_withoutRefresh_when_fresh() {
+        // Given
+        when(snapshotRepository.findAllByOrderByDividendYieldDesc()).thenReturn(List.of(
+                new ScreenerSnapshot("2886.TW", "兆豐金", "Financials", new BigDecimal("5.8"), LocalDateTime.now().minusHours(1))));
+
+        // When
+        List<TaiwanStockScreenerService.StockInfo> first = screenerService.getAllDividendStocks();
+        List<TaiwanStockScreenerService.StockInfo> second = screenerService.getAllDividendStocks();
+
+        // Then - loaded once from the table, no screen scheduled
+        assertThat(first).extracting(TaiwanStockScreenerService.StockInfo::getSymbol).containsExactly("2886.TW");
+        assertThat(second).isSameAs(first);
+        verify(snapshotRepository).findAllByOrderByDividendYieldDesc();
+        assertThat(refreshExecutor.tasks).isEmpty();
+    }
+
+    @Test
+    void should_serveStaleSnapshot_and_refreshInBackground_once() {
+        // Given
+        when(snapshotRepository.findAllByOrderByDividendYieldDesc()).thenReturn(List.of(
+                new ScreenerSnapshot("2886.TW", "兆豐金", "Financials", new BigDecimal("5.8"), LocalDateTime.now().minusDays(2))));
+
+        // When
+        List<TaiwanStockScreenerService.StockInfo> result = screenerService.getAllDividendStocks();
+        screenerService.getTopDividendStocks(5);
+
+        // Then - stale data returned immediately, a single background screen queued
+        assertThat(result).extracting(TaiwanStockScreenerService.StockInfo::getSymbol).containsExactly("2886.TW");
+        assertThat(refreshExecutor.tasks).hasSize(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void should_screenInBatchedRequests_and_mergeFailuresWithFallback() {
+        // Given - every batch returns quotes for all its symbols except 2330.TW
+        RestTemplate yahoo = mock(RestTemplate.class);
+        doReturn(yahoo).when(httpClient).restTemplate("yahoo");
+        List<String> requestedUrls = new ArrayList<>();
+        when(yahoo.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            requestedUrls.add(url);
+            StringBuilder body = new StringBuilder("{\"quoteResponse\":{\"result\":[");
+            String[] symbols = url.substring(url.indexOf("symbols=") + 8).split(",");
+            boolean first = true;
+            for (String symbol : symbols) {
+                if (symbol.equals("2330.TW")) {
+                    continue;
+                }
+                body.append(first ? "" : ",").append("{\"symbol\":\"").append(symbol)
+                        .append("\",\"shortName\":\"").append(symbol).append("\",\"trailingAnnualDividendYield\":0.05}");
+                first = false;
+            }
+            return ResponseEntity.ok(body.append("]}}").toString());
+        });
+
+        // When
+        screenerService.refreshCache();
+
+        // Then - 60 candidates in 3 requests; 2330.TW comes from the fallback list
+        assertThat(requestedUrls).hasSize(3);
+        ArgumentCaptor<List<ScreenerSnapshot>> saved = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).hasSize(60);
+        assertThat(saved.getValue()).filteredOn(row -> row.getSymbol().equals("2330.TW"))
+                .extracting(ScreenerSnapshot::getName).containsExactly("台積電");
+        assertThat(saved.getValue()).filteredOn(row -> row.getSymbol().equals("2886.TW"))
+                .extracting(ScreenerSnapshot::getDividendYield).allSatisfy(yield -> assertThat(yield).isEqualByComparingTo("5.00"));
     }
 
     @Test
@@ -118,4 +231,37 @@ class TaiwanStockScreenerServiceTest {
             assertThat(stock.getDividendYield()).isGreaterThanOrEqualTo(minYield);
         }
     }
+
+    private static class RecordingExecutor extends AbstractExecutorService {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return tasks;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
 }
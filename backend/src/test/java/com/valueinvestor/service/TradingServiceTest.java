@@ -36,6 +36,12 @@ class TradingServiceTest {
     @Mock
     private PythonExecutor pythonExecutor;
 
+    @Mock
+    private CashLedgerService cashLedgerService;
+
+    @Mock
+    private CurrentPositionService currentPositionService;
+
     @InjectMocks
     private TradingService tradingService;
 
@@ -62,7 +68,7 @@ class TradingServiceTest {
         // Given
         when(marketDataService.getQuote("AAPL")).thenReturn(new BigDecimal("150.00"));
         when(transactionLogRepository.save(any(TransactionLog.class))).thenReturn(testTransaction);
-        when(positionHistoryRepository.findLatestPositionBySymbol("AAPL"))
+        when(currentPositionService.find("AAPL"))
                 .thenReturn(Optional.empty());
         when(positionHistoryRepository.save(any(PositionHistory.class))).thenReturn(testPosition);
 
@@ -78,7 +84,9 @@ class TradingServiceTest {
         assertThat(result.getSymbol()).isEqualTo("AAPL");
         assertThat(result.getType()).isEqualTo(TransactionLog.TransactionType.BUY);
         verify(transactionLogRepository).save(any(TransactionLog.class));
+        verify(cashLedgerService).recordTransaction(testTransaction);
         verify(positionHistoryRepository).save(any(PositionHistory.class));
+        verify(currentPositionService).record(testPosition);
     }
 
     @Test
@@ -86,7 +94,7 @@ class TradingServiceTest {
         // Given
         BigDecimal specificPrice = new BigDecimal("155.00");
         when(transactionLogRepository.save(any(TransactionLog.class))).thenReturn(testTransaction);
-        when(positionHistoryRepository.findLatestPositionBySymbol("AAPL"))
+        when(currentPositionService.find("AAPL"))
                 .thenReturn(Optional.empty());
         when(positionHistoryRepository.save(any(PositionHistory.class))).thenReturn(testPosition);
 
@@ -110,7 +118,7 @@ class TradingServiceTest {
         when(marketDataService.getQuote("AAPL")).thenReturn(new BigDecimal("160.00"));
         // Return the argument passed to save so we get the actual SELL transaction
         when(transactionLogRepository.save(any(TransactionLog.class))).thenAnswer(i -> i.getArgument(0));
-        when(positionHistoryRepository.findLatestPositionBySymbol("AAPL"))
+        when(currentPositionService.find("AAPL"))
                 .thenReturn(Optional.of(testPosition));
         when(positionHistoryRepository.save(any(PositionHistory.class))).thenReturn(testPosition);
 
@@ -136,7 +144,7 @@ class TradingServiceTest {
 
         when(marketDataService.getQuote("AAPL")).thenReturn(new BigDecimal("150.00"));
         when(transactionLogRepository.save(any(TransactionLog.class))).thenReturn(testTransaction);
-        when(positionHistoryRepository.findLatestPositionBySymbol("AAPL"))
+        when(currentPositionService.find("AAPL"))
                 .thenReturn(Optional.of(existingPosition));
         when(positionHistoryRepository.save(any(PositionHistory.class))).thenAnswer(i -> i.getArgument(0));
 
@@ -190,7 +198,7 @@ class TradingServiceTest {
     @Test
     void should_getCurrentPosition_when_symbolProvided() {
         // Given
-        when(positionHistoryRepository.findLatestPositionBySymbol("AAPL"))
+        when(currentPositionService.find("AAPL"))
                 .thenReturn(Optional.of(testPosition));
 
         // When
@@ -199,7 +207,7 @@ class TradingServiceTest {
         // Then
         assertThat(result).isPresent();
         assertThat(result.get().getSymbol()).isEqualTo("AAPL");
-        verify(positionHistoryRepository).findLatestPositionBySymbol("AAPL");
+        verify(currentPositionService).find("AAPL");
     }
 
     @Test
@@ -214,7 +222,7 @@ class TradingServiceTest {
         when(pythonExecutor.executeShioajiOrder(eq("BUY"), eq("AAPL"), any(), any()))
                 .thenReturn(orderResult);
         when(transactionLogRepository.save(any(TransactionLog.class))).thenReturn(testTransaction);
-        when(positionHistoryRepository.findLatestPositionBySymbol("AAPL"))
+        when(currentPositionService.find("AAPL"))
                 .thenReturn(Optional.empty());
         when(positionHistoryRepository.save(any(PositionHistory.class))).thenReturn(testPosition);
 
@@ -0,0 +1,123 @@
+package com.valueinvestor.service;
+
+import com.valueinvestor.config.AppProperties;
+import com.valueinvestor.util.PhaseMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class WriteBehindQueueTest {
+
+    private WriteBehindQueue writeQueue;
+
+    @AfterEach
+    void tearDown() {
+        if (writeQueue != null) {
+            writeQueue.shutdown();
+        }
+    }
+
+    @Test
+    void should_commitQueuedWrites_inFewerGroups() throws Exception {
+        // Given - the writer is held on its first write while more writes pile up behind it
+        writeQueue = queue(100, 50, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = writeQueue.submit(() -> {
+            await(release);
+            return 0;
+        });
+        List<CompletableFuture<Integer>> rest = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            int value = i;
+            rest.add(writeQueue.submit(() -> value));
+        }
+
+        // When
+        release.countDown();
+
+        // Then - every write is acknowledged with its own result
+        assertThat(WriteBehindQueue.await(first)).isZero();
+        for (int i = 0; i < rest.size(); i++) {
+            assertThat(WriteBehindQueue.await(rest.get(i))).isEqualTo(i + 1);
+        }
+        assertThat(writeQueue.getWriteCount()).isEqualTo(21);
+        assertThat(writeQueue.getGroupCount()).isLessThan(21);
+    }
+
+    @Test
+    void should_failOnlyTheFailingWrite_when_groupCommitFails() {
+        // Given
+        writeQueue = queue(100, 50, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocker = writeQueue.submit(() -> {
+            await(release);
+            return "blocker";
+        });
+        CompletableFuture<String> good = writeQueue.submit(() -> "ok");
+        CompletableFuture<String> bad = writeQueue.submit(() -> {
+            throw new IllegalArgumentException("constraint violated");
+        });
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThat(WriteBehindQueue.await(blocker)).isEqualTo("blocker");
+        assertThat(WriteBehindQueue.await(good)).isEqualTo("ok");
+        assertThatThrownBy(() -> WriteBehindQueue.await(bad))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("constraint violated");
+        assertThat(writeQueue.getFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_rejectWrites_when_queueStaysFull() {
+        // Given - the writer is busy and the single queue slot is taken
+        writeQueue = queue(1, 10, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writeQueue.submit(() -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        await(started);
+        writeQueue.submit(() -> null);
+
+        // When / Then
+        try {
+            assertThatThrownBy(() -> writeQueue.submit(() -> null))
+                    .isInstanceOf(RejectedExecutionException.class);
+            assertThat(writeQueue.getRejectedCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static WriteBehindQueue queue(int capacity, long offerTimeoutMs, long flushLatencyMs) {
+        AppProperties properties = new AppProperties();
+        properties.getWriteQueue().setCapacity(capacity);
+        properties.getWriteQueue().setOfferTimeoutMs(offerTimeoutMs);
+        properties.getWriteQueue().setFlushLatencyMs(flushLatencyMs);
+        return new WriteBehindQueue(properties, mock(PlatformTransactionManager.class), new PhaseMetrics());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.valueinvestor.util;
+
+import com.sun.net.httpserver.HttpServer;
+import com.valueinvestor.config.HttpClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboundHttpClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            byte[] body = "ok".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/fail", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void should_recordLatencyAndErrors_perDependency() throws IOException {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OutboundHttpClient client = new OutboundHttpClient(new HttpClientProperties(), new HttpDependencyMetrics(registry));
+
+        // When
+        client.restTemplate("bridge").getForObject(baseUrl + "/ok", String.class);
+        client.restTemplate("bridge").getForObject(baseUrl + "/ok", String.class);
+        assertThatThrownBy(() -> client.restTemplate("bridge").getForObject(baseUrl + "/fail", String.class))
+                .isInstanceOf(HttpServerErrorException.class);
+
+        // Then
+        HttpDependencyMetrics.DependencyStats stats = client.getMetrics().get("bridge");
+        assertThat(stats.getRequests()).isEqualTo(3);
+        assertThat(stats.getErrors()).isEqualTo(1);
+        assertThat(stats.getMaxLatencyMs()).isGreaterThan(0);
+        assertThat(client.getMetrics().snapshot()).containsOnlyKeys("bridge");
+        // Same calls on the Micrometer timer, split by outcome
+        assertThat(registry.get(HttpDependencyMetrics.TIMER).tag("dependency", "bridge").tag("outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get(HttpDependencyMetrics.TIMER).tag("dependency", "bridge").tag("outcome", "error")
+                .timer().count()).isEqualTo(1);
+        client.close();
+    }
+
+    @Test
+    void should_applyPerHostReadTimeout() throws IOException {
+        // Given - a short read timeout for this host only
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getHosts().put("127.0.0.1", new HttpClientProperties.Timeouts(1000, 200));
+        OutboundHttpClient client = new OutboundHttpClient(properties, new HttpDependencyMetrics());
+
+        // When/Then
+        assertThatThrownBy(() -> client.restTemplate("bridge").getForObject(baseUrl + "/slow", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(client.getMetrics().get("bridge").getErrors()).isEqualTo(1);
+        client.close();
+    }
+
+    @Test
+    void should_shareRestTemplate_forSameDependency() throws IOException {
+        OutboundHttpClient client = new OutboundHttpClient(new HttpClientProperties(), new HttpDependencyMetrics());
+
+        assertThat(client.restTemplate("yahoo")).isSameAs(client.restTemplate("yahoo"));
+        assertThat(client.restTemplate("yahoo")).isNotSameAs(client.restTemplate("shioaji"));
+        client.close();
+    }
+}
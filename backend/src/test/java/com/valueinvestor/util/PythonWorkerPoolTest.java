@@ -0,0 +1,167 @@
+package com.valueinvestor.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PythonWorkerPoolTest {
+
+    // Minimal stand-in for worker.py: same line protocol, one thread per request.
+    // Pings go unanswered while an order is running, like a worker wedged inside a broker call.
+    private static final String STUB_WORKER = """
+            import sys, json, os, threading, time
+            lock = threading.Lock()
+            orders = []
+            def handle(req):
+                op, args = req["op"], req.get("args", {})
+                if op == "crash":
+                    os._exit(1)
+                if op == "hang" or (op == "ping" and orders):
+                    return
+                if op == "order":
+                    orders.append(req["id"])
+                time.sleep(args.get("delay", 0))
+                if op == "order":
+                    orders.remove(req["id"])
+                if op == "fail":
+                    msg = {"id": req["id"], "ok": False, "error": "boom"}
+                else:
+                    msg = {"id": req["id"], "ok": True, "result": {"op": op, "pid": os.getpid(), "args": args}}
+                with lock:
+                    sys.stdout.write(json.dumps(msg) + "\\n")
+                    sys.stdout.flush()
+            for line in sys.stdin:
+                threading.Thread(target=handle, args=(json.loads(line),), daemon=True).start()
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PythonWorkerPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path script = tempDir.resolve("stub_worker.py");
+        Files.writeString(script, STUB_WORKER);
+        pool = new PythonWorkerPool(List.of("python3", "-u", script.toString()), tempDir.toFile(),
+                true, 1, Duration.ofSeconds(5), 0, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void should_multiplexConcurrentRequests_onOneWorker() throws Exception {
+        // Given - a slow request is in flight on the only worker
+        CompletableFuture<JsonNode> slow = CompletableFuture.supplyAsync(() -> call("echo", 0.8));
+        Thread.sleep(200);
+
+        // When
+        long start = System.nanoTime();
+        JsonNode fast = pool.call("echo", args(0));
+        long fastMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then - the fast request is answered without waiting behind the slow one, on the same process
+        assertThat(fastMs).isLessThan(500);
+        assertThat(slow.isDone()).isFalse();
+        assertThat(slow.get().path("pid").asLong()).isEqualTo(fast.path("pid").asLong());
+        assertThat(pool.getLiveWorkerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_failPendingRequests_andRestartWorker_when_workerCrashes() throws Exception {
+        // Given
+        long firstPid = pool.call("echo", args(0)).path("pid").asLong();
+        CompletableFuture<JsonNode> pending = CompletableFuture.supplyAsync(() -> call("echo", 2));
+        Thread.sleep(200);
+
+        // When
+        assertThatThrownBy(() -> pool.call("crash", args(0))).isInstanceOf(IOException.class);
+
+        // Then - the in-flight request fails fast and the next call gets a fresh process
+        assertThat(pending).failsWithin(Duration.ofSeconds(1));
+        long secondPid = pool.call("echo", args(0)).path("pid").asLong();
+        assertThat(secondPid).isNotEqualTo(firstPid);
+    }
+
+    @Test
+    void should_timeOut_andKeepWorkerUsable() throws Exception {
+        // Given
+        PythonWorkerPool fastTimeoutPool = new PythonWorkerPool(
+                List.of("python3", "-u", tempDir.resolve("stub_worker.py").toString()), tempDir.toFile(),
+                true, 1, Duration.ofMillis(300), 0, 300);
+
+        try {
+            // When/Then
+            assertThatThrownBy(() -> fastTimeoutPool.call("hang", args(0))).isInstanceOf(TimeoutException.class);
+            assertThatThrownBy(() -> fastTimeoutPool.call("fail", args(0)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("boom");
+            assertThat(fastTimeoutPool.call("echo", args(0)).path("op").asText()).isEqualTo("echo");
+        } finally {
+            fastTimeoutPool.shutdown();
+        }
+    }
+
+    @Test
+    void should_restartWorker_when_healthCheckFindsItDead() throws Exception {
+        // Given
+        pool.call("echo", args(0));
+        assertThatThrownBy(() -> pool.call("crash", args(0))).isInstanceOf(IOException.class);
+        assertThat(pool.getLiveWorkerCount()).isZero();
+
+        // When
+        pool.checkHealth();
+
+        // Then
+        assertThat(pool.getLiveWorkerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_drainInsteadOfKilling_when_workerWithOrderInFlightMissesPing() throws Exception {
+        // Given - an order is in flight and the worker stops answering pings
+        long firstPid = pool.call("echo", args(0)).path("pid").asLong();
+        CompletableFuture<JsonNode> order = CompletableFuture.supplyAsync(() -> call("order", 1.5));
+        Thread.sleep(200);
+
+        // When
+        pool.checkHealth();
+
+        // Then - the worker is kept until the order is answered, then recycled
+        assertThat(pool.getLiveWorkerCount()).isEqualTo(1);
+        assertThat(order.get().path("pid").asLong()).isEqualTo(firstPid);
+        pool.checkHealth();
+        assertThat(pool.getLiveWorkerCount()).isZero();
+        assertThat(pool.call("echo", args(0)).path("pid").asLong()).isNotEqualTo(firstPid);
+    }
+
+    private ObjectNode args(double delaySeconds) {
+        return objectMapper.createObjectNode().put("delay", delaySeconds);
+    }
+
+    private JsonNode call(String op, double delaySeconds) {
+        try {
+            return pool.call(op, args(delaySeconds));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.valueinvestor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void should_allowBurst_then_spaceRequests() {
+        // Given - 2 per second, burst of 2
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2.0, 2, nanos::get);
+
+        // Then - burst is free, the next two queue 500 ms apart
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    @Test
+    void should_refillOverTime_upToCapacity() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1.0, 1, nanos::get);
+        limiter.reserve();
+
+        // When - a long idle period only refills one token
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // Then
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void should_rejectTryAcquire_when_waitExceedsTimeout() throws InterruptedException {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1.0, 1, nanos::get);
+        assertThat(limiter.tryAcquire(0, TimeUnit.MILLISECONDS)).isTrue();
+
+        // Then - next token is a full second away
+        assertThat(limiter.tryAcquire(100, TimeUnit.MILLISECONDS)).isFalse();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire(0, TimeUnit.MILLISECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,140 @@
+package com.valueinvestor.util;
+
+import org.junit.jupiter.api.Test;
+import yahoofinance.Stock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YahooFinanceClientTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final HttpDependencyMetrics metrics = new HttpDependencyMetrics();
+
+    @Test
+    void should_shareOneFetch_across_concurrentCallersForSameSymbol() throws Exception {
+        // Given - the fetch blocks until every caller has arrived
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Stock stock = new Stock("2330.TW");
+        YahooFinanceClient client = new YahooFinanceClient(new TokenBucketRateLimiter(1.0, 1, nanos::get),
+                Duration.ofSeconds(5), metrics, symbol -> {
+                    fetches.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return stock;
+                }, null);
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Stock>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> client.get("2330.TW")));
+        }
+        while (client.getCoalescedCount() < 3) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then - one token, one request, everyone gets the same Stock
+        for (Future<Stock> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(stock);
+        }
+        executor.shutdown();
+        assertThat(fetches.get()).isEqualTo(1);
+        assertThat(metrics.get(YahooFinanceClient.DEPENDENCY).getRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fetchManySymbols_inBatches_withOneTokenEach() {
+        // Given - 30 symbols at 25 per request
+        List<Integer> batchSizes = new ArrayList<>();
+        YahooFinanceClient client = new YahooFinanceClient(new TokenBucketRateLimiter(1000.0, 10, nanos::get),
+                Duration.ZERO, metrics, null, symbols -> {
+                    batchSizes.add(symbols.length);
+                    Map<String, Stock> stocks = new HashMap<>();
+                    for (String symbol : symbols) {
+                        if (!symbol.equals("S7")) {
+                            stocks.put(symbol, new Stock(symbol));
+                        }
+                    }
+                    return stocks;
+                });
+        List<String> symbols = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            symbols.add("S" + i);
+        }
+
+        // When
+        Map<String, Stock> result = client.getAll(symbols, Duration.ZERO);
+
+        // Then - two requests, missing symbol left out
+        assertThat(batchSizes).containsExactly(25, 5);
+        assertThat(result).hasSize(29).doesNotContainKey("S7");
+        assertThat(metrics.get(YahooFinanceClient.DEPENDENCY).getRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void should_failFast_when_noTokenWithinDeadline() throws Exception {
+        // Given - one token per second, already spent
+        AtomicInteger fetches = new AtomicInteger();
+        YahooFinanceClient client = new YahooFinanceClient(new TokenBucketRateLimiter(1.0, 1, nanos::get),
+                Duration.ofMillis(100), metrics, symbol -> {
+                    fetches.incrementAndGet();
+                    return new Stock(symbol);
+                }, null);
+        client.get("2330.TW");
+
+        // When / Then - the next slot is a second away, beyond the 100 ms deadline
+        assertThatThrownBy(() -> client.get("2317.TW"))
+                .isInstanceOf(YahooFinanceClient.RateLimitedException.class);
+        assertThat(fetches.get()).isEqualTo(1);
+        assertThat(client.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_failFast_when_joinedLookupOutlastsCallerDeadline() throws Exception {
+        // Given - a lookup of 2330.TW is in flight and will not finish soon
+        CountDownLatch release = new CountDownLatch(1);
+        YahooFinanceClient client = new YahooFinanceClient(new TokenBucketRateLimiter(1.0, 1, nanos::get),
+                Duration.ofSeconds(5), metrics, symbol -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new Stock(symbol);
+                }, null);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Stock> leader = executor.submit(() -> client.get("2330.TW"));
+        while (client.getInFlightCount() < 1) {
+            Thread.sleep(5);
+        }
+
+        // When / Then - a caller joining with a 100 ms deadline gives up after it
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.get("2330.TW", Duration.ofMillis(100)))
+                .isInstanceOf(YahooFinanceClient.RateLimitedException.class);
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(2000);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS).getSymbol()).isEqualTo("2330.TW");
+        executor.shutdown();
+    }
+}
@@ -63,6 +63,30 @@ class HistoryResponse(BaseModel):
     error: Optional[str] = None
 
 
+class BatchHistoryRequest(BaseModel):
+    symbols: list[str]
+    start_date: str
+    end_date: str
+
+
+class BatchHistoryResponse(BaseModel):
+    success: bool
+    results: dict[str, HistoryResponse] = {}
+    count: int = 0
+    error: Optional[str] = None
+
+
+class SnapshotRequest(BaseModel):
+    symbols: list[str]
+
+
+class SnapshotResponse(BaseModel):
+    success: bool
+    quotes: list[QuoteResponse] = []
+    count: int = 0
+    error: Optional[str] = None
+
+
 class HealthResponse(BaseModel):
     status: str
     connected: bool
@@ -343,20 +367,31 @@ async def get_history(
     Returns:
         HistoryResponse with historical price data
     """
+    return await fetch_history(symbol, start_date, end_date, quota_exceeded())
+
+
+def quota_exceeded() -> bool:
+    """Whether the Shioaji data quota is used up (history then comes from Yahoo Finance)"""
+    try:
+        usage = get_client().api.usage()
+        if hasattr(usage, 'remaining_bytes') and usage.remaining_bytes <= 0:
+            logger.warning("Shioaji API quota exceeded, falling back to Yahoo Finance")
+            return True
+    except Exception:
+        pass
+    return False
+
+
+async def fetch_history(symbol: str, start_date: str, end_date: str, use_yahoo: bool = False) -> HistoryResponse:
+    """Fetch daily bars for one symbol from Shioaji, falling back to Yahoo Finance"""
     try:
         client = get_client()
         symbol = symbol.upper()
 
         logger.info(f"Fetching history for {symbol} from {start_date} to {end_date}")
 
-        # Check API usage first
-        try:
-            usage = client.api.usage()
-            if hasattr(usage, 'remaining_bytes') and usage.remaining_bytes <= 0:
-                logger.warning(f"Shioaji API quota exceeded, falling back to Yahoo Finance")
-                return await get_history_yahoo(symbol, start_date, end_date)
-        except:
-            pass
+        if use_yahoo:
+            return await get_history_yahoo(symbol, start_date, end_date)
 
         # Get contract
         contract = client._get_contract(symbol)
@@ -442,6 +477,81 @@ async def get_history(
         return await get_history_yahoo(symbol, start_date, end_date)
 
 
+@app.post("/history/batch", response_model=BatchHistoryResponse)
+async def get_history_batch(request: BatchHistoryRequest):
+    """
+    Get historical price data for many symbols in one request.
+    The quota is checked once for the whole batch; each symbol still falls back
+    to Yahoo Finance on its own.
+
+    Returns:
+        BatchHistoryResponse keyed by upper-cased symbol
+    """
+    try:
+        datetime.strptime(request.start_date, "%Y-%m-%d")
+        datetime.strptime(request.end_date, "%Y-%m-%d")
+    except ValueError:
+        return BatchHistoryResponse(success=False, error="Invalid date format. Use YYYY-MM-DD")
+
+    logger.info(f"Fetching batch history for {len(request.symbols)} symbols "
+                f"from {request.start_date} to {request.end_date}")
+
+    use_yahoo = quota_exceeded()
+    results = {}
+    for symbol in dict.fromkeys(s.upper() for s in request.symbols):
+        results[symbol] = await fetch_history(symbol, request.start_date, request.end_date, use_yahoo)
+
+    return BatchHistoryResponse(success=True, results=results, count=len(results))
+
+
+@app.post("/quotes/snapshot", response_model=SnapshotResponse)
+async def get_quotes_snapshot(request: SnapshotRequest):
+    """
+    Get current quotes for many symbols with a single Shioaji snapshots call.
+    Symbols without a contract or snapshot price fall back to Yahoo Finance individually.
+    """
+    symbols = list(dict.fromkeys(s.upper() for s in request.symbols))
+    logger.info(f"Fetching snapshot quotes for {len(symbols)} symbols")
+
+    quotes = {}
+    try:
+        client = get_client()
+        contracts = []
+        symbol_by_code = {}
+        for symbol in symbols:
+            contract = client._get_contract(symbol)
+            if contract:
+                contracts.append(contract)
+                symbol_by_code[contract.code] = symbol
+
+        if contracts:
+            for snapshot in client.api.snapshots(contracts) or []:
+                symbol = symbol_by_code.get(getattr(snapshot, 'code', None))
+                price = getattr(snapshot, 'close', None) or getattr(snapshot, 'last_price', None)
+                if symbol is None or not price:
+                    continue
+                quotes[symbol] = QuoteResponse(
+                    success=True,
+                    symbol=symbol,
+                    price=float(price),
+                    open=float(snapshot.open) if getattr(snapshot, 'open', None) else None,
+                    high=float(snapshot.high) if getattr(snapshot, 'high', None) else None,
+                    low=float(snapshot.low) if getattr(snapshot, 'low', None) else None,
+                    volume=int(snapshot.volume) if getattr(snapshot, 'volume', None) else None
+                )
+    except Exception as e:
+        logger.error(f"Error fetching snapshots: {e}")
+
+    for symbol in symbols:
+        if symbol not in quotes:
+            quote = await get_quote_yahoo(symbol)
+            quote.symbol = symbol
+            quotes[symbol] = quote
+
+    ordered = [quotes[symbol] for symbol in symbols]
+    return SnapshotResponse(success=True, quotes=ordered, count=len(ordered))
+
+
 async def get_history_yahoo(symbol: str, start_date: str, end_date: str) -> HistoryResponse:
     """Fallback to Yahoo Finance for historical data"""
     try:
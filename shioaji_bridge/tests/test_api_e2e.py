@@ -244,5 +244,114 @@ class TestPriceBarFormat:
             assert "volume" in price_bar
 
 
+class TestBatchHistoryEndpoint:
+    """Tests for /history/batch endpoint"""
+
+    def test_batch_history_returns_one_result_per_distinct_symbol(self, client, mock_shioaji):
+        from shioaji_api import HistoryResponse
+
+        async def fake_fetch(symbol, start_date, end_date, use_yahoo=False):
+            return HistoryResponse(success=True, symbol=symbol, prices=[], count=0)
+
+        with patch('shioaji_api.fetch_history', side_effect=fake_fetch) as mock_fetch, \
+                patch('shioaji_api.quota_exceeded', return_value=False):
+            response = client.post("/history/batch", json={
+                "symbols": ["2330.tw", "2317.TW", "2330.TW"],
+                "start_date": "2024-01-01",
+                "end_date": "2024-01-31"
+            })
+
+        assert response.status_code == 200
+        data = response.json()
+        assert data["success"] == True
+        assert list(data["results"].keys()) == ["2330.TW", "2317.TW"]
+        assert data["count"] == 2
+        assert mock_fetch.call_count == 2
+
+    def test_batch_history_checks_quota_once(self, client, mock_shioaji):
+        from shioaji_api import HistoryResponse
+
+        async def fake_fetch(symbol, start_date, end_date, use_yahoo=False):
+            return HistoryResponse(success=True, symbol=symbol, prices=[], count=0)
+
+        with patch('shioaji_api.fetch_history', side_effect=fake_fetch) as mock_fetch, \
+                patch('shioaji_api.quota_exceeded', return_value=True) as mock_quota:
+            client.post("/history/batch", json={
+                "symbols": ["2330.TW", "2317.TW", "2454.TW"],
+                "start_date": "2024-01-01",
+                "end_date": "2024-01-31"
+            })
+
+        assert mock_quota.call_count == 1
+        assert all(call.args[3] == True for call in mock_fetch.call_args_list)
+
+    def test_batch_history_rejects_invalid_dates(self, client, mock_shioaji):
+        response = client.post("/history/batch", json={
+            "symbols": ["2330.TW"],
+            "start_date": "01/01/2024",
+            "end_date": "2024-01-31"
+        })
+
+        assert response.status_code == 200
+        data = response.json()
+        assert data["success"] == False
+        assert "Invalid date format" in data["error"]
+
+
+class TestSnapshotEndpoint:
+    """Tests for /quotes/snapshot endpoint"""
+
+    def test_snapshot_uses_one_snapshots_call_for_all_symbols(self, client, mock_shioaji):
+        mock_shioaji._get_contract = Mock(side_effect=lambda symbol: Mock(code=symbol.split('.')[0]))
+        mock_shioaji.api.snapshots = Mock(return_value=[
+            Mock(code='2330', close=580.0, open=575.0, high=582.0, low=573.0, volume=25000000),
+            Mock(code='2317', close=108.5, open=109.0, high=110.0, low=108.0, volume=15000000),
+        ])
+
+        response = client.post("/quotes/snapshot", json={"symbols": ["2330.tw", "2317.TW"]})
+
+        assert response.status_code == 200
+        data = response.json()
+        assert data["success"] == True
+        assert [q["symbol"] for q in data["quotes"]] == ["2330.TW", "2317.TW"]
+        assert data["quotes"][0]["price"] == 580.0
+        assert data["quotes"][1]["price"] == 108.5
+        mock_shioaji.api.snapshots.assert_called_once()
+        assert len(mock_shioaji.api.snapshots.call_args.args[0]) == 2
+
+    def test_snapshot_falls_back_to_yahoo_per_missing_symbol(self, client, mock_shioaji):
+        from shioaji_api import QuoteResponse
+        mock_shioaji._get_contract = Mock(
+            side_effect=lambda symbol: Mock(code='2330') if symbol.startswith('2330') else None)
+        mock_shioaji.api.snapshots = Mock(return_value=[
+            Mock(code='2330', close=580.0, open=575.0, high=582.0, low=573.0, volume=25000000),
+        ])
+
+        async def fake_yahoo(symbol):
+            return QuoteResponse(success=True, symbol=symbol, price=100.0)
+
+        with patch('shioaji_api.get_quote_yahoo', side_effect=fake_yahoo) as mock_yahoo:
+            response = client.post("/quotes/snapshot", json={"symbols": ["2330.TW", "9999.TW"]})
+
+        data = response.json()
+        assert [q["symbol"] for q in data["quotes"]] == ["2330.TW", "9999.TW"]
+        assert data["quotes"][1]["price"] == 100.0
+        mock_yahoo.assert_called_once_with("9999.TW")
+
+    def test_snapshot_falls_back_to_yahoo_when_snapshots_fail(self, client, mock_shioaji):
+        from shioaji_api import QuoteResponse
+        mock_shioaji.api.snapshots = Mock(side_effect=RuntimeError("session expired"))
+
+        async def fake_yahoo(symbol):
+            return QuoteResponse(success=True, symbol=symbol, price=581.0)
+
+        with patch('shioaji_api.get_quote_yahoo', side_effect=fake_yahoo):
+            response = client.post("/quotes/snapshot", json={"symbols": ["2330.TW"]})
+
+        data = response.json()
+        assert data["success"] == True
+        assert data["quotes"][0]["price"] == 581.0
+
+
 if __name__ == "__main__":
     pytest.main([__file__, "-v"])
@@ -0,0 +1,216 @@
+#!/usr/bin/env python3
+"""
+Persistent Shioaji worker for the Java PythonExecutor
+Speaks line-delimited JSON over stdin/stdout so one interpreter (and one Shioaji login)
+serves many calls instead of starting python3 per order or quote.
+
+Request:  {"id": 7, "op": "quote", "args": {"symbol": "2330.TW"}}
+Response: {"id": 7, "ok": true, "result": {...}}  or  {"id": 7, "ok": false, "error": "..."}
+
+Requests are handled on a small thread pool, so responses may come back out of order;
+the caller matches them by id. Operations: ping, connection, order, quote, history.
+Pings are answered directly by the stdin reader, so a worker whose pool is busy with a
+login or slow history calls still passes its health check.
+"""
+import sys
+import json
+import logging
+import threading
+from concurrent.futures import ThreadPoolExecutor
+from datetime import datetime
+from typing import Any, Dict, Optional
+
+# stdout carries the protocol only; anything libraries print goes to stderr
+protocol_out = sys.stdout
+sys.stdout = sys.stderr
+
+logging.basicConfig(
+    level=logging.INFO,
+    format='%(asctime)s - worker - %(levelname)s - %(message)s',
+    handlers=[logging.FileHandler('shioaji_bridge.log')]
+)
+logger = logging.getLogger(__name__)
+
+MAX_CONCURRENT_REQUESTS = 4
+
+write_lock = threading.Lock()
+client_lock = threading.Lock()
+client = None
+
+
+def get_client():
+    """Return the shared logged-in client, logging in on first use or after a lost session"""
+    global client
+    with client_lock:
+        if client is not None and client.is_logged_in:
+            return client
+
+        from config import Config
+        from shioaji_client import ShioajiClient
+
+        config = Config()
+        is_valid, error_msg = config.validate()
+        if not is_valid:
+            raise RuntimeError(f"Configuration error: {error_msg}")
+
+        new_client = ShioajiClient(config)
+        success, message = new_client.login()
+        if not success:
+            raise RuntimeError(f"Authentication failed: {message}")
+
+        client = new_client
+        logger.info("Worker logged in to Shioaji")
+        return client
+
+
+def op_ping(args: Dict[str, Any]) -> Dict[str, Any]:
+    return {"pong": True, "logged_in": client is not None and client.is_logged_in}
+
+
+def op_connection(args: Dict[str, Any]) -> Dict[str, Any]:
+    try:
+        return {"connected": get_client().is_logged_in}
+    except Exception as e:
+        return {"connected": False, "error": str(e)}
+
+
+def op_order(args: Dict[str, Any]) -> Dict[str, Any]:
+    from execute_order import validate_inputs, create_error_response
+
+    action = str(args.get("action", ""))
+    symbol = str(args.get("symbol", ""))
+    is_valid, error_msg, quantity, price = validate_inputs(
+        action, symbol, str(args.get("quantity", "")), str(args.get("price", "")))
+    if not is_valid:
+        return create_error_response("Validation error", error_msg)
+
+    try:
+        shared = get_client()
+    except Exception as e:
+        return create_error_response("Authentication failed", str(e))
+
+    logger.info(f"Executing order: {action} {quantity} {symbol} @ ${price}")
+    return shared.place_order(action, symbol, quantity, price)
+
+
+def op_quote(args: Dict[str, Any]) -> Dict[str, Any]:
+    from fetch_quote import fetch_quote_yahoo
+
+    symbol = str(args.get("symbol", ""))
+    try:
+        shared = get_client()
+        contract = shared._get_contract(symbol)
+        snapshots = shared.api.snapshots([contract]) if contract else None
+        if snapshots:
+            quote = snapshots[0]
+            price = getattr(quote, 'close', None) or getattr(quote, 'last_price', None)
+            if price:
+                return {
+                    "success": True,
+                    "symbol": symbol,
+                    "price": float(price),
+                    "open": float(quote.open) if getattr(quote, 'open', None) else None,
+                    "high": float(quote.high) if getattr(quote, 'high', None) else None,
+                    "low": float(quote.low) if getattr(quote, 'low', None) else None,
+                    "volume": int(quote.volume) if getattr(quote, 'volume', None) else None
+                }
+    except Exception as e:
+        logger.error(f"Shioaji quote error for {symbol}: {e}")
+
+    return fetch_quote_yahoo(symbol)
+
+
+def op_history(args: Dict[str, Any]) -> Dict[str, Any]:
+    from fetch_history import fetch_history_yahoo
+
+    symbol = str(args.get("symbol", ""))
+    start_date = str(args.get("start_date", ""))
+    end_date = str(args.get("end_date", ""))
+    try:
+        shared = get_client()
+        contract = shared._get_contract(symbol)
+        if contract:
+            kbars = {**shared.api.kbars(contract=contract, start=start_date, end=end_date)}
+            if kbars.get('ts') and len(kbars['ts']) > 0:
+                prices = []
+                for i in range(len(kbars['ts'])):
+                    date_val = datetime.fromtimestamp(kbars['ts'][i] / 1_000_000_000)
+                    prices.append({
+                        "date": date_val.strftime("%Y-%m-%d"),
+                        "open": float(kbars['Open'][i]),
+                        "high": float(kbars['High'][i]),
+                        "low": float(kbars['Low'][i]),
+                        "close": float(kbars['Close'][i]),
+                        "volume": int(kbars['Volume'][i]),
+                        "adjusted_close": float(kbars['Close'][i])
+                    })
+                return {"success": True, "symbol": symbol, "prices": prices, "count": len(prices)}
+    except Exception as e:
+        logger.error(f"Shioaji history error for {symbol}: {e}")
+
+    return fetch_history_yahoo(symbol, start_date, end_date)
+
+
+OPERATIONS = {
+    "ping": op_ping,
+    "connection": op_connection,
+    "order": op_order,
+    "quote": op_quote,
+    "history": op_history,
+}
+
+
+def respond(request_id: Optional[int], ok: bool, result: Any = None, error: Optional[str] = None):
+    message = {"id": request_id, "ok": ok}
+    if ok:
+        message["result"] = result
+    else:
+        message["error"] = error
+    line = json.dumps(message, default=str)
+    with write_lock:
+        protocol_out.write(line + "\n")
+        protocol_out.flush()
+
+
+def handle(request: Dict[str, Any]):
+    request_id = request.get("id")
+    op = request.get("op")
+    handler = OPERATIONS.get(op)
+    if handler is None:
+        respond(request_id, False, error=f"Unknown operation: {op}")
+        return
+    try:
+        respond(request_id, True, result=handler(request.get("args") or {}))
+    except Exception as e:
+        logger.error(f"Operation {op} failed", exc_info=True)
+        respond(request_id, False, error=str(e))
+
+
+def main():
+    logger.info("Worker started")
+    with ThreadPoolExecutor(max_workers=MAX_CONCURRENT_REQUESTS) as pool:
+        for line in sys.stdin:
+            line = line.strip()
+            if not line:
+                continue
+            try:
+                request = json.loads(line)
+            except ValueError as e:
+                respond(None, False, error=f"Invalid request: {e}")
+                continue
+            if request.get("op") == "ping":
+                handle(request)
+            else:
+                pool.submit(handle, request)
+
+    # stdin closed: the Java side is shutting the worker down
+    if client is not None:
+        try:
+            client.logout()
+        except Exception:
+            pass
+    logger.info("Worker stopped")
+
+
+if __name__ == "__main__":
+    main()